@@ -1,4 +1,6 @@
 #include <sys/socket.h>
+#include <sys/epoll.h>
+#include <sys/eventfd.h>
 #include <sys/types.h>
 #include <sys/un.h>
 #include <unistd.h>
@@ -6,6 +8,8 @@
 #include <pwd.h>
 #include "edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver.h"
 #include "truffle.h"
+#include "truffleRecord.h"
+#include "jstringCache.h"
 #include "snortComm.h"
 #include "dbg.h"
 
@@ -40,6 +44,8 @@ jint throwReceiverReadError(JNIEnv *, char *);
 struct SocketData
 {
 	int socketFD;
+	int wakeupFD;   // eventfd that interrupts the wait for the next truffle
+	int epollFD;    // waits for the socket and the wakeup fd
 	struct sockaddr_un address;
 };
 
@@ -53,6 +59,11 @@ struct SocketData
 // The socket file descriptor
 struct SocketData socketData;
 
+// The java strings of the DCP names, keyed by service id, service type and station name hash
+StringCache_t serviceIDNames;
+StringCache_t serviceTypeNames;
+StringCache_t stationNames;
+
 ///////////////////////
 //                   //
 // JNI Class getters //
@@ -200,6 +211,49 @@ error:
     return -1;
 }
 
+/**
+ * @brief Creates the wakeup eventfd and the epoll instance that waits for the socket and the wakeup fd.
+ * Call this after the socket was opened.
+ *
+ * @return returns 0 on success and -1 on error
+ */
+int openEventLoop()
+{
+    socketData.wakeupFD = eventfd(0, EFD_NONBLOCK | EFD_CLOEXEC);
+    check(socketData.wakeupFD >= 0, "could not create the wakeup eventfd");
+
+    socketData.epollFD = epoll_create1(EPOLL_CLOEXEC);
+    check(socketData.epollFD >= 0, "could not create the epoll instance");
+
+    struct epoll_event event;
+    memset(&event, 0, sizeof(event));
+
+    event.events = EPOLLIN;
+    event.data.fd = socketData.socketFD;
+    check(epoll_ctl(socketData.epollFD, EPOLL_CTL_ADD, socketData.socketFD, &event) == 0, "could not add the socket to epoll");
+
+    event.events = EPOLLIN;
+    event.data.fd = socketData.wakeupFD;
+    check(epoll_ctl(socketData.epollFD, EPOLL_CTL_ADD, socketData.wakeupFD, &event) == 0, "could not add the wakeup fd to epoll");
+
+    return 0;
+
+error:
+    return -1;
+}
+
+/**
+ * @brief Closes the epoll instance and the wakeup eventfd if they are open.
+ */
+void closeEventLoop()
+{
+    if (socketData.epollFD > 0) close(socketData.epollFD);
+    if (socketData.wakeupFD > 0) close(socketData.wakeupFD);
+
+    socketData.epollFD = -1;
+    socketData.wakeupFD = -1;
+}
+
 /*
  * Class:     edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver
  * Method:    openIPC
@@ -218,11 +272,17 @@ JNIEXPORT void JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profi
 
 	check(buffer == SNORT_CONNECT_RESPONSE, "incorrect snort response");
 
+	check(openEventLoop() == 0, "could not create the event loop");
+
 	debug("initialization done... returning to java");
 
 	return;
 
 error:
+    closeEventLoop();
+    if (socketData.socketFD > 0) close(socketData.socketFD);
+    socketData.socketFD = -1;
+
     throwSnortPluginNotRunningException(env, "Could not connect to snort!");
 	return;
 }
@@ -236,61 +296,84 @@ JNIEXPORT void JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profi
 {
     debug("starting disconnect sequence");
 
-	check(write(socketData.socketFD, &TRUFFLEHOG_DISCONNECT_REQUEST, sizeof(TRUFFLEHOG_DISCONNECT_REQUEST)), "error on sending disconnect request");
+    int failed = 0;
 
-    check(close(socketData.socketFD) == 0, "could not close socket!");
+    if (write(socketData.socketFD, &TRUFFLEHOG_DISCONNECT_REQUEST, sizeof(TRUFFLEHOG_DISCONNECT_REQUEST)) != sizeof(TRUFFLEHOG_DISCONNECT_REQUEST))
+    {
+        log_err("error on sending disconnect request");
+        failed = 1;
+    }
 
-    memset(&socketData, 0, sizeof(struct SocketData));
+    // the handles are released even if the plugin did not get the request, otherwise every failed disconnect
+    // would leak the epoll fd, the eventfd and the socket
+    closeEventLoop();
 
-    jclass truffleClass = getTruffleClass(env);
-    _CHECK_JAVA_EXCEPTION_VOID(env);
+    if (socketData.socketFD > 0 && close(socketData.socketFD) != 0)
+    {
+        log_err("could not close socket!");
+        failed = 1;
+    }
 
-    (*env)->DeleteGlobalRef(env, truffleClass);
-    _CHECK_JAVA_EXCEPTION_VOID(env);
+    memset(&socketData, 0, sizeof(struct SocketData));
+    socketData.socketFD = -1;
+    socketData.wakeupFD = -1;
+    socketData.epollFD = -1;
+    errno = 0;
 
-    debug("disconnect successful");
+    clearStringCache(env, &serviceIDNames);
+    clearStringCache(env, &serviceTypeNames);
+    clearStringCache(env, &stationNames);
 
-	return;
+    // the global reference of the truffle class stays cached in getTruffleClass for the next connection
 
-error:
-	throwSnortPluginDisconnectFailedException(env, "failed to disconnect");
-	return;
+    if (failed)
+    {
+        throwSnortPluginDisconnectFailedException(env, "failed to disconnect");
+        return;
+    }
+
+    debug("disconnect successful");
 }
 
 /**
  * @brief Gets the next truffle struct from the socket.
+ * Blocks until a truffle arrives or until wakeup is called. The wakeup is not consumed: once it was signalled
+ * every further call returns immediately until the connection is closed.
  *
  * @param env the java environment pointer.
  * @param the truffle struct to fill the data in.
+ *
+ * @return 0 if a truffle was read, -2 if the wait was interrupted by a wakeup or a signal and a negative value on error
  */
 int getNextTruffle(JNIEnv *env, Truffle_t *truffle)
 {
-    fd_set read_fds, write_fds, except_fds;
-    FD_ZERO(&read_fds);
-    FD_ZERO(&write_fds);
-    FD_ZERO(&except_fds);
-    FD_SET(socketData.socketFD, &read_fds);
-
-    struct timeval timeout;
-    timeout.tv_sec = 1;
-    timeout.tv_usec = 0;
-
-    // wait for fd to become ready but only wait 1 second so that the disconnect method gets the chance to close the connection
-    int rv = select(socketData.socketFD + 1, &read_fds, &write_fds, &except_fds, &timeout);
-    if (rv > 0)
+    struct epoll_event events[2];
+
+    int rv = epoll_wait(socketData.epollFD, events, 2, -1);
+
+    if (rv < 0 && errno == EINTR)
+    {
+        errno = 0;
+        return -2;
+    }
+
+    check_to(rv > 0, waitFailed, "waiting for the socket failed: rv=%d", rv);
+
+    int i;
+    for (i = 0; i < rv; i++)
     {
-        ssize_t len = read(socketData.socketFD, (void*) (truffle), sizeof(struct Truffle));
+        // disconnect or shutdown requested
+        if (events[i].data.fd == socketData.wakeupFD) return -2;
+    }
 
-        check_to(len >= 0, noMessageReceived, "reading the turffle failed");
-        check(len == sizeof(struct Truffle), "could not read the correct number of bytes from the socket: wanted: %ld, got: %ld", sizeof(struct Truffle), len);
+    ssize_t len = read(socketData.socketFD, (void*) (truffle), sizeof(struct Truffle));
 
-	    return 0;
-	}
-	//check_to(rv != 0, noMessageReceived, "no message received");
+    check_to(len >= 0, noMessageReceived, "reading the turffle failed");
+    check(len == sizeof(struct Truffle), "could not read the correct number of bytes from the socket: wanted: %ld, got: %ld", sizeof(struct Truffle), len);
 
-	if (rv == 0) return -2;
+    return 0;
 
-	debug("some error occurred while waiting for fd to become available: rv=%d", rv);
+waitFailed:
 	throwReceiverReadError(env, "other error");
 	return -3;
 
@@ -303,6 +386,24 @@ noMessageReceived:
 	return -2;
 }
 
+/*
+ * Class:     edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver
+ * Method:    wakeup
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver_wakeup(JNIEnv *env, jobject thisObj)
+{
+    if (socketData.wakeupFD <= 0) return;
+
+    uint64_t one = 1;
+    check(write(socketData.wakeupFD, &one, sizeof(one)) == sizeof(one), "could not signal the wakeup fd");
+
+    return;
+
+error:
+    return;
+}
+
 /*
  * Class:     edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver
  * Method:    getTruffle
@@ -349,7 +450,8 @@ JNIEXPORT jobject JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_pr
             // create the java string for the deviceName property
             case IS_DEVICE:
                 {
-                    nameStr = (*env)->NewStringUTF(env, truffle.frame.val.dcp.blocks[i].val.deviceBlock.nameOfStation);
+                    const char *nameOfStation = truffle.frame.val.dcp.blocks[i].val.deviceBlock.nameOfStation;
+                    nameStr = getCachedString(env, &stationNames, hashName(nameOfStation), nameOfStation);
                     _CHECK_JAVA_EXCEPTION(env);
                     check(nameStr != NULL, "could not create deviceName string");
                     break;
@@ -369,14 +471,14 @@ JNIEXPORT jobject JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_pr
         serviceID = truffle.frame.val.dcp.serviceID;
 
         // create the java string for the serviceIDName
-        serviceIDName = (*env)->NewStringUTF(env, truffle.frame.val.dcp.serviceIDName);
+        serviceIDName = getCachedString(env, &serviceIDNames, serviceID, truffle.frame.val.dcp.serviceIDName);
         _CHECK_JAVA_EXCEPTION(env);
         check(serviceIDName != NULL, "could not create serviceIDName string");
 
         serviceType = truffle.frame.val.dcp.serviceType;
 
         // create the java string for the serviceTypeName
-        serviceTypeName = (*env)->NewStringUTF(env, truffle.frame.val.dcp.serviceTypeName);
+        serviceTypeName = getCachedString(env, &serviceTypeNames, serviceType, truffle.frame.val.dcp.serviceTypeName);
         _CHECK_JAVA_EXCEPTION(env);
         check(serviceTypeName != NULL, "could not create serviceTypeName string");
 
@@ -425,6 +527,62 @@ error:
 }
 
 
+/*
+ * Class:     edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver
+ * Method:    getTruffles
+ * Signature: (Ljava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_edu_kit_trufflehog_service_packetdataprocessor_profinetdataprocessor_UnixSocketReceiver_getTruffles(JNIEnv *env, jobject thisObj, jobject buffer)
+{
+    uint8_t *records = (uint8_t*) (*env)->GetDirectBufferAddress(env, buffer);
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, buffer);
+
+    check(records != NULL && capacity >= TRUFFLE_RECORD_SIZE, "the record buffer is not a direct buffer or too small");
+
+    jint maxRecords = (jint) (capacity / TRUFFLE_RECORD_SIZE);
+    jint count = 0;
+
+    Truffle_t truffle;
+
+    // block like getTruffle until the first frame arrives (or the receiver is woken up)
+    int rv = getNextTruffle(env, &truffle);
+    if (rv == -2) return 0;
+    if (rv < 0) return -1;
+
+    writeTruffleRecord(&truffle, records);
+    count++;
+
+    // drain everything that is already queued on the socket without waiting again
+    while (count < maxRecords)
+    {
+        ssize_t len = recv(socketData.socketFD, (void*) &truffle, sizeof(struct Truffle), MSG_DONTWAIT);
+
+        if (len < 0 && (errno == EAGAIN || errno == EWOULDBLOCK))
+        {
+            errno = 0;
+            break;
+        }
+
+        check_to(len == sizeof(struct Truffle), readError, "could not read the correct number of bytes from the socket: wanted: %ld, got: %ld", sizeof(struct Truffle), len);
+
+        writeTruffleRecord(&truffle, records + (count * TRUFFLE_RECORD_SIZE));
+        count++;
+    }
+
+    return count;
+
+readError:
+    // hand over what was read so far, the next call will report the broken socket
+    if (count > 0) return count;
+    throwReceiverReadError(env, "could not read the correct number of bytes from the socket");
+    return -1;
+
+error:
+    throwReceiverReadError(env, "the record buffer is not a direct buffer or too small");
+    return -1;
+}
+
+
 ////////////////////////////////
 //                            //
 // Exception handling methods //
@@ -0,0 +1,118 @@
+#ifndef __JSTRING_CACHE_H__
+#define __JSTRING_CACHE_H__
+
+/**
+ * @file
+ * @brief A small cache of java strings for the names carried by DCP frames.
+ *
+ * The service id names, service type names and station names come from a tiny vocabulary, but creating them with
+ * NewStringUTF allocates a new java string for every frame. The cache keeps one global reference per slot and only
+ * creates a new string if the slot holds a different name. The slot is chosen by the caller: the service id or type
+ * for the service names and a hash of the name for station names.
+ *
+ * The cache is not thread safe. It is only used by the receiver thread.
+ */
+
+#include <jni.h>
+#include <stdint.h>
+#include <string.h>
+#include "truffle.h"
+
+#define STRING_CACHE_SLOTS 256
+
+typedef struct CachedString
+{
+    jstring string;                 // global reference or NULL if the slot is empty
+    char value[MAX_STRING_LEN + 1]; // the NUL terminated name the string was created from
+} CachedString_t;
+
+typedef struct StringCache
+{
+    CachedString_t slots[STRING_CACHE_SLOTS];
+} StringCache_t;
+
+/**
+ * @brief Hashes a NUL padded name of at most MAX_STRING_LEN bytes (FNV-1a).
+ *
+ * @param name the name to hash
+ *
+ * @return the hash of the name
+ */
+static inline uint32_t hashName(const char *name)
+{
+    uint32_t hash = 2166136261u;
+    int i;
+
+    for (i = 0; i < MAX_STRING_LEN && name[i] != '\0'; i++)
+    {
+        hash ^= (uint8_t) name[i];
+        hash *= 16777619u;
+    }
+
+    return hash;
+}
+
+/**
+ * @brief Gets the java string for the specified name from the slot of the key and creates it if necessary.
+ * This method may throw java exceptions. Please check for exceptions after calling.
+ *
+ * @param env the java environment
+ * @param cache the cache to look in
+ * @param key the key that selects the slot
+ * @param name the NUL padded name of at most MAX_STRING_LEN bytes
+ *
+ * @return a global reference to the string (do not delete it) or NULL on error
+ */
+static inline jstring getCachedString(JNIEnv *env, StringCache_t *cache, uint32_t key, const char *name)
+{
+    CachedString_t *slot = &cache->slots[key % STRING_CACHE_SLOTS];
+
+    if (slot->string != NULL && strncmp(slot->value, name, MAX_STRING_LEN) == 0)
+    {
+        return slot->string;
+    }
+
+    char value[MAX_STRING_LEN + 1];
+    strncpy(value, name, MAX_STRING_LEN);
+    value[MAX_STRING_LEN] = '\0';
+
+    jstring localString = (*env)->NewStringUTF(env, value);
+    if (localString == NULL) return NULL;
+
+    jstring globalString = (jstring) (*env)->NewGlobalRef(env, localString);
+    (*env)->DeleteLocalRef(env, localString);
+    if (globalString == NULL) return NULL;
+
+    if (slot->string != NULL)
+    {
+        (*env)->DeleteGlobalRef(env, slot->string);
+    }
+
+    slot->string = globalString;
+    memcpy(slot->value, value, sizeof(value));
+
+    return globalString;
+}
+
+/**
+ * @brief Deletes all global references of the cache and empties it.
+ *
+ * @param env the java environment
+ * @param cache the cache to clear
+ */
+static inline void clearStringCache(JNIEnv *env, StringCache_t *cache)
+{
+    int i;
+
+    for (i = 0; i < STRING_CACHE_SLOTS; i++)
+    {
+        if (cache->slots[i].string != NULL)
+        {
+            (*env)->DeleteGlobalRef(env, cache->slots[i].string);
+        }
+    }
+
+    memset(cache, 0, sizeof(StringCache_t));
+}
+
+#endif
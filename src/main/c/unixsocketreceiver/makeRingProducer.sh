@@ -0,0 +1,7 @@
+#!/usr/bin/env bash
+
+# Builds the stand-in producer for the shared memory truffle ring into the project root.
+cd "$(dirname "$0")"
+gcc -O2 -o truffleRingProducer truffleRingProducer.c truffleRing.c -lrt
+rm -f ../../../../truffleRingProducer
+mv truffleRingProducer ../../../../truffleRingProducer
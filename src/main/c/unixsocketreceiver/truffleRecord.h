@@ -0,0 +1,98 @@
+#ifndef __TRUFFLE_RECORD_H__
+#define __TRUFFLE_RECORD_H__
+
+/**
+ * @file
+ * @brief The fixed layout of a decoded truffle record that is handed to java in bulk.
+ *
+ * Instead of building one java object per truffle via a JNI upcall, the receiver flattens every truffle into a
+ * record of TRUFFLE_RECORD_SIZE bytes and writes it into a direct ByteBuffer supplied by java. All numeric
+ * fields are stored in native byte order, all strings are NUL padded ASCII of at most MAX_STRING_LEN bytes.
+ *
+ * This layout has to be kept in sync with the java class TruffleRecord.
+ */
+
+#include <stdint.h>
+#include <string.h>
+#include "truffle.h"
+
+#define TRUFFLE_RECORD_SIZE 128
+
+#define RECORD_SRC_MAC 0
+#define RECORD_DST_MAC 8
+#define RECORD_SRC_IP 16
+#define RECORD_XID 20
+#define RECORD_ETHER_TYPE 24
+#define RECORD_RESPONSE_DELAY 26
+#define RECORD_SERVICE_ID 28
+#define RECORD_SERVICE_TYPE 29
+#define RECORD_IS_RESPONSE 30
+#define RECORD_FLAGS 31
+#define RECORD_NAME_OF_STATION 32
+#define RECORD_SERVICE_ID_NAME 64
+#define RECORD_SERVICE_TYPE_NAME 96
+
+/** @brief Set if the record originates from a DCP frame and the DCP fields are valid. **/
+#define RECORD_FLAG_DCP 0x1
+/** @brief Set if the record carries a name of station. **/
+#define RECORD_FLAG_NAME 0x2
+
+/**
+ * @brief Flattens the given truffle into the record at the given address.
+ *
+ * @param truffle the truffle to flatten
+ * @param record the start of the record. Must point to at least TRUFFLE_RECORD_SIZE writable bytes.
+ */
+static inline void writeTruffleRecord(const Truffle_t *truffle, uint8_t *record)
+{
+    uint64_t srcMac = truffle->etherHeader.sourceMacAddress;
+    uint64_t dstMac = truffle->etherHeader.destMacAddress;
+    uint16_t etherType = truffle->etherHeader.etherType;
+    uint32_t ip = 0;
+    uint8_t flags = 0;
+
+    memset(record, 0, TRUFFLE_RECORD_SIZE);
+
+    if (truffle->frame.type == IS_DCP)
+    {
+        const struct DCP *dcp = &truffle->frame.val.dcp;
+        int i;
+
+        flags |= RECORD_FLAG_DCP;
+
+        for (i = 0; i < MAX_BLOCKS; i++)
+        {
+            switch (dcp->blocks[i].type)
+            {
+            case IS_DEVICE:
+                strncpy((char*) record + RECORD_NAME_OF_STATION, dcp->blocks[i].val.deviceBlock.nameOfStation, MAX_STRING_LEN);
+                flags |= RECORD_FLAG_NAME;
+                break;
+
+            case IS_IP:
+                ip = dcp->blocks[i].val.ipBlock.ip;
+                break;
+
+            default:
+                break;
+            }
+        }
+
+        memcpy(record + RECORD_XID, &dcp->xID, sizeof(dcp->xID));
+        memcpy(record + RECORD_RESPONSE_DELAY, &dcp->responseDelay, sizeof(dcp->responseDelay));
+        record[RECORD_SERVICE_ID] = dcp->serviceID;
+        record[RECORD_SERVICE_TYPE] = dcp->serviceType;
+        record[RECORD_IS_RESPONSE] = dcp->isResponse;
+
+        strncpy((char*) record + RECORD_SERVICE_ID_NAME, dcp->serviceIDName, MAX_STRING_LEN);
+        strncpy((char*) record + RECORD_SERVICE_TYPE_NAME, dcp->serviceTypeName, MAX_STRING_LEN);
+    }
+
+    memcpy(record + RECORD_SRC_MAC, &srcMac, sizeof(srcMac));
+    memcpy(record + RECORD_DST_MAC, &dstMac, sizeof(dstMac));
+    memcpy(record + RECORD_SRC_IP, &ip, sizeof(ip));
+    memcpy(record + RECORD_ETHER_TYPE, &etherType, sizeof(etherType));
+    record[RECORD_FLAGS] = flags;
+}
+
+#endif
@@ -0,0 +1,90 @@
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <fcntl.h>
+#include <unistd.h>
+#include "truffleRing.h"
+#include "dbg.h"
+
+int truffleRingCreate(TruffleRing_t *ring, const char *path, uint32_t capacity)
+{
+    check(capacity > 0 && (capacity & (capacity - 1)) == 0, "ring capacity must be a power of two: %u", capacity);
+
+    memset(ring, 0, sizeof(TruffleRing_t));
+    ring->fd = -1;
+    ring->capacity = capacity;
+    ring->length = RING_DATA + ((size_t) capacity * TRUFFLE_RECORD_SIZE);
+
+    ring->fd = open(path, O_RDWR | O_CREAT | O_TRUNC, 0600);
+    check(ring->fd >= 0, "could not open ring file '%s'", path);
+
+    check(ftruncate(ring->fd, ring->length) == 0, "could not resize ring file '%s'", path);
+
+    ring->base = mmap(NULL, ring->length, PROT_READ | PROT_WRITE, MAP_SHARED, ring->fd, 0);
+    check(ring->base != MAP_FAILED, "could not map ring file '%s'", path);
+
+    uint32_t version = TRUFFLE_RING_VERSION;
+    uint32_t recordSize = TRUFFLE_RECORD_SIZE;
+
+    memcpy(ring->base + RING_VERSION, &version, sizeof(version));
+    memcpy(ring->base + RING_CAPACITY, &capacity, sizeof(capacity));
+    memcpy(ring->base + RING_RECORD_SIZE, &recordSize, sizeof(recordSize));
+
+    // the magic is written last so that a consumer never sees a half initialized header
+    __atomic_store_n((uint32_t*) (ring->base + RING_MAGIC), TRUFFLE_RING_MAGIC, __ATOMIC_RELEASE);
+
+    debug("created ring '%s' with %u slots", path, capacity);
+
+    return 0;
+
+error:
+    if (ring->fd >= 0)
+    {
+        close(ring->fd);
+    }
+    ring->base = NULL;
+    return -1;
+}
+
+int truffleRingPush(TruffleRing_t *ring, const Truffle_t *truffle)
+{
+    uint64_t *writeIndex = (uint64_t*) (ring->base + RING_WRITE_INDEX);
+    uint64_t *readIndex = (uint64_t*) (ring->base + RING_READ_INDEX);
+
+    // only the producer writes the write index, so a relaxed load is enough
+    uint64_t index = __atomic_load_n(writeIndex, __ATOMIC_RELAXED);
+
+    if (index - ring->cachedReadIndex >= ring->capacity)
+    {
+        ring->cachedReadIndex = __atomic_load_n(readIndex, __ATOMIC_ACQUIRE);
+
+        if (index - ring->cachedReadIndex >= ring->capacity)
+        {
+            return -1;
+        }
+    }
+
+    uint8_t *record = ring->base + RING_DATA + ((index & (ring->capacity - 1)) * TRUFFLE_RECORD_SIZE);
+    writeTruffleRecord(truffle, record);
+
+    // publish the record, the release store orders the record writes before the index update
+    __atomic_store_n(writeIndex, index + 1, __ATOMIC_RELEASE);
+
+    return 0;
+}
+
+void truffleRingClose(TruffleRing_t *ring, const char *path)
+{
+    if (ring->base != NULL)
+    {
+        munmap(ring->base, ring->length);
+        ring->base = NULL;
+    }
+
+    if (ring->fd >= 0)
+    {
+        close(ring->fd);
+        ring->fd = -1;
+    }
+
+    unlink(path);
+}
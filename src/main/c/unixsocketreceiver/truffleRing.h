@@ -0,0 +1,86 @@
+#ifndef __TRUFFLE_RING_H__
+#define __TRUFFLE_RING_H__
+
+/**
+ * @file
+ * @brief A single producer single consumer ring buffer of truffle records in a memory mapped file.
+ *
+ * The ring is an alternative transport to the SOCK_SEQPACKET socket. Snort (the producer) writes truffle records
+ * (see truffleRecord.h) into a file in /dev/shm that is mapped by both processes and TruffleHog (the consumer)
+ * reads them without a system call per packet.
+ *
+ * Layout of the file (all values in native byte order):
+ *
+ *   offset   0: uint32_t magic, uint32_t version, uint32_t capacity (slots, power of two), uint32_t recordSize
+ *   offset  64: uint64_t writeIndex (only written by the producer)
+ *   offset 128: uint64_t readIndex (only written by the consumer)
+ *   offset 192: capacity * TRUFFLE_RECORD_SIZE bytes of records
+ *
+ * Both indices increase monotonically, the slot of an index is index & (capacity - 1). The indices live on
+ * different cache lines so that producer and consumer do not invalidate each others line on every update.
+ *
+ * This layout has to be kept in sync with the java class TruffleRing.
+ */
+
+#include <stdint.h>
+#include "truffle.h"
+#include "truffleRecord.h"
+
+#define TRUFFLE_RING_NAME "/dev/shm/trufflehog.ring"
+
+#define TRUFFLE_RING_MAGIC 0x54524652
+#define TRUFFLE_RING_VERSION 1
+
+#define RING_MAGIC 0
+#define RING_VERSION 4
+#define RING_CAPACITY 8
+#define RING_RECORD_SIZE 12
+#define RING_WRITE_INDEX 64
+#define RING_READ_INDEX 128
+#define RING_DATA 192
+
+struct TruffleRing
+{
+    int fd;
+    uint8_t *base;
+    size_t length;
+    uint32_t capacity;
+
+    /** @brief The producers cached copy of the read index, refreshed only when the ring looks full. **/
+    uint64_t cachedReadIndex;
+};
+
+typedef struct TruffleRing TruffleRing_t;
+
+/**
+ * @brief Creates (or truncates) the ring file and maps it into memory.
+ *
+ * @param ring the ring struct to initialize
+ * @param path the path of the ring file, usually TRUFFLE_RING_NAME
+ * @param capacity the number of slots. Must be a power of two.
+ *
+ * @return 0 on success and -1 on error
+ */
+int truffleRingCreate(TruffleRing_t *ring, const char *path, uint32_t capacity);
+
+/**
+ * @brief Writes the truffle into the next free slot of the ring.
+ *
+ * The ring never blocks the producer. If the consumer is too slow and the ring is full the truffle is dropped.
+ *
+ * @param ring the ring to write to
+ * @param truffle the truffle to write
+ *
+ * @return 0 on success and -1 if the ring was full
+ */
+int truffleRingPush(TruffleRing_t *ring, const Truffle_t *truffle);
+
+/**
+ * @brief Unmaps and closes the ring. The ring file is removed.
+ *
+ * @param ring the ring to close
+ * @param path the path the ring was created with
+ */
+void truffleRingClose(TruffleRing_t *ring, const char *path);
+
+#endif
@@ -0,0 +1,106 @@
+/**
+ * @file
+ * @brief A stand-in for the spp_profinet snort plugin that fills the truffle ring with synthetic truffles.
+ *
+ * This makes it possible to test and benchmark the shared memory transport without snort.
+ *
+ * Usage: truffleRingProducer [count] [devices] [slots] [path]
+ *
+ *   count   the number of truffles to write (default 10000000)
+ *   devices the number of distinct mac addresses to use (default 256)
+ *   slots   the number of ring slots, a power of two (default 65536)
+ *   path    the ring file (default TRUFFLE_RING_NAME)
+ */
+
+#include <stdlib.h>
+#include <stdio.h>
+#include <time.h>
+#include <sched.h>
+#include "truffleRing.h"
+#include "dbg.h"
+
+#define PROFINET_ETHER_TYPE 0x8892
+
+/**
+ * @brief Fills the truffle with a DCP identify request or response from the given device.
+ */
+static void buildTruffle(Truffle_t *truffle, uint64_t device, uint32_t xid, int isResponse)
+{
+    memset(truffle, 0, sizeof(Truffle_t));
+
+    truffle->etherHeader.sourceMacAddress = 0x0a0000000000ULL | device;
+    truffle->etherHeader.destMacAddress = isResponse ? 0x0a0000000000ULL : 0x010ecf000000ULL;
+    truffle->etherHeader.etherType = PROFINET_ETHER_TYPE;
+
+    truffle->frame.type = IS_DCP;
+
+    struct DCP *dcp = &truffle->frame.val.dcp;
+    dcp->serviceID = 5;
+    strncpy(dcp->serviceIDName, "Identify", MAX_STRING_LEN);
+    dcp->serviceType = isResponse ? 1 : 0;
+    strncpy(dcp->serviceTypeName, isResponse ? "Response Success" : "Request", MAX_STRING_LEN);
+    dcp->isResponse = (uint8_t) isResponse;
+    dcp->xID = xid;
+
+    if (isResponse)
+    {
+        dcp->blocks[0].type = IS_DEVICE;
+        snprintf(dcp->blocks[0].val.deviceBlock.nameOfStation, MAX_STRING_LEN, "device-%llu", (unsigned long long) device);
+        dcp->blocks[1].type = IS_IP;
+        dcp->blocks[1].val.ipBlock.ip = 0xc0a80000u | (uint32_t) (device & 0xffff);
+    }
+}
+
+static double now()
+{
+    struct timespec ts;
+    clock_gettime(CLOCK_MONOTONIC, &ts);
+    return ts.tv_sec + ts.tv_nsec / 1e9;
+}
+
+int main(int argc, char *argv[])
+{
+    uint64_t count = argc > 1 ? strtoull(argv[1], NULL, 10) : 10000000ULL;
+    uint64_t devices = argc > 2 ? strtoull(argv[2], NULL, 10) : 256;
+    uint32_t slots = argc > 3 ? (uint32_t) strtoul(argv[3], NULL, 10) : 65536;
+    const char *path = argc > 4 ? argv[4] : TRUFFLE_RING_NAME;
+
+    check(devices > 0, "at least one device is needed");
+
+    TruffleRing_t ring;
+    check(truffleRingCreate(&ring, path, slots) == 0, "could not create the ring");
+
+    Truffle_t truffle;
+    uint64_t written = 0;
+    uint64_t full = 0;
+    double start = now();
+
+    while (written < count)
+    {
+        buildTruffle(&truffle, written % devices, (uint32_t) (written / 2), (int) (written & 1));
+
+        // wait for the consumer instead of dropping, so that the benchmark measures the consumer
+        while (truffleRingPush(&ring, &truffle) != 0)
+        {
+            full++;
+            sched_yield();
+        }
+        written++;
+    }
+
+    double elapsed = now() - start;
+    log_info("wrote %llu truffles in %.3f s (%.0f truffles/s), ring was full %llu times",
+             (unsigned long long) written, elapsed, written / elapsed, (unsigned long long) full);
+
+    // give the consumer the chance to drain the ring before it is removed
+    while (__atomic_load_n((uint64_t*) (ring.base + RING_READ_INDEX), __ATOMIC_ACQUIRE) < written)
+    {
+        sched_yield();
+    }
+
+    truffleRingClose(&ring, path);
+    return 0;
+
+error:
+    return 1;
+}
@@ -0,0 +1,67 @@
+#ifndef __TRUFFLE_STREAM_H__
+#define __TRUFFLE_STREAM_H__
+
+/**
+ * @file
+ * @brief The framing of truffles on a stream socket.
+ *
+ * This is the protocol spoken by the pure java StreamSocketReceiver which does not need the native receiver
+ * library. After the connect handshake (see snortComm.h, one int in each direction) the plugin sends one frame
+ * per truffle:
+ *
+ *   uint32_t length  the number of bytes that follow, at least TRUFFLE_RECORD_SIZE
+ *   uint8_t  record[length]  a truffle record as described in truffleRecord.h
+ *
+ * All values are in native byte order, both ends run on the same host. Receivers ignore bytes of a record beyond
+ * TRUFFLE_RECORD_SIZE, so the record can be extended without breaking older receivers.
+ */
+
+#include <stdint.h>
+#include <errno.h>
+#include <unistd.h>
+#include "truffle.h"
+#include "truffleRecord.h"
+
+#define STREAM_SOCKET_NAME "/truffle_stream.sock"
+#define STREAM_TCP_PORT 7467
+
+#define TRUFFLE_FRAME_SIZE (sizeof(uint32_t) + TRUFFLE_RECORD_SIZE)
+
+/**
+ * @brief Writes the truffle as one frame to the stream socket.
+ *
+ * @param fd the connected stream socket
+ * @param truffle the truffle to send
+ *
+ * @return 0 on success and -1 on error
+ */
+static inline int sendTruffleFrame(int fd, const Truffle_t *truffle)
+{
+    uint8_t frame[TRUFFLE_FRAME_SIZE];
+    uint32_t length = TRUFFLE_RECORD_SIZE;
+    size_t written = 0;
+
+    memcpy(frame, &length, sizeof(length));
+    writeTruffleRecord(truffle, frame + sizeof(length));
+
+    while (written < TRUFFLE_FRAME_SIZE)
+    {
+        ssize_t rv = write(fd, frame + written, TRUFFLE_FRAME_SIZE - written);
+
+        if (rv < 0 && errno == EINTR)
+        {
+            continue;
+        }
+
+        if (rv <= 0)
+        {
+            return -1;
+        }
+
+        written += (size_t) rv;
+    }
+
+    return 0;
+}
+
+#endif
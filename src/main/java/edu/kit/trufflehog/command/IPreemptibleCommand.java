@@ -0,0 +1,27 @@
+package edu.kit.trufflehog.command;
+
+import edu.kit.trufflehog.service.executor.CommandExecutor;
+
+/**
+ * <p>
+ *     A command whose operation can be split into short steps. Between two steps the {@link CommandExecutor} may
+ *     execute other commands, so a long running command does not hold up the commands that wait behind it. The steps of
+ *     one command are always executed in order and by the same thread, and no other command of the same queue is
+ *     started before the last step is finished.
+ * </p>
+ * <p>
+ *     The first call of {@link #executeStep()} starts the operation from the beginning. The operation has the same
+ *     result as a call of {@link #execute()}, apart from changes other commands made between the steps.
+ * </p>
+ */
+public interface IPreemptibleCommand extends ICommand {
+
+    /**
+     * <p>
+     *     Executes the next step of the operation.
+     * </p>
+     *
+     * @return true if the operation is finished, false if there are steps left
+     */
+    boolean executeStep();
+}
@@ -0,0 +1,213 @@
+package edu.kit.trufflehog.command.queue;
+
+import edu.kit.trufflehog.command.ICommand;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     This {@link ICommandQueue} implementation holds at most a fixed number of commands. What happens to a command
+ *     that is pushed onto a full queue is decided by the {@link OverflowPolicy} of the queue. The number of commands
+ *     that were dropped or sampled out can be read for monitoring.
+ * </p>
+ * <p>
+ *     Like the {@link CommandQueue} it automatically registers itself with a {@link CommandQueueManager}. Any number of
+ *     threads may push commands, but only a single thread may pop them.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class BoundedCommandQueue implements IBoundedCommandQueue {
+
+    private final Deque<ICommand> commandQueue = new ConcurrentLinkedDeque<>();
+
+    private final CommandQueueManager manager;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final int sampleRate;
+
+    // the number of free slots of the queue
+    private final Semaphore freeSlots;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    /**
+     * <p>
+     *     Creates a new BoundedCommandQueue object that samples with the {@link #DEFAULT_SAMPLE_RATE}.
+     * </p>
+     *
+     * @param commandQueueManager The instance of the {@link CommandQueueManager} that manages all the command queues.
+     * @param capacity The maximum number of commands in the queue.
+     * @param policy The policy that decides what happens to commands that are pushed onto the full queue.
+     */
+    public BoundedCommandQueue(final CommandQueueManager commandQueueManager, final int capacity, final OverflowPolicy policy) {
+        this(commandQueueManager, capacity, policy, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * <p>
+     *     Creates a new BoundedCommandQueue object.
+     * </p>
+     *
+     * @param commandQueueManager The instance of the {@link CommandQueueManager} that manages all the command queues.
+     * @param capacity The maximum number of commands in the queue.
+     * @param policy The policy that decides what happens to commands that are pushed onto the full queue.
+     * @param sampleRate Only every sampleRate-th command is accepted by a half full queue with the
+     *                   {@link OverflowPolicy#SAMPLE} policy.
+     */
+    public BoundedCommandQueue(final CommandQueueManager commandQueueManager, final int capacity,
+                               final OverflowPolicy policy, final int sampleRate) {
+
+        if (commandQueueManager == null)
+            throw new NullPointerException("commandQueueManager must not be null");
+        if (policy == null)
+            throw new NullPointerException("policy must not be null");
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        if (sampleRate <= 0)
+            throw new IllegalArgumentException("sampleRate must be positive");
+
+        this.capacity = capacity;
+        this.policy = policy;
+        this.sampleRate = sampleRate;
+        this.freeSlots = new Semaphore(capacity);
+
+        this.manager = commandQueueManager;
+        this.manager.registerQueue(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     *     If the queue is full the command is handled by the {@link OverflowPolicy} of the queue.
+     * </p>
+     *
+     * @param command The command to put onto the Queue.
+     * @param <T>     The type of the command.
+     * @throws InterruptedException If the queue blocks and the pushing thread is interrupted.
+     * @throws NullPointerException If the command to add is null.
+     */
+    @Override
+    public <T extends ICommand> void push(final T command) throws InterruptedException {
+        if (command == null)
+            throw new NullPointerException("Command object to be added may not be null!");
+
+        switch (policy) {
+            case BLOCK:
+                freeSlots.acquire();
+                break;
+            case DROP_NEWEST:
+                if (!freeSlots.tryAcquire()) {
+                    dropped.increment();
+                    return;
+                }
+                break;
+            case DROP_OLDEST:
+                if (!freeSlots.tryAcquire()) {
+                    replaceOldest(command);
+                    return;
+                }
+                break;
+            case SAMPLE:
+                if (size() >= capacity / 2) {
+                    if (sampleCounter.incrementAndGet() % sampleRate != 0) {
+                        sampledOut.increment();
+                        return;
+                    }
+                }
+
+                if (!freeSlots.tryAcquire()) {
+                    dropped.increment();
+                    return;
+                }
+                break;
+        }
+
+        commandQueue.addLast(command);
+        manager.notifyNewElement();
+    }
+
+    /**
+     * <p>
+     *     Replaces the oldest command of the full queue with the specified command. The number of commands in the queue
+     *     does not change, so the manager is not notified.
+     * </p>
+     */
+    private void replaceOldest(final ICommand command) {
+        // Add first, then remove: the consumer may already have been told about the oldest command, so there must
+        // always be a command left for it.
+        commandQueue.addLast(command);
+        commandQueue.pollFirst();
+        dropped.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws InterruptedException
+     * @throws java.util.NoSuchElementException If there are no elements in this queue.
+     */
+    @Override
+    public ICommand pop() throws InterruptedException {
+        manager.notifyRemovedElement();
+        final ICommand command = commandQueue.removeFirst();
+        freeSlots.release();
+
+        return command;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return commandQueue.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return capacity - freeSlots.availablePermits();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+}
@@ -10,13 +10,17 @@ import java.util.concurrent.ConcurrentLinkedDeque;
  *     This {@link ICommandQueue} implementation uses a {@link ConcurrentLinkedDeque}.
  *     It also automatically registers itself with a {@link CommandQueueManager} to allow the usage of it.
  * </p>
+ * <p>
+ *     Every command is stored together with the time it was pushed, which
+ *     {@link #drainTimed(ITimedCommandConsumer, int)} hands to the consumer.
+ * </p>
  *
  * @author Mark Giraud
  * @version 1.0
  */
 public class CommandQueue implements ICommandQueue {
 
-    private final Deque<ICommand> commandQueue = new ConcurrentLinkedDeque<>();
+    private final Deque<Entry> commandQueue = new ConcurrentLinkedDeque<>();
 
     private final CommandQueueManager manager;
 
@@ -49,7 +53,7 @@ public class CommandQueue implements ICommandQueue {
         if (command == null)
             throw new NullPointerException("Command object to be added may not be null!");
 
-        commandQueue.addLast(command);
+        commandQueue.addLast(new Entry(command, System.nanoTime()));
         manager.notifyNewElement();
     }
 
@@ -61,7 +65,7 @@ public class CommandQueue implements ICommandQueue {
     @Override
     public ICommand pop() throws InterruptedException {
         manager.notifyRemovedElement();
-        return commandQueue.removeFirst();
+        return commandQueue.removeFirst().command;
     }
 
     /**
@@ -71,4 +75,43 @@ public class CommandQueue implements ICommandQueue {
     public boolean isEmpty() {
         return commandQueue.isEmpty();
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int drainTimed(final ITimedCommandConsumer consumer, final int limit) throws InterruptedException {
+        int drained = 0;
+        Entry entry;
+
+        while (drained < limit && (entry = commandQueue.pollFirst()) != null) {
+            manager.notifyRemovedElement();
+            drained++;
+            consumer.accept(entry.command, entry.enqueueTime);
+        }
+
+        return drained;
+    }
+
+    /**
+     * <p>
+     *     Counts the commands in the queue. This takes time linear in the number of commands.
+     * </p>
+     *
+     * @return the number of commands in the queue
+     */
+    public int size() {
+        return commandQueue.size();
+    }
+
+    private static final class Entry {
+
+        private final ICommand command;
+        private final long enqueueTime;
+
+        private Entry(final ICommand command, final long enqueueTime) {
+            this.command = command;
+            this.enqueueTime = enqueueTime;
+        }
+    }
 }
@@ -1,36 +1,59 @@
 package edu.kit.trufflehog.command.queue;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * <p>
  *     The command queue manager makes it possible for multiple command queues to be managed so that only once an
  *     element is run in one of the queues the calling thread is notified and can fetch the element.
- *     Essentially the CommandQueueManager is a BlockingQueue of CommandQueues.
  * </p>
  * <p>
  *     If multiple command queues have elements in them, each call to getNextQueue() will return a different one
  *     until every queue was at least popped once (round-robin style).
  * </p>
+ * <p>
+ *     The manager does not lock. It counts the elements of all queues with a single atomic counter, and a consumer
+ *     that finds the counter at zero waits with the {@link WaitStrategy} of the manager. A parked consumer is unparked
+ *     by the next {@link #notifyNewElement()}. Only a single thread may fetch queues from the manager.
+ * </p>
  */
 public class CommandQueueManager {
 
-    private int registeredQueues;
+    private final WaitStrategy waitStrategy;
+
+    // copy on write, queues are registered while the owning service is built
+    private volatile ICommandQueue[] queues = new ICommandQueue[0];
 
+    // only accessed by the consumer
     private int currentQueue;
 
-    private final List<ICommandQueue> queues = new ArrayList<>();
+    // the number of elements in all queues
+    private final AtomicLong availableElements = new AtomicLong();
 
-    private final BlockingQueue<Boolean> availableElementQueue = new LinkedBlockingQueue<>();
+    // the consumer while it is parked
+    private volatile Thread parkedConsumer;
 
     /**
-     * Creates a new CommandQueueManager
+     * Creates a new CommandQueueManager whose consumer parks while all queues are empty.
      */
     public CommandQueueManager() {
-        registeredQueues = 0;
+        this(WaitStrategy.PARK);
+    }
+
+    /**
+     * <p>
+     *     Creates a new CommandQueueManager.
+     * </p>
+     *
+     * @param waitStrategy The strategy the consumer uses to wait while all queues are empty.
+     */
+    public CommandQueueManager(final WaitStrategy waitStrategy) {
+        if (waitStrategy == null)
+            throw new NullPointerException("waitStrategy must not be null");
+
+        this.waitStrategy = waitStrategy;
         currentQueue = 0;
     }
 
@@ -41,9 +64,10 @@ public class CommandQueueManager {
      *
      * @param queue The {@link ICommandQueue} to add.
      */
-    protected void registerQueue(final ICommandQueue queue) {
-        queues.add(queue);
-        registeredQueues++;
+    protected synchronized void registerQueue(final ICommandQueue queue) {
+        final ICommandQueue[] registered = Arrays.copyOf(queues, queues.length + 1);
+        registered[queues.length] = queue;
+        queues = registered;
     }
 
     /**
@@ -54,40 +78,102 @@ public class CommandQueueManager {
      * <p>
      *     This method gets the next non empty {@link ICommandQueue}. If there are multiple queues registered
      *     the queues are cycled each call until every queue was returned at least once.
-     *     If all queues are empty this method blocks, until one of the queues receives an element.
+     *     If all queues are empty this method waits, until one of the queues receives an element.
      * </p>
      * @return The next command queue. Returns null if no queues are registered.
      * @throws InterruptedException
      */
-    public synchronized ICommandQueue getNextQueue() throws InterruptedException {
+    public ICommandQueue getNextQueue() throws InterruptedException {
 
-        //TODO: Profile and optimize?
+        final ICommandQueue[] registered = queues;
 
-        if (registeredQueues == 0) {
-            //TODO: return empty queue
+        if (registered.length == 0) {
             return null;
         }
 
-        while (availableElementQueue.isEmpty()) {
-            this.wait();
+        while (true) {
+            if (availableElements.get() > 0) {
+                final ICommandQueue next = findNonEmpty(registered);
+
+                if (next != null) {
+                    return next;
+                }
+            }
+
+            await();
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks whether any other queue than the specified one has elements. A consumer may take several elements
+     *     from a queue at once if no other queue is waiting.
+     * </p>
+     *
+     * @param queue The queue the consumer is working on.
+     * @return True if another registered queue has elements.
+     */
+    public boolean hasOtherNonEmptyQueue(final ICommandQueue queue) {
+        for (final ICommandQueue registered : queues) {
+            if (registered != queue && !registered.isEmpty()) {
+                return true;
+            }
         }
 
-        ICommandQueue current = queues.get(currentQueue);
+        return false;
+    }
 
-        int timesLooped = 0;
+    /**
+     * <p>
+     *     Looks at every queue once, starting with the queue after the one that was returned last time.
+     * </p>
+     */
+    private ICommandQueue findNonEmpty(final ICommandQueue[] registered) {
+        for (int i = 0; i < registered.length; i++) {
+            final int index = (currentQueue + i) % registered.length;
+
+            if (!registered[index].isEmpty()) {
+                // next time we want a different queue if other queues have elements in them
+                currentQueue = (index + 1) % registered.length;
+                return registered[index];
+            }
+        }
 
-        // Check for other queues if the current one is empty but don't do busy waiting (only loop over all once)
-        while (current.isEmpty() && timesLooped <= registeredQueues) {
-            currentQueue = (currentQueue + 1) % registeredQueues;
-            timesLooped++;
-            current = queues.get(currentQueue);
+        return null;
+    }
+
+    private void await() throws InterruptedException {
+
+        switch (waitStrategy) {
+            case SPIN:
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            case PARK:
+                // Publish the consumer before checking the counter again. A producer counts the element first and
+                // reads the parked consumer afterwards, so either the consumer sees the element or the producer sees
+                // the consumer.
+                parkedConsumer = Thread.currentThread();
+
+                if (availableElements.get() == 0) {
+                    LockSupport.park(this);
+                }
+
+                parkedConsumer = null;
+                break;
         }
 
-        // next time we want a different queue if other queues have elements in them
-        if (availableElementQueue.size() != 1)
-            currentQueue = (currentQueue + 1) % registeredQueues;
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
 
-        return current;
+    /**
+     * @return the strategy the consumer uses to wait while all queues are empty
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
     }
 
     /**
@@ -102,10 +188,14 @@ public class CommandQueueManager {
      *
      * @throws InterruptedException Thrown if queue is interrupted while waiting
      */
-    protected synchronized void notifyNewElement() throws InterruptedException {
-        availableElementQueue.put(Boolean.TRUE);
+    protected void notifyNewElement() throws InterruptedException {
+        availableElements.incrementAndGet();
+
+        final Thread consumer = parkedConsumer;
 
-        this.notifyAll();
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
     }
 
     /**
@@ -121,6 +211,17 @@ public class CommandQueueManager {
      * @throws InterruptedException Thrown if queue is interrupted while waiting
      */
     protected void notifyRemovedElement() throws InterruptedException {
-        availableElementQueue.take();
+        availableElements.decrementAndGet();
+    }
+
+    /**
+     * <p>
+     *     Notifies the manager that several elements were removed from a queue at once.
+     * </p>
+     *
+     * @param count The number of removed elements.
+     */
+    protected void notifyRemovedElements(final int count) {
+        availableElements.addAndGet(-count);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,38 @@
+package edu.kit.trufflehog.command.queue;
+
+/**
+ * <p>
+ *     This interface supplies the methods of command queues that hold at most a fixed number of commands. What happens
+ *     to a command that is pushed onto a full queue is decided by the {@link OverflowPolicy} of the queue.
+ * </p>
+ */
+public interface IBoundedCommandQueue extends ICommandQueue {
+
+    /** The default sampling rate of the {@link OverflowPolicy#SAMPLE} policy. */
+    int DEFAULT_SAMPLE_RATE = 10;
+
+    /**
+     * @return the number of commands in the queue
+     */
+    int size();
+
+    /**
+     * @return the maximum number of commands in the queue
+     */
+    int getCapacity();
+
+    /**
+     * @return the policy that decides what happens to commands that are pushed onto the full queue
+     */
+    OverflowPolicy getPolicy();
+
+    /**
+     * @return the number of commands that were dropped because the queue was full
+     */
+    long getDroppedCount();
+
+    /**
+     * @return the number of commands that were not accepted by the {@link OverflowPolicy#SAMPLE} policy
+     */
+    long getSampledOutCount();
+}
@@ -2,6 +2,8 @@ package edu.kit.trufflehog.command.queue;
 
 import edu.kit.trufflehog.command.ICommand;
 
+import java.util.function.Consumer;
+
 /**
  * <p>
  *     This interface supplies general methods for any CommandQueue implementation.
@@ -9,6 +11,9 @@ import edu.kit.trufflehog.command.ICommand;
  */
 public interface ICommandQueue {
 
+    /** The enqueue time that is handed to an {@link ITimedCommandConsumer} if the queue does not record it. */
+    long UNKNOWN_ENQUEUE_TIME = Long.MIN_VALUE;
+
     /**
      * <p>
      *     Pushes the supplied command onto the queue.
@@ -45,4 +50,42 @@ public interface ICommandQueue {
      * @return True if the ICommandQueue is empty, else it returns false.
      */
     boolean isEmpty();
+
+    /**
+     * <p>
+     *     Removes up to the specified number of commands from the queue and hands them to the consumer in first in
+     *     first out order. Implementations may override this method to remove several commands at once.
+     * </p>
+     *
+     * @param consumer The consumer of the removed commands.
+     * @param limit The maximum number of commands to remove.
+     * @return The number of removed commands.
+     * @throws InterruptedException
+     */
+    default int drain(final Consumer<ICommand> consumer, final int limit) throws InterruptedException {
+        int drained = 0;
+
+        while (drained < limit && !isEmpty()) {
+            consumer.accept(pop());
+            drained++;
+        }
+
+        return drained;
+    }
+
+    /**
+     * <p>
+     *     Removes up to the specified number of commands like {@link #drain(Consumer, int)} and hands them to the
+     *     consumer together with the time they were pushed. Queues that do not record this time hand over
+     *     {@link #UNKNOWN_ENQUEUE_TIME}.
+     * </p>
+     *
+     * @param consumer The consumer of the removed commands.
+     * @param limit The maximum number of commands to remove.
+     * @return The number of removed commands.
+     * @throws InterruptedException
+     */
+    default int drainTimed(final ITimedCommandConsumer consumer, final int limit) throws InterruptedException {
+        return drain(command -> consumer.accept(command, UNKNOWN_ENQUEUE_TIME), limit);
+    }
 }
@@ -0,0 +1,23 @@
+package edu.kit.trufflehog.command.queue;
+
+import edu.kit.trufflehog.command.ICommand;
+
+/**
+ * <p>
+ *     Consumes the commands that are drained from an {@link ICommandQueue} together with the time they were pushed.
+ * </p>
+ */
+@FunctionalInterface
+public interface ITimedCommandConsumer {
+
+    /**
+     * <p>
+     *     Consumes a command.
+     * </p>
+     *
+     * @param command The command that was removed from the queue.
+     * @param enqueueTime The {@link System#nanoTime()} when the command was pushed, or
+     *                    {@link ICommandQueue#UNKNOWN_ENQUEUE_TIME} if the queue does not record it.
+     */
+    void accept(final ICommand command, final long enqueueTime);
+}
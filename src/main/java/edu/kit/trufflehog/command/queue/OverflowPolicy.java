@@ -0,0 +1,27 @@
+package edu.kit.trufflehog.command.queue;
+
+/**
+ * <p>
+ *     Describes what happens to a command that is pushed onto a full {@link IBoundedCommandQueue}.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public enum OverflowPolicy {
+
+    /** The pushing thread blocks until there is space in the queue. */
+    BLOCK,
+
+    /** The pushed command is dropped. */
+    DROP_NEWEST,
+
+    /** The oldest command of the queue is dropped to make space for the pushed command. */
+    DROP_OLDEST,
+
+    /**
+     * Once the queue is half full only every n-th pushed command is accepted. The pushed command is dropped if the
+     * queue is full.
+     */
+    SAMPLE
+}
@@ -0,0 +1,321 @@
+package edu.kit.trufflehog.command.queue;
+
+import edu.kit.trufflehog.command.ICommand;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     This {@link ICommandQueue} implementation is a preallocated lock free ring buffer for many producers and a single
+ *     consumer. Producers claim a slot by advancing the tail with a compare and set and then publish their command in
+ *     the slot. The consumer takes commands from the head and frees their slots, so pushing and popping never
+ *     allocates.
+ * </p>
+ * <p>
+ *     Every slot also holds the time its command was pushed, which {@link #drainTimed(ITimedCommandConsumer, int)}
+ *     hands to the consumer.
+ * </p>
+ * <p>
+ *     A producer that finds the ring full handles its command with the {@link OverflowPolicy} of the queue. Blocked
+ *     producers wait with the {@link WaitStrategy} of the {@link CommandQueueManager}. The
+ *     {@link OverflowPolicy#DROP_OLDEST} policy is not supported, because only the consumer may free slots.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class RingCommandQueue implements IBoundedCommandQueue {
+
+    // how long a blocked producer parks before it looks for a free slot again
+    private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final CommandQueueManager manager;
+    private final OverflowPolicy policy;
+    private final int sampleRate;
+
+    private final AtomicReferenceArray<ICommand> slots;
+    // written by the producer of a slot before the command is published
+    private final long[] enqueueTimes;
+    private final int capacity;
+    private final int mask;
+
+    // the next slot to claim, advanced by the producers
+    private final AtomicLong tail = new AtomicLong();
+    // the next slot to take, advanced by the consumer only
+    private final AtomicLong head = new AtomicLong();
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    // the enqueue time of the command that was taken last, only accessed by the consumer
+    private long takenEnqueueTime;
+
+    /**
+     * <p>
+     *     Creates a new RingCommandQueue object that samples with the {@link #DEFAULT_SAMPLE_RATE}.
+     * </p>
+     *
+     * @param commandQueueManager The instance of the {@link CommandQueueManager} that manages all the command queues.
+     * @param capacity The minimum number of slots. It is rounded up to the next power of two.
+     * @param policy The policy that decides what happens to commands that are pushed onto the full queue.
+     */
+    public RingCommandQueue(final CommandQueueManager commandQueueManager, final int capacity, final OverflowPolicy policy) {
+        this(commandQueueManager, capacity, policy, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * <p>
+     *     Creates a new RingCommandQueue object.
+     * </p>
+     *
+     * @param commandQueueManager The instance of the {@link CommandQueueManager} that manages all the command queues.
+     * @param capacity The minimum number of slots. It is rounded up to the next power of two.
+     * @param policy The policy that decides what happens to commands that are pushed onto the full queue.
+     * @param sampleRate Only every sampleRate-th command is accepted by a half full queue with the
+     *                   {@link OverflowPolicy#SAMPLE} policy.
+     */
+    public RingCommandQueue(final CommandQueueManager commandQueueManager, final int capacity,
+                            final OverflowPolicy policy, final int sampleRate) {
+
+        if (commandQueueManager == null)
+            throw new NullPointerException("commandQueueManager must not be null");
+        if (policy == null)
+            throw new NullPointerException("policy must not be null");
+        if (policy == OverflowPolicy.DROP_OLDEST)
+            throw new IllegalArgumentException("A ring command queue cannot drop its oldest command");
+        if (capacity <= 0 || capacity > (1 << 30))
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        if (sampleRate <= 0)
+            throw new IllegalArgumentException("sampleRate must be positive");
+
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.enqueueTimes = new long[this.capacity];
+        this.policy = policy;
+        this.sampleRate = sampleRate;
+
+        this.manager = commandQueueManager;
+        this.manager.registerQueue(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     *     If the queue is full the command is handled by the {@link OverflowPolicy} of the queue.
+     * </p>
+     *
+     * @param command The command to put onto the Queue.
+     * @param <T>     The type of the command.
+     * @throws InterruptedException If the queue blocks and the pushing thread is interrupted.
+     * @throws NullPointerException If the command to add is null.
+     */
+    @Override
+    public <T extends ICommand> void push(final T command) throws InterruptedException {
+        push(command, System.nanoTime());
+    }
+
+    /**
+     * <p>
+     *     Pushes a command that was already waiting since the given time, for example in another queue that
+     *     forwards its commands to this one. The command is handled like in {@link #push(ICommand)}.
+     * </p>
+     *
+     * @param command The command to put onto the Queue.
+     * @param enqueueTime The {@link System#nanoTime()} when the command was pushed first.
+     * @throws InterruptedException If the queue blocks and the pushing thread is interrupted.
+     * @throws NullPointerException If the command to add is null.
+     */
+    public void push(final ICommand command, final long enqueueTime) throws InterruptedException {
+        if (command == null)
+            throw new NullPointerException("Command object to be added may not be null!");
+
+        if (policy == OverflowPolicy.SAMPLE && size() >= capacity / 2
+                && sampleCounter.incrementAndGet() % sampleRate != 0) {
+            sampledOut.increment();
+            return;
+        }
+
+        long claimed;
+
+        while (true) {
+            claimed = tail.get();
+
+            if (claimed - head.get() >= capacity) {
+                if (policy != OverflowPolicy.BLOCK) {
+                    dropped.increment();
+                    return;
+                }
+
+                awaitFreeSlot();
+                continue;
+            }
+
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                break;
+            }
+        }
+
+        // the consumer only takes the command once it is published in the slot
+        enqueueTimes[index(claimed)] = enqueueTime;
+        slots.lazySet(index(claimed), command);
+        manager.notifyNewElement();
+    }
+
+    private void awaitFreeSlot() throws InterruptedException {
+        switch (manager.getWaitStrategy()) {
+            case SPIN:
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            case PARK:
+                LockSupport.parkNanos(this, PRODUCER_PARK_NANOS);
+                break;
+        }
+
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws InterruptedException
+     * @throws NoSuchElementException If there are no elements in this queue.
+     */
+    @Override
+    public ICommand pop() throws InterruptedException {
+        final ICommand command = take();
+
+        if (command == null) {
+            throw new NoSuchElementException();
+        }
+
+        manager.notifyRemovedElement();
+        return command;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     *     The manager is notified once for all removed commands.
+     * </p>
+     */
+    @Override
+    public int drain(final Consumer<ICommand> consumer, final int limit) throws InterruptedException {
+        return drainTimed((command, enqueueTime) -> consumer.accept(command), limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     *     The manager is notified once for all removed commands.
+     * </p>
+     */
+    @Override
+    public int drainTimed(final ITimedCommandConsumer consumer, final int limit) throws InterruptedException {
+        int drained = 0;
+
+        try {
+            ICommand command;
+
+            while (drained < limit && (command = take()) != null) {
+                drained++;
+                consumer.accept(command, takenEnqueueTime);
+            }
+        } finally {
+            manager.notifyRemovedElements(drained);
+        }
+
+        return drained;
+    }
+
+    /**
+     * <p>
+     *     Takes the command at the head and frees its slot.
+     * </p>
+     *
+     * @return the command or null if the head slot was not published yet
+     */
+    private ICommand take() {
+        final long current = head.get();
+        final int index = index(current);
+        final ICommand command = slots.get(index);
+
+        if (command == null) {
+            return null;
+        }
+
+        // the time must be read before the slot is freed, a producer may reuse the slot right afterwards
+        takenEnqueueTime = enqueueTimes[index];
+
+        // free the slot before the head moves on, producers only reuse slots behind the head
+        slots.lazySet(index, null);
+        head.lazySet(current + 1);
+
+        return command;
+    }
+
+    private int index(final long sequence) {
+        return (int) sequence & mask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return slots.get(index(head.get())) == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head.get()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+}
@@ -0,0 +1,26 @@
+package edu.kit.trufflehog.command.queue;
+
+/**
+ * <p>
+ *     Describes how a thread waits for a {@link ICommandQueue}: the consumer of a {@link CommandQueueManager} waits for
+ *     a command to be pushed and a producer of a full {@link RingCommandQueue} waits for a free slot.
+ * </p>
+ * <p>
+ *     Spinning and yielding keep the latency low but burn a core while the queues are idle. Parking frees the core,
+ *     but the waiting thread has to be woken up by the operating system.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public enum WaitStrategy {
+
+    /** The waiting thread busy spins. */
+    SPIN,
+
+    /** The waiting thread yields the processor to other threads. */
+    YIELD,
+
+    /** The waiting thread parks until it is woken up. */
+    PARK
+}
@@ -1,9 +1,11 @@
 package edu.kit.trufflehog.command.trufflecommand;
 
 import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkIOPort;
 import edu.kit.trufflehog.model.network.INetworkWritingPort;
 import edu.kit.trufflehog.model.network.IPAddress;
 import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.ComponentSlots;
 import edu.kit.trufflehog.model.network.graph.IConnection;
 import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.graph.NetworkConnection;
@@ -14,10 +16,14 @@ import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComp
 import edu.kit.trufflehog.model.network.graph.components.edge.MulticastEdgeRenderer;
 import edu.kit.trufflehog.model.network.graph.components.node.*;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
-import javafx.application.Platform;
+import edu.kit.trufflehog.util.bindings.FrameUpdateBridge;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Random;
 
 
@@ -27,6 +33,10 @@ import java.util.Random;
  *     necessary (i.e. when new devices enter the network). After the creation, the new node get checked with the
  *     Filter objects and marked accordingly.
  * </p>
+ * <p>
+ *     If the writing port can be read as well and the nodes and the connection already exist, they are updated in
+ *     place. The compositions with their renderers are only built for devices and connections that are new.
+ * </p>
  */
 public class AddPacketDataCommand implements ITruffleCommand {
     
@@ -83,21 +93,43 @@ public class AddPacketDataCommand implements ITruffleCommand {
         // build the destination node info
         NodeInfoComponent destNIC = new NodeInfoComponent(destAddress);
 
+        write(writingPort, filter, sourceNIC, destNIC, Collections.singletonList(data), 1);
+    }
 
+    /**
+     * <p>
+     *     Writes the nodes and the connection of a pair of devices to the writing port. The statistics of the nodes
+     *     and the connection are incremented by the given number of packets and all packets are logged.
+     * </p>
+     *
+     * @param writingPort {@link INetworkWritingPort} to add data to
+     * @param filter The filter to check.
+     * @param sourceNIC The node info of the sending device.
+     * @param destNIC The node info of the receiving device.
+     * @param packets The packets that were sent from the source to the destination.
+     * @param count The number of packets to add to the statistics.
+     */
+    static void write(final INetworkWritingPort writingPort, final IFilter filter, final NodeInfoComponent sourceNIC,
+                      final NodeInfoComponent destNIC, final Collection<IPacketData> packets, final int count) {
 
-        final PacketDataLoggingComponent connectionPacketLogger = new PacketDataLoggingComponent();
-        connectionPacketLogger.addPacket(data);
+        final MacAddress sourceAddress = sourceNIC.getMacAddress();
+        final MacAddress destAddress = destNIC.getMacAddress();
 
-        final PacketDataLoggingComponent srcPacketLogger = new PacketDataLoggingComponent();
-        srcPacketLogger.addPacket(data);
+        if (writingPort instanceof INetworkIOPort && sourceNIC.getDeviceName() == null
+                && sourceNIC.getIPAddress() == null && destNIC.getDeviceName() == null
+                && destNIC.getIPAddress() == null
+                && update((INetworkIOPort) writingPort, sourceAddress, destAddress, packets, count)) {
+            return;
+        }
 
-        final PacketDataLoggingComponent destPacketLogger = new PacketDataLoggingComponent();
-        destPacketLogger.addPacket(data);
+        final PacketDataLoggingComponent connectionPacketLogger = new PacketDataLoggingComponent(packets);
+        final PacketDataLoggingComponent srcPacketLogger = new PacketDataLoggingComponent(packets);
+        final PacketDataLoggingComponent destPacketLogger = new PacketDataLoggingComponent(packets);
 
-        final INode sourceNode = new NetworkNode(sourceAddress, new NodeStatisticsComponent(1, 0), sourceNIC, srcPacketLogger);
-        final INode destNode = new NetworkNode(destAddress, new NodeStatisticsComponent(0, 1), destNIC, destPacketLogger);
+        final INode sourceNode = new NetworkNode(sourceAddress, new NodeStatisticsComponent(count, 0), sourceNIC, srcPacketLogger);
+        final INode destNode = new NetworkNode(destAddress, new NodeStatisticsComponent(0, count), destNIC, destPacketLogger);
 
-        final IConnection connection = new NetworkConnection(sourceNode, destNode, new EdgeStatisticsComponent(1), connectionPacketLogger);
+        final IConnection connection = new NetworkConnection(sourceNode, destNode, new EdgeStatisticsComponent(count), connectionPacketLogger);
 
         sourceNode.addComponent(new FilterPropertiesComponent());
         destNode.addComponent(new FilterPropertiesComponent());
@@ -119,9 +151,117 @@ public class AddPacketDataCommand implements ITruffleCommand {
         filter.check(sourceNode);
         filter.check(destNode);
 
-        writingPort.writeNode(sourceNode);
-        writingPort.writeNode(destNode);
-        writingPort.writeConnection(connection);
+        writingPort.writeBatch(Arrays.asList(sourceNode, destNode), Collections.singletonList(connection));
+    }
+
+    /**
+     * <p>
+     *     Updates the nodes and the connection of a pair of devices in place, without building new compositions. This
+     *     only works if both nodes and the connection are already in the network.
+     * </p>
+     * <p>
+     *     The node info is not updated, so the filters do not have to check the nodes again. The renderer of the
+     *     connection is animated the same way the view does it when an existing connection is written again.
+     * </p>
+     *
+     * @param ioPort The port to look up the existing nodes and connection.
+     * @param sourceAddress The address of the sending device.
+     * @param destAddress The address of the receiving device.
+     * @param packets The packets that were sent from the source to the destination.
+     * @param count The number of packets to add to the statistics.
+     * @return true if the network was updated, false if a node or the connection is new
+     */
+    private static boolean update(final INetworkIOPort ioPort, final MacAddress sourceAddress,
+                                  final MacAddress destAddress, final Collection<IPacketData> packets,
+                                  final int count) {
+
+        final IConnection connection = ioPort.getNetworkConnectionByAddress(sourceAddress, destAddress);
+
+        if (connection == null) {
+            return false;
+        }
+
+        final INode sourceNode = ioPort.getNetworkNodeByAddress(sourceAddress);
+        final INode destNode = ioPort.getNetworkNodeByAddress(destAddress);
+
+        if (sourceNode == null || destNode == null) {
+            return false;
+        }
+
+        final NodeStatisticsComponent sourceStatistics =
+                sourceNode.getComponent(ComponentSlots.NODE_STATISTICS, NodeStatisticsComponent.class);
+        final NodeStatisticsComponent destStatistics =
+                destNode.getComponent(ComponentSlots.NODE_STATISTICS, NodeStatisticsComponent.class);
+        final EdgeStatisticsComponent edgeStatistics =
+                connection.getComponent(ComponentSlots.EDGE_STATISTICS, EdgeStatisticsComponent.class);
+
+        final PacketDataLoggingComponent sourcePacketLogger =
+                sourceNode.getComponent(ComponentSlots.PACKET_LOG, PacketDataLoggingComponent.class);
+        final PacketDataLoggingComponent destPacketLogger =
+                destNode.getComponent(ComponentSlots.PACKET_LOG, PacketDataLoggingComponent.class);
+        final PacketDataLoggingComponent connectionPacketLogger =
+                connection.getComponent(ComponentSlots.PACKET_LOG, PacketDataLoggingComponent.class);
+
+        final ViewComponent view = connection.getComponent(ComponentSlots.VIEW, ViewComponent.class);
+
+        if (sourceStatistics == null || destStatistics == null || edgeStatistics == null
+                || sourcePacketLogger == null || destPacketLogger == null || connectionPacketLogger == null) {
+            return false;
+        }
+
+        // one array for the three packet logs
+        final IPacketData[] packetArray = packets.toArray(new IPacketData[packets.size()]);
+
+        // the counters take concurrent increments, the properties follow with the statistics publisher
+        final long now = Instant.now().toEpochMilli();
+
+        sourceStatistics.addOutgoingCount(count);
+        sourceStatistics.setLastUpdateTime(now);
+        destStatistics.addIncomingCount(count);
+        destStatistics.setLastUpdateTime(now);
+
+        edgeStatistics.setLastUpdateTimeProperty(now);
+        edgeStatistics.incrementTraffic(count);
+
+        // the packet logs are appended once per frame
+        sourcePacketLogger.stagePackets(packetArray);
+        destPacketLogger.stagePackets(packetArray);
+        connectionPacketLogger.stagePackets(packetArray);
+
+        // the edge is animated once per frame, however many packets it carried
+        if (view != null) {
+            FrameUpdateBridge.getInstance().changed(connection, view.getRenderer()::animate);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The writing port the packet is written to.
+     */
+    public INetworkWritingPort getWritingPort() {
+        return writingPort;
+    }
+
+    /**
+     * @return The filter the nodes of the packet are checked with.
+     */
+    public IFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * @return The address of the device that sent the packet or null if the packet has none.
+     */
+    public MacAddress getSourceAddress() {
+        return data.getAttribute(MacAddress.class, "sourceMacAddress");
+    }
+
+    /**
+     * @return The packet this command adds to the graph.
+     */
+    public IPacketData getPacket() {
+        return data;
     }
 
 /*    *//** Returns an ImageIcon, or null if the path was invalid. *//*
@@ -0,0 +1,157 @@
+package edu.kit.trufflehog.command.trufflecommand;
+
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ *     Command used to add several packets that were sent between the same pair of devices to the graph at once. The
+ *     nodes and the connection of the pair are written only once: their statistics are incremented by the number of
+ *     packets, all packets are logged and the nodes carry the latest device name and ip address that was reported.
+ * </p>
+ * <p>
+ *     The command is usually created by the {@link edu.kit.trufflehog.service.replaylogging.CommandCompressor} from
+ *     consecutive {@link AddPacketDataCommand}s.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class AggregatedPacketDataCommand implements ITruffleCommand {
+
+    private final INetworkWritingPort writingPort;
+    private final IFilter filter;
+    private final MacAddress sourceAddress;
+    private final MacAddress destAddress;
+
+    private final List<IPacketData> packets = new ArrayList<>();
+
+    private String deviceName = null;
+    private IPAddress sourceIP = null;
+
+    /**
+     * <p>
+     *     Creates a new command without any packets for the given pair of devices.
+     * </p>
+     *
+     * @param writingPort {@link INetworkWritingPort} to add data to
+     * @param filter The filter to check.
+     * @param sourceAddress The address of the sending device.
+     * @param destAddress The address of the receiving device.
+     */
+    public AggregatedPacketDataCommand(final INetworkWritingPort writingPort, final IFilter filter,
+                                       final MacAddress sourceAddress, final MacAddress destAddress) {
+        if (writingPort == null) throw new NullPointerException("WritingPort should not be null");
+        if (filter == null) throw new NullPointerException("Filter should not be null");
+        if (sourceAddress == null) throw new NullPointerException("sourceAddress should not be null");
+        if (destAddress == null) throw new NullPointerException("destAddress should not be null");
+
+        this.writingPort = writingPort;
+        this.filter = filter;
+        this.sourceAddress = sourceAddress;
+        this.destAddress = destAddress;
+    }
+
+    /**
+     * <p>
+     *     Adds a packet that was sent from the source to the destination of this command. If the packet is a response
+     *     its device name and ip address replace the ones of earlier packets.
+     * </p>
+     *
+     * @param packet The packet to add.
+     */
+    public void addPacket(final IPacketData packet) {
+        if (packet == null) throw new NullPointerException("packet should not be null");
+
+        packets.add(packet);
+
+        final Boolean isResponse = packet.getAttribute(Boolean.class, "isResponse");
+
+        if (isResponse != null && isResponse) {
+            final String name = packet.getAttribute(String.class, "deviceName");
+            final IPAddress ip = packet.getAttribute(IPAddress.class, "sourceIPAddress");
+
+            if (name != null) {
+                deviceName = name;
+            }
+            if (ip != null && !ip.equals(IPAddress.INVALID_ADDRESS)) {
+                sourceIP = ip;
+            }
+        }
+    }
+
+    @Override
+    public void execute() {
+
+        if (packets.isEmpty()) {
+            return;
+        }
+
+        final NodeInfoComponent sourceNIC = new NodeInfoComponent(sourceAddress);
+
+        if (deviceName != null) {
+            sourceNIC.setDeviceName(deviceName);
+        }
+        if (sourceIP != null) {
+            sourceNIC.setIPAddress(sourceIP);
+        }
+
+        AddPacketDataCommand.write(writingPort, filter, sourceNIC, new NodeInfoComponent(destAddress), packets,
+                packets.size());
+    }
+
+    /**
+     * @return The address of the sending device.
+     */
+    public MacAddress getSourceAddress() {
+        return sourceAddress;
+    }
+
+    /**
+     * @return The address of the receiving device.
+     */
+    public MacAddress getDestAddress() {
+        return destAddress;
+    }
+
+    /**
+     * @return The latest device name the source reported or null if it reported none.
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return The latest valid ip address the source reported or null if it reported none.
+     */
+    public IPAddress getSourceIPAddress() {
+        return sourceIP;
+    }
+
+    /**
+     * @return The packets this command adds to the graph.
+     */
+    public List<IPacketData> getPackets() {
+        return Collections.unmodifiableList(packets);
+    }
+
+    /**
+     * @return The number of packets this command adds to the graph.
+     */
+    public int getPacketCount() {
+        return packets.size();
+    }
+
+    @Override
+    public String toString() {
+        return packets.size() + " packets from " + sourceAddress + " to " + destAddress;
+    }
+}
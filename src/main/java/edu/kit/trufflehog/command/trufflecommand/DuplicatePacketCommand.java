@@ -0,0 +1,131 @@
+package edu.kit.trufflehog.command.trufflecommand;
+
+import edu.kit.trufflehog.model.network.INetworkReadingPort;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+
+/**
+ * <p>
+ *     Command used to count repeated DCP frames that the
+ *     {@link edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.DuplicateFrameFilter} recognized. The
+ *     frames are not written to the graph again, only the duplicate counters of the sending node and of the connection
+ *     are incremented. A node or connection that is not in the network is not counted.
+ * </p>
+ * <p>
+ *     The counters do not depend on the order of the commands, so the
+ *     {@link edu.kit.trufflehog.service.replaylogging.CommandCompressor} merges the duplicates of a pair of devices
+ *     into one command.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class DuplicatePacketCommand implements ITruffleCommand {
+
+    private final INetworkWritingPort writingPort;
+    private final MacAddress sourceAddress;
+    private final MacAddress destAddress;
+
+    private int count;
+
+    /**
+     * <p>
+     *     Creates a new command that counts duplicates sent from the source to the destination.
+     * </p>
+     *
+     * @param writingPort {@link INetworkWritingPort} of the network to count in
+     * @param sourceAddress The address of the sending device.
+     * @param destAddress The address of the receiving device.
+     * @param count The number of duplicates.
+     */
+    public DuplicatePacketCommand(final INetworkWritingPort writingPort, final MacAddress sourceAddress,
+                                  final MacAddress destAddress, final int count) {
+        if (writingPort == null) throw new NullPointerException("WritingPort should not be null");
+        if (sourceAddress == null) throw new NullPointerException("sourceAddress should not be null");
+        if (destAddress == null) throw new NullPointerException("destAddress should not be null");
+
+        this.writingPort = writingPort;
+        this.sourceAddress = sourceAddress;
+        this.destAddress = destAddress;
+        this.count = count;
+    }
+
+    /**
+     * <p>
+     *     Adds duplicates of the same pair of devices to this command.
+     * </p>
+     *
+     * @param step The number of duplicates to add.
+     */
+    public void addCount(final int step) {
+        count += step;
+    }
+
+    @Override
+    public void execute() {
+
+        // the counters can only be found if the port can be read as well
+        if (!(writingPort instanceof INetworkReadingPort)) {
+            return;
+        }
+
+        final INetworkReadingPort readingPort = (INetworkReadingPort) writingPort;
+
+        final INode source = readingPort.getNetworkNodeByAddress(sourceAddress);
+
+        if (source != null) {
+            final NodeStatisticsComponent statistics = source.getComponent(NodeStatisticsComponent.class);
+
+            if (statistics != null) {
+                statistics.addDuplicateCount(count);
+            }
+        }
+
+        final IConnection connection = readingPort.getNetworkConnectionByAddress(sourceAddress, destAddress);
+
+        if (connection != null) {
+            final EdgeStatisticsComponent statistics = connection.getComponent(EdgeStatisticsComponent.class);
+
+            if (statistics != null) {
+                statistics.addDuplicateCount(count);
+            }
+        }
+    }
+
+    /**
+     * @return The port of the network the duplicates are counted in.
+     */
+    public INetworkWritingPort getWritingPort() {
+        return writingPort;
+    }
+
+    /**
+     * @return The address of the sending device.
+     */
+    public MacAddress getSourceAddress() {
+        return sourceAddress;
+    }
+
+    /**
+     * @return The address of the receiving device.
+     */
+    public MacAddress getDestAddress() {
+        return destAddress;
+    }
+
+    /**
+     * @return The number of duplicates this command counts.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return count + " duplicates from " + sourceAddress + " to " + destAddress;
+    }
+}
@@ -1,26 +1,36 @@
 package edu.kit.trufflehog.command.usercommand;
 
+import edu.kit.trufflehog.command.IPreemptibleCommand;
 import edu.kit.trufflehog.model.configdata.ConfigData;
 import edu.kit.trufflehog.model.filter.*;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.INode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
  * <p>
  *     Command to update the graph when a filter is added, changes, or is deleted.
  * </p>
+ * <p>
+ *     Checking every node of a large network takes a while, so the command can also be executed in steps that each
+ *     check {@link #NODES_PER_STEP} nodes. Nodes that are added in between are checked by the macro filter already.
+ * </p>
  *
  * @author Mark Giraud
  * @version 1.0
  */
-public class UpdateFilterCommand implements IUserCommand<FilterInput> {
+public class UpdateFilterCommand implements IUserCommand<FilterInput>, IPreemptibleCommand {
 
     private static final Logger logger = LogManager.getLogger();
 
+    /** The number of nodes that are checked by one step of the command. */
+    public static final int NODES_PER_STEP = 512;
+
     private final MacroFilter macroFilter;
     private final INetworkIOPort nwp;
     private final ConfigData configData;
@@ -28,6 +38,10 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
 
     private final Map<FilterInput, IFilter> filterMap;
 
+    // the state of a stepwise execution
+    private IFilter stepFilter = null;
+    private Iterator<INode> pendingNodes = null;
+
     /**
      * <p>
      *     Constructs the update filter command. This command always needs a network io port to apply the newly added
@@ -55,6 +69,47 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
     @Override
     public void execute() {
 
+        if (updateFilter()) {
+            nwp.applyFilter(stepFilter);
+        }
+
+        stepFilter = null;
+    }
+
+    @Override
+    public boolean executeStep() {
+
+        if (pendingNodes == null) {
+            if (!updateFilter() || stepFilter == null) {
+                stepFilter = null;
+                return true;
+            }
+
+            pendingNodes = nwp.getNetworkNodes().iterator();
+        }
+
+        for (int i = 0; i < NODES_PER_STEP && pendingNodes.hasNext(); i++) {
+            stepFilter.check(pendingNodes.next());
+        }
+
+        if (pendingNodes.hasNext()) {
+            return false;
+        }
+
+        pendingNodes = null;
+        stepFilter = null;
+        return true;
+    }
+
+    /**
+     * <p>
+     *     Replaces the filter of the selected filter input.
+     * </p>
+     *
+     * @return true if the new filter has to be applied to the network
+     */
+    private boolean updateFilter() {
+
         if (filterInput != null) {
 
             if (filterMap.get(filterInput) != null) {
@@ -63,7 +118,7 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
             }
 
             if (!filterInput.isActive() || filterInput.isDeleted()) {
-                return;
+                return false;
             }
 
             IFilter filter = null;
@@ -91,8 +146,11 @@ public class UpdateFilterCommand implements IUserCommand<FilterInput> {
             logger.debug("adding filter to filtermap, macrofilter, and apply the new filter");
             filterMap.put(filterInput, filter);
             macroFilter.addFilter(filter);
-            nwp.applyFilter(filter);
+            stepFilter = filter;
+            return true;
         }
+
+        return false;
     }
 
     @Override
@@ -124,6 +124,41 @@ public class ConfigData implements IConfig {
         return filterDataModel.getAllFilters();
     }
 
+    /**
+     * <p>
+     *     Adds a packet rule to the database. The rule is appended to the rules that are checked before packets enter
+     *     the pipeline.
+     * </p>
+     *
+     * @param rule The text of the rule, see
+     *             {@link edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.PacketRule}.
+     */
+    public void addPacketRule(final String rule) {
+        filterDataModel.addPacketRuleAsynchronous(rule);
+    }
+
+    /**
+     * <p>
+     *     Removes a packet rule from the database.
+     * </p>
+     *
+     * @param rule The text of the rule to remove.
+     */
+    public void removePacketRule(final String rule) {
+        filterDataModel.removePacketRuleAsynchronous(rule);
+    }
+
+    /**
+     * <p>
+     *     Gets all loaded packet rules in the order they are checked.
+     * </p>
+     *
+     * @return The list of loaded packet rules.
+     */
+    public ObservableList<String> getAllLoadedPacketRules() {
+        return filterDataModel.getAllPacketRules();
+    }
+
     @Override
     public StringProperty getSetting(final Class typeClass, final String key) {
         return settingsDataModel.get(typeClass, key);
@@ -22,7 +22,7 @@ import edu.kit.trufflehog.model.filter.FilterInput;
 import edu.kit.trufflehog.model.filter.FilterType;
 import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.filter.SelectionModel;
-import edu.kit.trufflehog.presenter.LoggedScheduledExecutor;
+import edu.kit.trufflehog.presenter.ThreadPools;
 import edu.kit.trufflehog.util.javafx.FxUtils;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -47,6 +47,10 @@ import java.util.stream.Collectors;
  *     objects and has the ability to add, remove get and update these FilterInput objects from a database. As an
  *     implementation for the database drivers a JDBC variant was chosen that is OS agnostic.
  * </p>
+ * <p>
+ *     The same database holds the packet rules that decide which packets enter the pipeline at all. They are stored
+ *     as text in the order they are checked.
+ * </p>
  *
  * @author Julian Brendl
  * @version 1.0
@@ -56,6 +60,7 @@ class FilterDataModel {
 
     private final ExecutorService executorService;
     private final ObservableList<FilterInput> loadedFilters;
+    private final ObservableList<String> loadedPacketRules;
     private final Connection connection;
 
     private static final String DATABASE_NAME = "filters.sql";
@@ -68,8 +73,9 @@ class FilterDataModel {
      * @param fileSystem The {@link FileSystem} object that gives access to relevant folders on the hard-drive.
      */
     public FilterDataModel(FileSystem fileSystem) {
-        this.executorService = LoggedScheduledExecutor.getInstance();
+        this.executorService = ThreadPools.getInstance().get(ThreadPools.Pool.IO);
         this.loadedFilters = FXCollections.observableArrayList();
+        this.loadedPacketRules = FXCollections.observableArrayList();
 
         // Get database file
         File databaseFile;
@@ -105,7 +111,11 @@ class FilterDataModel {
             createDatabase();
         }
 
+        // Databases of older versions have no packet rules yet
+        createPacketRuleTable();
+
         loadFilters();
+        loadPacketRules();
     }
 
     /**
@@ -160,6 +170,7 @@ class FilterDataModel {
         try {
             connection.close();
             loadedFilters.clear();
+            loadedPacketRules.clear();
         } catch (SQLException e) {
             logger.error("Unable to close filter database correctly. Data might be lost.", e);
         }
@@ -363,6 +374,120 @@ class FilterDataModel {
         }
     }
 
+    /**
+     * <p>
+     *     Creates the table of the packet rules if it does not exist yet.
+     * </p>
+     */
+    private void createPacketRuleTable() {
+        if (connection == null) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS PACKET_RULES (RULE TEXT NOT NULL)");
+            connection.commit();
+        } catch (SQLException e) {
+            logger.error("Unable to create the packet rule table", e);
+        }
+    }
+
+    /**
+     * <p>
+     *     Loads all packet rules from the database in the order they were added.
+     * </p>
+     */
+    private void loadPacketRules() {
+        loadedPacketRules.clear();
+
+        if (connection == null) {
+            logger.error("Unable to load packet rules from database, connection is null");
+            return;
+        }
+
+        synchronized (this) {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery("SELECT RULE FROM PACKET_RULES ORDER BY ROWID;")) {
+                    connection.commit();
+
+                    while (rs.next()) {
+                        loadedPacketRules.add(rs.getString("RULE"));
+                    }
+                }
+            } catch (SQLException e) {
+                logger.error("Error while loading packet rules from database into list", e);
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Adds a packet rule to the database asynchronously. The internal list is updated as well. A rule that is
+     *     already in the database is not added again.
+     * </p>
+     *
+     * @param rule The text of the rule.
+     */
+    public void addPacketRuleAsynchronous(final String rule) {
+        executorService.submit(() -> {
+            if (rule != null && !loadedPacketRules.contains(rule)
+                    && updatePacketRuleSynchronous("INSERT INTO PACKET_RULES(RULE) VALUES('" + escape(rule) + "');")) {
+                loadedPacketRules.add(rule);
+            }
+        });
+    }
+
+    /**
+     * <p>
+     *     Removes a packet rule from the database asynchronously. The internal list is updated as well.
+     * </p>
+     *
+     * @param rule The text of the rule.
+     */
+    public void removePacketRuleAsynchronous(final String rule) {
+        executorService.submit(() -> {
+            if (rule != null
+                    && updatePacketRuleSynchronous("DELETE FROM PACKET_RULES WHERE RULE='" + escape(rule) + "';")) {
+                loadedPacketRules.remove(rule);
+            }
+        });
+    }
+
+    private boolean updatePacketRuleSynchronous(final String sql) {
+        if (connection == null) {
+            logger.error("Unable to update packet rules, connection is null");
+            return false;
+        }
+
+        synchronized (this) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(sql);
+                connection.commit();
+
+                return true;
+            } catch (SQLException e) {
+                logger.error("Unable to update the packet rules in the database", e);
+            }
+        }
+
+        return false;
+    }
+
+    private static String escape(final String value) {
+        return value.replace("'", "''");
+    }
+
+    /**
+     * <p>
+     *     Gets all loaded packet rules in the order they are checked.
+     * </p>
+     *
+     * @return The list of loaded packet rules.
+     */
+    public ObservableList<String> getAllPacketRules() {
+        return loadedPacketRules;
+    }
+
     /**
      * <p>
      *     Gets all loaded {@link FilterInput} objects. If none have been loaded yet, none are returned.
@@ -18,7 +18,7 @@
 package edu.kit.trufflehog.model.configdata;
 
 import edu.kit.trufflehog.model.FileSystem;
-import edu.kit.trufflehog.presenter.LoggedScheduledExecutor;
+import edu.kit.trufflehog.presenter.ThreadPools;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import org.apache.logging.log4j.LogManager;
@@ -67,7 +67,7 @@ class SettingsDataModel extends ConfigDataModel<StringProperty> {
      */
     public SettingsDataModel(final FileSystem fileSystem) {
         this.fileSystem = fileSystem;
-        this.executorService = LoggedScheduledExecutor.getInstance();;
+        this.executorService = ThreadPools.getInstance().get(ThreadPools.Pool.IO);
         this.settingsFile = getSettingsFile();
 
         if (settingsFile == null) {
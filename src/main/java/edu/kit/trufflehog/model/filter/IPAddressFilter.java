@@ -23,6 +23,7 @@ import com.google.common.collect.TreeRangeSet;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
 import edu.kit.trufflehog.model.network.IPAddress;
 import edu.kit.trufflehog.model.network.InvalidIPAddress;
+import edu.kit.trufflehog.model.network.graph.ComponentSlots;
 import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
@@ -118,10 +119,10 @@ public class IPAddressFilter implements IFilter {
         if (node == null)
             throw new NullPointerException("node must not be null!");
 
-        final IPAddress address = node.getComponent(NodeInfoComponent.class).getIPAddress();
+        final IPAddress address = node.getComponent(ComponentSlots.NODE_INFO, NodeInfoComponent.class).getIPAddress();
 
         if (address != null && addresses.contains(address)) {
-            node.getComponent(FilterPropertiesComponent.class).addFilterColor(this, filterColor);
+            node.getComponent(ComponentSlots.FILTER_PROPERTIES, FilterPropertiesComponent.class).addFilterColor(this, filterColor);
         }
     }
 
@@ -133,7 +134,7 @@ public class IPAddressFilter implements IFilter {
     @Override
     public void clear() {
         networkIOPort.getNetworkNodes().stream().forEach(node -> {
-            node.getComponent(FilterPropertiesComponent.class).removeFilterColor(this);
+            node.getComponent(ComponentSlots.FILTER_PROPERTIES, FilterPropertiesComponent.class).removeFilterColor(this);
         });
     }
 
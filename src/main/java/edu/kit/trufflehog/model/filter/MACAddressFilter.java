@@ -3,6 +3,7 @@ package edu.kit.trufflehog.model.filter;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
 import edu.kit.trufflehog.model.network.InvalidMACAddress;
 import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.ComponentSlots;
 import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
@@ -91,7 +92,7 @@ public class MACAddressFilter implements IFilter {
 
         //TODO maybe optimize so that we only iterate over changed nodes?
         networkIOPort.getNetworkNodes().stream().forEach(node -> {
-            node.getComponent(FilterPropertiesComponent.class).removeFilterColor(this);
+            node.getComponent(ComponentSlots.FILTER_PROPERTIES, FilterPropertiesComponent.class).removeFilterColor(this);
         });
     }
 
@@ -111,10 +112,10 @@ public class MACAddressFilter implements IFilter {
             throw new NullPointerException("node must not be null!");
 
         //TODO maybe null check?
-        final MacAddress address = node.getComponent(NodeInfoComponent.class).getMacAddress();
+        final MacAddress address = node.getComponent(ComponentSlots.NODE_INFO, NodeInfoComponent.class).getMacAddress();
 
         if (addresses.contains(address)) {
-            node.getComponent(FilterPropertiesComponent.class).addFilterColor(this, filterColor);
+            node.getComponent(ComponentSlots.FILTER_PROPERTIES, FilterPropertiesComponent.class).addFilterColor(this, filterColor);
         }
     }
 
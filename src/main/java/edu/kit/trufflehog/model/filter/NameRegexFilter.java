@@ -1,6 +1,7 @@
 package edu.kit.trufflehog.model.filter;
 
 import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.ComponentSlots;
 import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
@@ -55,11 +56,11 @@ public class NameRegexFilter implements IFilter {
         if (node == null)
             throw new NullPointerException("node must not be null!");
 
-        final String deviceName = node.getComponent(NodeInfoComponent.class).getDeviceName();
+        final String deviceName = node.getComponent(ComponentSlots.NODE_INFO, NodeInfoComponent.class).getDeviceName();
 
         if (deviceName != null) {
             if (patterns.parallelStream().anyMatch(p -> p.matcher(deviceName).matches())) {
-                node.getComponent(FilterPropertiesComponent.class).addFilterColor(this, filterColor);
+                node.getComponent(ComponentSlots.FILTER_PROPERTIES, FilterPropertiesComponent.class).addFilterColor(this, filterColor);
             }
         }
     }
@@ -72,7 +73,7 @@ public class NameRegexFilter implements IFilter {
     @Override
     public void clear() {
         networkIOPort.getNetworkNodes().stream().forEach(node -> {
-            node.getComponent(FilterPropertiesComponent.class).removeFilterColor(this);
+            node.getComponent(ComponentSlots.FILTER_PROPERTIES, FilterPropertiesComponent.class).removeFilterColor(this);
         });
     }
 
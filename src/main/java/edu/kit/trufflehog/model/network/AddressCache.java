@@ -0,0 +1,81 @@
+package edu.kit.trufflehog.model.network;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ *     This class is a bounded cache of address objects that is keyed by the long value of the address. It is used by
+ *     {@link MacAddress#of(long)} and {@link IPAddress#of(long)} so that the few hundred devices of a network share
+ *     one address object each instead of creating new ones for every packet.
+ * </p>
+ * <p>
+ *     The cache is direct mapped: every address has exactly one slot and a new address replaces the address that was
+ *     in its slot before. There is no locking, lookups and updates are single reads and writes of an
+ *     {@link AtomicReferenceArray}. If two threads miss on the same address at the same time both create an object and
+ *     one of them wins, which is harmless because the addresses are immutable and compared with equals.
+ * </p>
+ *
+ * @param <T> the type of the cached addresses
+ * @author Mark Giraud
+ * @version 1.0
+ */
+final class AddressCache<T extends IAddress> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final ToLongFunction<T> keyFunction;
+    private final int mask;
+
+    /**
+     * <p>
+     *     Creates a new cache.
+     * </p>
+     *
+     * @param capacity the number of slots. Must be a power of two.
+     * @param keyFunction the function that gets the long value of a cached address
+     */
+    AddressCache(final int capacity, final ToLongFunction<T> keyFunction) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two");
+        if (keyFunction == null) throw new NullPointerException("keyFunction must not be null");
+
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.keyFunction = keyFunction;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * <p>
+     *     Gets the cached address with the specified value.
+     * </p>
+     *
+     * @param key the value of the address
+     * @return the cached address or null if the address is not cached
+     */
+    T get(final long key) {
+        final T cached = slots.get(slot(key));
+
+        if (cached != null && keyFunction.applyAsLong(cached) == key) {
+            return cached;
+        }
+
+        return null;
+    }
+
+    /**
+     * <p>
+     *     Puts the address into its slot. The address that was in the slot before is dropped.
+     * </p>
+     *
+     * @param address the address to cache
+     */
+    void put(final T address) {
+        slots.lazySet(slot(keyFunction.applyAsLong(address)), address);
+    }
+
+    private int slot(final long key) {
+        // spread the bits, addresses of one vendor only differ in the lower bytes
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
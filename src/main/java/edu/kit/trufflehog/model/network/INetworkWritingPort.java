@@ -25,6 +25,28 @@ public interface INetworkWritingPort extends DeepCopyable<Collection<IConnection
      */
     void writeNode(INode node);
 
+    /**
+     * Writes the given nodes and then the given connections into the network as one batch. The network is locked
+     * once for the whole batch instead of once per element where the port supports it.
+     * @param nodes the nodes to be written into the network
+     * @param connections the connections to be written into the network after the nodes
+     */
+    void writeBatch(Collection<INode> nodes, Collection<IConnection> connections);
+
+    /**
+     * Removes the given node and all connections from or to it from the network.
+     * @param node the node to be removed from the network
+     * @return true if the node was part of the network
+     */
+    boolean removeNode(INode node);
+
+    /**
+     * Removes the given connection from the network. The nodes of the connection stay in the network.
+     * @param connection the connection to be removed from the network
+     * @return true if the connection was part of the network
+     */
+    boolean removeConnection(IConnection connection);
+
     /**
      * Uses a filter to update all nodes for legality
      * @param filter filter to be applied to the graph
@@ -1,12 +1,5 @@
 package edu.kit.trufflehog.model.network;
 
-import org.apache.commons.lang3.ArrayUtils;
-
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * <p>
  *     This class represents ip addresses. Each {@link IPAddress} is immutable.
@@ -16,13 +9,16 @@ import java.util.stream.Collectors;
  */
 public class IPAddress implements IAddress, Comparable<IPAddress> {
 
+    private static final AddressCache<IPAddress> CACHE = new AddressCache<>(4096, IPAddress::toLong);
+
     public static final IPAddress INVALID_ADDRESS = new IPAddress(0);
     private final long address;
-    private final byte[] bytes;
     private final boolean isMulticast;
-    private final String addressString;
     private final int hash;
 
+    // created on first use, a racy initialization is harmless because strings are immutable
+    private String addressString;
+
     public IPAddress(final long address) throws InvalidIPAddress {
 
         if (address < 0) {
@@ -35,24 +31,43 @@ public class IPAddress implements IAddress, Comparable<IPAddress> {
 
         this.address = address;
 
-        hash = new Long(this.address).hashCode();
+        hash = Long.hashCode(this.address);
+
+        // set multicast bit (224.0.0.0/4)
+        isMulticast = (this.address >>> 28) == 0b1110;
+    }
 
-        // transform to byte array
-        bytes = new byte[4];
-        final byte[] extractedBytes = ByteBuffer.allocate(8).putLong(this.address).array();
-        System.arraycopy(extractedBytes, 4, bytes, 0, extractedBytes.length - 4);
+    /**
+     * <p>
+     *     Gets the canonical {@link IPAddress} with the specified value. Addresses that were requested recently are
+     *     taken from a bounded cache instead of being created again.
+     * </p>
+     *
+     * @param address the value of the ip address
+     * @return the ip address
+     * @throws InvalidIPAddress if the value is no valid ip address
+     */
+    public static IPAddress of(final long address) throws InvalidIPAddress {
+        IPAddress ipAddress = CACHE.get(address);
+
+        if (ipAddress == null) {
+            ipAddress = new IPAddress(address);
+            CACHE.put(ipAddress);
+        }
 
-        // set multicast bit
-        isMulticast = (bytes[0] & 0xFF) >= 0b11100000 && (bytes[0] & 0xFF) <= 0b11101111;
+        return ipAddress;
+    }
 
-        // set string representation
-        final List<Byte> bytes = Arrays.asList(ArrayUtils.toObject(this.bytes));
-        addressString = bytes.stream().map(byt -> String.format("%d", byt & 0xFF)).collect(Collectors.joining("."));
+    /**
+     * @return the value of this address as long
+     */
+    public long toLong() {
+        return address;
     }
 
     @Override
     public byte[] toByteArray() {
-        return Arrays.copyOf(bytes, 4);
+        return new byte[] {(byte) (address >>> 24), (byte) (address >>> 16), (byte) (address >>> 8), (byte) address};
     }
 
     @Override
@@ -77,6 +92,15 @@ public class IPAddress implements IAddress, Comparable<IPAddress> {
 
     @Override
     public String toString() {
+        if (addressString == null) {
+            addressString = new StringBuilder(15)
+                    .append((address >>> 24) & 0xFF).append('.')
+                    .append((address >>> 16) & 0xFF).append('.')
+                    .append((address >>> 8) & 0xFF).append('.')
+                    .append(address & 0xFF)
+                    .toString();
+        }
+
         return addressString;
     }
 
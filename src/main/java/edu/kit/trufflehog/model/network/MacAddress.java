@@ -16,13 +16,6 @@
  */
 package edu.kit.trufflehog.model.network;
 
-import org.apache.commons.lang3.ArrayUtils;
-
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * \brief
  * \details
@@ -36,11 +29,17 @@ import java.util.stream.Collectors;
  */
 public class MacAddress implements IAddress {
 
-    private final byte[] bytes;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final AddressCache<MacAddress> CACHE = new AddressCache<>(4096, MacAddress::toLong);
+
     private final long address;
-    private final String addressString;
     private final boolean isMulticast;
     private final int hashcode;
+
+    // created on first use, a racy initialization is harmless because strings are immutable
+    private String addressString;
+
     public MacAddress(long address) throws InvalidMACAddress {
 
         this.address = address;
@@ -49,22 +48,49 @@ public class MacAddress implements IAddress {
             throw new InvalidMACAddress(address);
         }
 
-        hashcode = (new Long(address)).hashCode();
-        // transform to byte array
-        final byte[] extractedBytes = ByteBuffer.allocate(8).putLong(address).array();
-        bytes = Arrays.copyOfRange(extractedBytes, 2, 8);
+        hashcode = Long.hashCode(address);
 
-        // set multicast bit
-        isMulticast = (bytes[0] & 1) == 1;
+        // set multicast bit (least significant bit of the first byte)
+        isMulticast = ((address >>> 40) & 1) == 1;
+    }
+
+    /**
+     * <p>
+     *     Gets the canonical {@link MacAddress} with the specified value. Addresses that were requested recently are
+     *     taken from a bounded cache instead of being created again.
+     * </p>
+     *
+     * @param address the value of the mac address
+     * @return the mac address
+     * @throws InvalidMACAddress if the value is no valid mac address
+     */
+    public static MacAddress of(final long address) throws InvalidMACAddress {
+        MacAddress macAddress = CACHE.get(address);
 
-        // set string representation
-        final List<Byte> bytes = Arrays.asList(ArrayUtils.toObject(toByteArray()));
-        addressString = bytes.stream().map(b -> String.format("%02x", b)).collect(Collectors.joining(":"));
+        if (macAddress == null) {
+            macAddress = new MacAddress(address);
+            CACHE.put(macAddress);
+        }
+
+        return macAddress;
+    }
+
+    /**
+     * @return the value of this address as long
+     */
+    public long toLong() {
+        return address;
     }
 
     @Override
     public byte[] toByteArray() {
-        return Arrays.copyOf(bytes, 6);
+        final byte[] bytes = new byte[6];
+
+        for (int i = 0; i < 6; i++) {
+            bytes[i] = (byte) (address >>> (40 - 8 * i));
+        }
+
+        return bytes;
     }
 
     @Override
@@ -89,6 +115,23 @@ public class MacAddress implements IAddress {
 
     @Override
     public String toString() {
+        if (addressString == null) {
+            final char[] chars = new char[17];
+
+            for (int i = 0; i < 6; i++) {
+                final int b = (int) (address >>> (40 - 8 * i)) & 0xFF;
+
+                chars[i * 3] = HEX_DIGITS[b >>> 4];
+                chars[i * 3 + 1] = HEX_DIGITS[b & 0xF];
+
+                if (i < 5) {
+                    chars[i * 3 + 2] = ':';
+                }
+            }
+
+            addressString = new String(chars);
+        }
+
         return addressString;
     }
 }
@@ -6,6 +6,7 @@ import edu.kit.trufflehog.model.network.graph.INode;
 import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import edu.kit.trufflehog.util.ICopyCreator;
+import edu.kit.trufflehog.util.LongPairIndex;
 import edu.kit.trufflehog.util.bindings.MaximumOfValuesBinding;
 import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
 import javafx.application.Platform;
@@ -17,8 +18,10 @@ import org.apache.commons.collections4.keyvalue.MultiKey;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -32,6 +35,11 @@ public class NetworkIOPort implements INetworkIOPort {
 
     private final ObservableUpdatableGraph<INode, IConnection> delegate;
 
+    // nodes and connections between mac addresses are found without creating a key object
+    private final LongPairIndex<INode> macNodeIndex = new LongPairIndex<>();
+    private final LongPairIndex<IConnection> macConnectionIndex = new LongPairIndex<>();
+
+    // all other addresses
     private final Map<IAddress, INode> idNodeMap = new ConcurrentHashMap<>();
     private final Map<MultiKey<IAddress>, IConnection> idConnectionMap = new ConcurrentHashMap<>();
 
@@ -54,9 +62,7 @@ public class NetworkIOPort implements INetworkIOPort {
     @Override
     synchronized public void writeConnection(IConnection connection) {
 
-        final MultiKey<IAddress> connectionKey = new MultiKey<>(connection.getSrc().getAddress(), connection.getDest().getAddress());
-
-        if (delegate.addEdge(connection, connection.getSrc(), connection.getDest())) {
+        if (addConnection(connection)) {
 
             final EdgeStatisticsComponent edgeStat = connection.getComponent(EdgeStatisticsComponent.class);
             if (edgeStat != null) {
@@ -65,14 +71,13 @@ public class NetworkIOPort implements INetworkIOPort {
                 });
 
             }
-            idConnectionMap.put(connectionKey, connection);
         }
     }
 
     @Override
     synchronized public void writeNode(INode node) {
 
-        if (delegate.addVertex(node)) {
+        if (addNode(node)) {
 
             final NodeStatisticsComponent nodeStat = node.getComponent(NodeStatisticsComponent.class);
             if (nodeStat != null) {
@@ -81,10 +86,202 @@ public class NetworkIOPort implements INetworkIOPort {
                 });
 
             }
-            idNodeMap.put(node.getAddress(), node);
         }
     }
 
+    /**
+     * <p>
+     *     Writes the nodes and then the connections while holding the lock of this port once. The new statistics are
+     *     bound to the maximum bindings with one call to the fx thread.
+     * </p>
+     * <p>
+     *     The graph still reports every element that is added or merged to its own listeners.
+     * </p>
+     *
+     * @param nodes the nodes to be written into the network
+     * @param connections the connections to be written into the network after the nodes
+     */
+    @Override
+    public void writeBatch(Collection<INode> nodes, Collection<IConnection> connections) {
+        if (nodes == null) throw new NullPointerException("nodes must not be null");
+        if (connections == null) throw new NullPointerException("connections must not be null");
+
+        final List<INode> addedNodes = new ArrayList<>();
+        final List<IConnection> addedConnections = new ArrayList<>();
+
+        synchronized (this) {
+            for (final INode node : nodes) {
+                if (addNode(node)) {
+                    addedNodes.add(node);
+                }
+            }
+
+            for (final IConnection connection : connections) {
+                if (addConnection(connection)) {
+                    addedConnections.add(connection);
+                }
+            }
+        }
+
+        final List<IntegerProperty> throughputProperties = new ArrayList<>(addedNodes.size());
+        final List<IntegerProperty> trafficProperties = new ArrayList<>(addedConnections.size());
+
+        for (final INode node : addedNodes) {
+            final NodeStatisticsComponent nodeStat = node.getComponent(NodeStatisticsComponent.class);
+            if (nodeStat != null) {
+                throughputProperties.add(nodeStat.getCommunicationCountProperty());
+            }
+        }
+
+        for (final IConnection connection : addedConnections) {
+            final EdgeStatisticsComponent edgeStat = connection.getComponent(EdgeStatisticsComponent.class);
+            if (edgeStat != null) {
+                trafficProperties.add(edgeStat.getTrafficProperty());
+            }
+        }
+
+        if (!throughputProperties.isEmpty() || !trafficProperties.isEmpty()) {
+            Platform.runLater(() -> {
+                throughputProperties.forEach(maxThroughputBinding::bindProperty);
+                trafficProperties.forEach(maxTrafficBinding::bindProperty);
+            });
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes the node and the connections from and to it. Their statistics are unbound from the maximum bindings
+     *     on the fx thread.
+     * </p>
+     *
+     * @param node the node to be removed from the network
+     * @return true if the node was part of the network
+     */
+    @Override
+    public boolean removeNode(INode node) {
+        if (node == null) throw new NullPointerException("node must not be null");
+
+        final List<IConnection> removedConnections = new ArrayList<>();
+
+        synchronized (this) {
+            if (!delegate.containsVertex(node)) {
+                return false;
+            }
+
+            for (final IConnection connection : new ArrayList<>(delegate.getIncidentEdges(node))) {
+                if (deleteConnection(connection)) {
+                    removedConnections.add(connection);
+                }
+            }
+
+            delegate.removeVertex(node);
+
+            final IAddress address = node.getAddress();
+
+            if (address instanceof MacAddress) {
+                macNodeIndex.remove(((MacAddress) address).toLong(), 0);
+            } else {
+                idNodeMap.remove(address);
+            }
+        }
+
+        final NodeStatisticsComponent nodeStat = node.getComponent(NodeStatisticsComponent.class);
+
+        Platform.runLater(() -> {
+            if (nodeStat != null) {
+                maxThroughputBinding.unbindProperty(nodeStat.getCommunicationCountProperty());
+            }
+            removedConnections.forEach(this::unbindConnection);
+        });
+
+        return true;
+    }
+
+    /**
+     * <p>
+     *     Removes the connection. Its statistics are unbound from the maximum binding on the fx thread.
+     * </p>
+     *
+     * @param connection the connection to be removed from the network
+     * @return true if the connection was part of the network
+     */
+    @Override
+    public boolean removeConnection(IConnection connection) {
+        if (connection == null) throw new NullPointerException("connection must not be null");
+
+        synchronized (this) {
+            if (!deleteConnection(connection)) {
+                return false;
+            }
+        }
+
+        Platform.runLater(() -> unbindConnection(connection));
+
+        return true;
+    }
+
+    // must be called with the lock of this port, returns true if the connection was part of the network
+    private boolean deleteConnection(final IConnection connection) {
+
+        if (delegate.removeEdge(connection)) {
+            final IAddress source = connection.getSrc().getAddress();
+            final IAddress dest = connection.getDest().getAddress();
+
+            if (source instanceof MacAddress && dest instanceof MacAddress) {
+                macConnectionIndex.remove(((MacAddress) source).toLong(), ((MacAddress) dest).toLong());
+            } else {
+                idConnectionMap.remove(new MultiKey<>(source, dest));
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    // must be called on the fx thread
+    private void unbindConnection(final IConnection connection) {
+
+        final EdgeStatisticsComponent edgeStat = connection.getComponent(EdgeStatisticsComponent.class);
+        if (edgeStat != null) {
+            maxTrafficBinding.unbindProperty(edgeStat.getTrafficProperty());
+        }
+    }
+
+    // must be called with the lock of this port, returns true if the node was new
+    private boolean addNode(final INode node) {
+
+        if (delegate.addVertex(node)) {
+            final IAddress address = node.getAddress();
+
+            if (address instanceof MacAddress) {
+                macNodeIndex.put(((MacAddress) address).toLong(), 0, node);
+            } else {
+                idNodeMap.put(address, node);
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    // must be called with the lock of this port, returns true if the connection was new
+    private boolean addConnection(final IConnection connection) {
+
+        if (delegate.addEdge(connection, connection.getSrc(), connection.getDest())) {
+            final IAddress source = connection.getSrc().getAddress();
+            final IAddress dest = connection.getDest().getAddress();
+
+            if (source instanceof MacAddress && dest instanceof MacAddress) {
+                macConnectionIndex.put(((MacAddress) source).toLong(), ((MacAddress) dest).toLong(), connection);
+            } else {
+                idConnectionMap.put(new MultiKey<>(source, dest), connection);
+            }
+            return true;
+        }
+
+        return false;
+    }
+
     @Override
     synchronized public void applyFilter(IFilter filter) {
         delegate.getVertices().forEach(filter::check);
@@ -108,11 +305,20 @@ public class NetworkIOPort implements INetworkIOPort {
     @Override
     public INode getNetworkNodeByAddress(IAddress address) {
 
+        if (address instanceof MacAddress) {
+            return macNodeIndex.get(((MacAddress) address).toLong(), 0);
+        }
+
         return idNodeMap.get(address);
     }
 
     @Override
     public IConnection getNetworkConnectionByAddress(IAddress source, IAddress dest) {
+
+        if (source instanceof MacAddress && dest instanceof MacAddress) {
+            return macConnectionIndex.get(((MacAddress) source).toLong(), ((MacAddress) dest).toLong());
+        }
+
         final MultiKey<IAddress> retriever = new MultiKey<>(source, dest);
         return idConnectionMap.get(retriever);
     }
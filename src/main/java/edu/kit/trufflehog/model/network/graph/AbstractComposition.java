@@ -3,13 +3,22 @@ package edu.kit.trufflehog.model.network.graph;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * \brief An abstract implementation of the IComposition interface. Facilitates to create new IComposition classes.
  *
+ * <p>
+ *     The components are kept in an array that is indexed by the {@link ComponentSlots} of their class, so at most
+ *     one component of every class is stored and getting a component does not need a hash lookup. The components are
+ *     iterated in the order of their slots.
+ * </p>
+ *
  * \date 04.03.16
  * \copyright GNU Public License
  * @author Jan Hermes
@@ -18,26 +27,32 @@ import java.util.Iterator;
 public abstract class AbstractComposition implements IComposition {
 
     private static final Logger logger = LogManager.getLogger(AbstractComposition.class);
-    
-    final HashMap<Class<? extends IComponent>, IComponent> components = new HashMap<>();
+
+    private IComponent[] components = new IComponent[ComponentSlots.count()];
+    private int size = 0;
 
     @Override
     public <T extends IComponent> T addComponent(T component) {
 
-        final IComponent existing = components.get(component.getClass());
+        final int slot = ComponentSlots.of(component.getClass());
+        final IComponent existing = slot < components.length ? components[slot] : null;
 
         if (existing != null) {
-            // Safe to suppress unchecked as every value in the components
-            // map that will be retrieved by the according class type will
-            // be a component of that exact type
+            // Safe to suppress unchecked as every component in the
+            // slot of a class type is a component of that exact type
             @SuppressWarnings("unchecked")
             T castedExisting = (T) existing;
             return castedExisting;
         }
         component.setParent(this);
-        components.put(component.getClass(), component);
 
-        //logger.debug(components);
+        if (slot >= components.length) {
+            components = Arrays.copyOf(components, Math.max(slot + 1, ComponentSlots.count()));
+        }
+
+        components[slot] = component;
+        size++;
+
         // TODO do this differently? but i think null as indicator for "there was no previous value" is ok
         return null;
     }
@@ -48,18 +63,21 @@ public abstract class AbstractComposition implements IComposition {
         if (type == null) {
             throw new NullPointerException("componentType must not be null");
         }
-        final IComponent component = components.remove(type);
+        final int slot = ComponentSlots.of(type);
 
-        if (component != null) {
-            // Safe to suppress unchecked as every value in the components
-            // map that will be retrieved by the according class type will
-            // be a component of that exact type
-            @SuppressWarnings("unchecked")
-            T existing = (T) component;
-            return existing;
-        } else {
+        if (slot >= components.length || components[slot] == null) {
             return null;
         }
+
+        // Safe to suppress unchecked as every component in the
+        // slot of a class type is a component of that exact type
+        @SuppressWarnings("unchecked")
+        T existing = (T) components[slot];
+
+        components[slot] = null;
+        size--;
+
+        return existing;
     }
 
     @Override
@@ -68,29 +86,72 @@ public abstract class AbstractComposition implements IComposition {
         if (componentType == null) {
             throw new NullPointerException("componentType must not be null");
         }
-        final IComponent component = components.get(componentType);
+        final int slot = ComponentSlots.of(componentType);
+        final IComponent[] current = components;
 
-        if (component != null) {
+        if (slot >= current.length) {
+            return null;
+        }
 
-            // Safe to suppress unchecked as every value in the components
-            // map that will be retrieved by the according class type will
-            // be a component of that exact type
-            @SuppressWarnings("unchecked")
-            T existing = (T) component;
-            return existing;
-        } else {
+        // Safe to suppress unchecked as every component in the
+        // slot of a class type is a component of that exact type
+        @SuppressWarnings("unchecked")
+        T existing = (T) current[slot];
+        return existing;
+    }
+
+    @Override
+    public <T extends IComponent> T getComponent(int slot, Class<T> componentType) {
+
+        final IComponent[] current = components;
+
+        if (slot < 0 || slot >= current.length) {
             return null;
         }
+
+        // Safe to suppress unchecked as the slot is the slot of the class type
+        // and every component in it is a component of that exact type
+        @SuppressWarnings("unchecked")
+        T existing = (T) current[slot];
+        return existing;
+    }
+
+    @Override
+    public void forEachMutableSlot(ObjIntConsumer<? super IComponent> action) {
+
+        if (action == null) {
+            throw new NullPointerException("action must not be null");
+        }
+
+        for (int slot = 0; slot < components.length; slot++) {
+            if (components[slot] != null && components[slot].isMutable()) {
+                action.accept(components[slot], slot);
+            }
+        }
+    }
+
+    @Override
+    public void forEachMutable(Consumer<? super IComponent> action) {
+
+        if (action == null) {
+            throw new NullPointerException("action must not be null");
+        }
+
+        for (final IComponent component : components) {
+            if (component != null && component.isMutable()) {
+                action.accept(component);
+            }
+        }
     }
 
     @Override
     public int size() {
-        return components.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return components.isEmpty();
+        return size == 0;
     }
 
     @Override
@@ -99,23 +160,40 @@ public abstract class AbstractComposition implements IComposition {
         if (! (o instanceof IComponent)) {
             return false;
         }
-        final IComponent other = (IComponent) o;
-        return components.containsKey(other.getClass());
+        final int slot = ComponentSlots.of(((IComponent) o).getClass());
+        return slot < components.length && components[slot] != null;
     }
 
     @Override
     public Iterator<IComponent> iterator() {
-        return components.values().iterator();
+        return new SlotIterator();
     }
 
     @Override
     public Object[] toArray() {
-        return components.values().toArray();
+        return toArray(new Object[size]);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T[] toArray(T[] a) {
-        return components.values().toArray(a);
+
+        final T[] result = a.length >= size ? a
+                : (T[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), size);
+
+        int index = 0;
+
+        for (final IComponent component : components) {
+            if (component != null) {
+                result[index++] = (T) component;
+            }
+        }
+
+        if (result.length > index) {
+            result[index] = null;
+        }
+
+        return result;
     }
 
     @Override
@@ -136,7 +214,13 @@ public abstract class AbstractComposition implements IComposition {
 
     @Override
     public boolean containsAll(Collection<?> c) {
-        return components.values().containsAll(c);
+
+        for (final Object o : c) {
+            if (!containsValue(o)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -154,19 +238,86 @@ public abstract class AbstractComposition implements IComposition {
     @Override
     public boolean removeAll(Collection<?> c) {
 
-        return components.values().removeAll(c);
+        boolean compositionWasModified = false;
+
+        for (int slot = 0; slot < components.length; slot++) {
+            if (components[slot] != null && c.contains(components[slot])) {
+                components[slot] = null;
+                size--;
+                compositionWasModified = true;
+            }
+        }
+        return compositionWasModified;
     }
 
     @Override
     public boolean retainAll(Collection<?> c) {
 
-        return components.values().retainAll(c);
+        boolean compositionWasModified = false;
+
+        for (int slot = 0; slot < components.length; slot++) {
+            if (components[slot] != null && !c.contains(components[slot])) {
+                components[slot] = null;
+                size--;
+                compositionWasModified = true;
+            }
+        }
+        return compositionWasModified;
     }
 
     @Override
     public void clear() {
 
-        components.values().clear();
+        Arrays.fill(components, null);
+        size = 0;
+    }
+
+    // compares with equals like the collection methods of the former map values
+    private boolean containsValue(Object o) {
+
+        for (final IComponent component : components) {
+            if (component != null && component.equals(o)) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    private final class SlotIterator implements Iterator<IComponent> {
+
+        private int next = advance(0);
+        private int last = -1;
+
+        private int advance(int from) {
+            while (from < components.length && components[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < components.length;
+        }
+
+        @Override
+        public IComponent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return components[last];
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0 || components[last] == null) {
+                throw new IllegalStateException();
+            }
+            components[last] = null;
+            size--;
+            last = -1;
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package edu.kit.trufflehog.model.network.graph;
+
+import edu.kit.trufflehog.model.network.graph.components.ViewComponent;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ *     The ComponentSlots give every component class a small number, its slot. An {@link AbstractComposition} keeps its
+ *     components in an array that is indexed by the slot, so getting a component is an array access instead of a hash
+ *     map lookup.
+ * </p>
+ * <p>
+ *     The components every node and connection carries have the first slots, so the arrays of most compositions stay
+ *     short. Other component classes get the next free slot when they are first used. A slot never changes while the
+ *     application runs.
+ * </p>
+ * <p>
+ *     The slots of these components are kept in constants. Code that gets them often passes the constant to
+ *     {@link IComposition#getComponent(int, Class)}, so the slot of the class is not looked up on every call.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class ComponentSlots {
+
+    private static final AtomicInteger nextSlot = new AtomicInteger(0);
+
+    private static final ClassValue<Integer> slots = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(final Class<?> type) {
+            return nextSlot.getAndIncrement();
+        }
+    };
+
+    /** The slot of the {@link NodeStatisticsComponent}. */
+    public static final int NODE_STATISTICS = of(NodeStatisticsComponent.class);
+
+    /** The slot of the {@link NodeInfoComponent}. */
+    public static final int NODE_INFO = of(NodeInfoComponent.class);
+
+    /** The slot of the {@link FilterPropertiesComponent}. */
+    public static final int FILTER_PROPERTIES = of(FilterPropertiesComponent.class);
+
+    /** The slot of the {@link ViewComponent}. */
+    public static final int VIEW = of(ViewComponent.class);
+
+    /** The slot of the {@link PacketDataLoggingComponent}. */
+    public static final int PACKET_LOG = of(PacketDataLoggingComponent.class);
+
+    /** The slot of the {@link EdgeStatisticsComponent}. */
+    public static final int EDGE_STATISTICS = of(EdgeStatisticsComponent.class);
+
+    private ComponentSlots() {
+    }
+
+    /**
+     * <p>
+     *     Returns the slot of the component class.
+     * </p>
+     *
+     * @param type The component class.
+     * @return the slot of the class
+     */
+    public static int of(final Class<? extends IComponent> type) {
+        if (type == null) throw new NullPointerException("type must not be null");
+
+        return slots.get(type);
+    }
+
+    /**
+     * @return the number of slots that were given out so far
+     */
+    public static int count() {
+        return nextSlot.get();
+    }
+}
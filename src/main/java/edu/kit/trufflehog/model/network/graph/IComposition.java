@@ -1,6 +1,8 @@
 package edu.kit.trufflehog.model.network.graph;
 
 import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 /**
  * This interface defines the basic methods for compositions. A composition representes a collection of Components.
@@ -35,4 +37,39 @@ public interface IComposition extends IComponent, Collection<IComponent> {
      */
     <T extends IComponent> T getComponent(final Class<T> componentType);
 
+    /**
+     * Retrieves the component in the given slot. The slot has to be the {@link ComponentSlots} slot of the type, like
+     * {@link ComponentSlots#NODE_STATISTICS}, so the component can be found without looking up the slot of the type.
+     * @param slot the slot of the component type
+     * @param componentType the type of component to be retrieved
+     * @param <T> Extending IComponent
+     * @return The component registered with the given type, \code null \endcode otherwise.
+     */
+    default <T extends IComponent> T getComponent(final int slot, final Class<T> componentType) {
+        return getComponent(componentType);
+    }
+
+    /**
+     * Calls the action for every mutable component of this Composition, without building a stream.
+     *
+     * @param action the action to call for every component that is mutable
+     */
+    default void forEachMutable(final Consumer<? super IComponent> action) {
+        for (final IComponent component : this) {
+            if (component.isMutable()) {
+                action.accept(component);
+            }
+        }
+    }
+
+    /**
+     * Calls the action for every mutable component of this Composition together with the {@link ComponentSlots} slot
+     * of the component, so the component of the same type in another Composition can be retrieved by its slot.
+     *
+     * @param action the action to call for every component that is mutable
+     */
+    default void forEachMutableSlot(final ObjIntConsumer<? super IComponent> action) {
+        forEachMutable(component -> action.accept(component, ComponentSlots.of(component.getClass())));
+    }
+
 }
@@ -16,6 +16,7 @@
  */
 package edu.kit.trufflehog.model.network.graph;
 
+import edu.kit.trufflehog.model.network.IPAddress;
 import edu.kit.trufflehog.model.network.graph.components.IRenderer;
 import edu.kit.trufflehog.model.network.graph.components.ViewComponent;
 import edu.kit.trufflehog.model.network.graph.components.edge.BasicEdgeRenderer;
@@ -29,7 +30,6 @@ import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComp
 import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 import edu.uci.ics.jung.graph.GraphUpdater;
-import javafx.application.Platform;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -51,8 +51,8 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
     @Override
     public boolean update(INode node, INode update) {
 
-        update.stream().filter(IComponent::isMutable).forEach(c -> {
-            final IComponent existing = node.getComponent(c.getClass());
+        update.forEachMutableSlot((c, slot) -> {
+            final IComponent existing = node.getComponent(slot, IComponent.class);
             existing.update(c, this);
         });
         // TODO check if really some was changed
@@ -67,14 +67,10 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
 
         final NodeStatisticsComponent other = (NodeStatisticsComponent) instance;
 
-        Platform.runLater(() -> {
-
-            nodeStatisticsComponent.setOutgoingCount(nodeStatisticsComponent.getOutgoingCount() + other.getOutgoingCount());
-
-            nodeStatisticsComponent.setIncomingCount(nodeStatisticsComponent.getIncomingCount() + other.getIncomingCount());
-
-
-        });
+        // the counters take concurrent increments, the properties follow with the statistics publisher
+        nodeStatisticsComponent.addOutgoingCount(other.getOutgoingCount());
+        nodeStatisticsComponent.addIncomingCount(other.getIncomingCount());
+        nodeStatisticsComponent.setLastUpdateTime(Instant.now().toEpochMilli());
 
 
         // TODO maybe check for more variants of values (potential bug???)
@@ -104,14 +100,8 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
 
         PacketDataLoggingComponent updater = (PacketDataLoggingComponent)instance;
 
-        for (IPacketData packetData : updater.getObservablePackets()) {
-
-            Platform.runLater(() -> {
-
-                packetDataLoggingComponent.addPacket(packetData);
-
-            });
-        }
+        // all packets of the update are added with the next frame
+        packetDataLoggingComponent.stagePackets(updater.getObservablePackets().toArray(new IPacketData[0]));
 
         return true;
     }
@@ -119,8 +109,8 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
     @Override
     public boolean update(IConnection oldValue, IConnection newValue) {
 
-        newValue.stream().filter(IComponent::isMutable).forEach(c -> {
-            final IComponent existing = oldValue.getComponent(c.getClass());
+        newValue.forEachMutableSlot((c, slot) -> {
+            final IComponent existing = oldValue.getComponent(slot, IComponent.class);
             existing.update(c, this);
         });
         // TODO check if really some was changed
@@ -153,12 +143,14 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
 
     @Override
     public boolean update(EdgeStatisticsComponent edgeStatisticsComponent, IComponent instance) {
-        // TODO maybe change to another value
-        Platform.runLater(() -> {
+        if (!edgeStatisticsComponent.equals(instance))
+            return false;
 
-            edgeStatisticsComponent.setLastUpdateTimeProperty(Instant.now().toEpochMilli());
-            edgeStatisticsComponent.incrementTraffic(1);
-        });
+        // aggregated updates carry more than one packet
+        final int traffic = ((EdgeStatisticsComponent) instance).getTraffic();
+
+        edgeStatisticsComponent.setLastUpdateTimeProperty(Instant.now().toEpochMilli());
+        edgeStatisticsComponent.incrementTraffic(traffic);
 
         return true;
     }
@@ -171,24 +163,12 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
 
         final NodeInfoComponent other = (NodeInfoComponent) instance;
 
-        boolean changed = false;
-
-        if (other.getDeviceName() != null) {
-            Platform.runLater(() -> {
-                nodeInfoComponent.setDeviceName(other.getDeviceName());
-            });
+        final String deviceName = other.getDeviceName();
+        final IPAddress ip = other.getIPAddress();
 
-            changed = true;
-        }
-
-        if (other.getIPAddress() != null) {
-            Platform.runLater(() -> {
-                nodeInfoComponent.setIPAddress(other.getIPAddress());
-            });
+        nodeInfoComponent.stageInfo(deviceName, ip);
 
-            changed = true;
-        }
-        return changed;
+        return deviceName != null || ip != null;
     }
 
     @Override
@@ -214,18 +194,15 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
         if (!filterPropertiesComponent.equals(instance))
             return false;
 
-        Platform.runLater(() -> {
-            filterPropertiesComponent.addFilterColors(((FilterPropertiesComponent)instance).getFilterColors());
-        });
-
+        filterPropertiesComponent.stageFilterColors(((FilterPropertiesComponent)instance).getFilterColors());
 
         return true;
     }
 
     public boolean updateVertex(INode existingVertex, INode newVertex) {
 
-        newVertex.stream().filter(IComponent::isMutable).forEach(c -> {
-            final IComponent existing = existingVertex.getComponent(c.getClass());
+        newVertex.forEachMutableSlot((c, slot) -> {
+            final IComponent existing = existingVertex.getComponent(slot, IComponent.class);
             existing.update(c, this);
         });
         // TODO check if really some was changed
@@ -235,8 +212,8 @@ public class LiveUpdater implements IUpdater, GraphUpdater<INode, IConnection> {
     @Override
     public boolean updateEdge(IConnection existingEdge, IConnection newEdge) {
 
-        newEdge.stream().filter(IComponent::isMutable).forEach(c -> {
-            final IComponent existing = existingEdge.getComponent(c.getClass());
+        newEdge.forEachMutableSlot((c, slot) -> {
+            final IComponent existing = existingEdge.getComponent(slot, IComponent.class);
             existing.update(c, this);
         });
         // TODO check if really some was changed
@@ -5,13 +5,16 @@ import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
-import javafx.application.Platform;
+import edu.kit.trufflehog.util.bindings.IPublishable;
+import edu.kit.trufflehog.util.bindings.StatisticsPublisher;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.LongProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleLongProperty;
 
 import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * \brief
@@ -22,13 +25,20 @@ import java.time.Instant;
  * @author Jan Hermes
  * @version 0.0.1
  */
-public class EdgeStatisticsComponent extends AbstractComponent implements IComponent {
+public class EdgeStatisticsComponent extends AbstractComponent implements IComponent, IPublishable {
+
+    // the model values, the properties are updated from them by the statistics publisher
+    private final LongAdder traffic = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private volatile long lastUpdate = Instant.now().toEpochMilli();
+    private final AtomicBoolean changed = new AtomicBoolean(false);
 
     private final IntegerProperty trafficProperty = new SimpleIntegerProperty(1);
-    private final LongProperty lastUpdateTime = new SimpleLongProperty(Instant.now().toEpochMilli());
+    private final LongProperty lastUpdateTime = new SimpleLongProperty(lastUpdate);
 
     public EdgeStatisticsComponent(int initial) {
 
+        traffic.add(initial);
         trafficProperty.set(initial);
     }
 
@@ -37,15 +47,50 @@ public class EdgeStatisticsComponent extends AbstractComponent implements ICompo
     }
 
     public int getTraffic() {
-        return trafficProperty.get();
+        return traffic.intValue();
     }
 
+    /**
+     * <p>
+     *     Sets the traffic. Increments that happen at the same time may be lost, use {@link #incrementTraffic(int)} to
+     *     count packets.
+     * </p>
+     *
+     * @param value The new traffic.
+     */
     public void setTrafficProperty(int value) {
-        Platform.runLater(() -> trafficProperty.set(value));
+        traffic.add(value - traffic.sum());
+        markChanged();
     }
 
+    /**
+     * <p>
+     *     Adds to the traffic. This method may be called by any thread.
+     * </p>
+     *
+     * @param step The number of packets to add.
+     */
     public void incrementTraffic(int step) {
-        setTrafficProperty(getTraffic() + step);
+        traffic.add(step);
+        markChanged();
+    }
+
+    /**
+     * @return the number of repeated DCP frames sent over the connection, they are not part of the traffic
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /**
+     * <p>
+     *     Adds to the count of repeated DCP frames sent over the connection. This method may be called by any thread.
+     * </p>
+     *
+     * @param step The number of frames to add.
+     */
+    public void addDuplicateCount(int step) {
+        duplicates.add(step);
     }
 
     @Override
@@ -66,7 +111,7 @@ public class EdgeStatisticsComponent extends AbstractComponent implements ICompo
 
 
     public long getLastUpdateTime() {
-        return lastUpdateTime.get();
+        return lastUpdate;
     }
 
     public LongProperty lastUpdateTimeProperty() {
@@ -74,7 +119,24 @@ public class EdgeStatisticsComponent extends AbstractComponent implements ICompo
     }
 
     public void setLastUpdateTimeProperty(long value) {
-        lastUpdateTimeProperty().setValue(value);
+        lastUpdate = value;
+        markChanged();
+    }
+
+    @Override
+    public void publish() {
+
+        // cleared first, so a change during the copy registers this component again
+        changed.set(false);
+
+        trafficProperty.set(traffic.intValue());
+        lastUpdateTime.set(lastUpdate);
+    }
+
+    private void markChanged() {
+        if (changed.compareAndSet(false, true)) {
+            StatisticsPublisher.getInstance().changed(this);
+        }
     }
 
     @Override
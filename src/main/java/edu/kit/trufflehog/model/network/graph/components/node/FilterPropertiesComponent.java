@@ -1,5 +1,6 @@
 package edu.kit.trufflehog.model.network.graph.components.node;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
@@ -10,6 +11,7 @@ import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
+import edu.kit.trufflehog.util.bindings.FrameUpdateBridge;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -22,6 +24,10 @@ import org.apache.logging.log4j.Logger;
  * <p>
  *     This class contains all flags and rendering properties that are set by filters when the node is filtered by them.
  * </p>
+ * <p>
+ *     The model threads stage new colors with {@link #stageFilterColors(Multimap)}. The staged colors are added once
+ *     per frame by the {@link FrameUpdateBridge}.
+ * </p>
  * @author Mark Giraud
  * @version 1.0
  */
@@ -31,6 +37,11 @@ public class FilterPropertiesComponent extends AbstractComponent implements ICom
 
     private final TreeMultimap<IFilter, Color> filterColors = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
 
+    private Multimap<IFilter, Color> stagedColors = ArrayListMultimap.create();
+
+    // the key of this component in the bridge, the components are equal to each other
+    private final Object frameKey = new Object();
+
     public boolean getHasColor() {
         return hasColor.get();
     }
@@ -77,6 +88,42 @@ public class FilterPropertiesComponent extends AbstractComponent implements ICom
         }
     }
 
+    /**
+     * <p>
+     *     This method stages the specified filter colors to be added with the next frame. This method may be called
+     *     from any thread.
+     * </p>
+     * @param newFilterColors the new filter colors to add to the existing map
+     */
+    public void stageFilterColors(Multimap<IFilter, Color> newFilterColors) {
+
+        if (newFilterColors.isEmpty()) {
+            return;
+        }
+
+        synchronized (frameKey) {
+            stagedColors.putAll(newFilterColors);
+        }
+
+        FrameUpdateBridge.getInstance().changed(frameKey, this::addStagedFilterColors);
+    }
+
+    /**
+     * <p>
+     *     This method adds the staged filter colors to the existing map. It is only called on the fx thread.
+     * </p>
+     */
+    public void addStagedFilterColors() {
+        final Multimap<IFilter, Color> colors;
+
+        synchronized (frameKey) {
+            colors = stagedColors;
+            stagedColors = ArrayListMultimap.create();
+        }
+
+        addFilterColors(colors);
+    }
+
     /**
      * <p>
      *     This method removes the color set by the supplied filter at some time.
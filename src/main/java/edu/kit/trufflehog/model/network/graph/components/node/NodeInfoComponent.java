@@ -7,6 +7,7 @@ import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
+import edu.kit.trufflehog.util.bindings.FrameUpdateBridge;
 import edu.kit.trufflehog.util.bindings.MyBindings;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
@@ -18,10 +19,16 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * <p>
  *     This class holds all static node information like addresses and the device name.
  * </p>
+ * <p>
+ *     The model threads stage new information with {@link #stageInfo(String, IPAddress)}. The staged information is
+ *     set once per frame by the {@link FrameUpdateBridge}.
+ * </p>
  * @author Mark Giraud
  * @version 0.1
  */
@@ -31,6 +38,12 @@ public class NodeInfoComponent extends AbstractComponent implements IComponent {
     private final ObjectProperty<IPAddress> ipAddressProperty = new SimpleObjectProperty<>();
     private final ReadOnlyObjectWrapper<MacAddress> macAddressProperty;
 
+    private final AtomicReference<String> stagedDeviceName = new AtomicReference<>();
+    private final AtomicReference<IPAddress> stagedIPAddress = new AtomicReference<>();
+
+    // the key of this component in the bridge, the components are equal to each other
+    private final Object frameKey = new Object();
+
     private IComposition parent;
 
     public NodeInfoComponent(MacAddress macAddress) {
@@ -101,6 +114,50 @@ public class NodeInfoComponent extends AbstractComponent implements IComponent {
         return ipAddressProperty;
     }
 
+    /**
+     * <p>
+     *     Stages a new device name and ip address to be set with the next frame. A value that is null keeps the
+     *     current or the already staged value. This method may be called from any thread.
+     * </p>
+     *
+     * @param deviceName The new device name or null.
+     * @param ip The new ip address or null.
+     */
+    public void stageInfo(String deviceName, IPAddress ip) {
+
+        if (deviceName == null && ip == null) {
+            return;
+        }
+
+        if (deviceName != null) {
+            stagedDeviceName.set(deviceName);
+        }
+
+        if (ip != null) {
+            stagedIPAddress.set(ip);
+        }
+
+        FrameUpdateBridge.getInstance().changed(frameKey, this::setStagedInfo);
+    }
+
+    /**
+     * <p>
+     *     Sets the staged device name and ip address. This method is only called on the fx thread.
+     * </p>
+     */
+    public void setStagedInfo() {
+        final String deviceName = stagedDeviceName.getAndSet(null);
+        final IPAddress ip = stagedIPAddress.getAndSet(null);
+
+        if (deviceName != null) {
+            setDeviceName(deviceName);
+        }
+
+        if (ip != null) {
+            setIPAddress(ip);
+        }
+    }
+
     /**
      * <p>
      *     Gets the mac address.
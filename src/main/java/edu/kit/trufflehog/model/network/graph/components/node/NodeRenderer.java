@@ -4,7 +4,7 @@ import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.IRenderer;
 import edu.kit.trufflehog.util.ICopyCreator;
-import javafx.application.Platform;
+import edu.kit.trufflehog.util.bindings.FrameUpdateBridge;
 import javafx.beans.binding.When;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -47,7 +47,7 @@ public class NodeRenderer implements IRenderer {
 
        // shape.getStyle
 
-        Platform.runLater(() -> {
+        FrameUpdateBridge.getInstance().added(this, () -> {
             shape.fillProperty().bind(fillPaintProperty);
         });
 
@@ -83,7 +83,7 @@ public class NodeRenderer implements IRenderer {
         // TODO maybe make this more error prone
         if (fpc != null) {
 
-            Platform.runLater(() -> {
+            FrameUpdateBridge.getInstance().changed(this, () -> {
                 shape.fillProperty().unbind();
                 shape.fillProperty().bind(new When(fpc.hasColorProperty()).then(fpc.activeColorProperty()).otherwise(colorPicked));
 
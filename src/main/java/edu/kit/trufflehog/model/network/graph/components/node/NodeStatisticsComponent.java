@@ -5,7 +5,8 @@ import edu.kit.trufflehog.model.network.graph.IComposition;
 import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
-import javafx.application.Platform;
+import edu.kit.trufflehog.util.bindings.IPublishable;
+import edu.kit.trufflehog.util.bindings.StatisticsPublisher;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
@@ -14,13 +15,29 @@ import javafx.beans.property.SimpleIntegerProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
+ * <p>
+ *     The NodeStatisticsComponent counts the packets a node sent and received. The counts are kept in counters that
+ *     any thread may change, the getters return their exact value. The JavaFX properties show the counts on the fx
+ *     thread and are updated by the {@link StatisticsPublisher} at a fixed rate, so they may lag behind.
+ * </p>
+ *
  * Created by jan on 23.02.16.
  */
-public class NodeStatisticsComponent extends AbstractComponent implements IComponent {
+public class NodeStatisticsComponent extends AbstractComponent implements IComponent, IPublishable {
 
     private static final Logger logger = LogManager.getLogger(NodeStatisticsComponent.class);
-    
+
+    private final LongAdder ingoing = new LongAdder();
+    private final LongAdder outgoing = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final AtomicBoolean changed = new AtomicBoolean(false);
+    private volatile long lastUpdate = Instant.now().toEpochMilli();
+
     private final IntegerProperty communicationCount;
     private final DoubleProperty throughput = new SimpleDoubleProperty(1);
 
@@ -32,6 +49,9 @@ public class NodeStatisticsComponent extends AbstractComponent implements ICompo
 
     public NodeStatisticsComponent(int initialOutgoing, int initialIngoing) {
 
+        ingoing.add(initialIngoing);
+        outgoing.add(initialOutgoing);
+
         ingoingCount = new SimpleIntegerProperty(initialIngoing);
         outgoingCount = new SimpleIntegerProperty(initialOutgoing);
 
@@ -41,29 +61,87 @@ public class NodeStatisticsComponent extends AbstractComponent implements ICompo
     }
 
     public int getOutgoingCount() {
-        return outgoingCount.get();
+        return outgoing.intValue();
     }
 
     public IntegerProperty outgoingCountProperty() {
         return outgoingCount;
     }
 
+    /**
+     * <p>
+     *     Sets the outgoing count. Increments that happen at the same time may be lost, use
+     *     {@link #addOutgoingCount(int)} to count packets.
+     * </p>
+     *
+     * @param outgoingCount The new outgoing count.
+     */
     public void setOutgoingCount(int outgoingCount) {
+        outgoing.add(outgoingCount - outgoing.sum());
+        markChanged();
+    }
 
-
-        Platform.runLater(() -> this.outgoingCount.set(outgoingCount));
+    /**
+     * <p>
+     *     Adds to the outgoing count. This method may be called by any thread.
+     * </p>
+     *
+     * @param step The number of packets to add.
+     */
+    public void addOutgoingCount(int step) {
+        outgoing.add(step);
+        markChanged();
     }
 
     public int getIncomingCount() {
-        return ingoingCount.get();
+        return ingoing.intValue();
     }
 
     public IntegerProperty ingoingCountProperty() {
         return ingoingCount;
     }
 
+    /**
+     * <p>
+     *     Sets the incoming count. Increments that happen at the same time may be lost, use
+     *     {@link #addIncomingCount(int)} to count packets.
+     * </p>
+     *
+     * @param ingoingCount The new incoming count.
+     */
     public void setIncomingCount(int ingoingCount) {
-        Platform.runLater(() -> this.ingoingCount.set(ingoingCount));
+        ingoing.add(ingoingCount - ingoing.sum());
+        markChanged();
+    }
+
+    /**
+     * <p>
+     *     Adds to the incoming count. This method may be called by any thread.
+     * </p>
+     *
+     * @param step The number of packets to add.
+     */
+    public void addIncomingCount(int step) {
+        ingoing.add(step);
+        markChanged();
+    }
+
+    /**
+     * @return the number of repeated DCP frames the node sent, they are not part of the outgoing count
+     */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    /**
+     * <p>
+     *     Adds to the count of repeated DCP frames the node sent. This method may be called by any thread.
+     * </p>
+     *
+     * @param step The number of frames to add.
+     */
+    public void addDuplicateCount(int step) {
+        duplicates.add(step);
     }
 
     public IntegerProperty getCommunicationCountProperty() {
@@ -72,45 +150,35 @@ public class NodeStatisticsComponent extends AbstractComponent implements ICompo
     }
 
     public int getCommunicationCount() {
-        return communicationCount.get();
-    }
-
-    //FIXME fix concurrency problem?
-    /*
-    Exception in thread "pool-5-thread-1" java.lang.NullPointerException
-	at com.sun.javafx.binding.ExpressionHelper$Generic.fireValueChangedEvent(ExpressionHelper.java:349)
-	at com.sun.javafx.binding.ExpressionHelper.fireValueChangedEvent(ExpressionHelper.java:81)
-	at javafx.beans.property.IntegerPropertyBase.fireValueChangedEvent(IntegerPropertyBase.java:106)
-	at javafx.beans.property.IntegerPropertyBase.markInvalid(IntegerPropertyBase.java:113)
-	at javafx.beans.property.IntegerPropertyBase.set(IntegerPropertyBase.java:147)
-	at edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent.setCommunicationCountProperty(NodeStatisticsComponent.java:36)
-	at edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent.incrementThroughput(NodeStatisticsComponent.java:41)
-	at edu.kit.trufflehog.model.network.graph.LiveUpdater.update(LiveUpdater.java:62)
-	at edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent.update(NodeStatisticsComponent.java:70)
-	at edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent.update(NodeStatisticsComponent.java:15)
-	at edu.kit.trufflehog.model.network.graph.LiveUpdater.lambda$updateVertex$2(LiveUpdater.java:170)
-	at java.util.stream.ForEachOps$ForEachOp$OfRef.accept(ForEachOps.java:184)
-	at java.util.stream.ReferencePipeline$2$1.accept(ReferencePipeline.java:175)
-	at java.util.Iterator.forEachRemaining(Iterator.java:116)
-	at java.util.Spliterators$IteratorSpliterator.forEachRemaining(Spliterators.java:1801)
-	at java.util.stream.AbstractPipeline.copyInto(AbstractPipeline.java:481)
-	at java.util.stream.AbstractPipeline.wrapAndCopyInto(AbstractPipeline.java:471)
-	at java.util.stream.ForEachOps$ForEachOp.evaluateSequential(ForEachOps.java:151)
-	at java.util.stream.ForEachOps$ForEachOp$OfRef.evaluateSequential(ForEachOps.java:174)
-	at java.util.stream.AbstractPipeline.evaluate(AbstractPipeline.java:234)
-	at java.util.stream.ReferencePipeline.forEach(ReferencePipeline.java:418)
-	at edu.kit.trufflehog.model.network.graph.LiveUpdater.updateVertex(LiveUpdater.java:168)
-	at edu.kit.trufflehog.model.network.graph.LiveUpdater.updateVertex(LiveUpdater.java:44)
-	at edu.uci.ics.jung.graph.ObservableUpdatableGraph.updateVertex(ObservableUpdatableGraph.java:84)
-	at edu.uci.ics.jung.graph.ObservableUpdatableGraph.addVertex(ObservableUpdatableGraph.java:171)
-	at edu.kit.trufflehog.model.network.NetworkIOPort.writeNode(NetworkIOPort.java:65)
-	at edu.kit.trufflehog.model.network.recording.NetworkWritingPortSwitch.writeNode(NetworkWritingPortSwitch.java:38)
-	at edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand.execute(AddPacketDataCommand.java:95)
-	at edu.kit.trufflehog.service.executor.CommandExecutor.run(CommandExecutor.java:45)
-	at java.util.concurrent.ThreadPoolExecutor.runWorker(ThreadPoolExecutor.java:1142)
-	at java.util.concurrent.ThreadPoolExecutor$Worker.run(ThreadPoolExecutor.java:617)
-	at java.lang.Thread.run(Thread.java:745)
+        return (int) (ingoing.sum() + outgoing.sum());
+    }
+
+    /**
+     * @return the time in milliseconds the node last sent or received a packet
      */
+    public long getLastUpdateTime() {
+        return lastUpdate;
+    }
+
+    public void setLastUpdateTime(long value) {
+        lastUpdate = value;
+    }
+
+    @Override
+    public void publish() {
+
+        // cleared first, so a change during the copy registers this component again
+        changed.set(false);
+
+        ingoingCount.set(ingoing.intValue());
+        outgoingCount.set(outgoing.intValue());
+    }
+
+    private void markChanged() {
+        if (changed.compareAndSet(false, true)) {
+            StatisticsPublisher.getInstance().changed(this);
+        }
+    }
 
     public DoubleProperty getThroughputProperty() {
         return throughput;
@@ -6,24 +6,40 @@ import edu.kit.trufflehog.model.network.graph.IUpdater;
 import edu.kit.trufflehog.model.network.graph.components.AbstractComponent;
 import edu.kit.trufflehog.model.network.graph.components.IComponentVisitor;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import edu.kit.trufflehog.util.bindings.FrameUpdateBridge;
 import javafx.beans.property.ListProperty;
 import javafx.beans.property.SimpleListProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * <p>
  *     Component to store outgoing and incoming IPacketData of nodes. Provides JavaFX property to access/observe
  *     the data.
  * </p>
+ * <p>
+ *     The model threads stage their packets with {@link #stagePackets(IPacketData...)}. The staged packets are
+ *     appended to the list once per frame by the {@link FrameUpdateBridge}, no matter how many commands staged them.
+ * </p>
  */
 public class PacketDataLoggingComponent extends AbstractComponent implements IComponent {
 
     private final ObservableList<IPacketData> dataList;
     private final ListProperty<IPacketData> dataProperty;
 
+    private final Queue<IPacketData> staged = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean marked = new AtomicBoolean(false);
+
+    // the key of this component in the bridge, the components are equal to each other
+    private final Object frameKey = new Object();
+
     private IComposition parent = null;
     /**
      * <p>
@@ -66,6 +82,48 @@ public class PacketDataLoggingComponent extends AbstractComponent implements ICo
         dataList.add(packet);
     }
 
+    /**
+     * <p>
+     *     Stages packets to be added to the list with the next frame. This method may be called from any thread.
+     * </p>
+     *
+     * @param packets The packets to add to the list (must not be null).
+     */
+    public void stagePackets(IPacketData... packets) {
+        if (packets == null) throw new NullPointerException("packets must not be null!");
+
+        for (final IPacketData packet : packets) {
+            if (packet == null) throw new NullPointerException("packet must not be null!");
+            staged.offer(packet);
+        }
+
+        if (packets.length > 0 && marked.compareAndSet(false, true)) {
+            FrameUpdateBridge.getInstance().changed(frameKey, this::addStagedPackets);
+        }
+    }
+
+    /**
+     * <p>
+     *     Adds the staged packets to the list with a single change. This method is only called on the fx thread.
+     * </p>
+     */
+    public void addStagedPackets() {
+
+        // cleared first, so a packet that is staged during the copy marks this component again
+        marked.set(false);
+
+        final List<IPacketData> packets = new ArrayList<>();
+        IPacketData packet;
+
+        while ((packet = staged.poll()) != null) {
+            packets.add(packet);
+        }
+
+        if (!packets.isEmpty()) {
+            dataList.addAll(packets);
+        }
+    }
+
     @Override
     public String name() {
         return "Packet Logs";
@@ -39,6 +39,21 @@ public class NetworkWritingPortSwitch implements INetworkWritingPortSwitch {
         activePort.writeNode(node);
     }
 
+    @Override
+    public void writeBatch(Collection<INode> nodes, Collection<IConnection> connections) {
+        activePort.writeBatch(nodes, connections);
+    }
+
+    @Override
+    public boolean removeNode(INode node) {
+        return activePort.removeNode(node);
+    }
+
+    @Override
+    public boolean removeConnection(IConnection connection) {
+        return activePort.removeConnection(connection);
+    }
+
     @Override
     public void applyFilter(IFilter filter) {
         activePort.applyFilter(filter);
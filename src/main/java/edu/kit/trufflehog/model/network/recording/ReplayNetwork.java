@@ -395,6 +395,32 @@ public class ReplayNetwork implements INetwork {
             idNodeMap.put(node.getAddress(), node);
         }
 
+        @Override
+        public void writeBatch(Collection<INode> nodes, Collection<IConnection> connections) {
+            nodes.forEach(this::writeNode);
+            connections.forEach(this::writeConnection);
+        }
+
+        @Override
+        public boolean removeNode(INode node) {
+
+            if (delegate.getGraph().removeVertex(node)) {
+                idNodeMap.remove(node.getAddress());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean removeConnection(IConnection connection) {
+
+            if (delegate.getGraph().removeEdge(connection)) {
+                idConnectionMap.remove(new MultiKey<>(connection.getSrc().getAddress(), connection.getDest().getAddress()));
+                return true;
+            }
+            return false;
+        }
+
         @Override
         public void applyFilter(IFilter filter) {
             /*for (INode node : delegate.getVertices()) {
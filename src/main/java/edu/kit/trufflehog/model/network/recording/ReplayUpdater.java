@@ -47,7 +47,7 @@ public class ReplayUpdater implements IUpdater, GraphUpdater<INode, IConnection>
     @Override
     public boolean update(INode node, INode update) {
 
-        update.stream().filter(IComponent::isMutable).forEach(c -> {
+        update.forEachMutable(c -> {
             final IComponent existing = node.getComponent(c.getClass());
             existing.update(c, this);
         });
@@ -58,7 +58,7 @@ public class ReplayUpdater implements IUpdater, GraphUpdater<INode, IConnection>
     @Override
     public boolean update(IConnection oldValue, IConnection newValue) {
 
-        newValue.stream().filter(IComponent::isMutable).forEach(c -> {
+        newValue.forEachMutable(c -> {
             final IComponent existing = oldValue.getComponent(c.getClass());
             existing.update(c, this);
         });
@@ -181,7 +181,7 @@ public class ReplayUpdater implements IUpdater, GraphUpdater<INode, IConnection>
 
     public boolean updateVertex(INode existingVertex, INode newVertex) {
 
-        newVertex.stream().filter(IComponent::isMutable).forEach(c -> {
+        newVertex.forEachMutable(c -> {
             final IComponent existing = existingVertex.getComponent(c.getClass());
             existing.update(c, this);
         });
@@ -192,7 +192,7 @@ public class ReplayUpdater implements IUpdater, GraphUpdater<INode, IConnection>
     @Override
     public boolean updateEdge(IConnection existingEdge, IConnection newEdge) {
 
-        newEdge.stream().filter(IComponent::isMutable).forEach(c -> {
+        newEdge.forEachMutable(c -> {
             final IComponent existing = existingEdge.getComponent(c.getClass());
             existing.update(c, this);
         });
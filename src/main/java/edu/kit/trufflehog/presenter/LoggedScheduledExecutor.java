@@ -5,13 +5,17 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
- *     A ScheduledThreadPoolExecutor that logs exceptions and does not just drop them. This is a singelton.
+ *     A ScheduledThreadPoolExecutor that logs exceptions and does not just drop them. The scheduled pools of the
+ *     {@link ThreadPools} are LoggedScheduledExecutors, {@link #getInstance()} returns the
+ *     {@link ThreadPools.Pool#TIMERS} pool.
  * </p>
  *
  * @author Julian Brendl
@@ -19,36 +23,31 @@ import java.util.concurrent.TimeUnit;
  */
 public class LoggedScheduledExecutor extends ScheduledThreadPoolExecutor {
     private static final Logger logger = LogManager.getLogger(LoggedScheduledExecutor.class);
-    private static LoggedScheduledExecutor loggedScheduledExecutor = null;
 
     /**
      * <p>
-     *     Returns a new LoggedScheduledExecutor if none has been created yet and otherwise returns the already
-     *     existing instance.
+     *     Returns the timer pool of the {@link ThreadPools}. It is created with the other pools on the first call.
      * </p>
      *
-     * @return a new LoggedScheduledExecutor if none has been created yet and otherwise returns the already existing
-     *     instance.
+     * @return the timer pool of the {@link ThreadPools}
      */
     public static LoggedScheduledExecutor getInstance() {
-        if (loggedScheduledExecutor == null) {
-            loggedScheduledExecutor = new LoggedScheduledExecutor(10);
-        }
-
-        return loggedScheduledExecutor;
+        return ThreadPools.getInstance().getTimers();
     }
 
     /**
      * <p>
-     *     Creates a new LoggedScheduledExecutor object. This method is private since the thread pool is a singelton
-     *     and controls all threads in TruffleHog.
+     *     Creates a new LoggedScheduledExecutor object. This method is package private since the thread pool is
+     *     created by the {@link ThreadPools} that control all threads in TruffleHog.
      * </p>
      *
      * @param corePoolSize The core pool size of the executor, for more info see the oracle documentation for
      *                     ScheduledThreadPoolExecutor
+     * @param threadFactory The factory that creates the named threads of the executor.
+     * @param handler The handler for the tasks the executor rejects.
      */
-    private LoggedScheduledExecutor(int corePoolSize) {
-        super(corePoolSize);
+    LoggedScheduledExecutor(int corePoolSize, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        super(corePoolSize, threadFactory, handler);
     }
 
     @Override
@@ -1,5 +1,8 @@
 package edu.kit.trufflehog.presenter;
 
+import edu.kit.trufflehog.command.queue.IBoundedCommandQueue;
+import edu.kit.trufflehog.command.queue.OverflowPolicy;
+import edu.kit.trufflehog.command.queue.WaitStrategy;
 import edu.kit.trufflehog.command.usercommand.*;
 import edu.kit.trufflehog.interaction.FilterInteraction;
 import edu.kit.trufflehog.interaction.GraphInteraction;
@@ -23,10 +26,25 @@ import edu.kit.trufflehog.model.network.recording.NetworkReadingPortSwitch;
 import edu.kit.trufflehog.model.network.recording.NetworkViewPortSwitch;
 import edu.kit.trufflehog.model.network.recording.NetworkWritingPortSwitch;
 import edu.kit.trufflehog.service.NodeStatisticsUpdater;
+import edu.kit.trufflehog.service.aging.NetworkAging;
+import edu.kit.trufflehog.service.executor.CoalescingTruffleListener;
 import edu.kit.trufflehog.service.executor.CommandExecutor;
+import edu.kit.trufflehog.service.executor.CommandScheduler;
+import edu.kit.trufflehog.service.monitoring.PipelineMetrics;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.DuplicateFrameFilter;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.InvalidPacketRule;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.PacketFilter;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.PacketRule;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.PcapReceiver;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.SharedMemoryReceiver;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.StreamSocketReceiver;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.SyntheticTrafficReceiver;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TrafficModel;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleCrook;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.UnixSocketReceiver;
+import edu.kit.trufflehog.util.bindings.FrameUpdateBridge;
+import edu.kit.trufflehog.util.bindings.StatisticsPublisher;
 import edu.kit.trufflehog.view.*;
 import edu.kit.trufflehog.view.jung.visualization.FXVisualizationViewer;
 import edu.kit.trufflehog.viewmodel.FilterViewModel;
@@ -40,6 +58,8 @@ import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.input.*;
@@ -47,11 +67,13 @@ import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import java.nio.file.Paths;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -66,11 +88,17 @@ import java.util.stream.Collectors;
 public class Presenter {
     private static final Logger logger = LogManager.getLogger();
 
+    // the time the pending writes have to finish when TruffleHog is closed
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
     private final ConfigData configData;
     private final FileSystem fileSystem;
     private final ScheduledExecutorService executorService;
     private final Stage primaryStage;
     private TruffleReceiver truffleReceiver;
+    private CoalescingTruffleListener coalescingListener;
+    private PipelineMetrics pipelineMetrics;
+    private NetworkAging networkAging;
     private INetworkViewPortSwitch viewPortSwitch;
     private INetworkReadingPortSwitch readingPortSwitch;
     private INetworkDevice networkDevice;
@@ -80,7 +108,7 @@ public class Presenter {
 
     private FilterViewModel filterViewModel;
 
-    private final CommandExecutor commandExecutor = new CommandExecutor();
+    private final CommandExecutor commandExecutor = createCommandExecutor();
 
     /**
      * <p>
@@ -122,10 +150,82 @@ public class Presenter {
         initDatabase();
         initGUI();
 
+        // The changes of the graph reach the scene graph once per frame, within the frame budget.
+        FrameUpdateBridge.getInstance().start();
+
         primaryStage.setOnCloseRequest(event -> finish());
 
     }
 
+    /**
+     * <p>
+     *     Creates the command executor. The truffle queue can be configured with -Dtrufflehog.queue.capacity,
+     *     -Dtrufflehog.queue.policy=block|drop_newest|drop_oldest|sample and -Dtrufflehog.queue.sample, the wait
+     *     strategy of the executor with -Dtrufflehog.executor.wait=park|yield|spin and the number of threads that
+     *     execute truffle commands with -Dtrufflehog.executor.shards. User commands are prioritized with a latency
+     *     target of -Dtrufflehog.executor.latency milliseconds unless -Dtrufflehog.executor.roundrobin is set.
+     * </p>
+     */
+    private static CommandExecutor createCommandExecutor() {
+
+        OverflowPolicy policy;
+
+        try {
+            policy = OverflowPolicy.valueOf(System.getProperty("trufflehog.queue.policy", "block").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown queue policy, blocking the receiver instead.");
+            policy = OverflowPolicy.BLOCK;
+        }
+
+        WaitStrategy waitStrategy;
+
+        try {
+            waitStrategy = WaitStrategy.valueOf(System.getProperty("trufflehog.executor.wait", "park").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown wait strategy, parking the executor instead.");
+            waitStrategy = WaitStrategy.PARK;
+        }
+
+        CommandScheduler scheduler = null;
+
+        if (!Boolean.getBoolean("trufflehog.executor.roundrobin")) {
+            scheduler = new CommandScheduler.Builder()
+                    .userLatencyTarget(Math.max(1, Long.getLong("trufflehog.executor.latency",
+                            CommandScheduler.DEFAULT_USER_LATENCY_TARGET_MILLIS)), TimeUnit.MILLISECONDS)
+                    .build();
+        }
+
+        return new CommandExecutor(
+                Integer.getInteger("trufflehog.queue.capacity", CommandExecutor.DEFAULT_TRUFFLE_QUEUE_CAPACITY),
+                policy,
+                Integer.getInteger("trufflehog.queue.sample", IBoundedCommandQueue.DEFAULT_SAMPLE_RATE),
+                waitStrategy,
+                Math.max(1, Integer.getInteger("trufflehog.executor.shards", 1)),
+                scheduler);
+    }
+
+    /**
+     * <p>
+     *     Creates the packet filter of the receiver from the rules of the filter database. Invalid rules are skipped.
+     * </p>
+     *
+     * @return the packet filter or null if there are no valid rules
+     */
+    private static PacketFilter createPacketFilter(final List<? extends String> rules) {
+
+        final List<PacketRule> packetRules = new ArrayList<>(rules.size());
+
+        for (final String rule : rules) {
+            try {
+                packetRules.add(PacketRule.parse(rule));
+            } catch (InvalidPacketRule e) {
+                logger.warn("Skipping packet rule: " + e.getMessage());
+            }
+        }
+
+        return packetRules.isEmpty() ? null : new PacketFilter(packetRules);
+    }
+
     private void initModel() {
 
         initNetwork();
@@ -135,27 +235,100 @@ public class Presenter {
 
     private void initServices() {
 
-        final ExecutorService truffleFetchService = Executors.newSingleThreadExecutor();
+        final ThreadPools threadPools = ThreadPools.getInstance();
+
+        // The receiver can be chosen with -Dtrufflehog.receiver=native|stream|shm|crook|synthetic|pcap
+        switch (System.getProperty("trufflehog.receiver", "native")) {
+            case "stream":
+                truffleReceiver = new StreamSocketReceiver(liveNetwork.getWritingPort(), macroFilter);
+                break;
+            case "shm":
+                truffleReceiver = new SharedMemoryReceiver(liveNetwork.getWritingPort(), macroFilter);
+                break;
+            case "crook":
+                truffleReceiver = new TruffleCrook(liveNetwork.getWritingPort(), macroFilter);
+                break;
+            case "synthetic":
+                final TrafficModel model = new TrafficModel.Builder()
+                        .devices(Integer.getInteger("trufflehog.synthetic.devices", 100))
+                        .packetsPerSecond(Integer.getInteger("trufflehog.synthetic.pps", 1000))
+                        .seed(Long.getLong("trufflehog.synthetic.seed", 0L))
+                        .build();
+                truffleReceiver = new SyntheticTrafficReceiver(liveNetwork.getWritingPort(), macroFilter, model);
+                break;
+            case "pcap":
+                final PcapReceiver.Pacing pacing = Boolean.getBoolean("trufflehog.pcap.realtime")
+                        ? PcapReceiver.Pacing.REAL_TIME : PcapReceiver.Pacing.MAX_SPEED;
+                truffleReceiver = new PcapReceiver(liveNetwork.getWritingPort(), macroFilter,
+                        Paths.get(System.getProperty("trufflehog.pcap.file", "capture.pcap")), pacing);
+                break;
+            default:
+                // Don't be shocked, we purposely catch an Error here. It's harmless in this case.
+                try {
+                    truffleReceiver = new UnixSocketReceiver(liveNetwork.getWritingPort(), macroFilter);
+                } catch (UnsatisfiedLinkError e) {
+                    logger.info("Native receiver library not found, using the java stream socket receiver.");
+                    truffleReceiver = new StreamSocketReceiver(liveNetwork.getWritingPort(), macroFilter);
+                }
+        }
 
-        // Don't be shocked, we purposely catch an Error here. It's harmless in this case.
-        try {
-            truffleReceiver = new UnixSocketReceiver(liveNetwork.getWritingPort(), macroFilter);
-        } catch (UnsatisfiedLinkError e) {
-            System.out.println("No IPC connection established, activating fake network traffic.");
-            truffleReceiver = new TruffleCrook(liveNetwork.getWritingPort(), macroFilter);
+        // The packet rules of the filter database keep traffic out of the pipeline, changed rules apply at once.
+        if (configData != null) {
+            final ObservableList<String> packetRules = configData.getAllLoadedPacketRules();
+            final TruffleReceiver receiver = truffleReceiver;
+
+            receiver.setPacketFilter(createPacketFilter(packetRules));
+            packetRules.addListener((ListChangeListener<String>) change ->
+                    receiver.setPacketFilter(createPacketFilter(change.getList())));
+        }
+
+        // Repeated DCP frames are suppressed within -Dtrufflehog.dcp.window milliseconds, 0 passes every frame on.
+        final long duplicateWindow = Long.getLong("trufflehog.dcp.window", DuplicateFrameFilter.DEFAULT_WINDOW_MILLIS);
+
+        if (duplicateWindow > 0) {
+            truffleReceiver.setDuplicateFilter(new DuplicateFrameFilter(duplicateWindow, DuplicateFrameFilter.DEFAULT_CAPACITY));
         }
 
-        truffleFetchService.execute(truffleReceiver);
+        threadPools.get(ThreadPools.Pool.INGEST).execute(truffleReceiver);
 
 
         // Initialize the command executor and register it.
-        final ExecutorService commandExecutorService = Executors.newSingleThreadExecutor();
-        commandExecutorService.execute(commandExecutor);
-        truffleReceiver.addListener(commandExecutor.asTruffleCommandListener());
+        threadPools.get(ThreadPools.Pool.EXECUTE).execute(commandExecutor);
+
+        // Packets of the same pair of devices are merged within a short window, -Dtrufflehog.coalesce.window=0
+        // passes every packet on its own.
+        final long coalesceWindow = Long.getLong("trufflehog.coalesce.window", CoalescingTruffleListener.DEFAULT_WINDOW_MILLIS);
+
+        if (coalesceWindow > 0) {
+            coalescingListener = new CoalescingTruffleListener(commandExecutor.asTruffleCommandListener(),
+                    threadPools.getCoalescing(), coalesceWindow, CoalescingTruffleListener.DEFAULT_MAX_PENDING);
+            truffleReceiver.addListener(coalescingListener);
+        } else {
+            truffleReceiver.addListener(commandExecutor.asTruffleCommandListener());
+        }
+
+        // The queues, rates, command timings and thread pools can be watched over JMX.
+        pipelineMetrics = new PipelineMetrics(commandExecutor, truffleReceiver);
+        pipelineMetrics.register();
+        threadPools.register();
 
-        final ExecutorService nodeStatisticsUpdaterService = Executors.newSingleThreadExecutor();
         final NodeStatisticsUpdater nodeStatisticsUpdater = new NodeStatisticsUpdater(readingPortSwitch, viewPortSwitch);
-        nodeStatisticsUpdaterService.execute(nodeStatisticsUpdater);
+        threadPools.get(ThreadPools.Pool.EXECUTE).execute(nodeStatisticsUpdater);
+
+        // The packet counts reach the fx thread about 30 times per second instead of once per packet.
+        StatisticsPublisher.getInstance().start(threadPools.getTimers(), StatisticsPublisher.DEFAULT_PERIOD_MILLIS,
+                TimeUnit.MILLISECONDS);
+
+        // Devices and connections that were idle for -Dtrufflehog.aging.node and -Dtrufflehog.aging.connection
+        // seconds are removed from the network, 0 keeps them forever.
+        final long nodeTimeout = Long.getLong("trufflehog.aging.node", 0);
+        final long connectionTimeout = Long.getLong("trufflehog.aging.connection", 0);
+
+        if (nodeTimeout > 0 || connectionTimeout > 0) {
+            networkAging = new NetworkAging(liveNetwork.getRWPort(), TimeUnit.SECONDS.toMillis(nodeTimeout),
+                    TimeUnit.SECONDS.toMillis(connectionTimeout));
+            networkAging.start(threadPools.getTimers(), NetworkAging.DEFAULT_TICK_MILLIS);
+        }
 
     }
 
@@ -362,17 +535,33 @@ public class Presenter {
 
         Platform.exit();
 
-        //final ExecutorService service = Executors.newSingleThreadExecutor();
-        // Close all databases and other resources accessing the hard drive that need to be closed.
-        configData.close();
-
         // Disconnect the truffleReceiver
         if (truffleReceiver != null) {
             truffleReceiver.disconnect();
         }
 
-        // Kill all threads and the thread pool with it
-        LoggedScheduledExecutor.getInstance().shutdownNow();
+        // the packets of the open window still reach the executor before it is stopped
+        if (coalescingListener != null) {
+            coalescingListener.close();
+        }
+
+        if (pipelineMetrics != null) {
+            pipelineMetrics.unregister();
+        }
+
+        if (networkAging != null) {
+            networkAging.stop();
+        }
+
+        StatisticsPublisher.getInstance().stop();
+        FrameUpdateBridge.getInstance().stop();
+
+        // Stop all threads, the pending database and file writes are done before the databases are closed
+        ThreadPools.getInstance().unregister();
+        ThreadPools.getInstance().shutdown(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // Close all databases and other resources accessing the hard drive that need to be closed.
+        configData.close();
 
         System.gc();
         // Shut down the system
@@ -0,0 +1,102 @@
+package edu.kit.trufflehog.presenter;
+
+/**
+ * <p>
+ *     A ThreadPoolStatistics holds the state of one of the {@link ThreadPools} at one point in time.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class ThreadPoolStatistics {
+
+    private final String name;
+    private final int poolSize;
+    private final int maximumPoolSize;
+    private final int activeCount;
+    private final int queuedCount;
+    private final long completedCount;
+    private final long rejectedCount;
+
+    /**
+     * <p>
+     *     Creates a new ThreadPoolStatistics.
+     * </p>
+     *
+     * @param name The name of the pool.
+     * @param poolSize The number of threads the pool has right now.
+     * @param maximumPoolSize The maximum number of threads of the pool.
+     * @param activeCount The number of threads that execute a task.
+     * @param queuedCount The number of tasks that wait for a thread.
+     * @param completedCount The number of tasks the pool has completed.
+     * @param rejectedCount The number of tasks the pool has rejected.
+     */
+    public ThreadPoolStatistics(final String name, final int poolSize, final int maximumPoolSize,
+                                final int activeCount, final int queuedCount, final long completedCount,
+                                final long rejectedCount) {
+        if (name == null) throw new NullPointerException("name must not be null");
+
+        this.name = name;
+        this.poolSize = poolSize;
+        this.maximumPoolSize = maximumPoolSize;
+        this.activeCount = activeCount;
+        this.queuedCount = queuedCount;
+        this.completedCount = completedCount;
+        this.rejectedCount = rejectedCount;
+    }
+
+    /**
+     * @return the name of the pool
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of threads the pool has right now
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return the maximum number of threads of the pool
+     */
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * @return the number of threads that execute a task
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * @return the number of tasks that wait for a thread
+     */
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * @return the number of tasks the pool has completed
+     */
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * @return the number of tasks the pool has rejected
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    @Override
+    public String toString() {
+        return name + "[threads=" + poolSize + "/" + maximumPoolSize + ", active=" + activeCount + ", queued="
+                + queuedCount + ", completed=" + completedCount + ", rejected=" + rejectedCount + "]";
+    }
+}
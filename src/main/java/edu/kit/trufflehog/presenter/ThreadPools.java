@@ -0,0 +1,483 @@
+package edu.kit.trufflehog.presenter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     ThreadPools owns every thread pool of TruffleHog. There is one bounded pool per purpose (see {@link Pool}), so
+ *     the threads of the application are known by name and number, a slow database write cannot delay a timer and
+ *     a layout cannot take threads away from the packet pipeline. This is a singleton.
+ * </p>
+ * <p>
+ *     Jobs that replace each other, like the layouts of a viewer, are submitted with
+ *     {@link #submitReplacing(Pool, Object, Runnable)}: the job that was submitted before with the same key is
+ *     cancelled, so at most one of them runs at a time.
+ * </p>
+ * <p>
+ *     The pools are stopped in the order of {@link Pool} by {@link #shutdown(long, TimeUnit)}. The state of the pools
+ *     is available through {@link #getPools()} and, once {@link #register()} was called, as the MBean
+ *     {@value #OBJECT_NAME}.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class ThreadPools implements ThreadPoolsMXBean {
+
+    private static final Logger logger = LogManager.getLogger(ThreadPools.class);
+
+    /** The name of the MBean. */
+    public static final String OBJECT_NAME = "edu.kit.trufflehog:type=ThreadPools";
+
+    // idle threads of the pools are stopped after this time and started again when needed
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static ThreadPools instance = null;
+
+    /**
+     * <p>
+     *     The purposes TruffleHog has threads for. The pools are shut down in this order, so the receivers stop before
+     *     the executor that executes their commands and the pending writes are done before the timers stop.
+     * </p>
+     */
+    public enum Pool {
+
+        /** The receivers that read the packets. Every receiver occupies a thread as long as it runs. */
+        INGEST("ingest", 1, 4, true, false),
+
+        /**
+         * Closes the expired windows of the coalescing listeners. A flush waits while the command queue is full, so it
+         * does not run on the {@link #TIMERS}.
+         */
+        COALESCE("coalesce", 1, Integer.MAX_VALUE, true, true),
+
+        /** The command executor and the statistics updater. Every service occupies a thread as long as it runs. */
+        EXECUTE("execute", 2, 4, true, false),
+
+        /** The layouts of the graph. Only the latest layout waits, older waiting layouts are discarded. */
+        LAYOUT("layout", 1, 1, true, false),
+
+        /**
+         * Database and file writes. The writes are executed in the order they were submitted. If the queue is full
+         * the submitting thread waits until there is space. The threads are no daemons, so no write is lost when the
+         * application exits without a shutdown.
+         */
+        IO("io", 1, 1024, false, false),
+
+        /** Short delayed and periodic tasks that do not block. The queue of a scheduled pool can not be bounded. */
+        TIMERS("timers", 2, Integer.MAX_VALUE, true, true);
+
+        private final String name;
+        private final int threads;
+        private final int queueCapacity;
+        private final boolean daemon;
+        private final boolean scheduled;
+
+        Pool(final String name, final int threads, final int queueCapacity, final boolean daemon,
+             final boolean scheduled) {
+            this.name = name;
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.daemon = daemon;
+            this.scheduled = scheduled;
+        }
+
+        /**
+         * @return the name of the pool, the threads of the pool are called trufflehog-&lt;name&gt;-&lt;number&gt;
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the maximum number of threads of the pool
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * @return the maximum number of tasks that wait for a thread of the pool
+         */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+    }
+
+    private final Map<Pool, ThreadPoolExecutor> executors = new EnumMap<>(Pool.class);
+    private final Map<Pool, CountingRejectionHandler> rejections = new EnumMap<>(Pool.class);
+    private final Map<Object, Future<?>> jobs = new ConcurrentHashMap<>();
+
+    private ObjectName registeredName = null;
+
+    /**
+     * <p>
+     *     Returns the ThreadPools and creates them if this is the first call.
+     * </p>
+     *
+     * @return the thread pools of TruffleHog
+     */
+    public static synchronized ThreadPools getInstance() {
+        if (instance == null) {
+            instance = new ThreadPools();
+        }
+
+        return instance;
+    }
+
+    /**
+     * <p>
+     *     Creates new thread pools. Only the tests create more than the singleton.
+     * </p>
+     */
+    ThreadPools() {
+        for (final Pool pool : Pool.values()) {
+            final CountingRejectionHandler handler = new CountingRejectionHandler(rejectionPolicy(pool));
+            final ThreadFactory threadFactory = new NamedThreadFactory(pool);
+
+            rejections.put(pool, handler);
+
+            if (pool.scheduled) {
+                executors.put(pool, new LoggedScheduledExecutor(pool.threads, threadFactory, handler));
+            } else {
+                executors.put(pool, new PoolExecutor(pool, threadFactory, handler));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the pool for the given purpose.
+     * </p>
+     *
+     * @param pool The purpose of the pool.
+     * @return the pool
+     */
+    public ExecutorService get(final Pool pool) {
+        if (pool == null) throw new NullPointerException("pool must not be null");
+
+        return executors.get(pool);
+    }
+
+    /**
+     * @return the pool for delayed and periodic tasks
+     */
+    public LoggedScheduledExecutor getTimers() {
+        return (LoggedScheduledExecutor) executors.get(Pool.TIMERS);
+    }
+
+    /**
+     * @return the pool that closes the windows of the coalescing listeners
+     */
+    public LoggedScheduledExecutor getCoalescing() {
+        return (LoggedScheduledExecutor) executors.get(Pool.COALESCE);
+    }
+
+    /**
+     * <p>
+     *     Submits a job that replaces the job that was submitted with the same key before. The previous job is
+     *     cancelled and interrupted if it is still running, so a long running job has to check
+     *     {@link Thread#isInterrupted()} to stop early.
+     * </p>
+     *
+     * @param pool The pool that executes the job.
+     * @param key The key of the job, for example the object the job works on.
+     * @param task The job.
+     * @return the future of the job, it can be used to cancel the job
+     * @throws RejectedExecutionException if the pool does not accept the job
+     */
+    public Future<?> submitReplacing(final Pool pool, final Object key, final Runnable task) {
+        if (pool == null) throw new NullPointerException("pool must not be null");
+        if (key == null) throw new NullPointerException("key must not be null");
+        if (task == null) throw new NullPointerException("task must not be null");
+
+        final FutureTask<Void> job = new FutureTask<Void>(task, null) {
+            @Override
+            protected void done() {
+                jobs.remove(key, this);
+            }
+        };
+
+        final Future<?> previous = jobs.put(key, job);
+
+        if (previous != null) {
+            previous.cancel(true);
+        }
+
+        try {
+            executors.get(pool).execute(job);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(key, job);
+            throw e;
+        }
+
+        return job;
+    }
+
+    /**
+     * <p>
+     *     Cancels the job that was submitted with the given key, if there is one.
+     * </p>
+     *
+     * @param key The key of the job.
+     * @return true if a job was cancelled
+     */
+    public boolean cancel(final Object key) {
+        if (key == null) throw new NullPointerException("key must not be null");
+
+        final Future<?> job = jobs.remove(key);
+
+        return job != null && job.cancel(true);
+    }
+
+    @Override
+    public List<ThreadPoolStatistics> getPools() {
+        final List<ThreadPoolStatistics> statistics = new ArrayList<>(Pool.values().length);
+
+        for (final Pool pool : Pool.values()) {
+            final ThreadPoolExecutor executor = executors.get(pool);
+
+            statistics.add(new ThreadPoolStatistics(pool.getName(), executor.getPoolSize(), pool.getThreads(),
+                    executor.getActiveCount(), executor.getQueue().size(), executor.getCompletedTaskCount(),
+                    rejections.get(pool).getRejectedCount()));
+        }
+
+        return statistics;
+    }
+
+    /**
+     * <p>
+     *     Shuts the pools down in the order of {@link Pool}. The running services and layouts are interrupted and the
+     *     timers are cancelled, the pending writes of the {@link Pool#IO} pool are executed until the timeout expires.
+     * </p>
+     *
+     * @param timeout The time to wait for all pools to terminate.
+     * @param unit The unit of the timeout.
+     * @return true if all pools terminated within the timeout
+     */
+    public boolean shutdown(final long timeout, final TimeUnit unit) {
+        if (unit == null) throw new NullPointerException("unit must not be null");
+
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean terminated = true;
+
+        for (final Pool pool : Pool.values()) {
+            final ThreadPoolExecutor executor = executors.get(pool);
+
+            if (pool == Pool.IO) {
+                executor.shutdown();
+            } else {
+                executor.shutdownNow();
+            }
+
+            try {
+                if (!executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    final int lost = executor.shutdownNow().size();
+                    logger.warn("The " + pool.getName() + " pool did not terminate in time, " + lost
+                            + " tasks were not executed");
+                    terminated = false;
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                terminated = false;
+            }
+        }
+
+        jobs.clear();
+
+        return terminated;
+    }
+
+    /**
+     * <p>
+     *     Registers the pools with the platform MBean server. A failure is logged and does not affect the pools.
+     * </p>
+     *
+     * @return true if the pools were registered
+     */
+    public synchronized boolean register() {
+        if (registeredName != null) {
+            return true;
+        }
+
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+
+            server.registerMBean(this, name);
+            registeredName = name;
+
+            return true;
+        } catch (JMException e) {
+            logger.warn("Could not register the thread pools", e);
+            return false;
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes the pools from the platform MBean server if they were registered.
+     * </p>
+     */
+    public synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            logger.warn("Could not unregister the thread pools", e);
+        } finally {
+            registeredName = null;
+        }
+    }
+
+    private static RejectedExecutionHandler rejectionPolicy(final Pool pool) {
+        switch (pool) {
+            case LAYOUT:
+                return new ThreadPoolExecutor.DiscardOldestPolicy();
+            case IO:
+                return new BlockingPolicy();
+            default:
+                return new ThreadPoolExecutor.AbortPolicy();
+        }
+    }
+
+    /**
+     * Names the threads of a pool trufflehog-&lt;pool&gt;-&lt;number&gt;.
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final Pool pool;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private NamedThreadFactory(final Pool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "trufflehog-" + pool.getName() + "-" + count.incrementAndGet());
+            thread.setDaemon(pool.daemon);
+
+            return thread;
+        }
+    }
+
+    /**
+     * Waits until the queue of the pool has space for the task. Running the task in the submitting thread would
+     * overtake the queued tasks.
+     */
+    private static final class BlockingPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("The pool is shut down");
+            }
+
+            try {
+                executor.getQueue().put(runnable);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for the queue", e);
+            }
+
+            // the only thread may have timed out while this thread was waiting
+            if (executor.getPoolSize() == 0) {
+                executor.prestartCoreThread();
+            }
+        }
+    }
+
+    /**
+     * Counts the rejected tasks of a pool before it passes them on to the policy of the pool.
+     */
+    private static final class CountingRejectionHandler implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler policy;
+        private final LongAdder rejected = new LongAdder();
+
+        private CountingRejectionHandler(final RejectedExecutionHandler policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+            rejected.increment();
+            policy.rejectedExecution(runnable, executor);
+        }
+
+        private long getRejectedCount() {
+            return rejected.sum();
+        }
+    }
+
+    /**
+     * A bounded pool that logs the exceptions of its tasks, including the ones a {@link Future} would hide.
+     */
+    private static final class PoolExecutor extends ThreadPoolExecutor {
+
+        private final Pool pool;
+
+        private PoolExecutor(final Pool pool, final ThreadFactory threadFactory, final RejectedExecutionHandler handler) {
+            super(pool.threads, pool.threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(pool.queueCapacity), threadFactory, handler);
+            this.pool = pool;
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        protected void afterExecute(final Runnable runnable, final Throwable throwable) {
+            super.afterExecute(runnable, throwable);
+
+            Throwable failure = throwable;
+
+            if (failure == null && runnable instanceof Future<?> && ((Future<?>) runnable).isDone()) {
+                try {
+                    ((Future<?>) runnable).get();
+                } catch (CancellationException e) {
+                    // cancelled jobs were replaced or are not needed anymore
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            if (failure != null) {
+                logger.error("Error in executing: " + runnable + " in the " + pool.getName() + " pool", failure);
+            }
+        }
+    }
+}
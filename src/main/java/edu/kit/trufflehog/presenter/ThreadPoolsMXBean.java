@@ -0,0 +1,20 @@
+package edu.kit.trufflehog.presenter;
+
+import java.util.List;
+
+/**
+ * <p>
+ *     The management interface of the {@link ThreadPools}. It is registered with the platform MBean server, so the
+ *     pools can be watched with any JMX client.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public interface ThreadPoolsMXBean {
+
+    /**
+     * @return the state of every pool in the order of {@link ThreadPools.Pool}
+     */
+    List<ThreadPoolStatistics> getPools();
+}
@@ -0,0 +1,34 @@
+package edu.kit.trufflehog.service.aging;
+
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+
+/**
+ * <p>
+ *     An IExpiryArchive receives the devices and connections the {@link NetworkAging} removed from the network because
+ *     they were idle for too long. It is called by the timer thread of the aging, so it should return quickly.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public interface IExpiryArchive {
+
+    /**
+     * <p>
+     *     Archives a node that was removed from the network.
+     * </p>
+     *
+     * @param node The removed node.
+     */
+    void archive(INode node);
+
+    /**
+     * <p>
+     *     Archives a connection that was removed from the network.
+     * </p>
+     *
+     * @param connection The removed connection.
+     */
+    void archive(IConnection connection);
+}
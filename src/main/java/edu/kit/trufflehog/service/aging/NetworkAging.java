@@ -0,0 +1,317 @@
+package edu.kit.trufflehog.service.aging;
+
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.IComposition;
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.util.TimerWheel;
+import edu.uci.ics.jung.graph.event.GraphEvent;
+import edu.uci.ics.jung.graph.event.GraphEventListener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *     The NetworkAging removes devices and connections from the network that did not send a packet for a while. Every
+ *     node and connection that is added to the network gets a timeout in a {@link TimerWheel}. The packets only write
+ *     the time they were seen into the statistics of the node or connection, the timeout is not touched. When a
+ *     timeout expires, the aging compares the last time the element was seen with its timeout and schedules it again
+ *     if it was seen in the meantime, so an active element costs one check per timeout and not one per packet.
+ * </p>
+ * <p>
+ *     A connection is removed as soon as it is idle. A node is only removed when it is idle and all of its tracked
+ *     connections were removed. A connection that was added since the last check is removed together with its node,
+ *     so it is taken from the events of the graph and handed to the {@link IExpiryArchive} like every other removed
+ *     element.
+ * </p>
+ * <p>
+ *     Connections that never expire are not tracked. They do not keep their nodes in the network, an idle node is
+ *     removed together with them. A packet on a connection updates both of its nodes, so such a connection is idle
+ *     when its nodes are.
+ * </p>
+ * <p>
+ *     All checks run on a single timer thread. The writing threads only hand the new elements over through a queue.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class NetworkAging {
+
+    private static final Logger logger = LogManager.getLogger(NetworkAging.class);
+
+    /** The default time between two checks. Elements are removed at most this late. */
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    private final INetworkIOPort port;
+    private final long nodeTimeoutMillis;
+    private final long connectionTimeoutMillis;
+
+    private final Queue<IComposition> added = new ConcurrentLinkedQueue<>();
+    private final GraphEventListener<INode, IConnection> listener = this::graphChanged;
+    private final AtomicLong expiredCount = new AtomicLong(0);
+
+    // only used by the timer thread
+    private final Set<IComposition> tracked = new HashSet<>();
+    private final Map<INode, Integer> connectionCounts = new HashMap<>();
+    private final List<IConnection> removedWithNode = new ArrayList<>();
+
+    // the node the timer thread is removing, its connections are reported to the listener on the same thread
+    private volatile INode removingNode = null;
+
+    private TimerWheel<IComposition> wheel = null;
+    private ScheduledFuture<?> schedule = null;
+    private volatile IExpiryArchive archive = null;
+
+    /**
+     * <p>
+     *     Creates a new NetworkAging. A timeout of 0 or less keeps the nodes or connections forever.
+     * </p>
+     *
+     * @param port The port of the network to age.
+     * @param nodeTimeoutMillis The time after which an idle node is removed.
+     * @param connectionTimeoutMillis The time after which an idle connection is removed.
+     */
+    public NetworkAging(final INetworkIOPort port, final long nodeTimeoutMillis, final long connectionTimeoutMillis) {
+        if (port == null) throw new NullPointerException("port must not be null");
+
+        this.port = port;
+        this.nodeTimeoutMillis = nodeTimeoutMillis;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    /**
+     * <p>
+     *     Sets the archive that receives the removed elements.
+     * </p>
+     *
+     * @param archive The archive, or null if the removed elements are dropped.
+     */
+    public void setArchive(final IExpiryArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * @return the number of nodes and connections that were removed so far
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * <p>
+     *     Starts the aging. The elements that are in the network already get their timeout with the first check.
+     * </p>
+     *
+     * @param timers The executor that runs the checks.
+     * @param tickMillis The time between two checks.
+     */
+    public synchronized void start(final ScheduledExecutorService timers, final long tickMillis) {
+        if (timers == null) throw new NullPointerException("timers must not be null");
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+
+        if (schedule != null) {
+            throw new IllegalStateException("the aging is already started");
+        }
+
+        wheel = new TimerWheel<>(tickMillis, Instant.now().toEpochMilli());
+
+        // the listener first, an element added in between is queued twice and tracked once
+        port.getGraph().addGraphEventListener(listener);
+        added.addAll(port.getNetworkNodes());
+        added.addAll(port.getNetworkConnections());
+
+        schedule = timers.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * <p>
+     *     Stops the aging. The elements in the network stay where they are.
+     * </p>
+     */
+    public synchronized void stop() {
+        if (schedule == null) {
+            return;
+        }
+
+        schedule.cancel(false);
+        schedule = null;
+
+        port.getGraph().removeGraphEventListener(listener);
+        added.clear();
+        tracked.clear();
+        connectionCounts.clear();
+        wheel = null;
+    }
+
+    private void graphChanged(final GraphEvent<INode, IConnection> event) {
+
+        switch (event.getType()) {
+            case VERTEX_ADDED:
+                added.offer(((GraphEvent.Vertex<INode, IConnection>) event).getVertex());
+                break;
+
+            case EDGE_ADDED:
+                added.offer(((GraphEvent.Edge<INode, IConnection>) event).getEdge());
+                break;
+
+            case EDGE_REMOVED:
+                final IConnection connection = ((GraphEvent.Edge<INode, IConnection>) event).getEdge();
+                final INode node = removingNode;
+
+                if (node != null && (node.equals(connection.getSrc()) || node.equals(connection.getDest()))) {
+                    removedWithNode.add(connection);
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private synchronized void tick() {
+        if (wheel == null) {
+            return;
+        }
+
+        try {
+            IComposition element;
+
+            while ((element = added.poll()) != null) {
+                track(element);
+            }
+
+            final long now = Instant.now().toEpochMilli();
+            wheel.advance(now, expired -> expire(expired, now));
+        } catch (RuntimeException e) {
+            // an exception would cancel the schedule
+            logger.error("Could not age the network", e);
+        }
+    }
+
+    private void track(final IComposition element) {
+
+        final long timeout = timeoutOf(element);
+
+        // elements that never expire are not tracked, connections among them are removed with their nodes
+        if (timeout <= 0 || tracked.contains(element)) {
+            return;
+        }
+
+        tracked.add(element);
+        wheel.schedule(element, lastSeen(element) + timeout);
+
+        if (element instanceof IConnection) {
+            final IConnection connection = (IConnection) element;
+            connectionCounts.merge(connection.getSrc(), 1, Integer::sum);
+            connectionCounts.merge(connection.getDest(), 1, Integer::sum);
+        }
+    }
+
+    private void expire(final IComposition element, final long now) {
+
+        final long timeout = timeoutOf(element);
+        final long deadline = lastSeen(element) + timeout;
+
+        if (deadline > now) {
+            wheel.schedule(element, deadline);
+            return;
+        }
+
+        if (element instanceof INode) {
+            final INode node = (INode) element;
+
+            // its connections are idle too and expire within their own timeout, only aging connections are counted
+            if (connectionCounts.containsKey(node)) {
+                wheel.schedule(node, now + connectionTimeoutMillis);
+                return;
+            }
+
+            tracked.remove(node);
+
+            final boolean removed;
+            removingNode = node;
+
+            try {
+                removed = port.removeNode(node);
+            } finally {
+                removingNode = null;
+            }
+
+            // the connections first, a node leaves the network after its connections
+            removedWithNode.forEach(connection -> {
+                expiredCount.incrementAndGet();
+                archive(connection);
+            });
+            removedWithNode.clear();
+
+            if (removed) {
+                expiredCount.incrementAndGet();
+                archive(node);
+            }
+            return;
+        }
+
+        final IConnection connection = (IConnection) element;
+        tracked.remove(connection);
+        release(connection.getSrc());
+        release(connection.getDest());
+
+        if (port.removeConnection(connection)) {
+            expiredCount.incrementAndGet();
+            archive(connection);
+        }
+    }
+
+    private void release(final INode node) {
+        connectionCounts.computeIfPresent(node, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void archive(final INode node) {
+        final IExpiryArchive current = archive;
+
+        if (current != null) {
+            current.archive(node);
+        }
+    }
+
+    private void archive(final IConnection connection) {
+        final IExpiryArchive current = archive;
+
+        if (current != null) {
+            current.archive(connection);
+        }
+    }
+
+    private long timeoutOf(final IComposition element) {
+        return element instanceof INode ? nodeTimeoutMillis : connectionTimeoutMillis;
+    }
+
+    // elements without statistics count as seen now and are checked again after their timeout
+    private long lastSeen(final IComposition element) {
+
+        if (element instanceof INode) {
+            final NodeStatisticsComponent statistics = element.getComponent(NodeStatisticsComponent.class);
+            return statistics != null ? statistics.getLastUpdateTime() : Instant.now().toEpochMilli();
+        }
+
+        final EdgeStatisticsComponent statistics = element.getComponent(EdgeStatisticsComponent.class);
+        return statistics != null ? statistics.getLastUpdateTime() : Instant.now().toEpochMilli();
+    }
+}
@@ -0,0 +1,202 @@
+package edu.kit.trufflehog.service.executor;
+
+import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.service.replaylogging.CommandCompressor;
+import edu.kit.trufflehog.util.IListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ *     The CoalescingTruffleListener sits between a
+ *     {@link edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver} and the
+ *     {@link CommandExecutor}. It collects the truffle commands of a short window and hands them to the
+ *     {@link CommandCompressor} before they are passed on, so the packets of the same pair of devices are written to
+ *     the graph by a single command.
+ * </p>
+ * <p>
+ *     A window is closed when it is older than the configured window time or when it holds the maximum number of
+ *     commands. The scheduled executor closes windows that would otherwise wait for the next command.
+ * </p>
+ * <p>
+ *     A closed window is passed on without holding the lock of the listener, so a listener that blocks on a full
+ *     queue does not keep the other producers from collecting commands. The closed windows are queued and passed on
+ *     in the order they were closed by whichever thread gets to them first.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class CoalescingTruffleListener implements IListener<ITruffleCommand>, AutoCloseable {
+
+    /** The default length of a window in milliseconds. */
+    public static final long DEFAULT_WINDOW_MILLIS = 10;
+
+    /** The default maximum number of commands in a window. */
+    public static final int DEFAULT_MAX_PENDING = 4096;
+
+    private final IListener<ITruffleCommand> listener;
+    private final CommandCompressor compressor = new CommandCompressor();
+    private final long windowNanos;
+    private final int maxPending;
+
+    private final ScheduledFuture<?> flushTask;
+
+    // the closed windows, passed on by the thread that holds the forwarding lock
+    private final Queue<List<ICommand>> closed = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock forwarding = new ReentrantLock();
+
+    private List<ICommand> pending;
+    private long windowStart;
+
+    /**
+     * <p>
+     *     Creates a new CoalescingTruffleListener with the default window.
+     * </p>
+     *
+     * @param listener The listener the compressed commands are passed on to.
+     * @param scheduler The executor that closes expired windows.
+     */
+    public CoalescingTruffleListener(final IListener<ITruffleCommand> listener, final ScheduledExecutorService scheduler) {
+        this(listener, scheduler, DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * <p>
+     *     Creates a new CoalescingTruffleListener.
+     * </p>
+     *
+     * @param listener The listener the compressed commands are passed on to.
+     * @param scheduler The executor that closes expired windows.
+     * @param windowMillis The time in milliseconds commands are collected before they are passed on.
+     * @param maxPending The maximum number of commands that are collected before they are passed on.
+     */
+    public CoalescingTruffleListener(final IListener<ITruffleCommand> listener, final ScheduledExecutorService scheduler,
+                                     final long windowMillis, final int maxPending) {
+        if (listener == null)
+            throw new NullPointerException("listener must not be null");
+        if (scheduler == null)
+            throw new NullPointerException("scheduler must not be null");
+        if (windowMillis <= 0)
+            throw new IllegalArgumentException("windowMillis must be positive");
+        if (maxPending <= 0)
+            throw new IllegalArgumentException("maxPending must be positive");
+
+        this.listener = listener;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxPending = maxPending;
+        this.pending = new ArrayList<>();
+
+        flushTask = scheduler.scheduleWithFixedDelay(this::flushExpired, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void receive(final ITruffleCommand command) {
+        if (command == null)
+            throw new NullPointerException("command must not be null");
+
+        final boolean full;
+
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                windowStart = System.nanoTime();
+            }
+
+            pending.add(command);
+
+            full = (pending.size() >= maxPending || System.nanoTime() - windowStart >= windowNanos) && closeWindow();
+        }
+
+        if (full) {
+            forward(false);
+        }
+    }
+
+    private void flushExpired() {
+        final boolean expired;
+
+        synchronized (this) {
+            expired = !pending.isEmpty() && System.nanoTime() - windowStart >= windowNanos && closeWindow();
+        }
+
+        if (expired) {
+            forward(false);
+        }
+    }
+
+    /**
+     * <p>
+     *     Compresses the commands of the current window and passes them on. If another thread is passing on windows
+     *     at the moment, that thread passes on this window as well.
+     * </p>
+     */
+    public void flush() {
+        synchronized (this) {
+            closeWindow();
+        }
+
+        forward(false);
+    }
+
+    // must be called with the lock of this listener
+    private boolean closeWindow() {
+        if (pending.isEmpty()) {
+            return false;
+        }
+
+        closed.offer(pending);
+        pending = new ArrayList<>();
+        return true;
+    }
+
+    private void forward(final boolean wait) {
+
+        // a window that is queued after the holder looked for the last time is picked up by the next round
+        while (!closed.isEmpty()) {
+
+            if (wait) {
+                forwarding.lock();
+            } else if (!forwarding.tryLock()) {
+                return;
+            }
+
+            try {
+                List<ICommand> window;
+
+                while ((window = closed.poll()) != null) {
+                    // every command of the window is a truffle command, so are the compressed ones
+                    for (final ICommand command : compressor.compressCommands(window)) {
+                        listener.receive((ITruffleCommand) command);
+                    }
+                }
+            } finally {
+                forwarding.unlock();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Stops closing expired windows and passes on the commands of the current window. Returns when all windows
+     *     were passed on.
+     * </p>
+     */
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+
+        synchronized (this) {
+            closeWindow();
+        }
+
+        forward(true);
+    }
+}
@@ -1,17 +1,29 @@
 package edu.kit.trufflehog.service.executor;
 
 import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.IPreemptibleCommand;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue;
 import edu.kit.trufflehog.command.queue.CommandQueue;
 import edu.kit.trufflehog.command.queue.CommandQueueManager;
+import edu.kit.trufflehog.command.queue.IBoundedCommandQueue;
 import edu.kit.trufflehog.command.queue.ICommandQueue;
+import edu.kit.trufflehog.command.queue.OverflowPolicy;
+import edu.kit.trufflehog.command.queue.RingCommandQueue;
+import edu.kit.trufflehog.command.queue.WaitStrategy;
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.AggregatedPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.DuplicatePacketCommand;
 import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
 import edu.kit.trufflehog.command.usercommand.IUserCommand;
+import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver;
 import edu.kit.trufflehog.util.IListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * <p>
@@ -19,6 +31,37 @@ import java.util.Arrays;
  *     Any incoming commands will always be executed in alternating order and first in first out (round robbin way).
  *     If no command is available the service will block and wait until a new command is available.
  * </p>
+ * <p>
+ *     The truffle commands are held in a bounded queue, so a burst of packets cannot exhaust the heap. Its
+ *     {@link OverflowPolicy} decides whether the receiver is blocked or packets are shed. The queue is a lock free
+ *     {@link RingCommandQueue} unless the oldest commands have to be dropped, which needs a {@link BoundedCommandQueue}.
+ * </p>
+ * <p>
+ *     While only one queue has commands, up to {@link #MAX_BATCH_SIZE} commands are taken from it at once. As soon as
+ *     both queues have commands they alternate again with every command.
+ * </p>
+ * <p>
+ *     With a {@link CommandScheduler} the queues do not alternate. User commands are served first and truffle turns are
+ *     kept short enough that a waiting user command meets the latency target of the scheduler. An
+ *     {@link IPreemptibleCommand} is executed in steps, and the truffle commands get a turn between two steps.
+ * </p>
+ * <p>
+ *     With shards a user command also waits until the shards executed what they were given. The scheduler then
+ *     measures the execution time on the shards instead of the time it takes to hand the commands over, and the
+ *     executor hands over no more than the shards can execute within the latency target.
+ * </p>
+ * <p>
+ *     With more than one shard the truffle commands are not executed by the executor thread. They are partitioned by
+ *     the hash of their source address across {@link CommandShard}s, which run on their own threads. Only the source
+ *     of a packet changes order sensitive node data such as the device name, so all of these changes to one node are
+ *     executed by the same shard in the order they arrived. The counters of the destination are merely incremented.
+ *     User commands and truffle commands without an address are barriers: they are executed by the executor thread
+ *     once every shard has executed all commands it was given before.
+ * </p>
+ * <p>
+ *     For every command the executor records how long it waited in the queues and how long its execution took in
+ *     its {@link ExecutorMetrics}.
+ * </p>
  *
  * @author Mark Giraud
  * @version 1.0
@@ -27,9 +70,122 @@ public class CommandExecutor implements Runnable {
 
     private static final Logger logger = LogManager.getLogger(CommandExecutor.class);
 
-    private final CommandQueueManager commandQueueManager = new CommandQueueManager();
-    private final ICommandQueue truffleCommandQueue = new CommandQueue(commandQueueManager);
-    private final ICommandQueue userCommandQueue = new CommandQueue(commandQueueManager);
+    /** The default maximum number of truffle commands that wait for their execution. */
+    public static final int DEFAULT_TRUFFLE_QUEUE_CAPACITY = 1 << 16;
+
+    /** The maximum number of commands that are taken from a queue at once. */
+    public static final int MAX_BATCH_SIZE = 64;
+
+    /** The number of truffle commands that may wait for a shard before the executor is blocked. */
+    public static final int SHARD_QUEUE_CAPACITY = 1 << 12;
+
+    // how long the scheduled executor waits for the shards if they hold a full turn already
+    private static final long SHARD_BACKLOG_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final CommandQueueManager commandQueueManager;
+    private final IBoundedCommandQueue truffleCommandQueue;
+    private final CommandQueue userCommandQueue;
+
+    private final ExecutorMetrics metrics = new ExecutorMetrics();
+
+    // empty if the truffle commands are executed by the executor thread
+    private final CommandShard[] shards;
+
+    // null if the queues strictly alternate
+    private final CommandScheduler scheduler;
+
+    // the user command whose next step has to be executed before any other user command, only accessed by the
+    // executor thread
+    private IPreemptibleCommand preempted = null;
+
+    // when the preempted command was pushed, when its first step started and how long its steps took so far
+    private long preemptedEnqueueTime;
+    private long preemptedStart;
+    private long preemptedCost;
+
+    /**
+     * <p>
+     *     Creates a new CommandExecutor whose truffle queue holds {@link #DEFAULT_TRUFFLE_QUEUE_CAPACITY} commands and
+     *     blocks the receiver if it is full. The executor parks while there are no commands.
+     * </p>
+     */
+    public CommandExecutor() {
+        this(DEFAULT_TRUFFLE_QUEUE_CAPACITY, OverflowPolicy.BLOCK, IBoundedCommandQueue.DEFAULT_SAMPLE_RATE,
+                WaitStrategy.PARK);
+    }
+
+    /**
+     * <p>
+     *     Creates a new CommandExecutor.
+     * </p>
+     *
+     * @param truffleQueueCapacity The maximum number of truffle commands that wait for their execution.
+     * @param overflowPolicy The policy that decides what happens to truffle commands if the queue is full.
+     * @param sampleRate The sampling rate of the {@link OverflowPolicy#SAMPLE} policy.
+     * @param waitStrategy The strategy the executor uses to wait for commands and a blocked receiver uses to wait
+     *                     for space in the truffle queue.
+     */
+    public CommandExecutor(final int truffleQueueCapacity, final OverflowPolicy overflowPolicy,
+                           final int sampleRate, final WaitStrategy waitStrategy) {
+        this(truffleQueueCapacity, overflowPolicy, sampleRate, waitStrategy, 1);
+    }
+
+    /**
+     * <p>
+     *     Creates a new CommandExecutor that executes the truffle commands on the given number of threads.
+     * </p>
+     *
+     * @param truffleQueueCapacity The maximum number of truffle commands that wait for their execution.
+     * @param overflowPolicy The policy that decides what happens to truffle commands if the queue is full.
+     * @param sampleRate The sampling rate of the {@link OverflowPolicy#SAMPLE} policy.
+     * @param waitStrategy The strategy the executor uses to wait for commands and a blocked receiver uses to wait
+     *                     for space in the truffle queue.
+     * @param shardCount The number of threads that execute truffle commands. With a single shard every command is
+     *                   executed by the executor thread.
+     */
+    public CommandExecutor(final int truffleQueueCapacity, final OverflowPolicy overflowPolicy,
+                           final int sampleRate, final WaitStrategy waitStrategy, final int shardCount) {
+        this(truffleQueueCapacity, overflowPolicy, sampleRate, waitStrategy, shardCount, null);
+    }
+
+    /**
+     * <p>
+     *     Creates a new CommandExecutor that schedules its queues with the given scheduler.
+     * </p>
+     *
+     * @param truffleQueueCapacity The maximum number of truffle commands that wait for their execution.
+     * @param overflowPolicy The policy that decides what happens to truffle commands if the queue is full.
+     * @param sampleRate The sampling rate of the {@link OverflowPolicy#SAMPLE} policy.
+     * @param waitStrategy The strategy the executor uses to wait for commands and a blocked receiver uses to wait
+     *                     for space in the truffle queue.
+     * @param shardCount The number of threads that execute truffle commands. With a single shard every command is
+     *                   executed by the executor thread.
+     * @param scheduler The scheduler that prioritizes the user commands, or null if the queues strictly alternate.
+     */
+    public CommandExecutor(final int truffleQueueCapacity, final OverflowPolicy overflowPolicy,
+                           final int sampleRate, final WaitStrategy waitStrategy, final int shardCount,
+                           final CommandScheduler scheduler) {
+        if (shardCount <= 0)
+            throw new IllegalArgumentException("shardCount must be positive");
+
+        commandQueueManager = new CommandQueueManager(waitStrategy);
+
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+            truffleCommandQueue = new BoundedCommandQueue(commandQueueManager, truffleQueueCapacity, overflowPolicy, sampleRate);
+        } else {
+            truffleCommandQueue = new RingCommandQueue(commandQueueManager, truffleQueueCapacity, overflowPolicy, sampleRate);
+        }
+
+        userCommandQueue = new CommandQueue(commandQueueManager);
+
+        this.scheduler = scheduler;
+
+        shards = new CommandShard[shardCount == 1 ? 0 : shardCount];
+
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new CommandShard(SHARD_QUEUE_CAPACITY, waitStrategy, metrics);
+        }
+    }
 
     /**
      * <p>
@@ -39,19 +195,224 @@ public class CommandExecutor implements Runnable {
     @Override
     public void run() {
 
+        final Thread[] shardThreads = new Thread[shards.length];
+
+        for (int i = 0; i < shards.length; i++) {
+            shardThreads[i] = new Thread(shards[i], "truffle-shard-" + i);
+            shardThreads[i].setDaemon(true);
+            shardThreads[i].start();
+        }
+
         while (!Thread.interrupted()) {
             try {
-                commandQueueManager.getNextQueue().pop().execute();
+                if (scheduler != null) {
+                    runScheduledTurns();
+                    continue;
+                }
+
+                final ICommandQueue queue = commandQueueManager.getNextQueue();
+                final int limit = commandQueueManager.hasOtherNonEmptyQueue(queue) ? 1 : MAX_BATCH_SIZE;
+
+                if (shards.length == 0) {
+                    queue.drainTimed(this::execute, limit);
+                } else {
+                    queue.drainTimed(this::dispatch, limit);
+                }
             } catch (InterruptedException e) {
                 logger.debug("Executor thread interrupted: " + Arrays.toString(e.getStackTrace()));
                 Thread.currentThread().interrupt();
             }
         }
 
+        for (final Thread shardThread : shardThreads) {
+            shardThread.interrupt();
+        }
+
         logger.debug("Executor thread exited");
 
     }
 
+    /**
+     * <p>
+     *     Executes a turn of user commands and a turn of truffle commands as the scheduler decides. Waits while there
+     *     are no commands and no preempted command.
+     * </p>
+     */
+    private void runScheduledTurns() throws InterruptedException {
+
+        if (preempted == null) {
+            commandQueueManager.getNextQueue();
+        }
+
+        for (int i = 0; i < scheduler.getUserQuantum(); i++) {
+            if (preempted != null) {
+                awaitShards();
+                executePreemptedStep();
+            } else if (userCommandQueue.drainTimed(this::startUserCommand, 1) == 0) {
+                break;
+            }
+
+            // preemption point, the truffle commands get a turn before the next step
+            if (preempted != null) {
+                break;
+            }
+        }
+
+        if (shards.length == 0) {
+            final long start = System.nanoTime();
+            final int executed = truffleCommandQueue.drainTimed(this::execute, scheduler.getTruffleQuantum());
+
+            scheduler.recordTruffleTurn(executed, System.nanoTime() - start);
+        } else {
+            runShardedTruffleTurn();
+        }
+    }
+
+    /**
+     * <p>
+     *     Hands truffle commands to the shards. Every command may end up on the shard with the largest backlog, so
+     *     only as many commands are handed over as that shard can still execute within the latency target. The turn
+     *     is recorded with the time the shards spent executing commands meanwhile.
+     * </p>
+     */
+    private void runShardedTruffleTurn() throws InterruptedException {
+        long backlog = 0;
+        long executedBefore = 0;
+        long busyBefore = 0;
+
+        for (final CommandShard shard : shards) {
+            backlog = Math.max(backlog, shard.getBacklog());
+            executedBefore += shard.getExecutedCount();
+            busyBefore += shard.getBusyNanos();
+        }
+
+        final long limit = scheduler.getTruffleQuantum() - backlog;
+
+        if (limit > 0) {
+            truffleCommandQueue.drainTimed(this::dispatch, (int) limit);
+        } else {
+            LockSupport.parkNanos(this, SHARD_BACKLOG_PARK_NANOS);
+        }
+
+        long executedAfter = 0;
+        long busyAfter = 0;
+
+        for (final CommandShard shard : shards) {
+            executedAfter += shard.getExecutedCount();
+            busyAfter += shard.getBusyNanos();
+        }
+
+        scheduler.recordTruffleTurn((int) (executedAfter - executedBefore), busyAfter - busyBefore);
+    }
+
+    private void startUserCommand(final ICommand command, final long enqueueTime) {
+        try {
+            awaitShards();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (command instanceof IPreemptibleCommand) {
+            preempted = (IPreemptibleCommand) command;
+            preemptedEnqueueTime = enqueueTime;
+            preemptedStart = System.nanoTime();
+            preemptedCost = 0;
+
+            executePreemptedStep();
+        } else {
+            execute(command, enqueueTime);
+        }
+    }
+
+    private void executePreemptedStep() {
+        final long start = System.nanoTime();
+        final boolean finished = preempted.executeStep();
+
+        preemptedCost += System.nanoTime() - start;
+
+        if (finished) {
+            // the execution time of a preempted command is the time of its steps without the turns in between
+            metrics.record(preempted, preemptedEnqueueTime, preemptedStart, preemptedStart + preemptedCost);
+            preempted = null;
+        }
+    }
+
+    private void execute(final ICommand command, final long enqueueTime) {
+        final long start = System.nanoTime();
+
+        try {
+            command.execute();
+        } finally {
+            metrics.record(command, enqueueTime, start, System.nanoTime());
+        }
+    }
+
+    private void awaitShards() throws InterruptedException {
+        for (final CommandShard shard : shards) {
+            shard.awaitIdle();
+        }
+    }
+
+    /**
+     * <p>
+     *     Hands a truffle command to the shard of its source address, or executes the command on the executor thread
+     *     as soon as all shards are idle if it is a barrier.
+     * </p>
+     */
+    private void dispatch(final ICommand command, final long enqueueTime) {
+
+        // the rest of a drained batch is skipped once the executor is shut down
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+
+        try {
+            final MacAddress source = getSourceAddress(command);
+
+            if (source != null) {
+                shards[shardIndex(source, shards.length)].submit(command, enqueueTime);
+                return;
+            }
+
+            awaitShards();
+            execute(command, enqueueTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static MacAddress getSourceAddress(final ICommand command) {
+        if (command instanceof AggregatedPacketDataCommand) {
+            return ((AggregatedPacketDataCommand) command).getSourceAddress();
+        }
+
+        if (command instanceof AddPacketDataCommand) {
+            return ((AddPacketDataCommand) command).getSourceAddress();
+        }
+
+        if (command instanceof DuplicatePacketCommand) {
+            return ((DuplicatePacketCommand) command).getSourceAddress();
+        }
+
+        return null;
+    }
+
+    /**
+     * <p>
+     *     Gets the shard of an address. The hash of the address is mixed first, because devices of the same vendor
+     *     only differ in the lower bytes of their address.
+     * </p>
+     *
+     * @param address The address to get the shard of.
+     * @param shardCount The number of shards.
+     * @return The index of the shard.
+     */
+    static int shardIndex(final MacAddress address, final int shardCount) {
+        final int hash = address.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
     /**
      * <p>
      *     This method returns an {@link IListener} that accepts {@link IUserCommand} commands.
@@ -76,6 +437,74 @@ public class CommandExecutor implements Runnable {
         return asListener(ITruffleCommand.class, truffleCommandQueue);
     }
 
+    /**
+     * @return the number of truffle commands that wait for their execution, including those that wait for a shard
+     */
+    public int getTruffleQueueSize() {
+        int size = truffleCommandQueue.size();
+
+        for (final CommandShard shard : shards) {
+            size += shard.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * @return the number of user commands that wait for their execution
+     */
+    public int getUserQueueSize() {
+        return userCommandQueue.size();
+    }
+
+    /**
+     * @return the number of truffle commands that wait for each shard, empty if there are no shards
+     */
+    public int[] getShardQueueSizes() {
+        final int[] sizes = new int[shards.length];
+
+        for (int i = 0; i < shards.length; i++) {
+            sizes[i] = shards[i].size();
+        }
+
+        return sizes;
+    }
+
+    /**
+     * @return the wait and execution times of the executed commands
+     */
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the scheduler of the queues or null if they strictly alternate
+     */
+    public CommandScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return the number of threads that execute truffle commands
+     */
+    public int getShardCount() {
+        return Math.max(1, shards.length);
+    }
+
+    /**
+     * @return the number of truffle commands that were dropped because the truffle queue was full
+     */
+    public long getDroppedTruffleCount() {
+        return truffleCommandQueue.getDroppedCount();
+    }
+
+    /**
+     * @return the number of truffle commands that were not accepted by the sampling overflow policy
+     */
+    public long getSampledOutTruffleCount() {
+        return truffleCommandQueue.getSampledOutCount();
+    }
+
     private <T extends ICommand> IListener<T> asListener(final Class<T>commandQueueType, final ICommandQueue commandQueue) {
         return message -> {
             try {
@@ -84,7 +513,9 @@ public class CommandExecutor implements Runnable {
                 }
                 commandQueue.push(message);
             } catch (InterruptedException e) {
-                e.printStackTrace();
+                // a blocked receiver is being shut down
+                logger.debug("Interrupted while pushing a command");
+                Thread.currentThread().interrupt();
             }
         };
     }
@@ -0,0 +1,165 @@
+package edu.kit.trufflehog.service.executor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     The CommandScheduler decides how many commands the {@link CommandExecutor} takes from its queues in turn. The
+ *     queues are served in weighted rounds: first up to the user weight of user commands, then up to the truffle weight
+ *     of truffle commands.
+ * </p>
+ * <p>
+ *     A user command that arrives while truffle commands are executed waits for the rest of the truffle turn only. The
+ *     scheduler measures how long a truffle command takes on average and shortens the truffle turns so that they do not
+ *     exceed the latency target for user commands.
+ * </p>
+ * <p>
+ *     The scheduler is used by the executor thread only.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class CommandScheduler {
+
+    /** The default number of user commands or command steps in one turn. */
+    public static final int DEFAULT_USER_WEIGHT = 4;
+
+    /** The default maximum number of truffle commands in one turn. */
+    public static final int DEFAULT_TRUFFLE_WEIGHT = 256;
+
+    /** The default time in milliseconds a user command should wait for truffle commands at most. */
+    public static final long DEFAULT_USER_LATENCY_TARGET_MILLIS = 5;
+
+    // the size of the first truffle turns, before the cost of a truffle command was measured
+    private static final int INITIAL_TRUFFLE_QUANTUM = 16;
+
+    private final int userWeight;
+    private final int truffleWeight;
+    private final long userLatencyTargetNanos;
+
+    // the moving average of the time a truffle command takes, 0 until the first turn was measured
+    private long truffleCostNanos = 0;
+
+    private CommandScheduler(final Builder builder) {
+        this.userWeight = builder.userWeight;
+        this.truffleWeight = builder.truffleWeight;
+        this.userLatencyTargetNanos = builder.userLatencyTargetNanos;
+    }
+
+    /**
+     * @return the maximum number of user commands or command steps in the next turn
+     */
+    int getUserQuantum() {
+        return userWeight;
+    }
+
+    /**
+     * @return the maximum number of truffle commands in the next turn
+     */
+    int getTruffleQuantum() {
+        if (truffleCostNanos == 0) {
+            return Math.min(INITIAL_TRUFFLE_QUANTUM, truffleWeight);
+        }
+
+        return (int) Math.max(1, Math.min(truffleWeight, userLatencyTargetNanos / truffleCostNanos));
+    }
+
+    /**
+     * <p>
+     *     Records how long a truffle turn took.
+     * </p>
+     *
+     * @param commands The number of commands that were executed in the turn.
+     * @param nanos The time the turn took in nanoseconds.
+     */
+    void recordTruffleTurn(final int commands, final long nanos) {
+        if (commands <= 0) {
+            return;
+        }
+
+        final long cost = Math.max(1, nanos / commands);
+
+        truffleCostNanos = truffleCostNanos == 0 ? cost : (7 * truffleCostNanos + cost) / 8;
+    }
+
+    /**
+     * @return the number of user commands or command steps in one turn
+     */
+    public int getUserWeight() {
+        return userWeight;
+    }
+
+    /**
+     * @return the maximum number of truffle commands in one turn
+     */
+    public int getTruffleWeight() {
+        return truffleWeight;
+    }
+
+    /**
+     * @param unit The unit of the returned time.
+     * @return the time a user command should wait for truffle commands at most
+     */
+    public long getUserLatencyTarget(final TimeUnit unit) {
+        return unit.convert(userLatencyTargetNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * <p>
+     *     Builds {@link CommandScheduler} objects. Every value that is not set keeps its default.
+     * </p>
+     */
+    public static final class Builder {
+
+        private int userWeight = DEFAULT_USER_WEIGHT;
+        private int truffleWeight = DEFAULT_TRUFFLE_WEIGHT;
+        private long userLatencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_USER_LATENCY_TARGET_MILLIS);
+
+        /**
+         * @param userWeight The number of user commands or command steps in one turn.
+         * @return this builder
+         */
+        public Builder userWeight(final int userWeight) {
+            if (userWeight <= 0)
+                throw new IllegalArgumentException("userWeight must be positive");
+
+            this.userWeight = userWeight;
+            return this;
+        }
+
+        /**
+         * @param truffleWeight The maximum number of truffle commands in one turn.
+         * @return this builder
+         */
+        public Builder truffleWeight(final int truffleWeight) {
+            if (truffleWeight <= 0)
+                throw new IllegalArgumentException("truffleWeight must be positive");
+
+            this.truffleWeight = truffleWeight;
+            return this;
+        }
+
+        /**
+         * @param latency The time a user command should wait for truffle commands at most.
+         * @param unit The unit of the latency.
+         * @return this builder
+         */
+        public Builder userLatencyTarget(final long latency, final TimeUnit unit) {
+            if (unit == null)
+                throw new NullPointerException("unit must not be null");
+            if (latency <= 0)
+                throw new IllegalArgumentException("latency must be positive");
+
+            this.userLatencyTargetNanos = unit.toNanos(latency);
+            return this;
+        }
+
+        /**
+         * @return a new scheduler with the values of this builder
+         */
+        public CommandScheduler build() {
+            return new CommandScheduler(this);
+        }
+    }
+}
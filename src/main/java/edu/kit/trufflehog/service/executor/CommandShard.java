@@ -0,0 +1,170 @@
+package edu.kit.trufflehog.service.executor;
+
+import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.queue.CommandQueueManager;
+import edu.kit.trufflehog.command.queue.OverflowPolicy;
+import edu.kit.trufflehog.command.queue.RingCommandQueue;
+import edu.kit.trufflehog.command.queue.WaitStrategy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     A CommandShard executes the truffle commands that the {@link CommandExecutor} assigned to it on its own thread.
+ *     The commands are submitted by the executor thread only and executed in the order they were submitted.
+ * </p>
+ * <p>
+ *     The executor can wait until the shard has executed every command it submitted so far. This is how user commands
+ *     become barriers across all shards.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+final class CommandShard implements Runnable {
+
+    private static final Logger logger = LogManager.getLogger(CommandShard.class);
+
+    // how long the executor parks at most before it checks the progress of the shard again
+    private static final long BARRIER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final CommandQueueManager manager;
+    private final RingCommandQueue queue;
+    private final ExecutorMetrics metrics;
+
+    // only accessed by the executor thread
+    private long submitted;
+
+    // only written by the shard thread
+    private volatile long executed;
+    private volatile long busyNanos;
+
+    // the executor thread while it waits for the shard
+    private volatile Thread barrierWaiter;
+
+    /**
+     * <p>
+     *     Creates a new CommandShard.
+     * </p>
+     *
+     * @param capacity The number of commands that may wait for the shard before the executor is blocked.
+     * @param waitStrategy The strategy the shard uses to wait for commands and the executor uses to wait for space.
+     * @param metrics The metrics the executed commands are recorded in.
+     */
+    CommandShard(final int capacity, final WaitStrategy waitStrategy, final ExecutorMetrics metrics) {
+        manager = new CommandQueueManager(waitStrategy);
+        queue = new RingCommandQueue(manager, capacity, OverflowPolicy.BLOCK);
+        this.metrics = metrics;
+    }
+
+    /**
+     * <p>
+     *     Submits a command to the shard. Must only be called by the executor thread.
+     * </p>
+     *
+     * @param command The command to execute.
+     * @param enqueueTime The {@link System#nanoTime()} when the command was pushed onto the executor.
+     * @throws InterruptedException If the executor is interrupted while the shard is full.
+     */
+    void submit(final ICommand command, final long enqueueTime) throws InterruptedException {
+        queue.push(command, enqueueTime);
+        submitted++;
+    }
+
+    /**
+     * <p>
+     *     Waits until the shard executed every command that was submitted. Must only be called by the executor thread.
+     * </p>
+     *
+     * @throws InterruptedException If the executor is interrupted while it waits.
+     */
+    void awaitIdle() throws InterruptedException {
+        if (executed == submitted) {
+            return;
+        }
+
+        // Publish the waiter before checking the progress again. The shard counts the command first and reads the
+        // waiter afterwards, so either the waiter sees the progress or the shard sees the waiter.
+        barrierWaiter = Thread.currentThread();
+
+        try {
+            while (executed != submitted) {
+                LockSupport.parkNanos(this, BARRIER_PARK_NANOS);
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            barrierWaiter = null;
+        }
+    }
+
+    /**
+     * @return the number of commands that wait for their execution
+     */
+    int size() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of submitted commands the shard did not finish yet. Must only be called by the executor
+     *         thread.
+     */
+    long getBacklog() {
+        return submitted - executed;
+    }
+
+    /**
+     * @return the number of commands the shard executed so far
+     */
+    long getExecutedCount() {
+        return executed;
+    }
+
+    /**
+     * @return the time the shard spent executing commands so far, in nanoseconds
+     */
+    long getBusyNanos() {
+        return busyNanos;
+    }
+
+    @Override
+    public void run() {
+
+        while (!Thread.interrupted()) {
+            try {
+                manager.getNextQueue().drainTimed(this::execute, CommandExecutor.MAX_BATCH_SIZE);
+
+                final Thread waiter = barrierWaiter;
+
+                if (waiter != null) {
+                    LockSupport.unpark(waiter);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        logger.debug("Shard thread exited");
+    }
+
+    private void execute(final ICommand command, final long enqueueTime) {
+        final long start = System.nanoTime();
+
+        try {
+            command.execute();
+        } catch (RuntimeException e) {
+            // a dead shard would hold up every barrier, so the shard outlives failing commands
+            logger.error("Command failed on shard thread", e);
+        } finally {
+            final long end = System.nanoTime();
+            metrics.record(command, enqueueTime, start, end);
+            busyNanos += end - start;
+            executed++;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package edu.kit.trufflehog.service.executor;
+
+import edu.kit.trufflehog.util.metrics.LatencySnapshot;
+
+/**
+ * <p>
+ *     A CommandTimingSnapshot holds how long the commands of one class waited in the queues of the
+ *     {@link CommandExecutor} and how long their execution took.
+ * </p>
+ * <p>
+ *     The wait time is counted from the moment a command was pushed until its execution started. It is only known
+ *     for commands from queues that record when a command was pushed, so it may count fewer commands than the
+ *     execution time.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class CommandTimingSnapshot {
+
+    private final String commandClass;
+    private final LatencySnapshot waitTime;
+    private final LatencySnapshot executeTime;
+
+    /**
+     * <p>
+     *     Creates a new CommandTimingSnapshot.
+     * </p>
+     *
+     * @param commandClass The name of the command class.
+     * @param waitTime The time the commands waited in the queues.
+     * @param executeTime The time the execution of the commands took.
+     */
+    public CommandTimingSnapshot(final String commandClass, final LatencySnapshot waitTime,
+                                 final LatencySnapshot executeTime) {
+        if (commandClass == null) throw new NullPointerException("commandClass must not be null");
+        if (waitTime == null) throw new NullPointerException("waitTime must not be null");
+        if (executeTime == null) throw new NullPointerException("executeTime must not be null");
+
+        this.commandClass = commandClass;
+        this.waitTime = waitTime;
+        this.executeTime = executeTime;
+    }
+
+    /**
+     * @return the name of the command class
+     */
+    public String getCommandClass() {
+        return commandClass;
+    }
+
+    /**
+     * @return the time the commands waited in the queues
+     */
+    public LatencySnapshot getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * @return the time the execution of the commands took
+     */
+    public LatencySnapshot getExecuteTime() {
+        return executeTime;
+    }
+
+    @Override
+    public String toString() {
+        return commandClass + ": wait[" + waitTime + "] execute[" + executeTime + "]";
+    }
+}
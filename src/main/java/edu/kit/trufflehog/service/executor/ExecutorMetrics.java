@@ -0,0 +1,82 @@
+package edu.kit.trufflehog.service.executor;
+
+import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.queue.ICommandQueue;
+import edu.kit.trufflehog.util.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     The ExecutorMetrics record how long the commands of a {@link CommandExecutor} waited in the queues and how long
+ *     their execution took, separately for every command class. The executor thread and the shard threads record into
+ *     the same metrics.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class ExecutorMetrics {
+
+    private final ConcurrentMap<Class<?>, Timings> timings = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+
+    /**
+     * <p>
+     *     Records the execution of a command.
+     * </p>
+     *
+     * @param command The command that was executed.
+     * @param enqueueTime The {@link System#nanoTime()} when the command was pushed or
+     *                    {@link ICommandQueue#UNKNOWN_ENQUEUE_TIME} if it is not known.
+     * @param start The {@link System#nanoTime()} when the execution started.
+     * @param end The {@link System#nanoTime()} when the execution ended.
+     */
+    void record(final ICommand command, final long enqueueTime, final long start, final long end) {
+        Timings commandTimings = timings.get(command.getClass());
+
+        // computeIfAbsent locks the bin even if the class is known, so it is only used for the first command
+        if (commandTimings == null) {
+            commandTimings = timings.computeIfAbsent(command.getClass(), type -> new Timings());
+        }
+
+        if (enqueueTime != ICommandQueue.UNKNOWN_ENQUEUE_TIME) {
+            commandTimings.wait.record(start - enqueueTime);
+        }
+
+        commandTimings.execute.record(end - start);
+        executed.increment();
+    }
+
+    /**
+     * @return the number of commands that were executed
+     */
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * @return the timings of every command class that was executed so far, ordered by class name
+     */
+    public List<CommandTimingSnapshot> getCommandTimings() {
+        final List<CommandTimingSnapshot> snapshots = new ArrayList<>(timings.size());
+
+        timings.forEach((type, commandTimings) -> snapshots.add(new CommandTimingSnapshot(type.getName(),
+                commandTimings.wait.snapshot(), commandTimings.execute.snapshot())));
+
+        snapshots.sort(Comparator.comparing(CommandTimingSnapshot::getCommandClass));
+
+        return snapshots;
+    }
+
+    private static final class Timings {
+
+        private final LatencyHistogram wait = new LatencyHistogram();
+        private final LatencyHistogram execute = new LatencyHistogram();
+    }
+}
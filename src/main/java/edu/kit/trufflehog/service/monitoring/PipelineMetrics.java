@@ -0,0 +1,218 @@
+package edu.kit.trufflehog.service.monitoring;
+
+import edu.kit.trufflehog.service.executor.CommandExecutor;
+import edu.kit.trufflehog.service.executor.CommandTimingSnapshot;
+import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.TruffleReceiver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     The PipelineMetrics collect the state of the packet pipeline from a {@link TruffleReceiver} and the
+ *     {@link CommandExecutor} that executes its commands. The state is available as a {@link PipelineSnapshot} and,
+ *     once {@link #register()} was called, as the MBean {@value #OBJECT_NAME}.
+ * </p>
+ * <p>
+ *     The metrics only read counters that the receiver and the executor maintain anyway, so they cost nothing while
+ *     nobody looks at them. The rates are measured between two reads that are at least one second apart.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class PipelineMetrics implements PipelineMetricsMXBean {
+
+    private static final Logger logger = LogManager.getLogger(PipelineMetrics.class);
+
+    /** The name of the MBean. */
+    public static final String OBJECT_NAME = "edu.kit.trufflehog:type=PipelineMetrics";
+
+    private final CommandExecutor executor;
+    private final TruffleReceiver receiver;
+
+    private final RateMeter commandRate = new RateMeter();
+    private final RateMeter readRate = new RateMeter();
+
+    private ObjectName registeredName = null;
+
+    /**
+     * <p>
+     *     Creates new PipelineMetrics.
+     * </p>
+     *
+     * @param executor The executor that executes the commands of the receiver.
+     * @param receiver The receiver that reads the packets.
+     */
+    public PipelineMetrics(final CommandExecutor executor, final TruffleReceiver receiver) {
+        if (executor == null) throw new NullPointerException("executor must not be null");
+        if (receiver == null) throw new NullPointerException("receiver must not be null");
+
+        this.executor = executor;
+        this.receiver = receiver;
+    }
+
+    /**
+     * <p>
+     *     Takes a snapshot of the pipeline.
+     * </p>
+     *
+     * @return the snapshot
+     */
+    public PipelineSnapshot snapshot() {
+        final long executed = executor.getMetrics().getExecutedCount();
+        final long read = receiver.getReadCount();
+
+        return new PipelineSnapshot.Builder()
+                .timestamp(System.currentTimeMillis())
+                .queueDepths(executor.getTruffleQueueSize(), executor.getUserQueueSize(),
+                        executor.getShardQueueSizes())
+                .executed(executed, commandRate.update(executed))
+                .overflow(executor.getDroppedTruffleCount(), executor.getSampledOutTruffleCount())
+                .receiver(read, readRate.update(read), receiver.getDecodeErrorCount(),
+                        receiver.getFilteredCount(), receiver.getDuplicateCount())
+                .commandTimings(executor.getMetrics().getCommandTimings())
+                .build();
+    }
+
+    /**
+     * <p>
+     *     Registers the metrics with the platform MBean server. A failure is logged and does not affect the pipeline.
+     * </p>
+     *
+     * @return true if the metrics were registered
+     */
+    public synchronized boolean register() {
+        if (registeredName != null) {
+            return true;
+        }
+
+        try {
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+
+            server.registerMBean(this, name);
+            registeredName = name;
+
+            return true;
+        } catch (JMException e) {
+            logger.warn("Could not register the pipeline metrics", e);
+            return false;
+        }
+    }
+
+    /**
+     * <p>
+     *     Removes the metrics from the platform MBean server if they were registered.
+     * </p>
+     */
+    public synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            logger.warn("Could not unregister the pipeline metrics", e);
+        } finally {
+            registeredName = null;
+        }
+    }
+
+    @Override
+    public int getTruffleQueueDepth() {
+        return executor.getTruffleQueueSize();
+    }
+
+    @Override
+    public int getUserQueueDepth() {
+        return executor.getUserQueueSize();
+    }
+
+    @Override
+    public int[] getShardQueueDepths() {
+        return executor.getShardQueueSizes();
+    }
+
+    @Override
+    public long getExecutedCount() {
+        return executor.getMetrics().getExecutedCount();
+    }
+
+    @Override
+    public double getCommandsPerSecond() {
+        return commandRate.update(executor.getMetrics().getExecutedCount());
+    }
+
+    @Override
+    public long getDroppedTruffleCount() {
+        return executor.getDroppedTruffleCount();
+    }
+
+    @Override
+    public double getReceiverReadsPerSecond() {
+        return readRate.update(receiver.getReadCount());
+    }
+
+    @Override
+    public long getDecodeErrorCount() {
+        return receiver.getDecodeErrorCount();
+    }
+
+    @Override
+    public long getFilteredCount() {
+        return receiver.getFilteredCount();
+    }
+
+    @Override
+    public long getDuplicateCount() {
+        return receiver.getDuplicateCount();
+    }
+
+    @Override
+    public List<CommandTimingSnapshot> getCommandTimings() {
+        return executor.getMetrics().getCommandTimings();
+    }
+
+    /**
+     * Measures the rate of a counter. The rate is only recalculated if the last calculation is at least a second
+     * ago, so reading several attributes at once returns consistent rates.
+     */
+    private static final class RateMeter {
+
+        private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final long startTime = System.nanoTime();
+
+        private long baseTime = startTime;
+        private long baseCount = 0;
+        private double rate = 0;
+
+        private synchronized double update(final long count) {
+            final long now = System.nanoTime();
+            final long elapsed = now - baseTime;
+
+            if (elapsed >= INTERVAL_NANOS) {
+                rate = (count - baseCount) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+                baseTime = now;
+                baseCount = count;
+            } else if (baseTime == startTime && elapsed > 0) {
+                // no full interval yet, the rate since the start is the best guess
+                rate = count * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            }
+
+            return rate;
+        }
+    }
+}
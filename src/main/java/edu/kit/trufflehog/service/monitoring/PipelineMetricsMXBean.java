@@ -0,0 +1,69 @@
+package edu.kit.trufflehog.service.monitoring;
+
+import edu.kit.trufflehog.service.executor.CommandTimingSnapshot;
+
+import java.util.List;
+
+/**
+ * <p>
+ *     The management interface of the {@link PipelineMetrics}. It is registered with the platform MBean server, so
+ *     the state of the packet pipeline can be watched with any JMX console.
+ * </p>
+ */
+public interface PipelineMetricsMXBean {
+
+    /**
+     * @return the number of truffle commands that wait in the queue of the executor
+     */
+    int getTruffleQueueDepth();
+
+    /**
+     * @return the number of user commands that wait in the queue of the executor
+     */
+    int getUserQueueDepth();
+
+    /**
+     * @return the number of truffle commands that wait for each shard, empty if there are no shards
+     */
+    int[] getShardQueueDepths();
+
+    /**
+     * @return the number of commands that were executed
+     */
+    long getExecutedCount();
+
+    /**
+     * @return the number of commands that were executed per second recently
+     */
+    double getCommandsPerSecond();
+
+    /**
+     * @return the number of truffle commands that were dropped because the queue was full
+     */
+    long getDroppedTruffleCount();
+
+    /**
+     * @return the number of packets the receiver read per second recently
+     */
+    double getReceiverReadsPerSecond();
+
+    /**
+     * @return the number of packets the receiver could not decode
+     */
+    long getDecodeErrorCount();
+
+    /**
+     * @return the number of packets the packet filter of the receiver rejected
+     */
+    long getFilteredCount();
+
+    /**
+     * @return the number of packets the receiver suppressed as duplicates
+     */
+    long getDuplicateCount();
+
+    /**
+     * @return the wait and execution times of every command class
+     */
+    List<CommandTimingSnapshot> getCommandTimings();
+}
@@ -0,0 +1,241 @@
+package edu.kit.trufflehog.service.monitoring;
+
+import edu.kit.trufflehog.service.executor.CommandTimingSnapshot;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ *     A PipelineSnapshot holds the state of the packet pipeline at one point in time: how many commands wait in the
+ *     queues of the executor, how fast commands are executed and packets are read, and how long the commands of each
+ *     class waited and took. The rates are averaged over the last second or so.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class PipelineSnapshot {
+
+    private final long timestamp;
+    private final int truffleQueueDepth;
+    private final int userQueueDepth;
+    private final int[] shardQueueDepths;
+    private final long executedCount;
+    private final double commandsPerSecond;
+    private final long droppedTruffleCount;
+    private final long sampledOutTruffleCount;
+    private final long receiverReadCount;
+    private final double receiverReadsPerSecond;
+    private final long decodeErrorCount;
+    private final long filteredCount;
+    private final long duplicateCount;
+    private final List<CommandTimingSnapshot> commandTimings;
+
+    /**
+     * <p>
+     *     Creates a new PipelineSnapshot. Use {@link PipelineMetrics#snapshot()} to take a snapshot of a running
+     *     pipeline.
+     * </p>
+     *
+     * @param builder The builder that holds the values of the snapshot.
+     */
+    private PipelineSnapshot(final Builder builder) {
+        this.timestamp = builder.timestamp;
+        this.truffleQueueDepth = builder.truffleQueueDepth;
+        this.userQueueDepth = builder.userQueueDepth;
+        this.shardQueueDepths = builder.shardQueueDepths.clone();
+        this.executedCount = builder.executedCount;
+        this.commandsPerSecond = builder.commandsPerSecond;
+        this.droppedTruffleCount = builder.droppedTruffleCount;
+        this.sampledOutTruffleCount = builder.sampledOutTruffleCount;
+        this.receiverReadCount = builder.receiverReadCount;
+        this.receiverReadsPerSecond = builder.receiverReadsPerSecond;
+        this.decodeErrorCount = builder.decodeErrorCount;
+        this.filteredCount = builder.filteredCount;
+        this.duplicateCount = builder.duplicateCount;
+        this.commandTimings = Collections.unmodifiableList(builder.commandTimings);
+    }
+
+    /**
+     * @return the time the snapshot was taken in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the number of truffle commands that wait in the queue of the executor
+     */
+    public int getTruffleQueueDepth() {
+        return truffleQueueDepth;
+    }
+
+    /**
+     * @return the number of user commands that wait in the queue of the executor
+     */
+    public int getUserQueueDepth() {
+        return userQueueDepth;
+    }
+
+    /**
+     * @return the number of truffle commands that wait for each shard, empty if there are no shards
+     */
+    public int[] getShardQueueDepths() {
+        return shardQueueDepths.clone();
+    }
+
+    /**
+     * @return the number of commands that were executed
+     */
+    public long getExecutedCount() {
+        return executedCount;
+    }
+
+    /**
+     * @return the number of commands that were executed per second recently
+     */
+    public double getCommandsPerSecond() {
+        return commandsPerSecond;
+    }
+
+    /**
+     * @return the number of truffle commands that were dropped because the queue was full
+     */
+    public long getDroppedTruffleCount() {
+        return droppedTruffleCount;
+    }
+
+    /**
+     * @return the number of truffle commands that were not accepted by the sampling overflow policy
+     */
+    public long getSampledOutTruffleCount() {
+        return sampledOutTruffleCount;
+    }
+
+    /**
+     * @return the number of packets the receiver read
+     */
+    public long getReceiverReadCount() {
+        return receiverReadCount;
+    }
+
+    /**
+     * @return the number of packets the receiver read per second recently
+     */
+    public double getReceiverReadsPerSecond() {
+        return receiverReadsPerSecond;
+    }
+
+    /**
+     * @return the number of packets the receiver could not decode
+     */
+    public long getDecodeErrorCount() {
+        return decodeErrorCount;
+    }
+
+    /**
+     * @return the number of packets the packet filter of the receiver rejected
+     */
+    public long getFilteredCount() {
+        return filteredCount;
+    }
+
+    /**
+     * @return the number of packets the receiver suppressed as duplicates
+     */
+    public long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * @return the wait and execution times of every command class, ordered by class name
+     */
+    public List<CommandTimingSnapshot> getCommandTimings() {
+        return commandTimings;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+
+        builder.append("truffleQueue=").append(truffleQueueDepth)
+                .append(" userQueue=").append(userQueueDepth)
+                .append(" commands/s=").append(String.format("%.1f", commandsPerSecond))
+                .append(" reads/s=").append(String.format("%.1f", receiverReadsPerSecond))
+                .append(" decodeErrors=").append(decodeErrorCount)
+                .append(" filtered=").append(filteredCount)
+                .append(" duplicates=").append(duplicateCount)
+                .append(" dropped=").append(droppedTruffleCount);
+
+        commandTimings.forEach(timing -> builder.append(System.lineSeparator()).append("  ").append(timing));
+
+        return builder.toString();
+    }
+
+    /**
+     * <p>
+     *     Collects the values of a {@link PipelineSnapshot}.
+     * </p>
+     */
+    static final class Builder {
+
+        private long timestamp;
+        private int truffleQueueDepth;
+        private int userQueueDepth;
+        private int[] shardQueueDepths = new int[0];
+        private long executedCount;
+        private double commandsPerSecond;
+        private long droppedTruffleCount;
+        private long sampledOutTruffleCount;
+        private long receiverReadCount;
+        private double receiverReadsPerSecond;
+        private long decodeErrorCount;
+        private long filteredCount;
+        private long duplicateCount;
+        private List<CommandTimingSnapshot> commandTimings = Collections.emptyList();
+
+        Builder timestamp(final long timestamp) {
+            this.timestamp = timestamp;
+            return this;
+        }
+
+        Builder queueDepths(final int truffleQueueDepth, final int userQueueDepth, final int[] shardQueueDepths) {
+            this.truffleQueueDepth = truffleQueueDepth;
+            this.userQueueDepth = userQueueDepth;
+            this.shardQueueDepths = shardQueueDepths;
+            return this;
+        }
+
+        Builder executed(final long executedCount, final double commandsPerSecond) {
+            this.executedCount = executedCount;
+            this.commandsPerSecond = commandsPerSecond;
+            return this;
+        }
+
+        Builder overflow(final long droppedTruffleCount, final long sampledOutTruffleCount) {
+            this.droppedTruffleCount = droppedTruffleCount;
+            this.sampledOutTruffleCount = sampledOutTruffleCount;
+            return this;
+        }
+
+        Builder receiver(final long receiverReadCount, final double receiverReadsPerSecond,
+                         final long decodeErrorCount, final long filteredCount, final long duplicateCount) {
+            this.receiverReadCount = receiverReadCount;
+            this.receiverReadsPerSecond = receiverReadsPerSecond;
+            this.decodeErrorCount = decodeErrorCount;
+            this.filteredCount = filteredCount;
+            this.duplicateCount = duplicateCount;
+            return this;
+        }
+
+        Builder commandTimings(final List<CommandTimingSnapshot> commandTimings) {
+            this.commandTimings = commandTimings;
+            return this;
+        }
+
+        PipelineSnapshot build() {
+            return new PipelineSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     The DuplicateFrameFilter recognizes DCP frames that repeat a frame of the recent past. Identify requests are
+ *     retransmitted and the responses to them often arrive several times within a few milliseconds, but every copy
+ *     carries the same transaction. A frame is a duplicate if a frame with the same source mac address, xid, service
+ *     id, service type and direction arrived less than the window before it. Frames that carry no DCP service, like
+ *     the cyclic real time frames, are never duplicates.
+ * </p>
+ * <p>
+ *     The frames are remembered in a small table with one slot per hash value. A frame that lands on the slot of
+ *     another transaction replaces it, so the filter may miss a duplicate when the table is crowded but it never
+ *     suppresses a frame of a different transaction. The window starts with the first frame of a transaction, so a
+ *     transaction that keeps repeating passes one frame per window.
+ * </p>
+ * <p>
+ *     The time of a frame is its time of arrival, so frames that are replayed from a capture file are compared by the
+ *     time they were captured.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class DuplicateFrameFilter {
+
+    /** The default window in milliseconds. */
+    public static final long DEFAULT_WINDOW_MILLIS = 100;
+
+    /** The default number of slots of the table. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int NO_SERVICE = 0;
+
+    private final long windowMillis;
+    private final int mask;
+
+    private final long[] sourceMacs;
+    private final long[] xids;
+    private final int[] services;
+    private final long[] firstSeen;
+
+    /**
+     * <p>
+     *     Creates a new DuplicateFrameFilter with the default window and capacity.
+     * </p>
+     */
+    public DuplicateFrameFilter() {
+        this(DEFAULT_WINDOW_MILLIS, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * <p>
+     *     Creates a new DuplicateFrameFilter.
+     * </p>
+     *
+     * @param windowMillis The time in milliseconds a frame suppresses its duplicates.
+     * @param capacity The number of slots of the table, it is rounded up to a power of two.
+     */
+    public DuplicateFrameFilter(final long windowMillis, final int capacity) {
+        if (windowMillis <= 0) throw new IllegalArgumentException("windowMillis must be positive");
+        if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException("capacity must be in (0, 2^30]");
+
+        final int slots = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+
+        this.windowMillis = windowMillis;
+        this.mask = slots - 1;
+        this.sourceMacs = new long[slots];
+        this.xids = new long[slots];
+        this.services = new int[slots];
+        this.firstSeen = new long[slots];
+
+        Arrays.fill(firstSeen, EMPTY);
+    }
+
+    /**
+     * <p>
+     *     Checks whether the truffle repeats a truffle of the window and remembers it if it does not.
+     * </p>
+     *
+     * @param truffle The truffle to check.
+     * @return true if the truffle is a duplicate and should not be passed on
+     */
+    public synchronized boolean isDuplicate(final Truffle truffle) {
+        if (truffle == null) throw new NullPointerException("truffle must not be null");
+
+        // only dcp frames have a service id
+        if (truffle.getServiceID() == NO_SERVICE) {
+            return false;
+        }
+
+        final long sourceMac = truffle.getSourceMac();
+        final long xid = truffle.getXid();
+        final int service = (truffle.getServiceID() & 0xFF) << 16 | (truffle.getServiceType() & 0xFF) << 1
+                | (truffle.isResponse() ? 1 : 0);
+        final long time = truffle.getTimeOfArrival();
+
+        final int slot = slot(sourceMac, xid, service);
+        final long seen = firstSeen[slot];
+
+        if (seen != EMPTY && sourceMacs[slot] == sourceMac && xids[slot] == xid && services[slot] == service) {
+            final long age = time - seen;
+
+            if (age >= 0 && age < windowMillis) {
+                return true;
+            }
+        }
+
+        sourceMacs[slot] = sourceMac;
+        xids[slot] = xid;
+        services[slot] = service;
+        firstSeen[slot] = time;
+
+        return false;
+    }
+
+    /**
+     * @return the window in milliseconds
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    private int slot(final long sourceMac, final long xid, final int service) {
+        long hash = sourceMac * 0x9E3779B97F4A7C15L;
+        hash ^= xid * 0xC2B2AE3D27D4EB4FL;
+        hash ^= service * 0x165667B19E3779F9L;
+        hash ^= hash >>> 29;
+
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,16 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+/**
+ * <p>
+ *     This exception is thrown if a {@link PacketRule} could not be parsed.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class InvalidPacketRule extends Exception {
+
+    public InvalidPacketRule(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,133 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ *     This class maps the NUL padded names of {@link TruffleRecord}s to java strings. The names carried by DCP frames
+ *     (service id names, service type names and station names) come from a small vocabulary, so the dictionary
+ *     compares the bytes of the record with the names it already knows and only creates a new string for names it has
+ *     not seen yet.
+ * </p>
+ * <p>
+ *     The dictionary is direct mapped by a hash of the name and bounded by its number of slots. A new name replaces
+ *     the name that was in its slot before. Lookups are lock free and the dictionary can be shared by all receivers.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+final class NameDictionary {
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final int maxLength;
+
+    /**
+     * <p>
+     *     Creates a new dictionary.
+     * </p>
+     *
+     * @param capacity the number of slots. Must be a power of two.
+     * @param maxLength the maximum length of a name in bytes
+     */
+    NameDictionary(final int capacity, final int maxLength) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two");
+        if (maxLength <= 0)
+            throw new IllegalArgumentException("maxLength must be positive");
+
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * <p>
+     *     Gets the string of the NUL padded ASCII name that starts at the specified offset of the buffer. The name
+     *     ends at the first NUL byte or after the maximum length.
+     * </p>
+     *
+     * @param buffer the buffer to read from. The position of the buffer is not changed.
+     * @param offset the offset of the first byte of the name
+     * @return the string of the name
+     */
+    String get(final ByteBuffer buffer, final int offset) {
+
+        int length = 0;
+
+        while (length < maxLength && buffer.get(offset + length) != 0) {
+            length++;
+        }
+
+        return get(buffer, offset, length);
+    }
+
+    /**
+     * <p>
+     *     Gets the string of the ASCII name with the specified length that starts at the specified offset of the
+     *     buffer. Names that are longer than the maximum length are cut.
+     * </p>
+     *
+     * @param buffer the buffer to read from. The position of the buffer is not changed.
+     * @param offset the offset of the first byte of the name
+     * @param length the length of the name in bytes
+     * @return the string of the name
+     */
+    String get(final ByteBuffer buffer, final int offset, final int length) {
+
+        final int nameLength = Math.min(length, maxLength);
+
+        // FNV-1a
+        int hash = 0x811C9DC5;
+
+        for (int i = 0; i < nameLength; i++) {
+            hash = (hash ^ (buffer.get(offset + i) & 0xFF)) * 0x01000193;
+        }
+
+        final int slot = hash & mask;
+        final Entry entry = slots.get(slot);
+
+        if (entry != null && entry.matches(buffer, offset, nameLength)) {
+            return entry.name;
+        }
+
+        final byte[] bytes = new byte[nameLength];
+
+        for (int i = 0; i < nameLength; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+
+        final Entry created = new Entry(bytes);
+        slots.lazySet(slot, created);
+
+        return created.name;
+    }
+
+    private static final class Entry {
+
+        private final byte[] bytes;
+        private final String name;
+
+        private Entry(final byte[] bytes) {
+            this.bytes = bytes;
+            this.name = new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        private boolean matches(final ByteBuffer buffer, final int offset, final int length) {
+            if (bytes.length != length) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != buffer.get(offset + i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+/**
+ * <p>
+ *     The action a {@link PacketRule} takes for the packets it matches.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public enum PacketAction {
+
+    /** The packet is passed on, the rules after this rule are not checked. */
+    PASS,
+
+    /** The packet is discarded without a trace. This is the cheapest action. */
+    DROP,
+
+    /** Only every n-th packet of the rule is passed on, the others are discarded. */
+    SAMPLE,
+
+    /** The packet is counted by the rule and discarded, so the traffic is known without being drawn. */
+    COUNT
+}
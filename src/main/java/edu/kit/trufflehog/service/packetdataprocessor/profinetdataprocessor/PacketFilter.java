@@ -0,0 +1,103 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     The PacketFilter decides which packets a {@link TruffleReceiver} passes on, before a command is created for
+ *     them. Unlike an {@link edu.kit.trufflehog.model.filter.IFilter}, which only marks nodes that are already in the
+ *     graph, it keeps uninteresting traffic out of the whole pipeline.
+ * </p>
+ * <p>
+ *     The rules are checked in their order and the first rule that matches a packet decides what happens to it. A
+ *     packet that matches no rule is passed on. Every rule except the {@link PacketAction#DROP} rules counts the
+ *     packets it matched.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class PacketFilter {
+
+    private final PacketRule[] rules;
+    private final LongAdder[] matchCounts;
+    private final AtomicLong[] sampleCounters;
+
+    /**
+     * <p>
+     *     Creates a new PacketFilter.
+     * </p>
+     *
+     * @param rules The rules in the order they are checked.
+     */
+    public PacketFilter(final List<PacketRule> rules) {
+        if (rules == null) throw new NullPointerException("rules must not be null");
+
+        this.rules = rules.toArray(new PacketRule[rules.size()]);
+        this.matchCounts = new LongAdder[this.rules.length];
+        this.sampleCounters = new AtomicLong[this.rules.length];
+
+        for (int i = 0; i < this.rules.length; i++) {
+            if (this.rules[i] == null) throw new NullPointerException("rules must not contain null");
+
+            matchCounts[i] = new LongAdder();
+            sampleCounters[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks whether the truffle is passed on.
+     * </p>
+     *
+     * @param truffle The truffle to check.
+     * @return true if a command should be created for the truffle
+     */
+    public boolean accept(final Truffle truffle) {
+        for (int i = 0; i < rules.length; i++) {
+            final PacketRule rule = rules[i];
+
+            if (!rule.matches(truffle)) {
+                continue;
+            }
+
+            switch (rule.getAction()) {
+                case DROP:
+                    return false;
+                case SAMPLE:
+                    matchCounts[i].increment();
+                    return sampleCounters[i].getAndIncrement() % rule.getSampleRate() == 0;
+                case COUNT:
+                    matchCounts[i].increment();
+                    return false;
+                default:
+                    matchCounts[i].increment();
+                    return true;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the rules in the order they are checked
+     */
+    public List<PacketRule> getRules() {
+        final List<PacketRule> list = new ArrayList<>(rules.length);
+        Collections.addAll(list, rules);
+
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @param index The index of the rule.
+     * @return the number of packets the rule matched, always 0 for {@link PacketAction#DROP} rules
+     */
+    public long getMatchCount(final int index) {
+        return matchCounts[index].sum();
+    }
+}
@@ -0,0 +1,487 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.util.Locale;
+
+/**
+ * <p>
+ *     A PacketRule selects packets by their header fields before they enter the pipeline and says what happens to
+ *     them (see {@link PacketAction}). A rule can match the ether type, the DCP service id and service type, ranges of
+ *     source and destination mac and ip addresses and whether the destination is a multicast address. A condition
+ *     that is not set matches every packet, a packet matches the rule if it matches all conditions.
+ * </p>
+ * <p>
+ *     Rules are written as text so they can be stored with the filters, for example:
+ * </p>
+ * <pre>
+ *     drop ethertype=0x8892 serviceid=0
+ *     sample:100 multicast=true
+ *     count srcmac=00:0e:cf:00:00:00-00:0e:cf:ff:ff:ff
+ *     pass srcip=192.168.0.0/16
+ * </pre>
+ * <p>
+ *     The first word is the action, {@code sample:n} passes on every n-th packet. The conditions are ethertype,
+ *     serviceid, servicetype, srcmac, dstmac, srcip, dstip and multicast. Addresses are either one address or a range
+ *     from-to, ip addresses can also be given as a subnet. {@link #toString()} returns the rule in this form.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class PacketRule {
+
+    private static final int ANY = -1;
+
+    private static final long MAX_MAC_ADDRESS = 0xFFFFFFFFFFFFL;
+    private static final long MAX_IP_ADDRESS = 0xFFFFFFFFL;
+
+    private final PacketAction action;
+    private final int sampleRate;
+
+    private final int etherType;
+    private final int serviceID;
+    private final int serviceType;
+    private final long sourceMacFrom;
+    private final long sourceMacTo;
+    private final long destMacFrom;
+    private final long destMacTo;
+    private final long sourceIPFrom;
+    private final long sourceIPTo;
+    private final long destIPFrom;
+    private final long destIPTo;
+    private final int multicast;
+
+    private PacketRule(final Builder builder) {
+        this.action = builder.action;
+        this.sampleRate = builder.sampleRate;
+        this.etherType = builder.etherType;
+        this.serviceID = builder.serviceID;
+        this.serviceType = builder.serviceType;
+        this.sourceMacFrom = builder.sourceMacFrom;
+        this.sourceMacTo = builder.sourceMacTo;
+        this.destMacFrom = builder.destMacFrom;
+        this.destMacTo = builder.destMacTo;
+        this.sourceIPFrom = builder.sourceIPFrom;
+        this.sourceIPTo = builder.sourceIPTo;
+        this.destIPFrom = builder.destIPFrom;
+        this.destIPTo = builder.destIPTo;
+        this.multicast = builder.multicast;
+    }
+
+    /**
+     * <p>
+     *     Checks whether the truffle matches all conditions of the rule.
+     * </p>
+     *
+     * @param truffle The truffle to check.
+     * @return true if the rule applies to the truffle
+     */
+    public boolean matches(final Truffle truffle) {
+        if (etherType != ANY && truffle.getEtherType() != etherType) {
+            return false;
+        }
+
+        if (serviceID != ANY && truffle.getServiceID() != serviceID) {
+            return false;
+        }
+
+        if (serviceType != ANY && truffle.getServiceType() != serviceType) {
+            return false;
+        }
+
+        final long sourceMac = truffle.getSourceMac();
+
+        if (sourceMac < sourceMacFrom || sourceMac > sourceMacTo) {
+            return false;
+        }
+
+        final long destMac = truffle.getDestMac();
+
+        if (destMac < destMacFrom || destMac > destMacTo) {
+            return false;
+        }
+
+        if (multicast != ANY && ((destMac >>> 40) & 1) != multicast) {
+            return false;
+        }
+
+        final long sourceIP = truffle.getSourceIP();
+
+        if (sourceIP < sourceIPFrom || sourceIP > sourceIPTo) {
+            return false;
+        }
+
+        if (destIPFrom != 0 || destIPTo != MAX_IP_ADDRESS) {
+            if (!truffle.hasDestIP()) {
+                return false;
+            }
+
+            final long destIP = truffle.getDestIP();
+
+            if (destIP < destIPFrom || destIP > destIPTo) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the action of the rule
+     */
+    public PacketAction getAction() {
+        return action;
+    }
+
+    /**
+     * @return the n of a {@link PacketAction#SAMPLE} rule that passes on every n-th packet, 1 for other rules
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * <p>
+     *     Parses a rule in the form that is described in the class documentation.
+     * </p>
+     *
+     * @param rule The text of the rule.
+     * @return the rule
+     * @throws InvalidPacketRule if the rule could not be parsed
+     */
+    public static PacketRule parse(final String rule) throws InvalidPacketRule {
+        if (rule == null) throw new NullPointerException("rule must not be null");
+
+        final String[] words = rule.trim().toLowerCase(Locale.ROOT).split("\\s+");
+
+        if (words[0].isEmpty()) {
+            throw new InvalidPacketRule("The rule is empty");
+        }
+
+        final Builder builder;
+
+        try {
+            if (words[0].startsWith("sample:")) {
+                builder = new Builder(PacketAction.SAMPLE).sampleRate(Integer.parseInt(words[0].substring(7)));
+            } else {
+                builder = new Builder(PacketAction.valueOf(words[0].toUpperCase(Locale.ROOT)));
+            }
+
+            for (int i = 1; i < words.length; i++) {
+                final int separator = words[i].indexOf('=');
+
+                if (separator < 0) {
+                    throw new InvalidPacketRule("Condition without value: " + words[i]);
+                }
+
+                final String value = words[i].substring(separator + 1);
+
+                switch (words[i].substring(0, separator)) {
+                    case "ethertype":
+                        builder.etherType(Integer.decode(value));
+                        break;
+                    case "serviceid":
+                        builder.serviceID(Integer.decode(value));
+                        break;
+                    case "servicetype":
+                        builder.serviceType(Integer.decode(value));
+                        break;
+                    case "srcmac":
+                        builder.sourceMac(parseMac(value, 0), parseMac(value, 1));
+                        break;
+                    case "dstmac":
+                        builder.destMac(parseMac(value, 0), parseMac(value, 1));
+                        break;
+                    case "srcip":
+                        builder.sourceIP(parseIP(value, 0), parseIP(value, 1));
+                        break;
+                    case "dstip":
+                        builder.destIP(parseIP(value, 0), parseIP(value, 1));
+                        break;
+                    case "multicast":
+                        if (!value.equals("true") && !value.equals("false")) {
+                            throw new InvalidPacketRule("multicast must be true or false: " + value);
+                        }
+                        builder.multicast(Boolean.parseBoolean(value));
+                        break;
+                    default:
+                        throw new InvalidPacketRule("Unknown condition: " + words[i]);
+                }
+            }
+
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            // also covers the NumberFormatExceptions of the parsers
+            throw new InvalidPacketRule("Invalid rule \"" + rule + "\": " + e.getMessage());
+        }
+    }
+
+    // returns the first (end 0) or the last (end 1) address of a mac address or a range
+    private static long parseMac(final String value, final int end) {
+        final String[] range = value.split("-");
+
+        if (range.length > 2) {
+            throw new IllegalArgumentException("Invalid mac address range: " + value);
+        }
+
+        final String address = range[Math.min(end, range.length - 1)];
+
+        if (!address.matches("^([0-9a-f]{2}:){5}[0-9a-f]{2}$")) {
+            throw new IllegalArgumentException("Invalid mac address: " + address);
+        }
+
+        return Long.parseLong(address.replace(":", ""), 16);
+    }
+
+    // returns the first (end 0) or the last (end 1) address of an ip address, a subnet or a range
+    private static long parseIP(final String value, final int end) {
+        final String[] range = value.split("-");
+
+        if (range.length > 2) {
+            throw new IllegalArgumentException("Invalid ip address range: " + value);
+        }
+
+        final String[] subnet = range[Math.min(end, range.length - 1)].split("/");
+        final String[] parts = subnet[0].split("\\.");
+
+        if (parts.length != 4 || subnet.length > 2 || (subnet.length == 2 && range.length == 2)) {
+            throw new IllegalArgumentException("Invalid ip address: " + value);
+        }
+
+        long ip = 0;
+
+        for (final String part : parts) {
+            final int octet = Integer.parseInt(part);
+
+            if (octet < 0 || octet > 255) {
+                throw new IllegalArgumentException("Invalid ip address: " + value);
+            }
+
+            ip = ip << 8 | octet;
+        }
+
+        if (subnet.length == 1) {
+            return ip;
+        }
+
+        final int prefix = Integer.parseInt(subnet[1]);
+
+        if (prefix < 0 || prefix > 32) {
+            throw new IllegalArgumentException("Invalid subnet: " + value);
+        }
+
+        final long hostMask = MAX_IP_ADDRESS >>> prefix;
+
+        return end == 0 ? ip & ~hostMask & MAX_IP_ADDRESS : ip | hostMask;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(action.name().toLowerCase(Locale.ROOT));
+
+        if (action == PacketAction.SAMPLE) {
+            builder.append(':').append(sampleRate);
+        }
+
+        if (etherType != ANY) {
+            builder.append(" ethertype=0x").append(Integer.toHexString(etherType));
+        }
+
+        if (serviceID != ANY) {
+            builder.append(" serviceid=").append(serviceID);
+        }
+
+        if (serviceType != ANY) {
+            builder.append(" servicetype=").append(serviceType);
+        }
+
+        appendRange(builder, " srcmac=", sourceMacFrom, sourceMacTo, MAX_MAC_ADDRESS, true);
+        appendRange(builder, " dstmac=", destMacFrom, destMacTo, MAX_MAC_ADDRESS, true);
+        appendRange(builder, " srcip=", sourceIPFrom, sourceIPTo, MAX_IP_ADDRESS, false);
+        appendRange(builder, " dstip=", destIPFrom, destIPTo, MAX_IP_ADDRESS, false);
+
+        if (multicast != ANY) {
+            builder.append(" multicast=").append(multicast == 1);
+        }
+
+        return builder.toString();
+    }
+
+    private static void appendRange(final StringBuilder builder, final String name, final long from, final long to,
+                                    final long max, final boolean mac) {
+        if (from == 0 && to == max) {
+            return;
+        }
+
+        builder.append(name).append(mac ? formatMac(from) : formatIP(from));
+
+        if (from != to) {
+            builder.append('-').append(mac ? formatMac(to) : formatIP(to));
+        }
+    }
+
+    private static String formatMac(final long address) {
+        return String.format("%02x:%02x:%02x:%02x:%02x:%02x", address >>> 40 & 0xFF, address >>> 32 & 0xFF,
+                address >>> 24 & 0xFF, address >>> 16 & 0xFF, address >>> 8 & 0xFF, address & 0xFF);
+    }
+
+    private static String formatIP(final long address) {
+        return (address >>> 24 & 0xFF) + "." + (address >>> 16 & 0xFF) + "." + (address >>> 8 & 0xFF) + "."
+                + (address & 0xFF);
+    }
+
+    /**
+     * <p>
+     *     Builds a {@link PacketRule}. Every condition that is not set matches all packets.
+     * </p>
+     */
+    public static final class Builder {
+
+        private final PacketAction action;
+        private int sampleRate = 1;
+
+        private int etherType = ANY;
+        private int serviceID = ANY;
+        private int serviceType = ANY;
+        private long sourceMacFrom = 0;
+        private long sourceMacTo = MAX_MAC_ADDRESS;
+        private long destMacFrom = 0;
+        private long destMacTo = MAX_MAC_ADDRESS;
+        private long sourceIPFrom = 0;
+        private long sourceIPTo = MAX_IP_ADDRESS;
+        private long destIPFrom = 0;
+        private long destIPTo = MAX_IP_ADDRESS;
+        private int multicast = ANY;
+
+        /**
+         * <p>
+         *     Creates a new Builder for a rule with the given action.
+         * </p>
+         *
+         * @param action The action of the rule.
+         */
+        public Builder(final PacketAction action) {
+            if (action == null) throw new NullPointerException("action must not be null");
+
+            this.action = action;
+        }
+
+        /**
+         * @param sampleRate The rule passes on every n-th packet. Only allowed for {@link PacketAction#SAMPLE}.
+         * @return this builder
+         */
+        public Builder sampleRate(final int sampleRate) {
+            if (action != PacketAction.SAMPLE) throw new IllegalStateException("only sample rules have a rate");
+            if (sampleRate <= 0) throw new IllegalArgumentException("sampleRate must be positive");
+
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @param etherType The ether type of the matched packets.
+         * @return this builder
+         */
+        public Builder etherType(final int etherType) {
+            if (etherType < 0 || etherType > 0xFFFF) throw new IllegalArgumentException("etherType must be 16 bits");
+
+            this.etherType = etherType;
+            return this;
+        }
+
+        /**
+         * @param serviceID The DCP service id of the matched packets, 0 for packets that are not DCP.
+         * @return this builder
+         */
+        public Builder serviceID(final int serviceID) {
+            if (serviceID < 0 || serviceID > 0xFF) throw new IllegalArgumentException("serviceID must be 8 bits");
+
+            this.serviceID = serviceID;
+            return this;
+        }
+
+        /**
+         * @param serviceType The DCP service type of the matched packets.
+         * @return this builder
+         */
+        public Builder serviceType(final int serviceType) {
+            if (serviceType < 0 || serviceType > 0xFF) throw new IllegalArgumentException("serviceType must be 8 bits");
+
+            this.serviceType = serviceType;
+            return this;
+        }
+
+        /**
+         * @param from The first source mac address of the matched packets.
+         * @param to The last source mac address of the matched packets.
+         * @return this builder
+         */
+        public Builder sourceMac(final long from, final long to) {
+            checkRange(from, to, MAX_MAC_ADDRESS);
+
+            this.sourceMacFrom = from;
+            this.sourceMacTo = to;
+            return this;
+        }
+
+        /**
+         * @param from The first destination mac address of the matched packets.
+         * @param to The last destination mac address of the matched packets.
+         * @return this builder
+         */
+        public Builder destMac(final long from, final long to) {
+            checkRange(from, to, MAX_MAC_ADDRESS);
+
+            this.destMacFrom = from;
+            this.destMacTo = to;
+            return this;
+        }
+
+        /**
+         * @param from The first source ip address of the matched packets.
+         * @param to The last source ip address of the matched packets.
+         * @return this builder
+         */
+        public Builder sourceIP(final long from, final long to) {
+            checkRange(from, to, MAX_IP_ADDRESS);
+
+            this.sourceIPFrom = from;
+            this.sourceIPTo = to;
+            return this;
+        }
+
+        /**
+         * @param from The first destination ip address of the matched packets.
+         * @param to The last destination ip address of the matched packets.
+         * @return this builder
+         */
+        public Builder destIP(final long from, final long to) {
+            checkRange(from, to, MAX_IP_ADDRESS);
+
+            this.destIPFrom = from;
+            this.destIPTo = to;
+            return this;
+        }
+
+        /**
+         * @param multicast Whether the destination mac address of the matched packets is a multicast address.
+         * @return this builder
+         */
+        public Builder multicast(final boolean multicast) {
+            this.multicast = multicast ? 1 : 0;
+            return this;
+        }
+
+        /**
+         * @return the rule
+         */
+        public PacketRule build() {
+            return new PacketRule(this);
+        }
+
+        private static void checkRange(final long from, final long to, final long max) {
+            if (from < 0 || to > max || from > to) {
+                throw new IllegalArgumentException("Invalid address range");
+            }
+        }
+    }
+}
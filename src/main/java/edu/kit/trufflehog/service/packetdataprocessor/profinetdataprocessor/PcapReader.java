@@ -0,0 +1,418 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>
+ *     This class reads the ethernet frames of libpcap and pcapng capture files through memory mapped I/O. The file is
+ *     mapped in regions of at most {@link #DEFAULT_REGION_SIZE} bytes, so files larger than 2GB can be read as well.
+ *     Records of other link types than ethernet and pcapng blocks without packet data are skipped.
+ * </p>
+ * <p>
+ *     After {@link #next()} returned true the frame of the current record can be read from {@link #getFrames()} at
+ *     {@link #getFrameOffset()}. The frames buffer is in network byte order. A frames buffer stays valid after the
+ *     reader moved on, so frames can be handed to other threads for decoding.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+final class PcapReader implements AutoCloseable {
+
+    static final int DEFAULT_REGION_SIZE = 256 * 1024 * 1024;
+
+    static final int LINKTYPE_ETHERNET = 1;
+
+    // libpcap
+    private static final int PCAP_MAGIC_MICROS = 0xA1B2C3D4;
+    private static final int PCAP_MAGIC_NANOS = 0xA1B23C4D;
+    private static final int PCAP_HEADER_SIZE = 24;
+    private static final int PCAP_RECORD_HEADER_SIZE = 16;
+
+    // pcapng
+    private static final int BLOCK_SECTION_HEADER = 0x0A0D0D0A;
+    private static final int BLOCK_INTERFACE_DESCRIPTION = 0x00000001;
+    private static final int BLOCK_SIMPLE_PACKET = 0x00000003;
+    private static final int BLOCK_ENHANCED_PACKET = 0x00000006;
+    private static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+    private static final int OPTION_END = 0;
+    private static final int OPTION_IF_TSRESOL = 9;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int regionSize;
+    private final boolean pcapng;
+
+    private ByteOrder order;
+    private boolean nanos;
+    private int linkType;
+
+    // pcapng interfaces of the current section
+    private int interfaceCount;
+    private int[] interfaceLinkTypes = new int[4];
+    private long[] interfaceResolutions = new long[4];
+
+    private MappedByteBuffer region;
+    private ByteBuffer frames;
+    private long regionStart;
+
+    private long position;
+
+    private int frameOffset;
+    private int frameLength;
+    private long timestampNanos;
+
+    private PcapReader(final FileChannel channel, final int regionSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.regionSize = regionSize;
+
+        if (size < 12)
+            throw new IOException("File is too short for a capture file");
+
+        map(0, 12);
+
+        final int magic = region.order(ByteOrder.BIG_ENDIAN).getInt(0);
+
+        if (magic == BLOCK_SECTION_HEADER) {
+            pcapng = true;
+            position = 0;
+        } else {
+            pcapng = false;
+            readPcapHeader();
+            position = PCAP_HEADER_SIZE;
+        }
+    }
+
+    /**
+     * <p>
+     *     Opens a capture file.
+     * </p>
+     *
+     * @param file the libpcap or pcapng file
+     * @return the reader
+     * @throws IOException if the file could not be opened or is no capture file
+     */
+    static PcapReader open(final Path file) throws IOException {
+        return open(file, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * <p>
+     *     Opens a capture file that is mapped in regions of the specified size.
+     * </p>
+     *
+     * @param file the libpcap or pcapng file
+     * @param regionSize the maximum number of bytes that are mapped at once
+     * @return the reader
+     * @throws IOException if the file could not be opened or is no capture file
+     */
+    static PcapReader open(final Path file, final int regionSize) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            return new PcapReader(channel, regionSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readPcapHeader() throws IOException {
+        final int magic = region.order(ByteOrder.BIG_ENDIAN).getInt(0);
+
+        if (magic == PCAP_MAGIC_MICROS || magic == PCAP_MAGIC_NANOS) {
+            order = ByteOrder.BIG_ENDIAN;
+        } else if (Integer.reverseBytes(magic) == PCAP_MAGIC_MICROS || Integer.reverseBytes(magic) == PCAP_MAGIC_NANOS) {
+            order = ByteOrder.LITTLE_ENDIAN;
+        } else {
+            throw new IOException("Not a pcap or pcapng file");
+        }
+
+        nanos = magic == PCAP_MAGIC_NANOS || Integer.reverseBytes(magic) == PCAP_MAGIC_NANOS;
+
+        if (size < PCAP_HEADER_SIZE)
+            throw new IOException("File is too short for a pcap file");
+
+        ensure(0, PCAP_HEADER_SIZE);
+        linkType = region.getInt(20);
+    }
+
+    /**
+     * <p>
+     *     Moves to the next ethernet frame of the file.
+     * </p>
+     *
+     * @return true if there is a next frame, false at the end of the file or if the last record is cut off
+     * @throws IOException if the file could not be read or is corrupt
+     */
+    boolean next() throws IOException {
+        return pcapng ? nextBlock() : nextRecord();
+    }
+
+    private boolean nextRecord() throws IOException {
+
+        while (position + PCAP_RECORD_HEADER_SIZE <= size) {
+
+            ensure(position, PCAP_RECORD_HEADER_SIZE);
+
+            final int header = (int) (position - regionStart);
+            final long seconds = region.getInt(header) & 0xFFFFFFFFL;
+            final long fraction = region.getInt(header + 4) & 0xFFFFFFFFL;
+            final int capturedLength = region.getInt(header + 8);
+
+            if (capturedLength < 0)
+                throw new IOException("Invalid record length at " + position);
+
+            final long recordStart = position;
+            position += PCAP_RECORD_HEADER_SIZE + capturedLength;
+
+            if (position > size) {
+                // the capture was cut off
+                return false;
+            }
+
+            if (linkType != LINKTYPE_ETHERNET) {
+                continue;
+            }
+
+            ensure(recordStart, PCAP_RECORD_HEADER_SIZE + capturedLength);
+
+            frameOffset = (int) (recordStart - regionStart) + PCAP_RECORD_HEADER_SIZE;
+            frameLength = capturedLength;
+            timestampNanos = seconds * 1_000_000_000L + (nanos ? fraction : fraction * 1000);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean nextBlock() throws IOException {
+
+        while (position + 12 <= size) {
+
+            ensure(position, 12);
+
+            int header = (int) (position - regionStart);
+            final int type = region.order(ByteOrder.BIG_ENDIAN).getInt(header);
+
+            if (type == BLOCK_SECTION_HEADER) {
+                final int byteOrderMagic = region.getInt(header + 8);
+
+                if (byteOrderMagic == BYTE_ORDER_MAGIC) {
+                    order = ByteOrder.BIG_ENDIAN;
+                } else if (Integer.reverseBytes(byteOrderMagic) == BYTE_ORDER_MAGIC) {
+                    order = ByteOrder.LITTLE_ENDIAN;
+                } else {
+                    throw new IOException("Invalid pcapng byte order magic at " + position);
+                }
+
+                interfaceCount = 0;
+            }
+
+            region.order(order);
+
+            final int blockType = region.getInt(header);
+            final int blockLength = region.getInt(header + 4);
+
+            if (blockLength < 12 || (blockLength & 3) != 0)
+                throw new IOException("Invalid pcapng block length at " + position);
+
+            final long blockStart = position;
+            position += blockLength;
+
+            if (position > size) {
+                return false;
+            }
+
+            ensure(blockStart, blockLength);
+            header = (int) (blockStart - regionStart);
+
+            switch (blockType) {
+                case BLOCK_INTERFACE_DESCRIPTION:
+                    readInterface(header, blockLength);
+                    break;
+                case BLOCK_ENHANCED_PACKET:
+                    if (readEnhancedPacket(header, blockLength)) return true;
+                    break;
+                case BLOCK_SIMPLE_PACKET:
+                    if (readSimplePacket(header, blockLength)) return true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return false;
+    }
+
+    private void readInterface(final int header, final int blockLength) {
+
+        if (interfaceCount == interfaceLinkTypes.length) {
+            interfaceLinkTypes = Arrays.copyOf(interfaceLinkTypes, interfaceCount * 2);
+            interfaceResolutions = Arrays.copyOf(interfaceResolutions, interfaceCount * 2);
+        }
+
+        interfaceLinkTypes[interfaceCount] = region.getShort(header + 8) & 0xFFFF;
+        interfaceResolutions[interfaceCount] = 6;
+
+        // options
+        int option = header + 16;
+        final int end = header + blockLength - 4;
+
+        while (option + 4 <= end) {
+            final int code = region.getShort(option) & 0xFFFF;
+            final int length = region.getShort(option + 2) & 0xFFFF;
+
+            if (code == OPTION_END) {
+                break;
+            }
+
+            if (code == OPTION_IF_TSRESOL && length >= 1) {
+                interfaceResolutions[interfaceCount] = region.get(option + 4) & 0xFF;
+            }
+
+            option += 4 + ((length + 3) & ~3);
+        }
+
+        interfaceCount++;
+    }
+
+    private boolean readEnhancedPacket(final int header, final int blockLength) throws IOException {
+        final int interfaceID = region.getInt(header + 8);
+
+        if (interfaceID < 0 || interfaceID >= interfaceCount)
+            throw new IOException("Unknown pcapng interface " + interfaceID);
+
+        if (interfaceLinkTypes[interfaceID] != LINKTYPE_ETHERNET) {
+            return false;
+        }
+
+        final long units = ((region.getInt(header + 12) & 0xFFFFFFFFL) << 32) | (region.getInt(header + 16) & 0xFFFFFFFFL);
+        final int capturedLength = region.getInt(header + 20);
+
+        if (capturedLength < 0 || capturedLength > blockLength - 32)
+            throw new IOException("Invalid pcapng packet length");
+
+        frameOffset = header + 28;
+        frameLength = capturedLength;
+        timestampNanos = toNanos(units, interfaceResolutions[interfaceID]);
+
+        return true;
+    }
+
+    private boolean readSimplePacket(final int header, final int blockLength) throws IOException {
+        if (interfaceCount == 0)
+            throw new IOException("Simple packet block without interface");
+
+        if (interfaceLinkTypes[0] != LINKTYPE_ETHERNET) {
+            return false;
+        }
+
+        // simple packet blocks have no timestamp, the timestamp of the previous packet is kept
+        frameOffset = header + 12;
+        frameLength = Math.min(region.getInt(header + 8), blockLength - 16);
+
+        return frameLength >= 0;
+    }
+
+    /**
+     * <p>
+     *     Converts a pcapng timestamp to nanoseconds.
+     * </p>
+     *
+     * @param units the timestamp in units of the interface
+     * @param resolution the if_tsresol value of the interface: 10^-n seconds or, if the highest bit is set, 2^-n
+     * @return the timestamp in nanoseconds
+     */
+    static long toNanos(final long units, final long resolution) {
+        final int exponent = (int) (resolution & 0x7F);
+
+        if ((resolution & 0x80) != 0) {
+            if (exponent >= 63) return 0;
+
+            final long mask = (1L << exponent) - 1;
+            return (units >>> exponent) * 1_000_000_000L + (((units & mask) * 1_000_000_000L) >>> exponent);
+        }
+
+        if (exponent <= 9) {
+            long factor = 1;
+            for (int i = exponent; i < 9; i++) factor *= 10;
+
+            return units * factor;
+        }
+
+        long divisor = 1;
+        for (int i = 9; i < exponent && i < 28; i++) divisor *= 10;
+
+        return units / divisor;
+    }
+
+    /**
+     * <p>
+     *     Makes sure that the specified range of the file is mapped.
+     * </p>
+     */
+    private void ensure(final long start, final int length) throws IOException {
+        if (region != null && start >= regionStart && start + length <= regionStart + region.capacity()) {
+            return;
+        }
+
+        map(start, Math.max(length, (int) Math.min(regionSize, size - start)));
+    }
+
+    private void map(final long start, final int length) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        region.order(order != null ? order : ByteOrder.BIG_ENDIAN);
+        frames = region.duplicate().order(ByteOrder.BIG_ENDIAN);
+        regionStart = start;
+    }
+
+    /**
+     * @return the buffer that contains the current frame, in network byte order
+     */
+    ByteBuffer getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return the offset of the current frame within {@link #getFrames()}
+     */
+    int getFrameOffset() {
+        return frameOffset;
+    }
+
+    /**
+     * @return the captured length of the current frame
+     */
+    int getFrameLength() {
+        return frameLength;
+    }
+
+    /**
+     * @return the capture timestamp of the current frame in nanoseconds since the epoch
+     */
+    long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * <p>
+     *     Closes the file. Frame buffers that were handed out stay valid until they are garbage collected.
+     * </p>
+     *
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,337 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     This implementation of the {@link TruffleReceiver} replays libpcap and pcapng capture files. The file is read
+ *     through memory mapped I/O by a {@link PcapReader} and the ethernet frames are decoded in java by the
+ *     {@link ProfinetFrameDecoder}, so captures taken by other tools can be analysed without a running snort.
+ * </p>
+ * <p>
+ *     With {@link Pacing#REAL_TIME} the packets are sent with the gaps of the capture timestamps. With
+ *     {@link Pacing#MAX_SPEED} the file is replayed as fast as possible: the receiver thread only frames the records
+ *     into batches and a pool of decoder threads turns the batches into truffles. The batches are sent to the
+ *     listeners in file order.
+ * </p>
+ * <p>
+ *     The time of arrival of every truffle is its capture timestamp. The receiver stops at the end of the file, or when
+ *     the file could not be read or decoded, which is reported with a {@link ReceiverErrorCommand}.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class PcapReceiver extends TruffleReceiver {
+
+    /**
+     * <p>
+     *     The pacing of the replay.
+     * </p>
+     */
+    public enum Pacing {
+        /** Replay the file as fast as possible. */
+        MAX_SPEED,
+        /** Replay the file with the gaps of the capture timestamps. */
+        REAL_TIME
+    }
+
+    // the number of frames that are decoded by one task
+    static final int BATCH_SIZE = 4096;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final INetworkWritingPort networkWritingPort;
+    private final IFilter filter;
+    private final Path file;
+    private final Pacing pacing;
+    private final int parallelism;
+    private final Logger logger = LogManager.getLogger();
+
+    private volatile boolean running = false;
+    private volatile Thread receiverThread;
+
+    /**
+     * <p>
+     *     Creates the PcapReceiver. At max speed the frames are decoded by one thread per available processor.
+     * </p>
+     *
+     * @param file The capture file to replay.
+     * @param pacing The pacing of the replay.
+     */
+    public PcapReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter, final Path file, final Pacing pacing) {
+        this(networkWritingPort, filter, file, pacing, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * <p>
+     *     Creates the PcapReceiver.
+     * </p>
+     *
+     * @param file The capture file to replay.
+     * @param pacing The pacing of the replay.
+     * @param parallelism The number of decoder threads at max speed. With 1 the frames are decoded on the receiver
+     *                    thread.
+     */
+    public PcapReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter, final Path file,
+                        final Pacing pacing, final int parallelism) {
+        if (file == null) throw new NullPointerException("file must not be null");
+        if (pacing == null) throw new NullPointerException("pacing must not be null");
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1");
+
+        this.networkWritingPort = networkWritingPort;
+        this.filter = filter;
+        this.file = file;
+        this.pacing = pacing;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * <p>
+     *     The main method of the PcapReceiver service.
+     * </p>
+     *
+     * <p>
+     *     Parks until the receiver is connected and then replays the capture file and sends {@link ITruffleCommand}
+     *     objects to all listeners.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        receiverThread = Thread.currentThread();
+
+        try {
+            while (!Thread.interrupted()) {
+
+                if (!running) {
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                try (PcapReader reader = PcapReader.open(file)) {
+                    if (pacing == Pacing.MAX_SPEED && parallelism > 1) {
+                        replayParallel(reader);
+                    } else {
+                        replay(reader);
+                    }
+
+                    if (running) {
+                        logger.debug("Reached the end of " + file);
+                    }
+                } catch (IOException e) {
+                    logger.debug(e);
+                    notifyListeners(new ReceiverErrorCommand("Couldn't read the capture file " + file.getFileName() + "."));
+                } catch (InterruptedException e) {
+                    logger.debug("PcapReceiver interrupted. Exiting...");
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    // the receiver thread keeps running, the replay can be started again
+                    logger.error("Replaying " + file + " failed", e);
+                    notifyListeners(new ReceiverErrorCommand("Couldn't decode the capture file " + file.getFileName() + "."));
+                } finally {
+                    running = false;
+                }
+            }
+        } finally {
+            receiverThread = null;
+        }
+    }
+
+    /**
+     * <p>
+     *     Replays the file on the receiver thread.
+     * </p>
+     */
+    private void replay(final PcapReader reader) throws IOException {
+
+        final long start = System.nanoTime();
+        long firstTimestamp = -1;
+
+        while (running && !Thread.currentThread().isInterrupted() && reader.next()) {
+
+            final long timestamp = reader.getTimestampNanos();
+
+            if (pacing == Pacing.REAL_TIME) {
+                if (firstTimestamp < 0) {
+                    firstTimestamp = timestamp;
+                }
+
+                long wait;
+
+                while (running && (wait = (timestamp - firstTimestamp) - (System.nanoTime() - start)) > 0) {
+                    LockSupport.parkNanos(this, Math.min(wait, MAX_PARK_NANOS));
+                }
+            }
+
+            final Truffle truffle = decode(reader.getFrames(), reader.getFrameOffset(), reader.getFrameLength(), timestamp);
+
+            if (truffle != null) {
+                final ITruffleCommand command = createCommand(truffle, networkWritingPort, filter);
+
+                if (command != null) {
+                    notifyListeners(command);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Frames the records of the file into batches that are decoded by a pool of decoder threads. At most two
+     *     batches per decoder thread are in flight, so a slow consumer throttles the replay.
+     * </p>
+     */
+    private void replayParallel(final PcapReader reader) throws IOException, InterruptedException {
+
+        final ExecutorService decoders = Executors.newFixedThreadPool(parallelism);
+        final Deque<Future<Truffle[]>> pending = new ArrayDeque<>();
+
+        try {
+            Batch batch = null;
+
+            while (running && !Thread.currentThread().isInterrupted() && reader.next()) {
+
+                // a batch must not span two mapped regions
+                if (batch != null && (batch.size == BATCH_SIZE || batch.frames != reader.getFrames())) {
+                    pending.add(decoders.submit(batch::decode));
+                    batch = null;
+
+                    if (pending.size() >= parallelism * 2) {
+                        send(pending.poll().get());
+                    }
+                }
+
+                if (batch == null) {
+                    batch = new Batch(reader.getFrames());
+                }
+
+                batch.add(reader.getFrameOffset(), reader.getFrameLength(), reader.getTimestampNanos());
+            }
+
+            if (batch != null && running) {
+                pending.add(decoders.submit(batch::decode));
+            }
+
+            while (running && !pending.isEmpty()) {
+                send(pending.poll().get());
+            }
+        } catch (ExecutionException e) {
+            // the failure of a decoder thread is reported like one of the receiver thread
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            decoders.shutdownNow();
+        }
+    }
+
+    private void send(final Truffle[] truffles) {
+        for (final Truffle truffle : truffles) {
+            if (truffle == null) {
+                continue;
+            }
+
+            final ITruffleCommand command = createCommand(truffle, networkWritingPort, filter);
+            if (command != null) {
+                notifyListeners(command);
+            }
+        }
+    }
+
+    private Truffle decode(final ByteBuffer frames, final int offset, final int length, final long timestamp) {
+        countRead();
+
+        try {
+            final Truffle truffle = ProfinetFrameDecoder.decode(frames, offset, length);
+
+            if (truffle != null) {
+                truffle.setTimeOfArrival(TimeUnit.NANOSECONDS.toMillis(timestamp));
+            }
+
+            return truffle;
+        } catch (InvalidProfinetPacket invalidProfinetPacket) {
+            countDecodeError();
+            logger.debug(invalidProfinetPacket);
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void connect() {
+        if (!running) {
+            running = true;
+            LockSupport.unpark(receiverThread);
+
+            logger.debug("Replaying " + file + " at " + (pacing == Pacing.REAL_TIME ? "capture speed" : "full speed"));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void disconnect() {
+        running = false;
+    }
+
+    /**
+     * <p>
+     *     The frames of one mapped region that are decoded by a single decoder task.
+     * </p>
+     */
+    private final class Batch {
+
+        private final ByteBuffer frames;
+        private final int[] offsets = new int[BATCH_SIZE];
+        private final int[] lengths = new int[BATCH_SIZE];
+        private final long[] timestamps = new long[BATCH_SIZE];
+        private int size = 0;
+
+        private Batch(final ByteBuffer frames) {
+            this.frames = frames;
+        }
+
+        private void add(final int offset, final int length, final long timestamp) {
+            offsets[size] = offset;
+            lengths[size] = length;
+            timestamps[size] = timestamp;
+            size++;
+        }
+
+        private Truffle[] decode() {
+            final Truffle[] truffles = new Truffle[size];
+
+            for (int i = 0; i < size; i++) {
+                truffles[i] = PcapReceiver.this.decode(frames, offsets[i], lengths[i], timestamps[i]);
+            }
+
+            return truffles;
+        }
+    }
+}
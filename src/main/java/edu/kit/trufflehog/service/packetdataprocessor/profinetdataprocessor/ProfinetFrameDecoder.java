@@ -0,0 +1,172 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ *     This class decodes raw ethernet frames into {@link Truffle}s the same way the snort profinet plugin does. VLAN
+ *     tags are skipped. The ip addresses are taken from IPv4 frames and from the IP block of DCP frames, the name of
+ *     station from the NameOfStation block of DCP frames.
+ * </p>
+ * <p>
+ *     The decoder reads the frame with absolute gets and never changes the position of the buffer, so several threads
+ *     can decode frames of the same buffer at once.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+final class ProfinetFrameDecoder {
+
+    static final int ETHER_TYPE_IPV4 = 0x0800;
+    static final int ETHER_TYPE_VLAN = 0x8100;
+    static final int ETHER_TYPE_QINQ = 0x88A8;
+    static final int ETHER_TYPE_PROFINET = 0x8892;
+
+    /** The frame ids of DCP frames: hello, get/set, identify request and identify response. */
+    static final int DCP_FRAME_ID_FIRST = 0xFEFC;
+    static final int DCP_FRAME_ID_LAST = 0xFEFF;
+
+    static final int DCP_OPTION_IP = 1;
+    static final int DCP_SUBOPTION_IP = 2;
+    static final int DCP_OPTION_DEVICE = 2;
+    static final int DCP_SUBOPTION_NAME_OF_STATION = 2;
+
+    private static final int ETHER_HEADER_SIZE = 14;
+    private static final int DCP_HEADER_SIZE = 10;
+    private static final int MAX_NAME_LENGTH = 240;
+
+    private static final NameDictionary NAMES = new NameDictionary(1024, MAX_NAME_LENGTH);
+
+    private static final String[] SERVICE_ID_NAMES = {
+            null, null, null, "Get", "Set", "Identify", "Hello"
+    };
+
+    private ProfinetFrameDecoder() {
+    }
+
+    /**
+     * <p>
+     *     Decodes the ethernet frame that starts at the specified offset of the buffer.
+     * </p>
+     *
+     * @param buffer the buffer to read from in network byte order
+     * @param offset the offset of the first byte of the frame
+     * @param length the captured length of the frame
+     * @return the decoded {@link Truffle} or null if the frame is too short to be decoded
+     * @throws InvalidProfinetPacket if the frame contains invalid data
+     */
+    static Truffle decode(final ByteBuffer buffer, final int offset, final int length) throws InvalidProfinetPacket {
+
+        if (length < ETHER_HEADER_SIZE) {
+            return null;
+        }
+
+        final int end = offset + length;
+
+        final long destMac = getMac(buffer, offset);
+        final long sourceMac = getMac(buffer, offset + 6);
+
+        int position = offset + 12;
+        int etherType = buffer.getShort(position) & 0xFFFF;
+
+        while ((etherType == ETHER_TYPE_VLAN || etherType == ETHER_TYPE_QINQ) && position + 6 <= end) {
+            position += 4;
+            etherType = buffer.getShort(position) & 0xFFFF;
+        }
+
+        position += 2;
+
+        if (etherType == ETHER_TYPE_IPV4 && position + 20 <= end) {
+            return Truffle.buildTruffle(sourceMac, destMac, buffer.getInt(position + 12) & 0xFFFFFFFFL,
+                    buffer.getInt(position + 16) & 0xFFFFFFFFL, null, etherType, 0, null, 0, null, 0, 0, 0);
+        }
+
+        if (etherType == ETHER_TYPE_PROFINET && position + 2 + DCP_HEADER_SIZE <= end) {
+            final int frameID = buffer.getShort(position) & 0xFFFF;
+
+            if (frameID >= DCP_FRAME_ID_FIRST && frameID <= DCP_FRAME_ID_LAST) {
+                return decodeDcp(buffer, sourceMac, destMac, etherType, position + 2, end);
+            }
+        }
+
+        return Truffle.buildTruffle(sourceMac, destMac, 0, 0, null, etherType, 0, null, 0, null, 0, 0, 0);
+    }
+
+    private static Truffle decodeDcp(final ByteBuffer buffer, final long sourceMac, final long destMac,
+                                     final int etherType, final int header, final int frameEnd) throws InvalidProfinetPacket {
+
+        final int serviceID = buffer.get(header) & 0xFF;
+        final int serviceType = buffer.get(header + 1) & 0xFF;
+        final long xid = buffer.getInt(header + 2) & 0xFFFFFFFFL;
+        final int responseDelay = buffer.getShort(header + 6) & 0xFFFF;
+        final int dataLength = buffer.getShort(header + 8) & 0xFFFF;
+
+        final boolean isResponse = (serviceType & 0x1) != 0;
+
+        long sourceIP = 0;
+        String nameOfStation = null;
+
+        int block = header + DCP_HEADER_SIZE;
+        final int end = Math.min(frameEnd, block + dataLength);
+
+        while (block + 4 <= end) {
+            final int option = buffer.get(block) & 0xFF;
+            final int suboption = buffer.get(block + 1) & 0xFF;
+            final int blockLength = buffer.getShort(block + 2) & 0xFFFF;
+
+            int value = block + 4;
+            int valueLength = blockLength;
+
+            // the blocks of a response start with the block info
+            if (isResponse && valueLength >= 2) {
+                value += 2;
+                valueLength -= 2;
+            }
+
+            if (value + valueLength > end) {
+                break;
+            }
+
+            if (option == DCP_OPTION_DEVICE && suboption == DCP_SUBOPTION_NAME_OF_STATION) {
+                nameOfStation = NAMES.get(buffer, value, valueLength);
+            } else if (option == DCP_OPTION_IP && suboption == DCP_SUBOPTION_IP && valueLength >= 4) {
+                sourceIP = buffer.getInt(value) & 0xFFFFFFFFL;
+            }
+
+            // blocks are padded to an even length
+            block += 4 + blockLength + (blockLength & 1);
+        }
+
+        return Truffle.buildTruffle(sourceMac, destMac, sourceIP, 0, nameOfStation, etherType, serviceID,
+                getServiceIDName(serviceID), serviceType, getServiceTypeName(serviceType), xid, responseDelay,
+                isResponse ? 1 : 0);
+    }
+
+    /**
+     * @param serviceID the DCP service id
+     * @return the name of the service id or "Unknown"
+     */
+    static String getServiceIDName(final int serviceID) {
+        final String name = serviceID < SERVICE_ID_NAMES.length ? SERVICE_ID_NAMES[serviceID] : null;
+
+        return name != null ? name : "Unknown";
+    }
+
+    /**
+     * @param serviceType the DCP service type
+     * @return the name of the service type
+     */
+    static String getServiceTypeName(final int serviceType) {
+        if ((serviceType & 0x1) == 0) {
+            return "Request";
+        }
+
+        // bit 2 marks a request the device does not support
+        return (serviceType & 0x4) == 0 ? "Response Success" : "Response Unsupported";
+    }
+
+    private static long getMac(final ByteBuffer buffer, final int offset) {
+        return ((buffer.getShort(offset) & 0xFFFFL) << 32) | (buffer.getInt(offset + 2) & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,202 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     This implementation of the {@link TruffleReceiver} reads truffles from a shared memory ring buffer
+ *     ({@link TruffleRing}) that is filled by the spp_profinet snort plugin. Compared to the {@link UnixSocketReceiver}
+ *     there is no system call and no kernel copy per packet: the records are read directly from the mapped file.
+ * </p>
+ * <p>
+ *     If the ring is empty the receiver parks for {@link #IDLE_PARK_MICROS} microseconds before looking again.
+ * </p>
+ * <p>
+ *     The monitor only guards the ring and the connected state. The records are decoded and passed on without holding
+ *     it, so a listener that blocks on a full queue does not keep {@link #disconnect()} waiting.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class SharedMemoryReceiver extends TruffleReceiver {
+
+    /** The time the receiver parks if the ring is empty. */
+    static final long IDLE_PARK_MICROS = 50;
+
+    private final INetworkWritingPort networkWritingPort;
+    private final IFilter filter;
+    private final Path ringFile;
+    private final Logger logger = LogManager.getLogger();
+
+    private TruffleRing ring;
+
+    private volatile boolean connected = false;
+
+    /**
+     * <p>
+     *     Creates the SharedMemoryReceiver that reads from the default ring file.
+     * </p>
+     */
+    public SharedMemoryReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter) {
+        this(networkWritingPort, filter, Paths.get(TruffleRing.DEFAULT_RING_FILE));
+    }
+
+    /**
+     * <p>
+     *     Creates the SharedMemoryReceiver.
+     * </p>
+     *
+     * @param ringFile The ring file the snort plugin writes to.
+     */
+    public SharedMemoryReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter, final Path ringFile) {
+        if (ringFile == null) throw new NullPointerException("ringFile must not be null");
+
+        this.networkWritingPort = networkWritingPort;
+        this.filter = filter;
+        this.ringFile = ringFile;
+    }
+
+    /**
+     * <p>
+     *     The main method of the SharedMemoryReceiver service.
+     * </p>
+     *
+     * <p>
+     *     Waits until the receiver is connected and then continuously drains the ring, packs the data into
+     *     {@link Truffle} objects and sends {@link ITruffleCommand} objects to all listeners.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        while (!Thread.interrupted()) {
+
+            synchronized (this) {
+                try {
+                    while (!connected) {
+                        this.wait();
+                    }
+                } catch (InterruptedException e) {
+                    logger.debug("SharedMemoryReceiver interrupted. Exiting...");
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            if (poll() == 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(IDLE_PARK_MICROS));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Reads all records that are currently available in the ring and sends an {@link AddPacketDataCommand}
+     *     for each of them to all listeners. Only the ring is taken under the monitor. If the receiver is disconnected
+     *     in between, the record that is being passed on is the last one.
+     * </p>
+     *
+     * @return the number of records that were read
+     */
+    int poll() {
+
+        final TruffleRing current;
+
+        synchronized (this) {
+            if (!connected || ring == null) {
+                return 0;
+            }
+
+            current = ring;
+        }
+
+        final int available = current.available();
+
+        if (available == 0) {
+            return 0;
+        }
+
+        final ByteBuffer buffer = current.getBuffer();
+        final long first = current.getReadIndex();
+        int read = 0;
+
+        // the mapping stays valid after the ring was closed, so the records can still be read and released
+        while (read < available && (read == 0 || connected)) {
+            final int i = read++;
+            countRead();
+
+            try {
+                final Truffle truffle = TruffleRecord.decode(buffer, ring.recordOffset(first + i));
+                final ITruffleCommand command = createCommand(truffle, networkWritingPort, filter);
+                if (command != null) {
+                    notifyListeners(command);
+                }
+            } catch (InvalidProfinetPacket invalidProfinetPacket) {
+                countDecodeError();
+                logger.debug(invalidProfinetPacket);
+            }
+        }
+
+        current.release(read);
+
+        return read;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void connect() {
+
+        if (!connected) {
+
+            synchronized (this) {
+                try {
+                    ring = TruffleRing.open(ringFile);
+
+                    connected = true;
+                    this.notifyAll();
+                } catch (IOException e) {
+                    logger.debug(e);
+                    notifyListeners(new ReceiverErrorCommand("Snort plugin doesn't seem to be running."));
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void disconnect() {
+
+        if (connected) {
+            connected = false;
+
+            synchronized (this) {
+                try {
+                    ring.close();
+                } catch (IOException e) {
+                    logger.error(e);
+                    notifyListeners(new ReceiverErrorCommand("Couldn't disconnect from plugin correctly."));
+                }
+
+                ring = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+
+/**
+ * <p>
+ *     This implementation of the {@link TruffleReceiver} talks to the spp_profinet snort plugin over a stream socket
+ *     without the native receiver library. The whole protocol is implemented in java with NIO channels and a reusable
+ *     buffer, so the decode path can be inlined by the JIT.
+ * </p>
+ * <p>
+ *     After connecting, the receiver sends the connect request and expects the connect response of the plugin, each
+ *     one int. Then the plugin sends one frame per truffle: an unsigned int length followed by a
+ *     {@link TruffleRecord} of that length. Everything is in native byte order. See truffleStream.h for the plugin
+ *     side.
+ * </p>
+ * <p>
+ *     By default the receiver connects to the unix domain socket ~/truffle_stream.sock if the running java version
+ *     supports unix domain socket channels. The loopback port {@link #DEFAULT_PORT} is not authenticated, every local
+ *     process could send frames to it, so it is only used instead if it was allowed with
+ *     -D{@value #TCP_FALLBACK_PROPERTY}=true.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class StreamSocketReceiver extends TruffleReceiver {
+
+    /** The loopback port the plugin listens on if unix domain sockets are not available. */
+    public static final int DEFAULT_PORT = 7467;
+
+    /** The system property that allows the loopback port if unix domain sockets are not available. */
+    public static final String TCP_FALLBACK_PROPERTY = "trufflehog.stream.tcp";
+
+    static final String UNIX_ADDRESS_CLASS = "java.net.UnixDomainSocketAddress";
+
+    /** The name of the socket file in the home directory of the user. */
+    static final String SOCKET_NAME = "truffle_stream.sock";
+
+    // see snortComm.h
+    static final int TRUFFLEHOG_CONNECT_REQUEST = 0x0;
+    static final int TRUFFLEHOG_DISCONNECT_REQUEST = 0x1;
+    static final int SNORT_CONNECT_RESPONSE = 0x2;
+
+    private static final int LENGTH_SIZE = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final INetworkWritingPort networkWritingPort;
+    private final IFilter filter;
+    private final SocketAddress address;
+    private final Logger logger = LogManager.getLogger();
+
+    // only used by the receiver thread
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+
+    private volatile SocketChannel channel;
+    private volatile boolean connected = false;
+
+    /**
+     * <p>
+     *     Creates the StreamSocketReceiver that connects to the default address of the plugin. If there is no default
+     *     address, every call of {@link #connect()} sends a {@link ReceiverErrorCommand}.
+     * </p>
+     */
+    public StreamSocketReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter) {
+        this.networkWritingPort = networkWritingPort;
+        this.filter = filter;
+        this.address = defaultAddress(UNIX_ADDRESS_CLASS, Boolean.getBoolean(TCP_FALLBACK_PROPERTY));
+    }
+
+    /**
+     * <p>
+     *     Creates the StreamSocketReceiver.
+     * </p>
+     *
+     * @param address The address the plugin listens on.
+     */
+    public StreamSocketReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter, final SocketAddress address) {
+        if (address == null) throw new NullPointerException("address must not be null");
+
+        this.networkWritingPort = networkWritingPort;
+        this.filter = filter;
+        this.address = address;
+    }
+
+    /**
+     * <p>
+     *     Gets the default address of the plugin. This is the unix domain socket ~/truffle_stream.sock if the java
+     *     runtime supports unix domain socket channels (java 16 and newer). Otherwise it is the loopback port
+     *     {@link #DEFAULT_PORT} if that was allowed, and a warning is logged because the port is not authenticated.
+     * </p>
+     *
+     * @param unixAddressClass The name of the unix domain socket address class.
+     * @param tcpAllowed Whether the loopback port may be used.
+     * @return the default address of the plugin or null if there is none
+     */
+    static SocketAddress defaultAddress(final String unixAddressClass, final boolean tcpAllowed) {
+        final String socketFile = System.getProperty("user.home") + File.separator + SOCKET_NAME;
+
+        try {
+            final Class<?> unixAddress = Class.forName(unixAddressClass);
+            return (SocketAddress) unixAddress.getMethod("of", String.class).invoke(null, socketFile);
+        } catch (ReflectiveOperationException e) {
+
+            if (!tcpAllowed) {
+                LogManager.getLogger(StreamSocketReceiver.class).error("Unix domain sockets are not available and the "
+                        + "loopback port is not allowed, start with -D" + TCP_FALLBACK_PROPERTY + "=true to use it.");
+                return null;
+            }
+
+            LogManager.getLogger(StreamSocketReceiver.class).warn("Unix domain sockets are not available, using the "
+                    + "unauthenticated loopback port " + DEFAULT_PORT + ". Every local process can send packets to it.");
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT);
+        }
+    }
+
+    /**
+     * <p>
+     *     The main method of the StreamSocketReceiver service.
+     * </p>
+     *
+     * <p>
+     *     Waits until the receiver is connected, then reads frames from the socket, packs the data into
+     *     {@link Truffle} objects and sends {@link ITruffleCommand} objects to all listeners. The monitor is not held
+     *     while reading from the socket, so {@link #disconnect()} can close the channel at any time, which wakes up the
+     *     blocked read immediately. The data of the previous channel is dropped when the receiver picks up a new one.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        SocketChannel last = null;
+
+        while (!Thread.interrupted()) {
+
+            final SocketChannel current;
+
+            synchronized (this) {
+                try {
+                    while (!connected) {
+                        this.wait();
+                    }
+                } catch (InterruptedException e) {
+                    logger.debug("StreamSocketReceiver interrupted. Exiting...");
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                current = channel;
+            }
+
+            if (current != last) {
+                readBuffer.clear();
+                last = current;
+            }
+
+            try {
+                receive(current);
+            } catch (ClosedChannelException e) {
+                logger.debug("StreamSocketReceiver channel closed");
+            } catch (IOException | ReceiverReadError e) {
+                logger.debug(e);
+                disconnect();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Reads whatever is available on the channel (blocking until at least one byte arrived) and sends an
+     *     {@link AddPacketDataCommand} for every complete frame to all listeners. Incomplete frames are kept in the
+     *     buffer until the rest arrives.
+     * </p>
+     *
+     * @param source the channel to read from
+     * @throws IOException if reading from the channel failed
+     * @throws ReceiverReadError if the plugin closed the connection or sent an invalid frame
+     */
+    void receive(final SocketChannel source) throws IOException, ReceiverReadError {
+
+        if (source.read(readBuffer) < 0) {
+            throw new ReceiverReadError("The plugin closed the connection");
+        }
+
+        readBuffer.flip();
+
+        while (readBuffer.remaining() >= LENGTH_SIZE) {
+
+            final int position = readBuffer.position();
+            final int length = readBuffer.getInt(position);
+
+            if (length < TruffleRecord.SIZE || length > readBuffer.capacity() - LENGTH_SIZE) {
+                readBuffer.clear();
+                throw new ReceiverReadError("Invalid frame length: " + length);
+            }
+
+            if (readBuffer.remaining() < LENGTH_SIZE + length) {
+                break;
+            }
+
+            countRead();
+
+            try {
+                final Truffle truffle = TruffleRecord.decode(readBuffer, position + LENGTH_SIZE);
+                final ITruffleCommand command = createCommand(truffle, networkWritingPort, filter);
+                if (command != null) {
+                    notifyListeners(command);
+                }
+            } catch (InvalidProfinetPacket invalidProfinetPacket) {
+                countDecodeError();
+                logger.debug(invalidProfinetPacket);
+            }
+
+            readBuffer.position(position + LENGTH_SIZE + length);
+        }
+
+        readBuffer.compact();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void connect() {
+
+        if (address == null) {
+            notifyListeners(new ReceiverErrorCommand("No safe address to the snort plugin, see -D"
+                    + TCP_FALLBACK_PROPERTY + "."));
+            return;
+        }
+
+        if (!connected) {
+
+            synchronized (this) {
+                SocketChannel newChannel = null;
+
+                try {
+                    newChannel = SocketChannel.open(address);
+
+                    writeInt(newChannel, TRUFFLEHOG_CONNECT_REQUEST);
+
+                    if (readInt(newChannel) != SNORT_CONNECT_RESPONSE) {
+                        throw new IOException("incorrect snort response");
+                    }
+
+                    channel = newChannel;
+                    connected = true;
+                    this.notifyAll();
+                } catch (IOException e) {
+                    logger.debug(e);
+                    closeQuietly(newChannel);
+                    notifyListeners(new ReceiverErrorCommand("Snort plugin doesn't seem to be running."));
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void disconnect() {
+
+        if (connected) {
+            connected = false;
+
+            synchronized (this) {
+                try {
+                    writeInt(channel, TRUFFLEHOG_DISCONNECT_REQUEST);
+                    channel.close();
+                } catch (IOException e) {
+                    logger.error(e);
+                    closeQuietly(channel);
+                    notifyListeners(new ReceiverErrorCommand("Couldn't disconnect from plugin correctly."));
+                }
+            }
+        }
+    }
+
+    private static void writeInt(final SocketChannel target, final int value) throws IOException {
+        final ByteBuffer controlBuffer = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+        controlBuffer.putInt(value).flip();
+
+        while (controlBuffer.hasRemaining()) {
+            target.write(controlBuffer);
+        }
+    }
+
+    private static int readInt(final SocketChannel source) throws IOException {
+        final ByteBuffer controlBuffer = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+
+        while (controlBuffer.hasRemaining()) {
+            if (source.read(controlBuffer) < 0) {
+                throw new IOException("connection closed during handshake");
+            }
+        }
+
+        return controlBuffer.getInt(0);
+    }
+
+    private void closeQuietly(final SocketChannel toClose) {
+        if (toClose == null) {
+            return;
+        }
+
+        try {
+            toClose.close();
+        } catch (IOException e) {
+            logger.debug(e);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ *     This implementation of the {@link TruffleReceiver} generates synthetic profinet traffic as described by a
+ *     {@link TrafficModel}. It is meant for load tests: the generator can run unthrottled or at a target rate, and a
+ *     seeded model always generates the same packet sequence.
+ * </p>
+ * <p>
+ *     Every device has a mac address with the profinet OUI 00:0e:cf, an ip address in 10.0.0.0/8 and a name of
+ *     station. Normal packets go from a talker to another talker or, with the multicast ratio, to a multicast
+ *     address. A DCP identify request goes to the DCP multicast address and is followed by the response of one
+ *     device with the same xid.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class SyntheticTrafficReceiver extends TruffleReceiver {
+
+    static final int PROFINET_ETHER_TYPE = 0x8892;
+    static final long DCP_IDENTIFY_MULTICAST = 0x010ECF000000L;
+
+    static final int DCP_SERVICE_IDENTIFY = 5;
+    static final int DCP_SERVICE_TYPE_REQUEST = 0;
+    static final int DCP_SERVICE_TYPE_RESPONSE_SUCCESS = 1;
+
+    private static final long DEVICE_OUI = 0x000ECF000000L;
+    private static final long DEVICE_IP_BASE = 0x0A000000L;
+    private static final long[] MULTICAST_ADDRESSES = {0x010ECF000001L, 0x0180C2000000L, 0x0180C200000EL};
+
+    // the number of packets that are generated between two checks of the connection state
+    private static final int MAX_BURST = 1024;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final INetworkWritingPort networkWritingPort;
+    private final IFilter filter;
+    private final TrafficModel model;
+    private final Logger logger = LogManager.getLogger();
+
+    private final SplittableRandom random;
+
+    // index = talker rank
+    private final long[] deviceIds;
+    private final String[] deviceNames;
+    private final double[] cumulativeWeights;
+    private int deviceCount;
+    private long nextDeviceId = 1;
+
+    private long xid = 0;
+
+    private boolean responsePending = false;
+    private long pendingRequester;
+    private int pendingResponder;
+
+    private volatile boolean running = false;
+    private volatile Thread generatorThread;
+
+    /**
+     * <p>
+     *     Creates the SyntheticTrafficReceiver with the default {@link TrafficModel}.
+     * </p>
+     */
+    public SyntheticTrafficReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter) {
+        this(networkWritingPort, filter, new TrafficModel.Builder().build());
+    }
+
+    /**
+     * <p>
+     *     Creates the SyntheticTrafficReceiver.
+     * </p>
+     *
+     * @param model The model of the generated traffic.
+     */
+    public SyntheticTrafficReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter, final TrafficModel model) {
+        if (model == null) throw new NullPointerException("model must not be null");
+
+        this.networkWritingPort = networkWritingPort;
+        this.filter = filter;
+        this.model = model;
+        this.random = new SplittableRandom(model.getSeed());
+
+        deviceIds = new long[model.getMaxDevices()];
+        deviceNames = new String[model.getMaxDevices()];
+        cumulativeWeights = new double[model.getMaxDevices()];
+
+        for (int i = 0; i < model.getDevices(); i++) {
+            addDevice();
+        }
+    }
+
+    /**
+     * <p>
+     *     The main method of the SyntheticTrafficReceiver service.
+     * </p>
+     *
+     * <p>
+     *     Parks until the receiver is connected and then generates truffles at the target rate of the model (or as
+     *     fast as possible) and sends {@link ITruffleCommand} objects to all listeners.
+     * </p>
+     */
+    @Override
+    public void run() {
+
+        generatorThread = Thread.currentThread();
+
+        try {
+            while (!Thread.interrupted()) {
+
+                if (!running) {
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                generate();
+            }
+        } finally {
+            generatorThread = null;
+        }
+    }
+
+    /**
+     * <p>
+     *     Generates truffles until the receiver is disconnected or the thread is interrupted.
+     * </p>
+     */
+    private void generate() {
+
+        final int packetsPerSecond = model.getPacketsPerSecond();
+        final long second = TimeUnit.SECONDS.toNanos(1);
+        long start = System.nanoTime();
+        long generated = 0;
+
+        while (running && !Thread.currentThread().isInterrupted()) {
+
+            long due = MAX_BURST;
+
+            if (packetsPerSecond > 0) {
+                long elapsed = System.nanoTime() - start;
+
+                // the start moves forward every full second, so the products below never overflow
+                if (elapsed >= second) {
+                    final long seconds = elapsed / second;
+
+                    start += seconds * second;
+                    elapsed -= seconds * second;
+
+                    // a backlog of more than one second is dropped instead of being sent as one long burst
+                    generated = Math.max(generated - seconds * packetsPerSecond, -packetsPerSecond);
+                }
+
+                due = Math.min(MAX_BURST, elapsed * packetsPerSecond / second - generated);
+
+                if (due <= 0) {
+                    final long untilNext = (generated + 1) * second / packetsPerSecond - elapsed;
+                    LockSupport.parkNanos(this, Math.max(1, Math.min(untilNext, MAX_PARK_NANOS)));
+                    continue;
+                }
+            }
+
+            for (int i = 0; i < due; i++) {
+                countRead();
+
+                final Truffle truffle = next();
+
+                final ITruffleCommand command = createCommand(truffle, networkWritingPort, filter);
+                if (command != null) {
+                    notifyListeners(command);
+                }
+            }
+
+            generated += due;
+        }
+    }
+
+    /**
+     * <p>
+     *     Generates the next truffle of the traffic model.
+     * </p>
+     *
+     * @return the next truffle
+     */
+    Truffle next() {
+
+        try {
+            if (responsePending) {
+                responsePending = false;
+
+                return Truffle.buildTruffle(mac(pendingResponder), pendingRequester, ip(pendingResponder), 0,
+                        deviceNames[pendingResponder], PROFINET_ETHER_TYPE, DCP_SERVICE_IDENTIFY, "Identify",
+                        DCP_SERVICE_TYPE_RESPONSE_SUCCESS, "Response Success", xid, 0, 1);
+            }
+
+            changeDevices();
+
+            final int source = pickTalker();
+
+            if (random.nextDouble() < model.getDcpRatio()) {
+                xid = (xid + 1) & 0xFFFFFFFFL;
+
+                responsePending = true;
+                pendingRequester = mac(source);
+                pendingResponder = pickTalker(source);
+
+                return Truffle.buildTruffle(mac(source), DCP_IDENTIFY_MULTICAST, ip(source), 0, null,
+                        PROFINET_ETHER_TYPE, DCP_SERVICE_IDENTIFY, "Identify", DCP_SERVICE_TYPE_REQUEST, "Request",
+                        xid, 0, 0);
+            }
+
+            final long destination;
+            final long destinationIP;
+
+            if (random.nextDouble() < model.getMulticastRatio()) {
+                destination = MULTICAST_ADDRESSES[random.nextInt(MULTICAST_ADDRESSES.length)];
+                destinationIP = 0;
+            } else {
+                final int target = pickTalker(source);
+                destination = mac(target);
+                destinationIP = ip(target);
+            }
+
+            return Truffle.buildTruffle(mac(source), destination, ip(source), destinationIP, null,
+                    PROFINET_ETHER_TYPE, 0, null, 0, null, 0, 0, 0);
+        } catch (InvalidProfinetPacket invalidProfinetPacket) {
+            // cannot happen, all addresses are generated in range
+            throw new IllegalStateException(invalidProfinetPacket);
+        }
+    }
+
+    /**
+     * @return the current number of devices
+     */
+    int getDeviceCount() {
+        return deviceCount;
+    }
+
+    private void changeDevices() {
+        if (model.getArrivalProbability() > 0 && random.nextDouble() < model.getArrivalProbability()
+                && deviceCount < deviceIds.length) {
+            addDevice();
+        }
+
+        if (model.getChurnProbability() > 0 && random.nextDouble() < model.getChurnProbability()) {
+            // the device leaves and a new device takes over its rank
+            final int replaced = random.nextInt(deviceCount);
+
+            deviceIds[replaced] = nextDeviceId++;
+            deviceNames[replaced] = "device-" + deviceIds[replaced];
+        }
+    }
+
+    private void addDevice() {
+        final double weight = 1.0 / Math.pow(deviceCount + 1, model.getTalkerExponent());
+
+        deviceIds[deviceCount] = nextDeviceId++;
+        deviceNames[deviceCount] = "device-" + deviceIds[deviceCount];
+        cumulativeWeights[deviceCount] = deviceCount == 0 ? weight : cumulativeWeights[deviceCount - 1] + weight;
+        deviceCount++;
+    }
+
+    private int pickTalker() {
+        final double value = random.nextDouble() * cumulativeWeights[deviceCount - 1];
+        final int index = Arrays.binarySearch(cumulativeWeights, 0, deviceCount, value);
+
+        return Math.min(index < 0 ? -index - 1 : index, deviceCount - 1);
+    }
+
+    private int pickTalker(final int exclude) {
+        final int talker = pickTalker();
+
+        return talker != exclude ? talker : (talker + 1) % deviceCount;
+    }
+
+    private long mac(final int device) {
+        return DEVICE_OUI | (deviceIds[device] & 0xFFFFFF);
+    }
+
+    private long ip(final int device) {
+        return DEVICE_IP_BASE | (deviceIds[device] & 0xFFFFFF);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void connect() {
+        if (!running) {
+            running = true;
+            LockSupport.unpark(generatorThread);
+
+            logger.debug("Generating synthetic traffic at " + (model.getPacketsPerSecond() > 0
+                    ? model.getPacketsPerSecond() + " packets/s" : "full speed"));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void disconnect() {
+        running = false;
+    }
+}
@@ -0,0 +1,228 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+/**
+ * <p>
+ *     This class describes the traffic the {@link SyntheticTrafficReceiver} generates. A traffic model is immutable
+ *     and created with a {@link Builder}:
+ * </p>
+ * <pre>
+ *     TrafficModel model = new TrafficModel.Builder().devices(500).packetsPerSecond(20000).seed(42).build();
+ * </pre>
+ * <p>
+ *     Devices talk with a power law (zipf) distribution: the device with rank r sends with a weight of
+ *     1 / r^talkerExponent. Device arrivals and churn are given as probabilities per packet so that a seeded model
+ *     generates the same packet sequence no matter how fast it is consumed.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class TrafficModel {
+
+    private final int devices;
+    private final int maxDevices;
+    private final double talkerExponent;
+    private final double multicastRatio;
+    private final double dcpRatio;
+    private final double arrivalProbability;
+    private final double churnProbability;
+    private final int packetsPerSecond;
+    private final long seed;
+
+    private TrafficModel(final Builder builder) {
+        this.devices = builder.devices;
+        this.maxDevices = builder.maxDevices;
+        this.talkerExponent = builder.talkerExponent;
+        this.multicastRatio = builder.multicastRatio;
+        this.dcpRatio = builder.dcpRatio;
+        this.arrivalProbability = builder.arrivalProbability;
+        this.churnProbability = builder.churnProbability;
+        this.packetsPerSecond = builder.packetsPerSecond;
+        this.seed = builder.seed;
+    }
+
+    /**
+     * @return the number of devices at the start
+     */
+    public int getDevices() {
+        return devices;
+    }
+
+    /**
+     * @return the maximum number of devices that can be reached through arrivals
+     */
+    public int getMaxDevices() {
+        return maxDevices;
+    }
+
+    /**
+     * @return the exponent of the power law talker distribution. 0 means all devices talk equally often.
+     */
+    public double getTalkerExponent() {
+        return talkerExponent;
+    }
+
+    /**
+     * @return the fraction of the normal packets that are sent to a multicast address
+     */
+    public double getMulticastRatio() {
+        return multicastRatio;
+    }
+
+    /**
+     * @return the fraction of the packets that start a DCP identify request / response pair
+     */
+    public double getDcpRatio() {
+        return dcpRatio;
+    }
+
+    /**
+     * @return the probability per packet that a new device joins the network
+     */
+    public double getArrivalProbability() {
+        return arrivalProbability;
+    }
+
+    /**
+     * @return the probability per packet that a device leaves and is replaced by a device with a new address
+     */
+    public double getChurnProbability() {
+        return churnProbability;
+    }
+
+    /**
+     * @return the target rate in packets per second or 0 if the generator is not throttled
+     */
+    public int getPacketsPerSecond() {
+        return packetsPerSecond;
+    }
+
+    /**
+     * @return the seed of the random generator
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * <p>
+     *     This class builds {@link TrafficModel}s. All values have defaults that describe a small production cell.
+     * </p>
+     */
+    public static final class Builder {
+
+        private int devices = 100;
+        private int maxDevices = 10000;
+        private double talkerExponent = 1.0;
+        private double multicastRatio = 0.05;
+        private double dcpRatio = 0.01;
+        private double arrivalProbability = 0;
+        private double churnProbability = 0;
+        private int packetsPerSecond = 1000;
+        private long seed = 0;
+
+        /**
+         * @param devices the number of devices at the start. Must be at least 2.
+         * @return this builder
+         */
+        public Builder devices(final int devices) {
+            if (devices < 2) throw new IllegalArgumentException("devices must be at least 2");
+
+            this.devices = devices;
+            return this;
+        }
+
+        /**
+         * @param maxDevices the maximum number of devices that can be reached through arrivals
+         * @return this builder
+         */
+        public Builder maxDevices(final int maxDevices) {
+            if (maxDevices < 2) throw new IllegalArgumentException("maxDevices must be at least 2");
+
+            this.maxDevices = maxDevices;
+            return this;
+        }
+
+        /**
+         * @param talkerExponent the exponent of the power law talker distribution. Must not be negative.
+         * @return this builder
+         */
+        public Builder talkerExponent(final double talkerExponent) {
+            if (talkerExponent < 0) throw new IllegalArgumentException("talkerExponent must not be negative");
+
+            this.talkerExponent = talkerExponent;
+            return this;
+        }
+
+        /**
+         * @param multicastRatio the fraction of the normal packets that are sent to a multicast address
+         * @return this builder
+         */
+        public Builder multicastRatio(final double multicastRatio) {
+            this.multicastRatio = checkProbability(multicastRatio, "multicastRatio");
+            return this;
+        }
+
+        /**
+         * @param dcpRatio the fraction of the packets that start a DCP identify request / response pair
+         * @return this builder
+         */
+        public Builder dcpRatio(final double dcpRatio) {
+            this.dcpRatio = checkProbability(dcpRatio, "dcpRatio");
+            return this;
+        }
+
+        /**
+         * @param arrivalProbability the probability per packet that a new device joins the network
+         * @return this builder
+         */
+        public Builder arrivalProbability(final double arrivalProbability) {
+            this.arrivalProbability = checkProbability(arrivalProbability, "arrivalProbability");
+            return this;
+        }
+
+        /**
+         * @param churnProbability the probability per packet that a device is replaced by a new device
+         * @return this builder
+         */
+        public Builder churnProbability(final double churnProbability) {
+            this.churnProbability = checkProbability(churnProbability, "churnProbability");
+            return this;
+        }
+
+        /**
+         * @param packetsPerSecond the target rate in packets per second or 0 for an unthrottled generator
+         * @return this builder
+         */
+        public Builder packetsPerSecond(final int packetsPerSecond) {
+            if (packetsPerSecond < 0) throw new IllegalArgumentException("packetsPerSecond must not be negative");
+
+            this.packetsPerSecond = packetsPerSecond;
+            return this;
+        }
+
+        /**
+         * @param seed the seed of the random generator
+         * @return this builder
+         */
+        public Builder seed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * @return the traffic model
+         */
+        public TrafficModel build() {
+            if (maxDevices < devices) throw new IllegalArgumentException("maxDevices must not be less than devices");
+
+            return new TrafficModel(this);
+        }
+
+        private static double checkProbability(final double value, final String name) {
+            if (value < 0 || value > 1) throw new IllegalArgumentException(name + " must be between 0 and 1");
+
+            return value;
+        }
+    }
+}
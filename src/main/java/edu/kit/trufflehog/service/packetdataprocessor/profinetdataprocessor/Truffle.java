@@ -8,8 +8,6 @@ import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.IOException;
-import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,15 +16,62 @@ import java.util.Map;
  * This class is used to store packet data which is received from the spp_profinet snort plugin using
  * the {@link TruffleReceiver}.
  * </p>
+ * <p>
+ * The fields of the profinet packet are stored as primitives and can be read with the typed getters, so building a
+ * truffle allocates only the truffle itself (and the strings, if the packet carries names). The address objects are
+ * only created when they are requested through {@link #getAttribute(Class, String)}, which is kept for all consumers
+ * that only know {@link IPacketData}. Additional attributes that have no field are stored in a map that is only
+ * created when needed.
+ * </p>
  *
  * @author Mark Giraud
- * @version 1.1
+ * @version 1.2
  */
 public class Truffle implements IPacketData {
 
     private final static Logger logger = LogManager.getLogger();
 
-    private final Map<Class<?>, HashMap<String, Object>> attributes = new HashMap<>();
+    private static final long MAX_MAC_ADDRESS = 0xFFFFFFFFFFFFL;
+    private static final long MAX_IP_ADDRESS = 0xFFFFFFFFL;
+
+    // bits of the present mask
+    private static final int SOURCE_MAC = 1;
+    private static final int DEST_MAC = 1 << 1;
+    private static final int SOURCE_IP = 1 << 2;
+    private static final int DEST_IP = 1 << 3;
+    private static final int ETHER_TYPE = 1 << 4;
+    private static final int SERVICE_ID = 1 << 5;
+    private static final int SERVICE_TYPE = 1 << 6;
+    private static final int XID = 1 << 7;
+    private static final int RESPONSE_DELAY = 1 << 8;
+    private static final int IS_RESPONSE = 1 << 9;
+    private static final int TIME_OF_ARRIVAL = 1 << 10;
+
+    private int present;
+
+    private long sourceMac;
+    private long destMac;
+    private int sourceIP;
+    private int destIP;
+    private int etherType;
+    private int serviceID;
+    private int serviceType;
+    private long xid;
+    private int responseDelay;
+    private boolean isResponse;
+    private long timeOfArrival;
+
+    private String deviceName;
+    private String serviceIDName;
+    private String serviceTypeName;
+
+    // created on first use by the getters, the addresses are immutable so a racy initialization is harmless
+    private MacAddress sourceMacAddress;
+    private MacAddress destMacAddress;
+    private IPAddress sourceIPAddress;
+    private IPAddress destIPAddress;
+
+    private Map<Class<?>, HashMap<String, Object>> attributes;
 
     Truffle() {
 
@@ -69,57 +114,235 @@ public class Truffle implements IPacketData {
                                 final long xid,
                                 final int responseDelay,
                                 final int isResponse) throws InvalidProfinetPacket {
-        final Truffle truffle = new Truffle();
 
-        try {
-            truffle.setAttribute(MacAddress.class, "sourceMacAddress", new MacAddress(srcMACAddr));
-            truffle.setAttribute(MacAddress.class, "destMacAddress", new MacAddress(dstMACAddr));
-        } catch (InvalidMACAddress invalidMACAddress) {
+        if (!isValidMacAddress(srcMACAddr) || !isValidMacAddress(dstMACAddr)) {
             throw new InvalidProfinetPacket("Error, invalid mac address");
         }
 
-        try {
-            truffle.setAttribute(IPAddress.class, "sourceIPAddress", new IPAddress(srcIPAddr));
-        } catch (InvalidIPAddress invalidIPAddress) {
+        if (!isValidIPAddress(srcIPAddr)) {
             throw new InvalidProfinetPacket("Invalid source ip address: " + srcIPAddr);
         }
 
-        try {
-            truffle.setAttribute(IPAddress.class, "destIPAddress", new IPAddress(dstIPAddr));
-        } catch (InvalidIPAddress invalidIPAddress) {
-           // throw new InvalidProfinetPacket("Invalid destination ip address: " + dstIPAddr);
-        }
+        final Truffle truffle = new Truffle();
+
+        truffle.sourceMac = srcMACAddr;
+        truffle.destMac = dstMACAddr;
+        truffle.sourceIP = (int) srcIPAddr;
+        truffle.present = SOURCE_MAC | DEST_MAC | SOURCE_IP;
 
-        if (nameOfStation != null) {
-            truffle.setAttribute(String.class, "deviceName", nameOfStation);
+        // an invalid destination ip address is omitted
+        if (isValidIPAddress(dstIPAddr)) {
+            truffle.destIP = (int) dstIPAddr;
+            truffle.present |= DEST_IP;
         }
 
-        truffle.setAttribute(Integer.class, "etherType", etherType);
-        truffle.setAttribute(Integer.class, "serviceType", serviceType);
-        truffle.setAttribute(Integer.class, "serviceID", serviceID);
+        truffle.deviceName = nameOfStation;
+        truffle.etherType = etherType;
+        truffle.serviceID = serviceID;
+        truffle.serviceIDName = serviceIDName;
+        truffle.serviceType = serviceType;
+        truffle.serviceTypeName = serviceTypeName;
+        truffle.xid = xid;
+        truffle.responseDelay = responseDelay;
+        truffle.isResponse = isResponse != 0;
+        truffle.timeOfArrival = System.currentTimeMillis();
+        truffle.present |= ETHER_TYPE | SERVICE_ID | SERVICE_TYPE | XID | RESPONSE_DELAY | IS_RESPONSE | TIME_OF_ARRIVAL;
+
+        return truffle;
+    }
+
+    private static boolean isValidMacAddress(final long address) {
+        return address >= 0 && address <= MAX_MAC_ADDRESS;
+    }
+
+    private static boolean isValidIPAddress(final long address) {
+        return address >= 0 && address <= MAX_IP_ADDRESS;
+    }
+
+    /**
+     * @return the source mac address as long
+     */
+    public long getSourceMac() {
+        return sourceMac;
+    }
+
+    /**
+     * @return the destination mac address as long
+     */
+    public long getDestMac() {
+        return destMac;
+    }
+
+    /**
+     * @return the source ip address as unsigned int
+     */
+    public long getSourceIP() {
+        return Integer.toUnsignedLong(sourceIP);
+    }
+
+    /**
+     * @return true if the destination ip address is present
+     */
+    public boolean hasDestIP() {
+        return (present & DEST_IP) != 0;
+    }
+
+    /**
+     * @return the destination ip address as unsigned int or 0 if it was omitted
+     */
+    public long getDestIP() {
+        return Integer.toUnsignedLong(destIP);
+    }
 
-        truffle.setAttribute(Long.class, "xid", xid);
+    /**
+     * @return the ether type of the packet
+     */
+    public int getEtherType() {
+        return etherType;
+    }
+
+    /**
+     * @return the dcp service id of the packet
+     */
+    public int getServiceID() {
+        return serviceID;
+    }
 
-        truffle.setAttribute(Integer.class, "responseDelay", responseDelay);
+    /**
+     * @return the dcp service type of the packet
+     */
+    public int getServiceType() {
+        return serviceType;
+    }
 
-        truffle.setAttribute(Boolean.class, "isResponse", isResponse != 0);
+    /**
+     * @return the dcp transaction id of the packet
+     */
+    public long getXid() {
+        return xid;
+    }
 
-        if (serviceIDName != null) {
-            truffle.setAttribute(String.class, "serviceTypeName", serviceTypeName);
+    /**
+     * @return the dcp response delay of the packet
+     */
+    public int getResponseDelay() {
+        return responseDelay;
+    }
+
+    /**
+     * @return true if the packet is a dcp response
+     */
+    public boolean isResponse() {
+        return isResponse;
+    }
+
+    /**
+     * @return the time the packet was received in milliseconds since the epoch
+     */
+    public long getTimeOfArrival() {
+        return timeOfArrival;
+    }
+
+    /**
+     * <p>
+     *     Sets the time the packet was received. Used for packets that are read from capture files.
+     * </p>
+     *
+     * @param timeOfArrival the time in milliseconds since the epoch
+     */
+    void setTimeOfArrival(final long timeOfArrival) {
+        this.timeOfArrival = timeOfArrival;
+    }
+
+    /**
+     * @return the name of the station or null if the packet carries no name
+     */
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /**
+     * @return the name of the service id or null if the packet carries no name
+     */
+    public String getServiceIDName() {
+        return serviceIDName;
+    }
+
+    /**
+     * @return the name of the service type or null if the packet carries no name
+     */
+    public String getServiceTypeName() {
+        return serviceTypeName;
+    }
+
+    /**
+     * @return the source mac address or null if it is not present
+     */
+    public MacAddress getSourceMacAddress() {
+        if (sourceMacAddress == null && (present & SOURCE_MAC) != 0) {
+            sourceMacAddress = toMacAddress(sourceMac);
         }
 
-        if (serviceTypeName != null) {
-            truffle.setAttribute(String.class, "serviceIDName", serviceIDName);
+        return sourceMacAddress;
+    }
+
+    /**
+     * @return the destination mac address or null if it is not present
+     */
+    public MacAddress getDestMacAddress() {
+        if (destMacAddress == null && (present & DEST_MAC) != 0) {
+            destMacAddress = toMacAddress(destMac);
         }
 
-        truffle.setAttribute(Long.class, "timeOfArrival", Instant.now().toEpochMilli());
+        return destMacAddress;
+    }
 
-        return truffle;
+    /**
+     * @return the source ip address or null if it is not present
+     */
+    public IPAddress getSourceIPAddress() {
+        if (sourceIPAddress == null && (present & SOURCE_IP) != 0) {
+            sourceIPAddress = toIPAddress(getSourceIP());
+        }
+
+        return sourceIPAddress;
+    }
+
+    /**
+     * @return the destination ip address or null if it is not present
+     */
+    public IPAddress getDestIPAddress() {
+        if (destIPAddress == null && (present & DEST_IP) != 0) {
+            destIPAddress = toIPAddress(getDestIP());
+        }
+
+        return destIPAddress;
+    }
+
+    private static MacAddress toMacAddress(final long address) {
+        try {
+            return MacAddress.of(address);
+        } catch (InvalidMACAddress invalidMACAddress) {
+            // cannot happen, the address was checked when it was set
+            logger.error(invalidMACAddress);
+            return null;
+        }
+    }
+
+    private static IPAddress toIPAddress(final long address) {
+        try {
+            return IPAddress.of(address);
+        } catch (InvalidIPAddress invalidIPAddress) {
+            // cannot happen, the address was checked when it was set
+            logger.error(invalidIPAddress);
+            return null;
+        }
     }
 
     /**
      * <p>
-     * This method adds a new element under the specified type and name to the Truffle.
+     * This method adds a new element under the specified type and name to the Truffle. Elements added this way take
+     * precedence over the fields in {@link #getAttribute(Class, String)}, the typed getters are not affected.
      * </p>
      *
      * @param attributeType       The type of the element to add.
@@ -128,8 +351,13 @@ public class Truffle implements IPacketData {
      * @param <T>                 The Type of the element to add.
      * @return The value of the previous mapping. If no element was mapped under the identifier then null is returned.
      */
-    @SuppressWarnings("unchecked")
     <T> T setAttribute(final Class<T> attributeType, final String attributeIdentifier, final T value) {
+        final T previous = getAttribute(attributeType, attributeIdentifier);
+
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
+
         HashMap<String, Object> attributeMap = attributes.get(attributeType);
 
         if (attributeMap == null) {
@@ -137,12 +365,17 @@ public class Truffle implements IPacketData {
             attributes.put(attributeType, attributeMap);
         }
 
-        return (T) attributeMap.put(attributeIdentifier, value);
+        attributeMap.put(attributeIdentifier, value);
 
+        return previous;
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * This is a compatibility layer on top of the typed getters. Use the typed getters where the {@link Truffle} is
+     * known, they do not box the values.
+     * </p>
      *
      * @param attributeType       The type of attribute that is supposed to be retrieved, for example Integer.class
      * @param attributeIdentifier The string identifier of the attribute that should be retrieved.
@@ -152,12 +385,51 @@ public class Truffle implements IPacketData {
     @SuppressWarnings("unchecked")
     @Override
     public <T> T getAttribute(final Class<T> attributeType, final String attributeIdentifier) {
-        HashMap<?, ?> attributeMap = attributes.get(attributeType);
 
-        if (attributeMap == null)
-            return null;
+        if (attributes != null) {
+            final HashMap<?, ?> attributeMap = attributes.get(attributeType);
+
+            if (attributeMap != null && attributeMap.containsKey(attributeIdentifier)) {
+                return (T) attributeMap.get(attributeIdentifier);
+            }
+        }
 
-        return (T) attributeMap.get(attributeIdentifier);
+        return (T) getField(attributeType, attributeIdentifier);
+    }
+
+    private Object getField(final Class<?> type, final String identifier) {
+        switch (identifier) {
+            case "sourceMacAddress":
+                return type == MacAddress.class ? getSourceMacAddress() : null;
+            case "destMacAddress":
+                return type == MacAddress.class ? getDestMacAddress() : null;
+            case "sourceIPAddress":
+                return type == IPAddress.class ? getSourceIPAddress() : null;
+            case "destIPAddress":
+                return type == IPAddress.class ? getDestIPAddress() : null;
+            case "deviceName":
+                return type == String.class ? deviceName : null;
+            case "serviceIDName":
+                return type == String.class ? serviceIDName : null;
+            case "serviceTypeName":
+                return type == String.class ? serviceTypeName : null;
+            case "etherType":
+                return type == Integer.class && (present & ETHER_TYPE) != 0 ? etherType : null;
+            case "serviceID":
+                return type == Integer.class && (present & SERVICE_ID) != 0 ? serviceID : null;
+            case "serviceType":
+                return type == Integer.class && (present & SERVICE_TYPE) != 0 ? serviceType : null;
+            case "xid":
+                return type == Long.class && (present & XID) != 0 ? xid : null;
+            case "responseDelay":
+                return type == Integer.class && (present & RESPONSE_DELAY) != 0 ? responseDelay : null;
+            case "isResponse":
+                return type == Boolean.class && (present & IS_RESPONSE) != 0 ? isResponse : null;
+            case "timeOfArrival":
+                return type == Long.class && (present & TIME_OF_ARRIVAL) != 0 ? timeOfArrival : null;
+            default:
+                return null;
+        }
     }
 
     /**
@@ -168,45 +440,26 @@ public class Truffle implements IPacketData {
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
-        attributes.values().stream().forEach(map -> {
-
-            map.entrySet().stream().forEach(entry -> {
-
-                sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
-
-            });
-
-        });
-
-/*        MacAddress srcMacAddress = getAttribute(MacAddress.class, "sourceMacAddress");
-        MacAddress destMacAddress = getAttribute(MacAddress.class, "destMacAddress");
-        Short etherType = getAttribute(Short.class, "etherType");
-
-        sb.append("Source mac address: ");
-        if (srcMacAddress != null) {
-            sb.append(srcMacAddress);
-        }
-        sb.append("\nDestination mac address: ");
-        if (destMacAddress != null) {
-            sb.append(destMacAddress);
-        }
-        sb.append("\nEther type: ");
-        if (etherType != null) {
-            sb.append(etherType.toString());
-        }
-        sb.append("\n\n");
-
-        // rest of data:
-
-        for (HashMap<String, Object> map : attributes.values()) {
-            for (Object o : map.values()) {
-                sb.append(o);
-                sb.append(", ");
-            }
+        sb.append("sourceMacAddress: ").append(getSourceMacAddress()).append('\n');
+        sb.append("destMacAddress: ").append(getDestMacAddress()).append('\n');
+        sb.append("sourceIPAddress: ").append(getSourceIPAddress()).append('\n');
+        sb.append("destIPAddress: ").append(getDestIPAddress()).append('\n');
+        sb.append("deviceName: ").append(deviceName).append('\n');
+        sb.append("etherType: ").append(etherType).append('\n');
+        sb.append("serviceID: ").append(serviceID).append('\n');
+        sb.append("serviceIDName: ").append(serviceIDName).append('\n');
+        sb.append("serviceType: ").append(serviceType).append('\n');
+        sb.append("serviceTypeName: ").append(serviceTypeName).append('\n');
+        sb.append("xid: ").append(xid).append('\n');
+        sb.append("responseDelay: ").append(responseDelay).append('\n');
+        sb.append("isResponse: ").append(isResponse).append('\n');
+        sb.append("timeOfArrival: ").append(timeOfArrival).append('\n');
+
+        if (attributes != null) {
+            attributes.values().forEach(map -> map.forEach((key, value) ->
+                    sb.append(key).append(": ").append(value).append('\n')));
         }
 
-        sb.append("\n\n");*/
-
         return sb.toString();
     }
-}
\ No newline at end of file
+}
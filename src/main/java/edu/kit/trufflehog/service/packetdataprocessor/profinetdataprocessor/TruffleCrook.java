@@ -1,6 +1,6 @@
 package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
 
-import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
 import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.network.INetworkWritingPort;
 
@@ -48,7 +48,11 @@ public class TruffleCrook extends TruffleReceiver {
                     final Truffle truffle = getTruffle();
 
                     if (truffle != null) {
-                        notifyListeners(new AddPacketDataCommand(networkWritingPort, truffle, filter));
+                        countRead();
+                        final ITruffleCommand command = createCommand(truffle, networkWritingPort, filter);
+                        if (command != null) {
+                            notifyListeners(command);
+                        }
                     }
 
                 } catch (Exception e) {
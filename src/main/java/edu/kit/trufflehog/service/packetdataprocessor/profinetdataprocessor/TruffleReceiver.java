@@ -1,10 +1,17 @@
 package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
 
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.DuplicatePacketCommand;
 import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
 import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.util.INotifier;
 import edu.kit.trufflehog.util.Notifier;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * <p>
  *     This class is a runnable notifier service that fetches packet data from the spp_profinet snort plugin, generates
@@ -15,12 +22,30 @@ import edu.kit.trufflehog.util.Notifier;
  * <p>
  *     Possible implementations: {@link UnixSocketReceiver}
  * </p>
+ * <p>
+ *     Implementations count every packet they read and every packet they could not decode, so the read rate and the
+ *     decode errors of the receiver can be monitored.
+ * </p>
+ * <p>
+ *     Implementations pass on the command {@link #createCommand(Truffle, INetworkWritingPort, IFilter)} creates for a
+ *     truffle. A truffle that the {@link PacketFilter} rejects is counted as filtered and gets no command. A truffle
+ *     that the {@link DuplicateFrameFilter} recognizes as a repeated DCP frame is counted as a duplicate and only gets
+ *     a {@link DuplicatePacketCommand}, which adds it to the duplicate counters of its node and connection.
+ * </p>
  *
  * @author Mark Giraud
  * @version 1.0
  */
 public abstract class TruffleReceiver extends Notifier<ITruffleCommand> implements INotifier<ITruffleCommand>, Runnable {
 
+    private final LongAdder readCount = new LongAdder();
+    private final LongAdder decodeErrorCount = new LongAdder();
+    private final LongAdder filteredCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+
+    private volatile PacketFilter packetFilter = null;
+    private volatile DuplicateFrameFilter duplicateFilter = null;
+
     /**
      * <p>
      *     This method connects the {@link TruffleReceiver} to the snort process.
@@ -35,4 +60,109 @@ public abstract class TruffleReceiver extends Notifier<ITruffleCommand> implemen
      * </p>
      */
     public abstract void disconnect();
+
+    /**
+     * @return the number of packets that were read, including the ones that could not be decoded
+     */
+    public long getReadCount() {
+        return readCount.sum();
+    }
+
+    /**
+     * @return the number of packets that could not be decoded
+     */
+    public long getDecodeErrorCount() {
+        return decodeErrorCount.sum();
+    }
+
+    /**
+     * @return the number of packets that were rejected by the packet filter
+     */
+    public long getFilteredCount() {
+        return filteredCount.sum();
+    }
+
+    /**
+     * @return the number of packets that were only counted as duplicates
+     */
+    public long getDuplicateCount() {
+        return duplicateCount.sum();
+    }
+
+    /**
+     * <p>
+     *     Sets the filter that decides which packets are passed on. The filter can be replaced while the receiver runs.
+     * </p>
+     *
+     * @param packetFilter The filter, or null to pass on every truffle.
+     */
+    public void setPacketFilter(final PacketFilter packetFilter) {
+        this.packetFilter = packetFilter;
+    }
+
+    /**
+     * <p>
+     *     Sets the filter that recognizes duplicate DCP frames. The filter must only be used by this receiver.
+     * </p>
+     *
+     * @param duplicateFilter The filter, or null to pass on every truffle.
+     */
+    public void setDuplicateFilter(final DuplicateFrameFilter duplicateFilter) {
+        this.duplicateFilter = duplicateFilter;
+    }
+
+    /**
+     * <p>
+     *     Creates the command that is passed on for the truffle. The packet filter is checked first, so the traffic it
+     *     rejects does not take up the slots of the duplicate filter. A rejected truffle is counted and gets no
+     *     command, a duplicate is counted and gets a {@link DuplicatePacketCommand} instead of an
+     *     {@link AddPacketDataCommand}.
+     * </p>
+     *
+     * @param truffle The truffle that was read.
+     * @param writingPort The port the command writes to.
+     * @param filter The filter the command checks new nodes with.
+     * @return the command for the truffle, or null if no command should be passed on
+     */
+    protected final ITruffleCommand createCommand(final Truffle truffle, final INetworkWritingPort writingPort,
+                                                  final IFilter filter) {
+        final PacketFilter packets = packetFilter;
+
+        if (packets != null && !packets.accept(truffle)) {
+            filteredCount.increment();
+            return null;
+        }
+
+        final DuplicateFrameFilter duplicates = duplicateFilter;
+
+        if (duplicates != null && duplicates.isDuplicate(truffle)) {
+            duplicateCount.increment();
+
+            final MacAddress source = truffle.getSourceMacAddress();
+            final MacAddress dest = truffle.getDestMacAddress();
+
+            return source != null && dest != null ? new DuplicatePacketCommand(writingPort, source, dest, 1) : null;
+        }
+
+        return new AddPacketDataCommand(writingPort, truffle, filter);
+    }
+
+    /**
+     * <p>
+     *     Counts a packet that was read.
+     * </p>
+     */
+    protected final void countRead() {
+        readCount.increment();
+    }
+
+    /**
+     * <p>
+     *     Counts a packet that was read but could not be decoded. The packet must be counted with
+     *     {@link #countRead()} as well.
+     * </p>
+     */
+    protected final void countDecodeError() {
+        decodeErrorCount.increment();
+    }
 }
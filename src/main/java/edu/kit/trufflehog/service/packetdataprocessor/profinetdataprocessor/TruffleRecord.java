@@ -0,0 +1,108 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ *     This class describes the fixed layout of a truffle record and decodes records into {@link Truffle} objects.
+ *     Receivers that fetch truffles in bulk let the native side flatten every truffle into a record of
+ *     {@link #SIZE} bytes. This way a whole batch of truffles can be transferred with a single call instead of
+ *     one upcall per truffle.
+ * </p>
+ * <p>
+ *     All numeric fields are stored in native byte order. Strings are NUL padded ASCII of at most
+ *     {@link #MAX_STRING_LENGTH} bytes. The layout has to be kept in sync with truffleRecord.h.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+final class TruffleRecord {
+
+    /** The size of a single record in bytes. */
+    static final int SIZE = 128;
+
+    /** The maximum length of a string field in bytes. */
+    static final int MAX_STRING_LENGTH = 32;
+
+    static final int SRC_MAC = 0;
+    static final int DST_MAC = 8;
+    static final int SRC_IP = 16;
+    static final int XID = 20;
+    static final int ETHER_TYPE = 24;
+    static final int RESPONSE_DELAY = 26;
+    static final int SERVICE_ID = 28;
+    static final int SERVICE_TYPE = 29;
+    static final int IS_RESPONSE = 30;
+    static final int FLAGS = 31;
+    static final int NAME_OF_STATION = 32;
+    static final int SERVICE_ID_NAME = 64;
+    static final int SERVICE_TYPE_NAME = 96;
+
+    /** Set if the record originates from a DCP frame and the DCP fields are valid. */
+    static final int FLAG_DCP = 0x1;
+
+    /** Set if the record carries a name of station. */
+    static final int FLAG_NAME = 0x2;
+
+    // the names of DCP frames repeat, so all records share one dictionary
+    private static final NameDictionary NAMES = new NameDictionary(512, MAX_STRING_LENGTH);
+
+    private TruffleRecord() {
+
+    }
+
+    /**
+     * <p>
+     *     Allocates a direct buffer that is able to hold the specified number of records. The byte order of the
+     *     buffer is set to the native byte order.
+     * </p>
+     *
+     * @param records the number of records the buffer should be able to hold. Must be positive.
+     * @return the allocated buffer
+     */
+    static ByteBuffer allocate(final int records) {
+        if (records <= 0)
+            throw new IllegalArgumentException("The number of records must be positive");
+
+        return ByteBuffer.allocateDirect(records * SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * <p>
+     *     Decodes the record that starts at the specified offset of the buffer. The position of the buffer is not
+     *     changed.
+     * </p>
+     *
+     * @param buffer the buffer to read from. The byte order must match the byte order the record was written with.
+     * @param offset the offset of the first byte of the record within the buffer
+     * @return the decoded {@link Truffle}
+     * @throws InvalidProfinetPacket if the record contains invalid data
+     */
+    static Truffle decode(final ByteBuffer buffer, final int offset) throws InvalidProfinetPacket {
+
+        final int flags = buffer.get(offset + FLAGS);
+        final boolean isDcp = (flags & FLAG_DCP) != 0;
+
+        final String nameOfStation = (flags & FLAG_NAME) != 0 ? getString(buffer, offset + NAME_OF_STATION) : null;
+
+        return Truffle.buildTruffle(buffer.getLong(offset + SRC_MAC),
+                buffer.getLong(offset + DST_MAC),
+                buffer.getInt(offset + SRC_IP) & 0xFFFFFFFFL,
+                0,
+                nameOfStation,
+                buffer.getShort(offset + ETHER_TYPE) & 0xFFFF,
+                buffer.get(offset + SERVICE_ID) & 0xFF,
+                isDcp ? getString(buffer, offset + SERVICE_ID_NAME) : null,
+                buffer.get(offset + SERVICE_TYPE) & 0xFF,
+                isDcp ? getString(buffer, offset + SERVICE_TYPE_NAME) : null,
+                buffer.getInt(offset + XID) & 0xFFFFFFFFL,
+                buffer.getShort(offset + RESPONSE_DELAY) & 0xFFFF,
+                buffer.get(offset + IS_RESPONSE) & 0xFF);
+    }
+
+    private static String getString(final ByteBuffer buffer, final int offset) {
+        return NAMES.get(buffer, offset);
+    }
+}
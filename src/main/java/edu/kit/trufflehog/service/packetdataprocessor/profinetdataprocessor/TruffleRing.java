@@ -0,0 +1,273 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import sun.misc.Unsafe;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ *     This class is the java side of the single producer single consumer ring buffer of {@link TruffleRecord}s that
+ *     lives in a memory mapped file (usually in /dev/shm). The spp_profinet snort plugin writes records into the ring
+ *     and the {@link SharedMemoryReceiver} reads them without a system call per packet.
+ * </p>
+ * <p>
+ *     The layout of the file has to be kept in sync with truffleRing.h. Both indices increase monotonically, the
+ *     slot of an index is {@code index & (capacity - 1)}. The write index is only written by the producer, the read
+ *     index is only written by the consumer. The producer side of this class only exists as a stand-in for snort in
+ *     tests and benchmarks.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+final class TruffleRing implements AutoCloseable {
+
+    /** The default location of the ring file. */
+    static final String DEFAULT_RING_FILE = "/dev/shm/trufflehog.ring";
+
+    static final int MAGIC = 0x54524652;
+    static final int VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int CAPACITY_OFFSET = 8;
+    static final int RECORD_SIZE_OFFSET = 12;
+    static final int WRITE_INDEX_OFFSET = 64;
+    static final int READ_INDEX_OFFSET = 128;
+    static final int DATA_OFFSET = 192;
+
+    // The ring is shared with another process, so the java memory model does not help us here: the indices and the
+    // records are plain accesses to the mapping and only real fences order them. A load fence keeps the loads that
+    // follow it behind the index that was read, a store fence keeps the stores before it ahead of the index that is
+    // written. This makes sure that records are read after the write index and that an index is published after the
+    // records were written or read.
+    private static final Unsafe UNSAFE;
+
+    static {
+        try {
+            final Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+
+    private long readIndex;
+    private long writeIndex;
+
+    private TruffleRing(final FileChannel channel, final MappedByteBuffer buffer, final int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+
+        readIndex = buffer.getLong(READ_INDEX_OFFSET);
+        writeIndex = buffer.getLong(WRITE_INDEX_OFFSET);
+    }
+
+    /**
+     * <p>
+     *     Maps an existing ring file that was created by the producer.
+     * </p>
+     *
+     * @param file the ring file
+     * @return the mapped ring
+     * @throws IOException if the file could not be mapped or is not a valid ring file
+     */
+    static TruffleRing open(final Path file) throws IOException {
+
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            if (channel.size() < DATA_OFFSET)
+                throw new IOException("Ring file is too small: " + file);
+
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC)
+                throw new IOException("Not a truffle ring: " + file);
+
+            if (buffer.getInt(VERSION_OFFSET) != VERSION)
+                throw new IOException("Unsupported truffle ring version: " + buffer.getInt(VERSION_OFFSET));
+
+            if (buffer.getInt(RECORD_SIZE_OFFSET) != TruffleRecord.SIZE)
+                throw new IOException("Unsupported truffle record size: " + buffer.getInt(RECORD_SIZE_OFFSET));
+
+            final int capacity = buffer.getInt(CAPACITY_OFFSET);
+
+            if (capacity <= 0 || Integer.bitCount(capacity) != 1
+                    || channel.size() < DATA_OFFSET + (long) capacity * TruffleRecord.SIZE)
+                throw new IOException("Invalid truffle ring capacity: " + capacity);
+
+            return new TruffleRing(channel, buffer, capacity);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * <p>
+     *     Creates (or truncates) a ring file with the specified number of slots and maps it. This is the producer
+     *     stand-in for tests and benchmarks, snort creates the ring with truffleRingCreate.
+     * </p>
+     *
+     * @param file the ring file to create
+     * @param capacity the number of slots. Must be a power of two.
+     * @return the mapped ring
+     * @throws IOException if the file could not be created
+     */
+    static TruffleRing create(final Path file, final int capacity) throws IOException {
+
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("capacity must be a power of two");
+
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                DATA_OFFSET + (long) capacity * TruffleRecord.SIZE);
+        buffer.order(ByteOrder.nativeOrder());
+
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(RECORD_SIZE_OFFSET, TruffleRecord.SIZE);
+
+        UNSAFE.storeFence();
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+
+        return new TruffleRing(channel, buffer, capacity);
+    }
+
+    /**
+     * @return the mapped buffer. Records are located at the offsets returned by {@link #recordOffset(long)}.
+     */
+    MappedByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the number of slots of this ring
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * <p>
+     *     Gets the offset of the record with the specified index within the buffer.
+     * </p>
+     *
+     * @param index the index of the record
+     * @return the offset of the record within the buffer
+     */
+    int recordOffset(final long index) {
+        return DATA_OFFSET + (int) (index & mask) * TruffleRecord.SIZE;
+    }
+
+    /**
+     * <p>
+     *     Consumer side: gets the number of records that were published by the producer and not released yet.
+     *     All records from {@link #getReadIndex()} up to (but excluding) the read index plus the returned number
+     *     can safely be read afterwards.
+     * </p>
+     * <p>
+     *     A write index behind the read index or more than the capacity ahead of it can only be read from a broken or
+     *     restarted producer. No record is readable then, so the read index never moves backwards or past records
+     *     that were not written.
+     * </p>
+     *
+     * @return the number of readable records
+     */
+    int available() {
+        final long published = buffer.getLong(WRITE_INDEX_OFFSET);
+        UNSAFE.loadFence();
+
+        final long count = published - readIndex;
+
+        if (count < 0 || count > capacity) {
+            return 0;
+        }
+
+        return (int) count;
+    }
+
+    /**
+     * @return the index of the next record the consumer reads
+     */
+    long getReadIndex() {
+        return readIndex;
+    }
+
+    /**
+     * <p>
+     *     Consumer side: hands the specified number of records back to the producer. The records must have been
+     *     read completely before.
+     * </p>
+     *
+     * @param count the number of records to release
+     */
+    void release(final int count) {
+        readIndex += count;
+
+        UNSAFE.storeFence();
+        buffer.putLong(READ_INDEX_OFFSET, readIndex);
+    }
+
+    /**
+     * <p>
+     *     Producer side: gets the offset of the next free slot or -1 if the ring is full. The record has to be
+     *     written completely before it is made visible with {@link #publish()}.
+     * </p>
+     *
+     * @return the offset of the free slot within the buffer or -1 if the ring is full
+     */
+    int claim() {
+        final long released = buffer.getLong(READ_INDEX_OFFSET);
+        UNSAFE.loadFence();
+
+        if (writeIndex - released >= capacity) {
+            return -1;
+        }
+
+        return recordOffset(writeIndex);
+    }
+
+    /**
+     * <p>
+     *     Producer side: makes the record that was written to the slot returned by {@link #claim()} visible to the
+     *     consumer.
+     * </p>
+     */
+    void publish() {
+        writeIndex++;
+
+        UNSAFE.storeFence();
+        buffer.putLong(WRITE_INDEX_OFFSET, writeIndex);
+    }
+
+    /**
+     * <p>
+     *     Closes the file channel. The mapping itself stays valid until the buffer is garbage collected.
+     * </p>
+     *
+     * @throws IOException if the channel could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -5,15 +5,35 @@ import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
 import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
 import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.network.INetworkWritingPort;
-import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * <p>
  *     This implementation of the {@link TruffleReceiver} uses a unix socket
  *     to communicate with the spp_profinet snort plugin.
  * </p>
+ * <p>
+ *     By default the receiver works in batched mode: every native call drains all truffles that are ready on the
+ *     socket into a direct buffer of fixed size {@link TruffleRecord}s which are then decoded on the java side.
+ *     A batch size of 1 falls back to fetching one {@link Truffle} per native call.
+ * </p>
+ * <p>
+ *     The receiver does not use the object monitor. The connection state is an {@link AtomicInteger} that is only
+ *     changed with compare and set, the receiver thread parks while it is not connected and the native side blocks
+ *     in epoll until a truffle arrives or {@link #disconnect()} wakes it up through an eventfd. The socket is only
+ *     closed by the receiver thread (or by disconnect if there is no receiver thread), so it is never closed while
+ *     the native side waits on it.
+ * </p>
+ * <p>
+ *     A {@link #connect()} while the previous connection is still being closed is queued. The thread that closes the
+ *     connection connects again right after it, unless {@link #disconnect()} was called in the meantime.
+ * </p>
  *
  * @author Mark Giraud
  * @version 1.0
@@ -24,8 +44,26 @@ public class UnixSocketReceiver extends TruffleReceiver {
     private final IFilter filter;
     private final Logger logger = LogManager.getLogger();
 
+    /** The number of truffles that are fetched with one native call by default. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final ByteBuffer recordBuffer;
+
+    // The states of the connection. Only the transitions below are allowed:
+    // DISCONNECTED -> CONNECTING -> CONNECTED | DISCONNECTED (connect)
+    // CONNECTED -> WAKING -> CLOSING (disconnect)
+    // CLOSING -> RELEASING -> DISCONNECTED (receiver thread)
+    private static final int DISCONNECTED = 0;
+    private static final int CONNECTING = 1;
+    private static final int CONNECTED = 2;
+    private static final int WAKING = 3;
+    private static final int CLOSING = 4;
+    private static final int RELEASING = 5;
 
-    private boolean connected = false;
+    private final AtomicInteger state = new AtomicInteger(DISCONNECTED);
+    private final AtomicBoolean reconnect = new AtomicBoolean(false);
+
+    private volatile Thread receiverThread;
 
     static {
         System.loadLibrary("truffleReceiver");
@@ -33,12 +71,30 @@ public class UnixSocketReceiver extends TruffleReceiver {
 
     /**
      * <p>
-     *     Creates the UnixSocketReceiver.
+     *     Creates the UnixSocketReceiver that fetches up to {@link #DEFAULT_BATCH_SIZE} truffles per native call.
      * </p>
      */
     public UnixSocketReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter) {
+        this(networkWritingPort, filter, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * <p>
+     *     Creates the UnixSocketReceiver.
+     * </p>
+     *
+     * @param batchSize The maximum number of truffles that are fetched with one native call. If the batch size
+     *                  is 1 every truffle is fetched with its own native call.
+     * @throws IllegalArgumentException if the batch size is not positive
+     */
+    public UnixSocketReceiver(final INetworkWritingPort networkWritingPort, final IFilter filter, final int batchSize) {
+
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batchSize must be positive");
+
         this.networkWritingPort = networkWritingPort;
         this.filter = filter;
+        this.recordBuffer = batchSize > 1 ? TruffleRecord.allocate(batchSize) : null;
     }
 
     /**
@@ -47,79 +103,189 @@ public class UnixSocketReceiver extends TruffleReceiver {
      * </p>
      *
      * <p>
-     *     Tries to connect to the spp_profinet process.
-     *     If the connection failed a {@link ReceiverErrorCommand} is sent to all listeners.
-     *     Otherwise the service starts receiving packet data from the spp_profinet snort plugin,
-     *     packs the data into {@link Truffle} objects and then generates {@link ITruffleCommand} objects and sends
-     *     them to all listeners.
+     *     Parks until the receiver is connected. While connected the service receives packet data from the
+     *     spp_profinet snort plugin, packs the data into {@link Truffle} objects and then generates
+     *     {@link ITruffleCommand} objects and sends them to all listeners. When {@link #disconnect()} was called the
+     *     service closes the connection.
      * </p>
      */
     @Override
     public void run() {
 
-        while(!Thread.interrupted()) {
-            synchronized (this) {
-
-                try {
-                    while (!connected) {
-                        this.wait();
-                    }
-
-                    final Truffle truffle = getTruffle();
-
-                    if (truffle != null) {
-                        notifyListeners(new AddPacketDataCommand(networkWritingPort, truffle, filter));
-                    }
-                } catch (InterruptedException e) {
-                    logger.debug("UnixSocketReceiver interrupted. Exiting...");
-                    Thread.currentThread().interrupt();
-                } catch (ReceiverReadError receiverReadError) {
-                    logger.debug(receiverReadError);
-                    disconnect();
+        receiverThread = Thread.currentThread();
+
+        try {
+            while (!Thread.interrupted()) {
+
+                switch (state.get()) {
+                    case CONNECTED:
+                        try {
+                            receive();
+                        } catch (ReceiverReadError receiverReadError) {
+                            logger.debug(receiverReadError);
+                            disconnect();
+                        }
+                        break;
+                    case WAKING:
+                        // disconnect is signalling the native side right now
+                        Thread.yield();
+                        break;
+                    case CLOSING:
+                        close();
+                        break;
+                    default:
+                        LockSupport.park(this);
+                }
+            }
+
+            logger.debug("UnixSocketReceiver interrupted. Exiting...");
+        } finally {
+            receiverThread = null;
+
+            // the receiver stops, so a queued connect would leave a connection nobody reads from
+            reconnect.set(false);
+            close();
+        }
+    }
+
+    private void receive() throws ReceiverReadError {
+        if (recordBuffer != null) {
+            receiveBatch();
+        } else {
+            final Truffle truffle = getTruffle();
+
+            if (truffle != null) {
+                countRead();
+                final ITruffleCommand command = createCommand(truffle, networkWritingPort, filter);
+                if (command != null) {
+                    notifyListeners(command);
                 }
             }
         }
     }
 
+    /**
+     * <p>
+     *     Fetches all truffles that are ready on the socket with one native call, decodes them and sends an
+     *     {@link AddPacketDataCommand} for each of them to all listeners.
+     * </p>
+     *
+     * @throws ReceiverReadError if the native side could not read from the socket
+     */
+    private void receiveBatch() throws ReceiverReadError {
+
+        final int count = getTruffles(recordBuffer);
+
+        for (int i = 0; i < count; i++) {
+            countRead();
+
+            try {
+                final Truffle truffle = TruffleRecord.decode(recordBuffer, i * TruffleRecord.SIZE);
+                final ITruffleCommand command = createCommand(truffle, networkWritingPort, filter);
+                if (command != null) {
+                    notifyListeners(command);
+                }
+            } catch (InvalidProfinetPacket invalidProfinetPacket) {
+                countDecodeError();
+                logger.debug(invalidProfinetPacket);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
+     *
+     * <p>
+     *     If the previous connection is still being closed, the connect is queued and done by the closing thread.
+     * </p>
      */
     @Override
     public void connect() {
 
-        if (!connected) {
+        while (!state.compareAndSet(DISCONNECTED, CONNECTING)) {
 
-            try {
-                openIPC();
+            final int current = state.get();
 
-                connected = true;
+            if (current == CONNECTING || current == CONNECTED) {
+                return;
+            }
+
+            if (current != DISCONNECTED) {
+                reconnect.set(true);
+                logger.info("The previous connection is still closing, connecting afterwards.");
 
-                synchronized (this) {
-                    this.notifyAll();
+                // the connection may have been closed before the request was queued, then nobody took it
+                if (state.get() != DISCONNECTED || !reconnect.compareAndSet(true, false)) {
+                    return;
                 }
-            } catch (SnortPNPluginNotRunningException e) {
-                notifyListeners(new ReceiverErrorCommand("Snort plugin doesn't seem to be running."));
             }
         }
+
+        try {
+            openIPC();
+
+            state.set(CONNECTED);
+            LockSupport.unpark(receiverThread);
+        } catch (SnortPNPluginNotRunningException e) {
+            state.set(DISCONNECTED);
+            notifyListeners(new ReceiverErrorCommand("Snort plugin doesn't seem to be running."));
+        }
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>
+     *     Wakes up the receiver thread, which then closes the connection. This method does not wait until the
+     *     connection is closed.
+     * </p>
      */
     @Override
     public void disconnect() {
 
-        if (connected) {
-            connected = false;
+        // a queued connect is dropped, the receiver stays disconnected
+        reconnect.set(false);
 
-            synchronized (this) {
-                try {
-                    closeIPC();
-                } catch (SnortPNPluginDisconnectFailedException e) {
-                    logger.error(e);
-                    notifyListeners(new ReceiverErrorCommand("Couldn't disconnect from plugin correctly."));
-                }
-            }
+        if (!state.compareAndSet(CONNECTED, WAKING)) {
+            return;
+        }
+
+        wakeup();
+        state.set(CLOSING);
+
+        final Thread receiver = receiverThread;
+
+        if (receiver != null) {
+            LockSupport.unpark(receiver);
+        } else {
+            close();
+        }
+    }
+
+    /**
+     * <p>
+     *     Closes the connection if a disconnect was requested. Only one thread closes the connection. The native side
+     *     releases its handles even if the plugin could not be told about the disconnect. A connect that was queued
+     *     while closing is done afterwards.
+     * </p>
+     */
+    private void close() {
+
+        if (!state.compareAndSet(CLOSING, RELEASING)) {
+            return;
+        }
+
+        try {
+            closeIPC();
+        } catch (SnortPNPluginDisconnectFailedException e) {
+            logger.error(e);
+            notifyListeners(new ReceiverErrorCommand("Couldn't disconnect from plugin correctly."));
+        } finally {
+            state.set(DISCONNECTED);
+        }
+
+        if (reconnect.compareAndSet(true, false)) {
+            connect();
         }
     }
 
@@ -127,5 +293,33 @@ public class UnixSocketReceiver extends TruffleReceiver {
 
     private native void closeIPC() throws SnortPNPluginDisconnectFailedException;
 
+    /**
+     * <p>
+     *     Waits until a truffle arrives or {@link #wakeup()} is called.
+     * </p>
+     *
+     * @return The received truffle or null if the wait was interrupted.
+     * @throws ReceiverReadError if reading from the socket failed
+     */
     private native Truffle getTruffle() throws ReceiverReadError;
+
+    /**
+     * <p>
+     *     Interrupts the wait for truffles of the native side. Every following wait returns immediately until the
+     *     connection is closed.
+     * </p>
+     */
+    private native void wakeup();
+
+    /**
+     * <p>
+     *     Waits until truffles arrive or {@link #wakeup()} is called and writes every truffle that is ready on the socket as a
+     *     {@link TruffleRecord} into the supplied buffer, starting at index 0.
+     * </p>
+     *
+     * @param buffer The direct buffer to write the records to. Its capacity limits the number of records.
+     * @return The number of records written. Returns 0 if the wait was interrupted.
+     * @throws ReceiverReadError if reading from the socket failed
+     */
+    private native int getTruffles(ByteBuffer buffer) throws ReceiverReadError;
 }
\ No newline at end of file
@@ -1,8 +1,18 @@
 package edu.kit.trufflehog.service.replaylogging;
 
 import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.AggregatedPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.DuplicatePacketCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -10,6 +20,12 @@ import java.util.List;
  *     For example, if there are 50 consecutive commands in the list that all increment the same counter by 1, these 50
  *     commands are packaged into 1 command that increments the counter by 50 and then returned as a single command.
  * </p>
+ * <p>
+ *     Consecutive {@link AddPacketDataCommand}s are merged per pair of source and destination address into one
+ *     {@link AggregatedPacketDataCommand} that takes the place of the first packet of the pair. The packets of a pair
+ *     keep their order. Any other command is a barrier: it is neither merged nor moved, and packets before it are
+ *     never merged with packets after it.
+ * </p>
  */
 public class CommandCompressor {
 
@@ -30,6 +46,109 @@ public class CommandCompressor {
      * @return The compressed commands.
      */
     public List<ICommand> compressCommands(List<ICommand> commands) {
-        throw new UnsupportedOperationException("Not implemented yet!");
+        if (commands == null) throw new NullPointerException("commands must not be null");
+
+        final List<ICommand> compressed = new ArrayList<>();
+        final Map<PairKey, AggregatedPacketDataCommand> pairs = new HashMap<>();
+        final Map<MacAddress, PairKey> openKeys = new HashMap<>();
+        final Map<PairKey, DuplicatePacketCommand> duplicates = new HashMap<>();
+
+        for (final ICommand command : commands) {
+
+            if (command instanceof DuplicatePacketCommand) {
+                final DuplicatePacketCommand duplicate = (DuplicatePacketCommand) command;
+                final PairKey key = new PairKey(duplicate.getWritingPort(), null, duplicate.getSourceAddress(),
+                        duplicate.getDestAddress());
+
+                final DuplicatePacketCommand merged = duplicates.get(key);
+
+                if (merged == null) {
+                    // a new command, the commands that are passed in are not changed
+                    final DuplicatePacketCommand first = new DuplicatePacketCommand(duplicate.getWritingPort(),
+                            duplicate.getSourceAddress(), duplicate.getDestAddress(), duplicate.getCount());
+                    duplicates.put(key, first);
+                    compressed.add(first);
+                } else {
+                    merged.addCount(duplicate.getCount());
+                }
+                continue;
+            }
+
+            if (!(command instanceof AddPacketDataCommand)) {
+                pairs.clear();
+                openKeys.clear();
+                duplicates.clear();
+                compressed.add(command);
+                continue;
+            }
+
+            final AddPacketDataCommand addCommand = (AddPacketDataCommand) command;
+            final IPacketData packet = addCommand.getPacket();
+
+            final MacAddress source = packet.getAttribute(MacAddress.class, "sourceMacAddress");
+            final MacAddress dest = packet.getAttribute(MacAddress.class, "destMacAddress");
+
+            if (source == null || dest == null) {
+                compressed.add(command);
+                continue;
+            }
+
+            final PairKey key = new PairKey(addCommand.getWritingPort(), addCommand.getFilter(), source, dest);
+            final PairKey open = openKeys.put(source, key);
+
+            // another pair of the source closes the open one, a later packet of it must not move before this one
+            if (open != null && !open.equals(key)) {
+                pairs.remove(open);
+            }
+
+            AggregatedPacketDataCommand aggregated = pairs.get(key);
+
+            if (aggregated == null) {
+                aggregated = new AggregatedPacketDataCommand(addCommand.getWritingPort(), addCommand.getFilter(),
+                        source, dest);
+                pairs.put(key, aggregated);
+                compressed.add(aggregated);
+            }
+
+            aggregated.addPacket(packet);
+        }
+
+        return compressed;
+    }
+
+    /**
+     * Identifies the packets that can be merged: same devices, written to the same port and checked with the same
+     * filter.
+     */
+    private static final class PairKey {
+
+        private final INetworkWritingPort writingPort;
+        private final IFilter filter;
+        private final MacAddress source;
+        private final MacAddress dest;
+
+        private PairKey(final INetworkWritingPort writingPort, final IFilter filter, final MacAddress source,
+                        final MacAddress dest) {
+            this.writingPort = writingPort;
+            this.filter = filter;
+            this.source = source;
+            this.dest = dest;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PairKey)) return false;
+
+            final PairKey other = (PairKey) o;
+
+            return writingPort == other.writingPort && filter == other.filter
+                    && source.equals(other.source) && dest.equals(other.dest);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * source.hashCode() + dest.hashCode()) + System.identityHashCode(writingPort);
+        }
     }
 }
@@ -0,0 +1,329 @@
+package edu.kit.trufflehog.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>
+ *     A LongPairIndex maps a key of two longs to a value. It is made for lookups on the path of every packet: a lookup
+ *     takes no lock and allocates nothing, only adding a key allocates its entry.
+ * </p>
+ * <p>
+ *     The keys are spread over a fixed number of stripes. Every stripe is an open addressing table with linear probing
+ *     and its own lock, so writers of different stripes do not wait for each other. The slots of a table hold
+ *     immutable entries, which are published with a volatile write, so a reader always sees a key together with its
+ *     value. Removed entries leave a marker that is dropped when the table is rebuilt.
+ * </p>
+ * <p>
+ *     Reads are weakly consistent: a lookup that runs at the same time as a write to the same key may return the old
+ *     or the new value.
+ * </p>
+ *
+ * @param <V> The type of the values.
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class LongPairIndex<V> {
+
+    private static final int STRIPE_COUNT = 16;
+    private static final int STRIPE_SHIFT = 64 - 4;
+    private static final int MIN_CAPACITY = 16;
+
+    private static final Entry<?> REMOVED = new Entry<>(0, 0, null);
+
+    private final Stripe<V>[] stripes;
+
+    /**
+     * <p>
+     *     Creates a new empty LongPairIndex.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    public LongPairIndex() {
+        stripes = (Stripe<V>[]) new Stripe<?>[STRIPE_COUNT];
+
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * <p>
+     *     Returns the value of the key.
+     * </p>
+     *
+     * @param first The first part of the key.
+     * @param second The second part of the key.
+     * @return the value or null if the key is not in the index
+     */
+    public V get(final long first, final long second) {
+        final long hash = hash(first, second);
+        final AtomicReferenceArray<Entry<V>> table = stripes[(int) (hash >>> STRIPE_SHIFT)].table;
+        final int mask = table.length() - 1;
+
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            final Entry<V> entry = table.get(i);
+
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry != REMOVED && entry.first == first && entry.second == second) {
+                return entry.value;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Sets the value of the key.
+     * </p>
+     *
+     * @param first The first part of the key.
+     * @param second The second part of the key.
+     * @param value The value, must not be null.
+     * @return the previous value or null if the key was not in the index
+     */
+    public V put(final long first, final long second, final V value) {
+        if (value == null) throw new NullPointerException("value must not be null");
+
+        final long hash = hash(first, second);
+
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].put(hash, first, second, value, false);
+    }
+
+    /**
+     * <p>
+     *     Sets the value of the key if the key is not in the index yet.
+     * </p>
+     *
+     * @param first The first part of the key.
+     * @param second The second part of the key.
+     * @param value The value, must not be null.
+     * @return the value that is already in the index or null if the value was added
+     */
+    public V putIfAbsent(final long first, final long second, final V value) {
+        if (value == null) throw new NullPointerException("value must not be null");
+
+        final long hash = hash(first, second);
+
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].put(hash, first, second, value, true);
+    }
+
+    /**
+     * <p>
+     *     Removes the key from the index.
+     * </p>
+     *
+     * @param first The first part of the key.
+     * @param second The second part of the key.
+     * @return the value of the key or null if the key was not in the index
+     */
+    public V remove(final long first, final long second) {
+        final long hash = hash(first, second);
+
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].remove(hash, first, second);
+    }
+
+    /**
+     * @return the number of keys in the index
+     */
+    public int size() {
+        int size = 0;
+
+        for (final Stripe<V> stripe : stripes) {
+            size += stripe.size;
+        }
+
+        return size;
+    }
+
+    /**
+     * @return a copy of the values of the index in no particular order
+     */
+    public List<V> values() {
+        final List<V> values = new ArrayList<>(size());
+
+        for (final Stripe<V> stripe : stripes) {
+            final AtomicReferenceArray<Entry<V>> table = stripe.table;
+
+            for (int i = 0; i < table.length(); i++) {
+                final Entry<V> entry = table.get(i);
+
+                if (entry != null && entry != REMOVED) {
+                    values.add(entry.value);
+                }
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * <p>
+     *     Removes all keys from the index.
+     * </p>
+     */
+    public void clear() {
+        for (final Stripe<V> stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    // the top bits choose the stripe, the bottom bits the slot
+    private static long hash(final long first, final long second) {
+        long hash = first * 0x9E3779B97F4A7C15L + second;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+    private static final class Entry<V> {
+
+        private final long first;
+        private final long second;
+        private final V value;
+
+        private Entry(final long first, final long second, final V value) {
+            this.first = first;
+            this.second = second;
+            this.value = value;
+        }
+    }
+
+    private static final class Stripe<V> {
+
+        private volatile AtomicReferenceArray<Entry<V>> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+
+        // only written with the lock of the stripe
+        private volatile int size = 0;
+        private int used = 0;
+
+        private synchronized V put(final long hash, final long first, final long second, final V value,
+                                   final boolean onlyIfAbsent) {
+
+            final AtomicReferenceArray<Entry<V>> current = table;
+            final int mask = current.length() - 1;
+            int free = -1;
+
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                final Entry<V> entry = current.get(i);
+
+                if (entry == null) {
+                    break;
+                }
+
+                if (entry == REMOVED) {
+                    if (free < 0) {
+                        free = i;
+                    }
+                } else if (entry.first == first && entry.second == second) {
+                    if (!onlyIfAbsent) {
+                        current.set(i, new Entry<>(first, second, value));
+                    }
+
+                    return entry.value;
+                }
+
+                if (i == (((int) hash - 1) & mask)) {
+                    // every slot was checked, cannot happen while the table is at most half full
+                    break;
+                }
+            }
+
+            if (free >= 0) {
+                // reuse the slot of a removed entry, the number of used slots does not change
+                current.set(free, new Entry<>(first, second, value));
+                size = size + 1;
+
+                return null;
+            }
+
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                if (current.get(i) == null) {
+                    current.set(i, new Entry<>(first, second, value));
+                    break;
+                }
+            }
+
+            size = size + 1;
+            used++;
+
+            if (used * 2 > current.length()) {
+                rebuild();
+            }
+
+            return null;
+        }
+
+        private synchronized V remove(final long hash, final long first, final long second) {
+
+            final AtomicReferenceArray<Entry<V>> current = table;
+            final int mask = current.length() - 1;
+
+            for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                final Entry<V> entry = current.get(i);
+
+                if (entry == null) {
+                    return null;
+                }
+
+                if (entry != REMOVED && entry.first == first && entry.second == second) {
+                    current.set(i, removed());
+                    size = size - 1;
+
+                    return entry.value;
+                }
+            }
+        }
+
+        private synchronized void clear() {
+            table = new AtomicReferenceArray<>(MIN_CAPACITY);
+            size = 0;
+            used = 0;
+        }
+
+        // copies the entries into a table that is at most a quarter full, the readers switch over with the volatile write
+        private void rebuild() {
+            int capacity = MIN_CAPACITY;
+
+            while (capacity < size * 4) {
+                capacity <<= 1;
+            }
+
+            final AtomicReferenceArray<Entry<V>> current = table;
+            final AtomicReferenceArray<Entry<V>> rebuilt = new AtomicReferenceArray<>(capacity);
+            final int mask = capacity - 1;
+
+            for (int i = 0; i < current.length(); i++) {
+                final Entry<V> entry = current.get(i);
+
+                if (entry == null || entry == REMOVED) {
+                    continue;
+                }
+
+                int slot = (int) hash(entry.first, entry.second) & mask;
+
+                while (rebuilt.get(slot) != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                rebuilt.set(slot, entry);
+            }
+
+            table = rebuilt;
+            used = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> Entry<V> removed() {
+            return (Entry<V>) REMOVED;
+        }
+    }
+}
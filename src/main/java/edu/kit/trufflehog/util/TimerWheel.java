@@ -0,0 +1,242 @@
+package edu.kit.trufflehog.util;
+
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     A TimerWheel holds items that expire at a deadline. Scheduling and cancelling an item and expiring it cost a
+ *     constant time, no matter how many items the wheel holds, so the wheel can keep one timeout for every device and
+ *     connection of a network.
+ * </p>
+ * <p>
+ *     Time is divided into ticks. The wheel has four levels of 64 slots each. The first level holds the items of the
+ *     next 64 ticks, one slot per tick, and every higher level covers 64 times the span of the level below. When the
+ *     wheel reaches the slot of a higher level, its items move down to the levels below, and the items of a first
+ *     level slot expire when the wheel reaches it. Items that are due after the span of the wheel wait in the highest
+ *     slot it reaches last and are placed again from there.
+ * </p>
+ * <p>
+ *     The wheel is not thread safe. It is meant to be driven by a single timer thread.
+ * </p>
+ *
+ * @param <T> The type of the items.
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class TimerWheel<T> {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final long originMillis;
+
+    // one sentinel per slot, the slots of a level follow each other
+    private final Timeout<T>[] buckets;
+
+    private long currentTick = 0;
+    private int size = 0;
+
+    /**
+     * <p>
+     *     Creates a new TimerWheel.
+     * </p>
+     *
+     * @param tickMillis The length of a tick in milliseconds. Items expire at most one tick after their deadline.
+     * @param startMillis The time the wheel starts at.
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(final long tickMillis, final long startMillis) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+
+        this.tickMillis = tickMillis;
+        this.originMillis = startMillis;
+        this.buckets = (Timeout<T>[]) new Timeout<?>[LEVELS * SLOTS];
+
+        for (int i = 0; i < buckets.length; i++) {
+            final Timeout<T> sentinel = new Timeout<>(null, 0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            buckets[i] = sentinel;
+        }
+    }
+
+    /**
+     * <p>
+     *     Schedules an item. An item whose deadline passed already expires with the next tick.
+     * </p>
+     *
+     * @param item The item to schedule.
+     * @param deadlineMillis The time the item expires at.
+     * @return the timeout of the item, which can be used to cancel it
+     */
+    public Timeout<T> schedule(final T item, final long deadlineMillis) {
+        if (item == null) throw new NullPointerException("item must not be null");
+
+        // round up, an item never expires before its deadline
+        final long deadlineTick = Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis);
+        final Timeout<T> timeout = new Timeout<>(item, Math.max(deadlineTick, currentTick + 1));
+
+        place(timeout);
+        size++;
+
+        return timeout;
+    }
+
+    /**
+     * <p>
+     *     Cancels a timeout, its item does not expire anymore.
+     * </p>
+     *
+     * @param timeout The timeout to cancel.
+     * @return true if the timeout was still scheduled
+     */
+    public boolean cancel(final Timeout<T> timeout) {
+        if (timeout == null) throw new NullPointerException("timeout must not be null");
+
+        if (timeout.next == null) {
+            return false;
+        }
+
+        unlink(timeout);
+        size--;
+
+        return true;
+    }
+
+    /**
+     * <p>
+     *     Moves the wheel to the given time and hands every item that expired on the way to the consumer. The consumer
+     *     may schedule items again.
+     * </p>
+     *
+     * @param nowMillis The current time.
+     * @param expired The consumer of the expired items.
+     * @return the number of expired items
+     */
+    public int advance(final long nowMillis, final Consumer<? super T> expired) {
+        if (expired == null) throw new NullPointerException("expired must not be null");
+
+        final long targetTick = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        int count = 0;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // the higher levels move their items down before the first level expires its slot
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (level * SLOT_BITS)) - 1)) == 0) {
+                    cascade(level, (int) (currentTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+                }
+            }
+
+            final Timeout<T> sentinel = buckets[(int) currentTick & SLOT_MASK];
+
+            while (sentinel.next != sentinel) {
+                final Timeout<T> timeout = sentinel.next;
+                unlink(timeout);
+
+                size--;
+                count++;
+                expired.accept(timeout.item);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the number of scheduled items
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(final int level, final int slot) {
+        final Timeout<T> sentinel = buckets[level * SLOTS + slot];
+        Timeout<T> timeout = sentinel.next;
+
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+
+        while (timeout != sentinel) {
+            final Timeout<T> next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(final Timeout<T> timeout) {
+        final long tick = Math.max(timeout.deadlineTick, currentTick);
+        int index = -1;
+
+        // the lowest level whose current span contains the tick
+        for (int level = 0; level < LEVELS - 1 && index < 0; level++) {
+            if ((tick >>> ((level + 1) * SLOT_BITS)) == (currentTick >>> ((level + 1) * SLOT_BITS))) {
+                index = level * SLOTS + ((int) (tick >>> (level * SLOT_BITS)) & SLOT_MASK);
+            }
+        }
+
+        if (index < 0) {
+            // the highest level, ticks beyond its span wait in the slot it reaches last
+            final int shift = (LEVELS - 1) * SLOT_BITS;
+            final long ahead = Math.min((tick >>> shift) - (currentTick >>> shift), SLOTS - 1);
+
+            index = (LEVELS - 1) * SLOTS + ((int) ((currentTick >>> shift) + ahead) & SLOT_MASK);
+        }
+
+        final Timeout<T> sentinel = buckets[index];
+
+        timeout.prev = sentinel.prev;
+        timeout.next = sentinel;
+        sentinel.prev.next = timeout;
+        sentinel.prev = timeout;
+    }
+
+    private static <T> void unlink(final Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.next = null;
+        timeout.prev = null;
+    }
+
+    /**
+     * <p>
+     *     The Timeout of an item in a {@link TimerWheel}.
+     * </p>
+     *
+     * @param <T> The type of the item.
+     */
+    public static final class Timeout<T> {
+
+        private final T item;
+        private final long deadlineTick;
+
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(final T item, final long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * @return the item of the timeout
+         */
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * @return true if the item is still waiting to expire
+         */
+        public boolean isScheduled() {
+            return next != null;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package edu.kit.trufflehog.util.bindings;
+
+import javafx.animation.AnimationTimer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     The FrameUpdateBridge moves changes of the graph to the scene graph once per frame. The model threads mark an
+ *     element as added or changed together with the action that shows the change, and the bridge runs the actions on
+ *     the fx thread when the next frame is drawn. An element is marked at most once until its action ran, so an edge
+ *     that carries thousands of packets between two frames is animated once.
+ * </p>
+ * <p>
+ *     Every frame runs actions for at most the frame budget. The actions that do not fit wait for the next frame, so
+ *     the fx thread keeps drawing and handling input when the network grows faster than the scene graph. Added
+ *     elements are shown in the order they were marked, so an edge never appears before its nodes. The additions may
+ *     use half of the budget, the changes get the other half, so the shown elements keep being updated while the
+ *     network grows. A change of an element that was not added yet runs right after its addition.
+ * </p>
+ * <p>
+ *     Removals have a channel of their own. A removal is marked for the removed instance and can not be replaced by
+ *     the change or the addition of an equal element, it runs after the changes and never before the addition of the
+ *     instance.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class FrameUpdateBridge {
+
+    private static final Logger logger = LogManager.getLogger(FrameUpdateBridge.class);
+
+    /** The default time a frame may spend on the marked actions. */
+    public static final long DEFAULT_FRAME_BUDGET_MILLIS = 8;
+
+    private final long frameBudgetNanos;
+
+    private final Queue<Object> addedOrder = new ConcurrentLinkedQueue<>();
+    private final Map<Object, Runnable> added = new ConcurrentHashMap<>();
+
+    private final Queue<Object> changedOrder = new ConcurrentLinkedQueue<>();
+    private final Map<Object, Runnable> changed = new ConcurrentHashMap<>();
+
+    private final Queue<Removal> removedOrder = new ConcurrentLinkedQueue<>();
+    private final Set<Object> removed = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private AnimationTimer timer = null;
+
+    private static final class Holder {
+        private static final FrameUpdateBridge INSTANCE = new FrameUpdateBridge(
+                TimeUnit.MILLISECONDS.toNanos(DEFAULT_FRAME_BUDGET_MILLIS));
+    }
+
+    /**
+     * <p>
+     *     Creates a new FrameUpdateBridge.
+     * </p>
+     *
+     * @param frameBudgetNanos The time in nanoseconds a frame may spend on the marked actions.
+     */
+    FrameUpdateBridge(final long frameBudgetNanos) {
+        if (frameBudgetNanos < 0) throw new IllegalArgumentException("frameBudgetNanos must not be negative");
+
+        this.frameBudgetNanos = frameBudgetNanos;
+    }
+
+    /**
+     * @return the FrameUpdateBridge of the application
+     */
+    public static FrameUpdateBridge getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * <p>
+     *     Marks an element as added. The action is run once on the fx thread, an element that is marked again before
+     *     its action ran keeps the first action.
+     * </p>
+     *
+     * @param element The added element.
+     * @param action The action that adds the element to the scene graph.
+     */
+    public void added(final Object element, final Runnable action) {
+        if (element == null) throw new NullPointerException("element must not be null");
+        if (action == null) throw new NullPointerException("action must not be null");
+
+        if (added.putIfAbsent(element, action) == null) {
+            addedOrder.offer(element);
+        }
+    }
+
+    /**
+     * <p>
+     *     Marks an element as changed. The action is run once on the fx thread, an element that is marked again before
+     *     its action ran keeps its place and the latest action.
+     * </p>
+     *
+     * @param element The changed element.
+     * @param action The action that shows the change in the scene graph.
+     */
+    public void changed(final Object element, final Runnable action) {
+        if (element == null) throw new NullPointerException("element must not be null");
+        if (action == null) throw new NullPointerException("action must not be null");
+
+        if (changed.put(element, action) == null) {
+            changedOrder.offer(element);
+        }
+    }
+
+    /**
+     * <p>
+     *     Marks an element as removed. The action is run once on the fx thread, after the addition of the same instance
+     *     if that did not run yet. An instance that is marked again before its action ran keeps the first action.
+     * </p>
+     *
+     * @param element The removed element.
+     * @param action The action that removes the element from the scene graph.
+     */
+    public void removed(final Object element, final Runnable action) {
+        if (element == null) throw new NullPointerException("element must not be null");
+        if (action == null) throw new NullPointerException("action must not be null");
+
+        if (removed.add(element)) {
+            removedOrder.offer(new Removal(element, action));
+        }
+    }
+
+    /**
+     * <p>
+     *     Starts running the marked actions once per frame. Nothing is shown before this method is called. This method
+     *     has to be called on the fx thread.
+     * </p>
+     */
+    public synchronized void start() {
+        if (timer != null) {
+            return;
+        }
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(final long now) {
+                runFrame();
+            }
+        };
+
+        timer.start();
+    }
+
+    /**
+     * <p>
+     *     Stops running the marked actions. This method has to be called on the fx thread.
+     * </p>
+     */
+    public synchronized void stop() {
+        if (timer != null) {
+            timer.stop();
+            timer = null;
+        }
+    }
+
+    /**
+     * @return the number of marked elements whose action did not run yet
+     */
+    public int getPendingCount() {
+        return added.size() + changed.size() + removed.size();
+    }
+
+    /**
+     * <p>
+     *     Runs the marked actions until the frame budget is used up. The additions run for half of the budget, then the
+     *     changes, the removals and the additions again if there is time left. At least one addition, one change and
+     *     one removal run if they are marked, so every frame makes progress on all of them.
+     * </p>
+     *
+     * @return the number of actions that ran
+     */
+    int runFrame() {
+        final long start = System.nanoTime();
+        final long deadline = start + frameBudgetNanos;
+
+        int count = runAdded(start + frameBudgetNanos / 2);
+        count += runChanged(deadline);
+        count += runRemoved(deadline);
+
+        if (System.nanoTime() - deadline < 0) {
+            count += runAdded(deadline);
+        }
+
+        return count;
+    }
+
+    private int runAdded(final long deadline) {
+        int count = 0;
+        Object element;
+
+        while ((element = addedOrder.poll()) != null) {
+            run(added.remove(element));
+            count++;
+
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    private int runChanged(final long deadline) {
+        int count = 0;
+        Object element;
+
+        while ((element = changedOrder.poll()) != null) {
+            final Runnable change = changed.remove(element);
+
+            // the element is not shown yet, its change runs together with its addition
+            if (change != null && added.computeIfPresent(element, (key, add) -> () -> {
+                add.run();
+                change.run();
+            }) != null) {
+                continue;
+            }
+
+            run(change);
+            count++;
+
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    private int runRemoved(final long deadline) {
+        int count = 0;
+        Removal removal;
+
+        while ((removal = removedOrder.poll()) != null) {
+            final Removal current = removal;
+            removed.remove(current.element);
+
+            // the addition of the instance or of an equal element is pending, the removal runs after it
+            if (added.computeIfPresent(current.element, (key, add) -> () -> {
+                add.run();
+                current.action.run();
+            }) != null) {
+                continue;
+            }
+
+            run(current.action);
+            count++;
+
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    private static void run(final Runnable action) {
+        if (action == null) {
+            return;
+        }
+
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.error("Could not show a change of the graph", e);
+        }
+    }
+
+    /**
+     * A removal together with the instance it removes.
+     */
+    private static final class Removal {
+
+        private final Object element;
+        private final Runnable action;
+
+        private Removal(final Object element, final Runnable action) {
+            this.element = element;
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package edu.kit.trufflehog.util.bindings;
+
+/**
+ * <p>
+ *     An IPublishable keeps values that are changed by the model threads and shows them in JavaFX properties. After a
+ *     change it registers itself with the {@link StatisticsPublisher}, which calls {@link #publish()} on the fx thread.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public interface IPublishable {
+
+    /**
+     * <p>
+     *     Copies the current values into the JavaFX properties. This method is only called on the fx thread.
+     * </p>
+     */
+    void publish();
+}
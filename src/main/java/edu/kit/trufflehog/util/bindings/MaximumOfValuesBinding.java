@@ -55,6 +55,33 @@ public class MaximumOfValuesBinding extends IntegerBinding implements ChangeList
         boundProperties.add(property);
     }
 
+    /**
+     * <p>
+     *     Stops following the property. The maximum is computed again from the remaining properties, because the
+     *     property may have held it.
+     * </p>
+     *
+     * @param property The property to unbind.
+     */
+    public void unbindProperty(IntegerProperty property) {
+
+        if (!boundProperties.remove(property)) {
+            return;
+        }
+
+        property.removeListener(this);
+        super.unbind(property);
+
+        max = 0;
+        boundProperties.forEach(p -> {
+            if (p.get() > max) {
+                max = p.get();
+            }
+        });
+
+        invalidate();
+    }
+
     @Override
     protected int computeValue() {
         return max;
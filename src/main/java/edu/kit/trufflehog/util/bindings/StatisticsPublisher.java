@@ -0,0 +1,146 @@
+package edu.kit.trufflehog.util.bindings;
+
+import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ *     The StatisticsPublisher moves changed statistics to the fx thread at a fixed rate. The model threads count into
+ *     primitive counters and only register the changed {@link IPublishable} here. Once per period all registered
+ *     objects are published with a single call to the fx thread, no matter how many packets changed them.
+ * </p>
+ * <p>
+ *     A new call to the fx thread is only made after the previous one ran, so the event queue of the fx thread does
+ *     not grow when it falls behind. The objects that changed in the meantime are published with the next call.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class StatisticsPublisher {
+
+    private static final Logger logger = LogManager.getLogger(StatisticsPublisher.class);
+
+    /** The default time between two publications, about 30 per second. */
+    public static final long DEFAULT_PERIOD_MILLIS = 33;
+
+    private final Executor fxExecutor;
+    private final Queue<IPublishable> changed = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean publishing = new AtomicBoolean(false);
+
+    private ScheduledFuture<?> schedule = null;
+
+    private static final class Holder {
+        private static final StatisticsPublisher INSTANCE = new StatisticsPublisher(Platform::runLater);
+    }
+
+    /**
+     * <p>
+     *     Creates a new StatisticsPublisher.
+     * </p>
+     *
+     * @param fxExecutor The executor that runs the publications on the fx thread.
+     */
+    StatisticsPublisher(final Executor fxExecutor) {
+        if (fxExecutor == null) throw new NullPointerException("fxExecutor must not be null");
+
+        this.fxExecutor = fxExecutor;
+    }
+
+    /**
+     * @return the StatisticsPublisher of the application
+     */
+    public static StatisticsPublisher getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * <p>
+     *     Registers a changed object. The object has to make sure it is registered at most once until it is
+     *     published, the publisher does not check for duplicates.
+     * </p>
+     *
+     * @param publishable The changed object.
+     */
+    public void changed(final IPublishable publishable) {
+        if (publishable == null) throw new NullPointerException("publishable must not be null");
+
+        changed.offer(publishable);
+    }
+
+    /**
+     * <p>
+     *     Starts publishing the changed objects every period. Nothing is published before this method is called.
+     * </p>
+     *
+     * @param timers The executor that triggers the publications.
+     * @param period The time between two publications.
+     * @param unit The unit of the period.
+     */
+    public synchronized void start(final ScheduledExecutorService timers, final long period, final TimeUnit unit) {
+        if (timers == null) throw new NullPointerException("timers must not be null");
+        if (unit == null) throw new NullPointerException("unit must not be null");
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+
+        if (schedule != null) {
+            throw new IllegalStateException("the publisher is already started");
+        }
+
+        schedule = timers.scheduleAtFixedRate(this::publishChanged, period, period, unit);
+    }
+
+    /**
+     * <p>
+     *     Stops publishing. Objects that changed since the last publication are not published anymore.
+     * </p>
+     */
+    public synchronized void stop() {
+        if (schedule != null) {
+            schedule.cancel(false);
+            schedule = null;
+        }
+    }
+
+    /**
+     * <p>
+     *     Hands all changed objects to the fx thread, unless the previous publication did not run yet.
+     * </p>
+     */
+    void publishChanged() {
+        if (changed.isEmpty() || !publishing.compareAndSet(false, true)) {
+            return;
+        }
+
+        final List<IPublishable> batch = new ArrayList<>();
+        IPublishable publishable;
+
+        while ((publishable = changed.poll()) != null) {
+            batch.add(publishable);
+        }
+
+        fxExecutor.execute(() -> {
+            try {
+                for (final IPublishable item : batch) {
+                    try {
+                        item.publish();
+                    } catch (RuntimeException e) {
+                        logger.error("Could not publish " + item, e);
+                    }
+                }
+            } finally {
+                publishing.set(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package edu.kit.trufflehog.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     A LatencyHistogram counts durations in nanoseconds in buckets of powers of two. Recording a duration increments
+ *     one bucket and never allocates, so the histogram can be updated for every command. The price is precision: a
+ *     percentile is only known up to the bucket it falls into and is reported as the upper bound of that bucket.
+ * </p>
+ * <p>
+ *     Any number of threads may record durations at the same time.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    // bucket i counts the durations in [2^i, 2^(i+1)), bucket 0 also counts durations below 1ns
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * <p>
+     *     Records a duration. Negative durations are recorded as 0.
+     * </p>
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+
+        buckets.incrementAndGet(bucket(value));
+        sum.add(value);
+
+        long current = max.get();
+
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * <p>
+     *     Creates a snapshot of the histogram. The snapshot is not atomic: durations that are recorded meanwhile may be
+     *     counted in some of its values only.
+     * </p>
+     *
+     * @return the snapshot
+     */
+    public LatencySnapshot snapshot() {
+        final long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+
+        final long maxNanos = max.get();
+
+        return new LatencySnapshot(total, total == 0 ? 0 : sum.sum() / total,
+                percentile(counts, total, 0.5, maxNanos),
+                percentile(counts, total, 0.9, maxNanos),
+                percentile(counts, total, 0.99, maxNanos),
+                maxNanos);
+    }
+
+    private static long percentile(final long[] counts, final long total, final double quantile, final long maxNanos) {
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+
+            if (seen >= rank) {
+                // the upper bound of the bucket, but never more than the largest recorded duration
+                return i >= BUCKET_COUNT - 2 ? maxNanos : Math.min(maxNanos, (1L << (i + 1)) - 1);
+            }
+        }
+
+        return maxNanos;
+    }
+
+    private static int bucket(final long nanos) {
+        return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+}
@@ -0,0 +1,90 @@
+package edu.kit.trufflehog.util.metrics;
+
+/**
+ * <p>
+ *     A LatencySnapshot holds the values of a {@link LatencyHistogram} at one point in time. All durations are in
+ *     nanoseconds. The percentiles are the upper bounds of the buckets they fall into.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public final class LatencySnapshot {
+
+    private final long count;
+    private final long mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    /**
+     * <p>
+     *     Creates a new LatencySnapshot.
+     * </p>
+     *
+     * @param count The number of recorded durations.
+     * @param mean The mean duration.
+     * @param p50 The median duration.
+     * @param p90 The 90th percentile.
+     * @param p99 The 99th percentile.
+     * @param max The longest recorded duration.
+     */
+    public LatencySnapshot(final long count, final long mean, final long p50, final long p90, final long p99,
+                           final long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean duration in nanoseconds
+     */
+    public long getMeanNanos() {
+        return mean;
+    }
+
+    /**
+     * @return the median duration in nanoseconds
+     */
+    public long getP50Nanos() {
+        return p50;
+    }
+
+    /**
+     * @return the 90th percentile in nanoseconds
+     */
+    public long getP90Nanos() {
+        return p90;
+    }
+
+    /**
+     * @return the 99th percentile in nanoseconds
+     */
+    public long getP99Nanos() {
+        return p99;
+    }
+
+    /**
+     * @return the longest recorded duration in nanoseconds
+     */
+    public long getMaxNanos() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + " mean=" + mean + "ns p50=" + p50 + "ns p90=" + p90 + "ns p99=" + p99
+                + "ns max=" + max + "ns";
+    }
+}
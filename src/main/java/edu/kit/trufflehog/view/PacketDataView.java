@@ -138,15 +138,15 @@ public class PacketDataView extends AnchorPaneController<PacketDataInteraction>
         MacAddress destMacAddress = packetData.getAttribute(MacAddress.class, "destMacAddress");
         IPAddress srcIPAddress = packetData.getAttribute(IPAddress.class, "sourceIPAddress");
         IPAddress destIPAddress = packetData.getAttribute(IPAddress.class, "destIPAddress");
-        String nameOfStation = packetData.getAttribute(String.class, "nameOfStation");
-        Short etherType = packetData.getAttribute(Short.class, "etherType");
+        String nameOfStation = packetData.getAttribute(String.class, "deviceName");
+        Integer etherType = packetData.getAttribute(Integer.class, "etherType");
         Integer serviceID = packetData.getAttribute(Integer.class, "serviceID");
         String serviceIDName = packetData.getAttribute(String.class, "serviceIDName");
         Integer serviceType = packetData.getAttribute(Integer.class, "serviceType");
         String serviceTypeName = packetData.getAttribute(String.class, "serviceTypeName");
         Long xid = packetData.getAttribute(Long.class, "xid");
         Integer responseDelay = packetData.getAttribute(Integer.class, "responseDelay");
-        Integer isResponse = packetData.getAttribute(Integer.class, "isResponse");
+        Boolean isResponse = packetData.getAttribute(Boolean.class, "isResponse");
 
         if (timeOfArrival != null) {
             Date date = new Date(timeOfArrival);
@@ -29,9 +29,11 @@ import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComp
 import edu.kit.trufflehog.model.network.graph.components.edge.IEdgeRenderer;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.presenter.ThreadPools;
 import edu.kit.trufflehog.util.IListener;
 import edu.kit.trufflehog.util.INotifier;
 import edu.kit.trufflehog.util.Notifier;
+import edu.kit.trufflehog.util.bindings.FrameUpdateBridge;
 import edu.kit.trufflehog.util.bindings.MyBindings;
 import edu.kit.trufflehog.view.controllers.IViewController;
 import edu.uci.ics.jung.algorithms.layout.FRLayout2;
@@ -69,8 +71,6 @@ import java.awt.RenderingHints;
 import java.awt.event.ItemListener;
 import java.awt.geom.Point2D;
 import java.util.*;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 /**
  * \brief
@@ -106,6 +106,9 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
     private final Map<GraphInteraction, IUserCommand> interactionMap =
             new EnumMap<>(GraphInteraction.class);
 
+    /** The labels of the shown nodes, only used on the fx thread. **/
+    private final Map<INode, Label> nodeLabels = new IdentityHashMap<>();
+
     private ObservableLayout<INode, IConnection> layout;
 
     private INetworkViewPort port;
@@ -185,19 +188,20 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
         //this.layout.getGraph().getVertices().forEach(v -> Platform.runLater(() -> this.initVertex(v)));
         //this.layout.getGraph().getEdges().forEach(e -> Platform.runLater(() -> this.initEdge(e)));
 
-        this.layout.getObservableGraph().addGraphEventListener(e -> {
+        // the graph events are shown once per frame, an edge that changes many times between two frames is animated once
+        final FrameUpdateBridge bridge = FrameUpdateBridge.getInstance();
 
-            //Platform.runLater(() -> {
+        this.layout.getObservableGraph().addGraphEventListener(e -> {
 
                 switch (e.getType()) {
                     case VERTEX_ADDED:
                         final INode node = ((GraphEvent.Vertex<INode, IConnection>) e).getVertex();
-                        Platform.runLater(() -> initVertex(node));
+                        bridge.added(node, () -> initVertex(node));
                         break;
 
                     case EDGE_ADDED:
                         final IConnection edge = ((GraphEvent.Edge<INode, IConnection>) e).getEdge();
-                        Platform.runLater(() -> initEdge(edge));
+                        bridge.added(edge, () -> initEdge(edge));
                         break;
 
                     case VERTEX_CHANGED:
@@ -205,10 +209,19 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
 
                     case EDGE_CHANGED:
                         final IConnection changedEdge = ((GraphEvent.Edge<INode, IConnection>) e).getEdge();
-                        Platform.runLater(() -> changedEdge.getComponent(ViewComponent.class).getRenderer().animate());
+                        bridge.changed(changedEdge, () -> changedEdge.getComponent(ViewComponent.class).getRenderer().animate());
+                        break;
+
+                    case VERTEX_REMOVED:
+                        final INode removedNode = ((GraphEvent.Vertex<INode, IConnection>) e).getVertex();
+                        bridge.removed(removedNode, () -> removeVertex(removedNode));
+                        break;
+
+                    case EDGE_REMOVED:
+                        final IConnection removedEdge = ((GraphEvent.Edge<INode, IConnection>) e).getEdge();
+                        bridge.removed(removedEdge, () -> removeEdge(removedEdge));
                         break;
                 }
-            //});
         });
 
 
@@ -421,6 +434,32 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
         nodeShape.addEventFilter(MouseEvent.MOUSE_CLICKED, nodeGestures.getOnMouseClickedEventHandler(vertex));
 
         canvas.getChildren().addAll(nodeLabel, nodeShape);
+        nodeLabels.put(vertex, nodeLabel);
+    }
+
+    synchronized
+    private void removeEdge(IConnection edge) {
+
+        final IRenderer renderer = edge.getComponent(ViewComponent.class).getRenderer();
+
+        if (renderer instanceof IEdgeRenderer) {
+            final IEdgeRenderer edgeRenderer = (IEdgeRenderer) renderer;
+            canvas.getChildren().removeAll(edgeRenderer.getArrowShape(), edgeRenderer.getLine());
+        }
+
+        canvas.getChildren().remove(renderer.getShape());
+    }
+
+    synchronized
+    private void removeVertex(INode vertex) {
+
+        final Label nodeLabel = nodeLabels.remove(vertex);
+
+        if (nodeLabel != null) {
+            canvas.getChildren().remove(nodeLabel);
+        }
+
+        canvas.getChildren().remove(vertex.getComponent(ViewComponent.class).getRenderer().getShape());
     }
 
     synchronized
@@ -438,13 +477,14 @@ public class FXVisualizationViewer extends Pane implements VisualizationServer<I
 
             //layout.set
 
-        final Executor layouter = Executors.newSingleThreadExecutor();
+        // A new layout replaces the one that is still running, so refreshing again and again does not pile up threads.
+        final ObservableLayout<INode, IConnection> current = layout;
 
-        layouter.execute(() -> {
+        ThreadPools.getInstance().submitReplacing(ThreadPools.Pool.LAYOUT, this, () -> {
 
-            while (!layout.done()) {
-                layout.step();
-                Platform.runLater(this::repaint);
+            while (!current.done() && !Thread.currentThread().isInterrupted()) {
+                current.step();
+                FrameUpdateBridge.getInstance().changed(this, this::repaint);
             }
 
         });
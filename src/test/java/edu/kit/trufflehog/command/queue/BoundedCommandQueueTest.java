@@ -0,0 +1,156 @@
+package edu.kit.trufflehog.command.queue;
+
+import edu.kit.trufflehog.command.ICommand;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     Test for the {@link BoundedCommandQueue} class.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class BoundedCommandQueueTest {
+
+    private CommandQueueManager manager;
+    private ICommand[] commands;
+
+    @Before
+    public void setUp() {
+        manager = new CommandQueueManager();
+        commands = new ICommand[10];
+
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = mock(ICommand.class);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructionWithInvalidCapacity() throws Exception {
+        new BoundedCommandQueue(manager, 0, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * <p>
+     *     A full queue with the drop newest policy keeps the commands it already has.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testDropNewest() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(manager, 4, OverflowPolicy.DROP_NEWEST);
+
+        for (final ICommand command : commands) {
+            queue.push(command);
+        }
+
+        assertEquals(4, queue.size());
+        assertEquals(6, queue.getDroppedCount());
+
+        for (int i = 0; i < 4; i++) {
+            assertSame(commands[i], manager.getNextQueue().pop());
+        }
+
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+    }
+
+    /**
+     * <p>
+     *     A full queue with the drop oldest policy keeps the newest commands.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testDropOldest() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(manager, 4, OverflowPolicy.DROP_OLDEST);
+
+        for (final ICommand command : commands) {
+            queue.push(command);
+        }
+
+        assertEquals(4, queue.size());
+        assertEquals(6, queue.getDroppedCount());
+
+        for (int i = 6; i < 10; i++) {
+            assertSame(commands[i], manager.getNextQueue().pop());
+        }
+
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * <p>
+     *     A half full queue with the sample policy accepts only every n-th command and drops commands once it is full.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testSample() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(manager, 4, OverflowPolicy.SAMPLE, 3);
+
+        for (final ICommand command : commands) {
+            queue.push(command);
+        }
+
+        // commands 0 and 1 fill half of the queue, then only commands 4 and 7 are accepted
+        assertEquals(4, queue.size());
+        assertEquals(6, queue.getSampledOutCount());
+        assertEquals(0, queue.getDroppedCount());
+
+        assertSame(commands[0], manager.getNextQueue().pop());
+        assertSame(commands[1], manager.getNextQueue().pop());
+        assertSame(commands[4], manager.getNextQueue().pop());
+        assertSame(commands[7], manager.getNextQueue().pop());
+    }
+
+    /**
+     * <p>
+     *     A full queue with the block policy blocks the pushing thread until a command was popped.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testBlock() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(manager, 2, OverflowPolicy.BLOCK);
+
+        queue.push(commands[0]);
+        queue.push(commands[1]);
+
+        final CountDownLatch pushed = new CountDownLatch(1);
+
+        final Thread producer = new Thread(() -> {
+            try {
+                queue.push(commands[2]);
+                pushed.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        assertFalse(pushed.await(100, TimeUnit.MILLISECONDS));
+
+        assertSame(commands[0], manager.getNextQueue().pop());
+
+        assertTrue(pushed.await(5, TimeUnit.SECONDS));
+        assertEquals(2, queue.size());
+        assertEquals(0, queue.getDroppedCount());
+
+        assertSame(commands[1], manager.getNextQueue().pop());
+        assertSame(commands[2], manager.getNextQueue().pop());
+
+        producer.join();
+    }
+}
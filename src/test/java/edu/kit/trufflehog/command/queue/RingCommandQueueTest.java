@@ -0,0 +1,277 @@
+package edu.kit.trufflehog.command.queue;
+
+import edu.kit.trufflehog.command.ICommand;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     Test for the {@link RingCommandQueue} class.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class RingCommandQueueTest {
+
+    private CommandQueueManager manager;
+    private ICommand[] commands;
+
+    @Before
+    public void setUp() {
+        manager = new CommandQueueManager();
+        commands = new ICommand[10];
+
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = mock(ICommand.class);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructionWithDropOldest() throws Exception {
+        new RingCommandQueue(manager, 4, OverflowPolicy.DROP_OLDEST);
+    }
+
+    @Test
+    public void testCapacityIsRoundedUp() throws Exception {
+        assertEquals(8, new RingCommandQueue(manager, 5, OverflowPolicy.BLOCK).getCapacity());
+        assertEquals(8, new RingCommandQueue(manager, 8, OverflowPolicy.BLOCK).getCapacity());
+        assertEquals(1, new RingCommandQueue(manager, 1, OverflowPolicy.BLOCK).getCapacity());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testPopOnEmptyQueue() throws Exception {
+        new RingCommandQueue(manager, 4, OverflowPolicy.BLOCK).pop();
+    }
+
+    /**
+     * <p>
+     *     The ring is reused many times over, the commands have to come out in the order they were pushed.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testFirstInFirstOutAcrossWraps() throws Exception {
+        final RingCommandQueue queue = new RingCommandQueue(manager, 4, OverflowPolicy.BLOCK);
+
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                queue.push(commands[(round + i) % commands.length]);
+            }
+
+            assertEquals(3, queue.size());
+
+            for (int i = 0; i < 3; i++) {
+                assertSame(commands[(round + i) % commands.length], manager.getNextQueue().pop());
+            }
+
+            assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+        final RingCommandQueue queue = new RingCommandQueue(manager, 4, OverflowPolicy.DROP_NEWEST);
+
+        for (final ICommand command : commands) {
+            queue.push(command);
+        }
+
+        assertEquals(4, queue.size());
+        assertEquals(6, queue.getDroppedCount());
+
+        for (int i = 0; i < 4; i++) {
+            assertSame(commands[i], manager.getNextQueue().pop());
+        }
+    }
+
+    @Test
+    public void testSample() throws Exception {
+        final RingCommandQueue queue = new RingCommandQueue(manager, 4, OverflowPolicy.SAMPLE, 3);
+
+        for (final ICommand command : commands) {
+            queue.push(command);
+        }
+
+        assertEquals(4, queue.size());
+        assertEquals(6, queue.getSampledOutCount());
+
+        assertSame(commands[0], manager.getNextQueue().pop());
+        assertSame(commands[1], manager.getNextQueue().pop());
+        assertSame(commands[4], manager.getNextQueue().pop());
+        assertSame(commands[7], manager.getNextQueue().pop());
+    }
+
+    /**
+     * <p>
+     *     Draining stops at the limit and the manager only waits once all drained commands were counted.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testDrain() throws Exception {
+        final RingCommandQueue queue = new RingCommandQueue(manager, 16, OverflowPolicy.BLOCK);
+
+        for (final ICommand command : commands) {
+            queue.push(command);
+        }
+
+        final List<ICommand> drained = new ArrayList<>();
+
+        assertEquals(4, manager.getNextQueue().drain(drained::add, 4));
+        assertEquals(6, manager.getNextQueue().drain(drained::add, 100));
+        assertEquals(0, queue.drain(drained::add, 100));
+
+        for (int i = 0; i < commands.length; i++) {
+            assertSame(commands[i], drained.get(i));
+        }
+
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * <p>
+     *     This test checks if a timed drain hands over the time the commands were pushed, including a time that was
+     *     given explicitly.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testDrainTimed() throws Exception {
+        final RingCommandQueue queue = new RingCommandQueue(manager, 4, OverflowPolicy.BLOCK);
+
+        final long before = System.nanoTime();
+        queue.push(commands[0]);
+        final long after = System.nanoTime();
+        queue.push(commands[1], 42L);
+
+        final List<Long> enqueueTimes = new ArrayList<>();
+
+        assertEquals(2, queue.drainTimed((command, enqueueTime) -> enqueueTimes.add(enqueueTime), 4));
+
+        assertTrue(enqueueTimes.get(0) >= before && enqueueTimes.get(0) <= after);
+        assertEquals(42L, (long) enqueueTimes.get(1));
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        final RingCommandQueue queue = new RingCommandQueue(manager, 2, OverflowPolicy.BLOCK);
+
+        queue.push(commands[0]);
+        queue.push(commands[1]);
+
+        final CountDownLatch pushed = new CountDownLatch(1);
+
+        final Thread producer = new Thread(() -> {
+            try {
+                queue.push(commands[2]);
+                pushed.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+
+        assertFalse(pushed.await(100, TimeUnit.MILLISECONDS));
+
+        assertSame(commands[0], manager.getNextQueue().pop());
+
+        assertTrue(pushed.await(5, TimeUnit.SECONDS));
+
+        assertSame(commands[1], manager.getNextQueue().pop());
+        assertSame(commands[2], manager.getNextQueue().pop());
+
+        producer.join();
+    }
+
+    @Test
+    public void testManyProducersWithPark() throws Exception {
+        testManyProducers(WaitStrategy.PARK);
+    }
+
+    @Test
+    public void testManyProducersWithYield() throws Exception {
+        testManyProducers(WaitStrategy.YIELD);
+    }
+
+    @Test
+    public void testManyProducersWithSpin() throws Exception {
+        testManyProducers(WaitStrategy.SPIN);
+    }
+
+    /**
+     * <p>
+     *     Several producers push into a small blocking ring. Every command has to arrive exactly once and the commands
+     *     of each producer have to arrive in the order they were pushed.
+     * </p>
+     */
+    private void testManyProducers(final WaitStrategy waitStrategy) throws Exception {
+        final CommandQueueManager manager = new CommandQueueManager(waitStrategy);
+        final RingCommandQueue queue = new RingCommandQueue(manager, 64, OverflowPolicy.BLOCK);
+
+        final int producers = 4;
+        final int perProducer = 5000;
+
+        final Thread[] threads = new Thread[producers];
+
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+
+            threads[p] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.push(new SequenceCommand(producer, i));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[p].start();
+        }
+
+        final int[] next = new int[producers];
+
+        for (int received = 0; received < producers * perProducer; ) {
+            received += manager.getNextQueue().drain(command -> {
+                final SequenceCommand sequenceCommand = (SequenceCommand) command;
+
+                assertEquals(next[sequenceCommand.producer], sequenceCommand.sequence);
+                next[sequenceCommand.producer]++;
+            }, 32);
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    private static final class SequenceCommand implements ICommand {
+
+        private final int producer;
+        private final int sequence;
+
+        private SequenceCommand(final int producer, final int sequence) {
+            this.producer = producer;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void execute() {
+        }
+    }
+}
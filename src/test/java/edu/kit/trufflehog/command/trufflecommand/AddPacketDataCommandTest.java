@@ -7,6 +7,11 @@ import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.network.*;
 import edu.kit.trufflehog.model.network.graph.IConnection;
 import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkConnection;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.PacketDataLoggingComponent;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.Truffle;
 import org.controlsfx.tools.Platform;
@@ -56,8 +61,7 @@ public class AddPacketDataCommandTest {
     @Test
     public void addPacketCommandTest_AddOnePacketRunFine() {
         apdc.execute();
-        verify(writingPort, times(2)).writeNode(any(INode.class));
-        verify(writingPort, times(1)).writeConnection(any(IConnection.class));
+        verify(writingPort, times(1)).writeBatch(anyCollection(), anyCollection());
         // verify(any(INode.class), times(2)).getComposition().addComponent(any(MulticastNodeRendererComponent.class);
     }
 
@@ -67,6 +71,55 @@ public class AddPacketDataCommandTest {
         assertEquals("dataString", apdc.toString());
     }
 
+    @Test
+    public void addPacketCommandTest_ExistingPairIsUpdatedInPlace() {
+        final INetworkIOPort ioPort = mockExistingPair();
+        when(data.getAttribute(Boolean.class, "isResponse")).thenReturn(false);
+
+        new AddPacketDataCommand(ioPort, data, filter).execute();
+
+        verify(ioPort, never()).writeBatch(anyCollection(), anyCollection());
+        verify(filter, never()).check(any(INode.class));
+    }
+
+    @Test
+    public void addPacketCommandTest_NewNodeIsWritten() {
+        final INetworkIOPort ioPort = mockExistingPair();
+        when(ioPort.getNetworkNodeByAddress(new MacAddress(2L))).thenReturn(null);
+        when(data.getAttribute(Boolean.class, "isResponse")).thenReturn(false);
+
+        new AddPacketDataCommand(ioPort, data, filter).execute();
+
+        verify(ioPort, times(1)).writeBatch(anyCollection(), anyCollection());
+    }
+
+    @Test
+    public void addPacketCommandTest_NodeInfoIsWritten() {
+        final INetworkIOPort ioPort = mockExistingPair();
+
+        // the response carries a device name, so the filters have to check the nodes again
+        new AddPacketDataCommand(ioPort, data, filter).execute();
+
+        verify(ioPort, times(1)).writeBatch(anyCollection(), anyCollection());
+    }
+
+    private INetworkIOPort mockExistingPair() {
+        final INetworkIOPort ioPort = mock(INetworkIOPort.class);
+
+        final INode source = new NetworkNode(new MacAddress(1L), new NodeStatisticsComponent(1, 0),
+                new PacketDataLoggingComponent());
+        final INode dest = new NetworkNode(new MacAddress(2L), new NodeStatisticsComponent(0, 1),
+                new PacketDataLoggingComponent());
+        final IConnection connection = new NetworkConnection(source, dest, new EdgeStatisticsComponent(1),
+                new PacketDataLoggingComponent());
+
+        when(ioPort.getNetworkNodeByAddress(new MacAddress(1L))).thenReturn(source);
+        when(ioPort.getNetworkNodeByAddress(new MacAddress(2L))).thenReturn(dest);
+        when(ioPort.getNetworkConnectionByAddress(new MacAddress(1L), new MacAddress(2L))).thenReturn(connection);
+
+        return ioPort;
+    }
+
     @Test (expected = NullPointerException.class)
     public void addPacketCommandTest_ParamNullErroring () {
         apdc = new AddPacketDataCommand(null, null, null);
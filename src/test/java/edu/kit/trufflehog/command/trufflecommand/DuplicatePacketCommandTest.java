@@ -0,0 +1,86 @@
+package edu.kit.trufflehog.command.trufflecommand;
+
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.NetworkConnection;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link DuplicatePacketCommand} class.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class DuplicatePacketCommandTest {
+
+    private INetworkIOPort ioPort;
+    private INode source;
+    private INode dest;
+    private IConnection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        ioPort = mock(INetworkIOPort.class);
+
+        source = new NetworkNode(MacAddress.of(1), new NodeStatisticsComponent(1, 0));
+        dest = new NetworkNode(MacAddress.of(2), new NodeStatisticsComponent(0, 1));
+        connection = new NetworkConnection(source, dest, new EdgeStatisticsComponent(1));
+
+        when(ioPort.getNetworkNodeByAddress(MacAddress.of(1))).thenReturn(source);
+        when(ioPort.getNetworkNodeByAddress(MacAddress.of(2))).thenReturn(dest);
+        when(ioPort.getNetworkConnectionByAddress(MacAddress.of(1), MacAddress.of(2))).thenReturn(connection);
+    }
+
+    /**
+     * <p>
+     *     The duplicates are added to the duplicate counters of the source and the connection, the packet counts stay
+     *     the same.
+     * </p>
+     *
+     * @throws Exception
+     */
+    @Test
+    public void duplicates_are_counted_on_source_and_connection() throws Exception {
+        final DuplicatePacketCommand command = new DuplicatePacketCommand(ioPort, MacAddress.of(1), MacAddress.of(2), 2);
+        command.addCount(3);
+        command.execute();
+
+        final NodeStatisticsComponent sourceStatistics = source.getComponent(NodeStatisticsComponent.class);
+        final EdgeStatisticsComponent edgeStatistics = connection.getComponent(EdgeStatisticsComponent.class);
+
+        assertEquals(5, sourceStatistics.getDuplicateCount());
+        assertEquals(1, sourceStatistics.getOutgoingCount());
+        assertEquals(0, dest.getComponent(NodeStatisticsComponent.class).getDuplicateCount());
+        assertEquals(5, edgeStatistics.getDuplicateCount());
+        assertEquals(1, edgeStatistics.getTraffic());
+    }
+
+    /**
+     * <p>
+     *     Duplicates of a pair that is not in the network are not counted.
+     * </p>
+     *
+     * @throws Exception
+     */
+    @Test
+    public void unknown_pair_is_ignored() throws Exception {
+        new DuplicatePacketCommand(ioPort, MacAddress.of(3), MacAddress.of(2), 1).execute();
+        new DuplicatePacketCommand(mock(INetworkWritingPort.class), MacAddress.of(1), MacAddress.of(2), 1).execute();
+
+        assertEquals(0, source.getComponent(NodeStatisticsComponent.class).getDuplicateCount());
+        assertEquals(0, connection.getComponent(EdgeStatisticsComponent.class).getDuplicateCount());
+    }
+}
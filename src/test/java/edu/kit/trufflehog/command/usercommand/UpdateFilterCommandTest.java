@@ -3,11 +3,16 @@ package edu.kit.trufflehog.command.usercommand;
 import edu.kit.trufflehog.model.configdata.ConfigData;
 import edu.kit.trufflehog.model.filter.*;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.ComponentSlots;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -124,4 +129,30 @@ public class UpdateFilterCommandTest {
         verify(nwp, times(2)).applyFilter(any(IPAddressFilter.class));
         verify(macroFilter, times(2)).addFilter(any(IPAddressFilter.class));
     }
+
+    @Test
+    public void updateFilterStepwiseTest() {
+        when(filterInput.getType()).thenReturn(FilterType.NAME);
+
+        final NodeInfoComponent nodeInfo = mock(NodeInfoComponent.class);
+        final List<INode> nodes = new LinkedList<>();
+
+        for (int i = 0; i <= UpdateFilterCommand.NODES_PER_STEP; i++) {
+            final INode node = mock(INode.class);
+            when(node.getComponent(ComponentSlots.NODE_INFO, NodeInfoComponent.class)).thenReturn(nodeInfo);
+            nodes.add(node);
+        }
+
+        when(nwp.getNetworkNodes()).thenReturn(nodes);
+
+        // the last node is left for the second step
+        assertFalse(ufc.executeStep());
+        verify(nodes.get(UpdateFilterCommand.NODES_PER_STEP), times(0)).getComponent(ComponentSlots.NODE_INFO, NodeInfoComponent.class);
+
+        assertTrue(ufc.executeStep());
+        verify(nodes.get(UpdateFilterCommand.NODES_PER_STEP), times(1)).getComponent(ComponentSlots.NODE_INFO, NodeInfoComponent.class);
+
+        verify(macroFilter, times(1)).addFilter(any(NameRegexFilter.class));
+        verify(nwp, times(0)).applyFilter(any(IFilter.class));
+    }
 }
\ No newline at end of file
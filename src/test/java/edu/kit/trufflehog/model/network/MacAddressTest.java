@@ -12,6 +12,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -144,4 +145,18 @@ public class MacAddressTest {
         assertFalse("08:00:0C:C5:CC:22 should not be multicast but is", new MacAddress(0x08000CC5CC22L).isMulticast());
         assertFalse("34:33:AA:BB:BA:AB should not be multicast but is", new MacAddress(0x3433AABBBAABL).isMulticast());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void of_returns_the_same_instance_for_the_same_address() throws Exception {
+        final MacAddress first = MacAddress.of(0x0180C2000001L);
+
+        assertSame(first, MacAddress.of(0x0180C2000001L));
+        assertEquals(new MacAddress(0x0180C2000001L), first);
+        assertEquals("01:80:c2:00:00:01", first.toString());
+    }
+
+    @Test(expected = InvalidMACAddress.class)
+    public void of_throws_on_invalid_address() throws Exception {
+        MacAddress.of(-1);
+    }
+}
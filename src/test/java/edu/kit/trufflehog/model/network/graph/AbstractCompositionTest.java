@@ -4,6 +4,7 @@ import edu.kit.trufflehog.model.network.IAddress;
 import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.model.network.graph.components.ComponentInfoCollector;
 import edu.kit.trufflehog.model.network.graph.components.ComponentInfoVisitor;
+import edu.kit.trufflehog.model.network.graph.components.node.FilterPropertiesComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import org.apache.logging.log4j.LogManager;
@@ -12,6 +13,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
 /**
  * \brief
  * \details
@@ -46,16 +54,46 @@ public class AbstractCompositionTest {
     @Test
     public void testAddComponent() throws Exception {
 
+        final NodeStatisticsComponent existing = node.getComponent(NodeStatisticsComponent.class);
+
+        assertSame(existing, node.addComponent(new NodeStatisticsComponent(0, 0)));
+        assertNull(node.addComponent(new FilterPropertiesComponent()));
+        assertEquals(3, node.size());
+        assertSame(node, node.getComponent(FilterPropertiesComponent.class).getParent());
     }
 
     @Test
     public void testRemoveComponent() throws Exception {
 
+        assertNotNull(node.removeComponent(NodeInfoComponent.class));
+        assertNull(node.removeComponent(NodeInfoComponent.class));
+        assertNull(node.getComponent(NodeInfoComponent.class));
+        assertEquals(1, node.size());
     }
 
     @Test
     public void testGetComponent() throws Exception {
 
+        assertEquals(5, node.getComponent(NodeStatisticsComponent.class).getOutgoingCount());
+        assertNotNull(node.getComponent(NodeInfoComponent.class));
+        assertNull(node.getComponent(FilterPropertiesComponent.class));
+    }
+
+    @Test
+    public void testGetComponentBySlot() throws Exception {
+
+        assertSame(node.getComponent(NodeStatisticsComponent.class),
+                node.getComponent(ComponentSlots.NODE_STATISTICS, NodeStatisticsComponent.class));
+        assertSame(node.getComponent(NodeInfoComponent.class),
+                node.getComponent(ComponentSlots.NODE_INFO, NodeInfoComponent.class));
+        assertNull(node.getComponent(ComponentSlots.FILTER_PROPERTIES, FilterPropertiesComponent.class));
+        assertNull(node.getComponent(ComponentSlots.count() + 1, FilterPropertiesComponent.class));
+    }
+
+    @Test
+    public void testForEachMutableSlot() throws Exception {
+
+        node.forEachMutableSlot((component, slot) -> assertEquals(ComponentSlots.of(component.getClass()), slot));
     }
 
     @Test
@@ -129,5 +167,10 @@ public class AbstractCompositionTest {
     @Test
     public void testClear() throws Exception {
 
+        node.clear();
+
+        assertTrue(node.isEmpty());
+        assertFalse(node.iterator().hasNext());
+        assertNull(node.getComponent(NodeStatisticsComponent.class));
     }
 }
\ No newline at end of file
@@ -7,7 +7,6 @@ import edu.kit.trufflehog.model.network.graph.components.edge.BasicEdgeRenderer;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeInfoComponent;
 import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -47,15 +46,17 @@ public class LiveUpdaterTest {
         component2.setDeviceName("new name");
         component2.setIPAddress(address2);
 
-        updater.update(component1, component2);
+        assertTrue(updater.update(component1, component2));
+
+        // the information is set with the next frame
+        assertEquals(address1.toString(), component1.getIPAddress().toString());
+        component1.setStagedInfo();
 
         assertEquals("new name", component1.getDeviceName());
         assertEquals(address2.toString(), component1.getIPAddress().toString());
     }
 
     @Test
-    @Ignore
-    //TODO fix: sometimes test fails sometimes not (scheduling of runlater stuff?)
     public void update_NodeStatisticsComponent() throws Exception {
         NodeStatisticsComponent component1 = new NodeStatisticsComponent(0, 0);
         NodeStatisticsComponent component2 = new NodeStatisticsComponent(0, 0);
@@ -1,20 +1,35 @@
 package edu.kit.trufflehog.model.network.graph;
 
+import de.saxsys.javafx.test.JfxRunner;
 import edu.kit.trufflehog.model.network.INetworkIOPort;
 import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.model.network.NetworkIOPort;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
 import edu.uci.ics.jung.graph.DirectedSparseGraph;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
 import edu.uci.ics.jung.graph.util.Graphs;
+import javafx.application.Platform;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by jan on 23.02.16.
  */
+@RunWith(JfxRunner.class)
 public class NetworkIOPortTest {
 
     private INetworkIOPort port;
@@ -67,4 +82,98 @@ public class NetworkIOPortTest {
 
         assertEquals(connection, getCon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWriteBatch() throws Exception {
+
+        final INode existingNode = new NetworkNode(new MacAddress(0xffL));
+        port.writeNode(existingNode);
+
+        final INode networkNodeSrc = new NetworkNode(new MacAddress(0xffL));
+        final INode networkNodeDest = new NetworkNode(new MacAddress(0x11L));
+        final IConnection connection = new NetworkConnection(networkNodeSrc, networkNodeDest);
+
+        port.writeBatch(Arrays.asList(networkNodeSrc, networkNodeDest), Collections.singletonList(connection));
+
+        // the existing node is merged, the new node and the connection are added
+        assertEquals(2, port.getNetworkNodes().size());
+        assertSame(existingNode, port.getNetworkNodeByAddress(new MacAddress(0xffL)));
+        assertSame(networkNodeDest, port.getNetworkNodeByAddress(new MacAddress(0x11L)));
+        assertEquals(1, port.getNetworkConnections().size());
+        assertEquals(connection, port.getNetworkConnectionByAddress(new MacAddress(0xffL), new MacAddress(0x11L)));
+    }
+
+    /**
+     * <p>
+     *     A removed node leaves the graph and the address index together with its connections, and its statistics do
+     *     not count for the maximum bindings anymore.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testRemoveNode() throws Exception {
+
+        final INode source = new NetworkNode(new MacAddress(0xffL), new NodeStatisticsComponent(7, 0));
+        final INode dest = new NetworkNode(new MacAddress(0x11L), new NodeStatisticsComponent(0, 3));
+        final IConnection connection = new NetworkConnection(source, dest, new EdgeStatisticsComponent(7));
+
+        port.writeBatch(Arrays.asList(source, dest), Collections.singletonList(connection));
+        waitForFx();
+
+        assertEquals(7, port.getMaxThroughput());
+        assertEquals(7, port.getMaxConnectionSize());
+
+        assertTrue(port.removeNode(source));
+        assertFalse(port.removeNode(source));
+        waitForFx();
+
+        assertFalse(port.getGraph().containsVertex(source));
+        assertFalse(port.getGraph().containsEdge(connection));
+        assertNull(port.getNetworkNodeByAddress(new MacAddress(0xffL)));
+        assertNull(port.getNetworkConnectionByAddress(new MacAddress(0xffL), new MacAddress(0x11L)));
+        assertSame(dest, port.getNetworkNodeByAddress(new MacAddress(0x11L)));
+
+        assertEquals(3, port.getMaxThroughput());
+        assertEquals(0, port.getMaxConnectionSize());
+    }
+
+    /**
+     * <p>
+     *     A removed connection leaves the graph and the address index, its nodes stay and its traffic does not count
+     *     for the maximum binding anymore.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testRemoveConnection() throws Exception {
+
+        final INode source = new NetworkNode(new MacAddress(0xffL));
+        final INode dest = new NetworkNode(new MacAddress(0x11L));
+        final IConnection large = new NetworkConnection(source, dest, new EdgeStatisticsComponent(9));
+        final IConnection small = new NetworkConnection(dest, source, new EdgeStatisticsComponent(4));
+
+        port.writeBatch(Arrays.asList(source, dest), Arrays.asList(large, small));
+        waitForFx();
+
+        assertEquals(9, port.getMaxConnectionSize());
+
+        assertTrue(port.removeConnection(large));
+        assertFalse(port.removeConnection(large));
+        waitForFx();
+
+        assertFalse(port.getGraph().containsEdge(large));
+        assertTrue(port.getGraph().containsVertex(source));
+        assertTrue(port.getGraph().containsVertex(dest));
+        assertNull(port.getNetworkConnectionByAddress(new MacAddress(0xffL), new MacAddress(0x11L)));
+        assertSame(small, port.getNetworkConnectionByAddress(new MacAddress(0x11L), new MacAddress(0xffL)));
+
+        assertEquals(4, port.getMaxConnectionSize());
+    }
+
+    // the bindings are changed on the fx thread, this waits until the calls that are queued so far ran
+    private static void waitForFx() throws Exception {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        Platform.runLater(() -> done.complete(null));
+        done.get(5, TimeUnit.SECONDS);
+    }
+}
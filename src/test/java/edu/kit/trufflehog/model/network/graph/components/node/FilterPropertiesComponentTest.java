@@ -1,5 +1,7 @@
 package edu.kit.trufflehog.model.network.graph.components.node;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
 import edu.kit.trufflehog.model.filter.IFilter;
 import edu.kit.trufflehog.model.filter.IPAddressFilter;
 import javafx.scene.paint.Color;
@@ -66,6 +68,33 @@ public class FilterPropertiesComponentTest {
         assertEquals(0, component.getFilterColors().size());
     }
 
+    /**
+     * <p>
+     *     Staged filter colors are only added when the staged colors are added on the fx thread.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void stagedFilterColorsAreAddedLater() throws Exception {
+        FilterPropertiesComponent component = new FilterPropertiesComponent();
+        IFilter filter = Mockito.mock(IPAddressFilter.class);
+        Multimap<IFilter, Color> colors = ArrayListMultimap.create();
+        colors.put(filter, Color.CYAN);
+
+        component.stageFilterColors(colors);
+
+        assertEquals(0, component.getFilterColors().size());
+        assertFalse(component.getHasColor());
+
+        component.addStagedFilterColors();
+
+        assertTrue(component.getFilterColors().containsEntry(filter, Color.CYAN));
+        assertTrue(component.getHasColor());
+
+        component.addStagedFilterColors();
+        assertEquals(1, component.getFilterColors().size());
+    }
+
     @After
     public void tearDown() throws Exception {
 
@@ -4,11 +4,14 @@ import edu.kit.trufflehog.model.network.MacAddress;
 import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
 import edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.Truffle;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.when;
 
@@ -33,4 +36,32 @@ public class PacketDataLoggingComponentTest {
         IPacketData packetTest = component.getObservablePackets().get(0);
         assertTrue(packetTest.getAttribute(MacAddress.class, "sourceMacAddress").toString().equals((new MacAddress(123).toString())));
     }
-}
\ No newline at end of file
+
+    /**
+     * <p>
+     *     Staged packets are added to the list with a single change once the frame ran.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void stagedPacketsAreAddedAtOnce() throws Exception {
+        PacketDataLoggingComponent component = new PacketDataLoggingComponent();
+        IPacketData first = Mockito.mock(Truffle.class);
+        IPacketData second = Mockito.mock(Truffle.class);
+        int[] changes = {0};
+
+        component.getObservablePackets().addListener((ListChangeListener<IPacketData>) change -> changes[0]++);
+
+        component.stagePackets(first);
+        component.stagePackets(second);
+        assertEquals(0, component.getObservablePackets().size());
+
+        component.addStagedPackets();
+
+        assertEquals(Arrays.asList(first, second), component.getObservablePackets());
+        assertEquals(1, changes[0]);
+
+        component.addStagedPackets();
+        assertEquals(1, changes[0]);
+    }
+}
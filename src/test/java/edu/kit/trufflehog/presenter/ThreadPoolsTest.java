@@ -0,0 +1,164 @@
+package edu.kit.trufflehog.presenter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Unit tests for the {@link ThreadPools} class
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class ThreadPoolsTest {
+
+    private ThreadPools threadPools;
+
+    @Before
+    public void setUp() throws Exception {
+        threadPools = new ThreadPools();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        threadPools.shutdown(1, TimeUnit.SECONDS);
+        threadPools = null;
+    }
+
+    /**
+     * Tests that the threads are named after their pool.
+     */
+    @Test
+    public void testThreadNames() throws Exception {
+        final AtomicReference<String> name = new AtomicReference<>();
+
+        threadPools.get(ThreadPools.Pool.IO).submit(() -> name.set(Thread.currentThread().getName())).get();
+
+        assertEquals("trufflehog-io-1", name.get());
+    }
+
+    /**
+     * Tests that a job replaces the running job with the same key.
+     */
+    @Test
+    public void testSubmitReplacingCancelsPreviousJob() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+
+        final Future<?> first = threadPools.submitReplacing(ThreadPools.Pool.LAYOUT, this, () -> {
+            started.countDown();
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.yield();
+            }
+            stopped.countDown();
+        });
+
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        final AtomicInteger runs = new AtomicInteger();
+        final Future<?> second = threadPools.submitReplacing(ThreadPools.Pool.LAYOUT, this, runs::incrementAndGet);
+
+        second.get(1, TimeUnit.SECONDS);
+
+        assertTrue(first.isCancelled());
+        assertTrue(stopped.await(1, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    /**
+     * Tests that the statistics count the completed tasks of a pool.
+     */
+    @Test
+    public void testStatistics() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            threadPools.get(ThreadPools.Pool.EXECUTE).submit(() -> { }).get();
+        }
+
+        final List<ThreadPoolStatistics> pools = threadPools.getPools();
+
+        assertEquals(ThreadPools.Pool.values().length, pools.size());
+
+        final ThreadPoolStatistics execute = pools.get(ThreadPools.Pool.EXECUTE.ordinal());
+
+        assertEquals("execute", execute.getName());
+        assertEquals(ThreadPools.Pool.EXECUTE.getThreads(), execute.getMaximumPoolSize());
+        assertTrue(execute.getCompletedCount() >= 2);
+        assertEquals(0, execute.getRejectedCount());
+    }
+
+    /**
+     * Tests that a write to a full io queue waits for space and does not overtake the queued writes.
+     */
+    @Test
+    public void testFullIOQueueKeepsOrder() throws Exception {
+        final ExecutorService io = threadPools.get(ThreadPools.Pool.IO);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> writes = Collections.synchronizedList(new ArrayList<>());
+
+        io.execute(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertTrue(blocked.await(1, TimeUnit.SECONDS));
+
+        final int count = ThreadPools.Pool.IO.getQueueCapacity() + 1;
+
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                final int write = i;
+                io.execute(() -> writes.add(write));
+            }
+        });
+        writer.start();
+
+        // the last write waits for the queue and runs after all others
+        writer.join(200);
+        assertTrue(writer.isAlive());
+
+        release.countDown();
+        writer.join(1000);
+
+        assertTrue(threadPools.shutdown(1, TimeUnit.SECONDS));
+        assertEquals(count, writes.size());
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (int) writes.get(i));
+        }
+    }
+
+    /**
+     * Tests that the pending writes are done before the shutdown returns.
+     */
+    @Test
+    public void testShutdownExecutesPendingWrites() throws Exception {
+        final AtomicInteger writes = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            threadPools.get(ThreadPools.Pool.IO).execute(writes::incrementAndGet);
+        }
+
+        assertTrue(threadPools.shutdown(1, TimeUnit.SECONDS));
+        assertEquals(100, writes.get());
+    }
+}
@@ -0,0 +1,262 @@
+package edu.kit.trufflehog.service.aging;
+
+import edu.kit.trufflehog.model.network.INetworkIOPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.model.network.graph.IConnection;
+import edu.kit.trufflehog.model.network.graph.INode;
+import edu.kit.trufflehog.model.network.graph.LiveUpdater;
+import edu.kit.trufflehog.model.network.graph.NetworkConnection;
+import edu.kit.trufflehog.model.network.graph.NetworkNode;
+import edu.kit.trufflehog.model.network.graph.components.edge.EdgeStatisticsComponent;
+import edu.kit.trufflehog.model.network.graph.components.node.NodeStatisticsComponent;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.graph.ObservableUpdatableGraph;
+import edu.uci.ics.jung.graph.util.Graphs;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * <p>
+ *     This class contains all tests for the {@link NetworkAging} class. The checks are run by the tests themselves
+ *     instead of a timer thread.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class NetworkAgingTest {
+
+    private ObservableUpdatableGraph<INode, IConnection> graph;
+    private INetworkIOPort port;
+    private IExpiryArchive archive;
+    private INode source;
+    private INode dest;
+
+    @Before
+    public void setUp() throws Exception {
+        graph = new ObservableUpdatableGraph<>(Graphs.synchronizedDirectedGraph(new DirectedSparseGraph<>()),
+                new LiveUpdater());
+
+        port = mock(INetworkIOPort.class);
+        when(port.getGraph()).thenReturn(graph);
+        when(port.getNetworkNodes()).thenAnswer(invocation -> new ArrayList<>(graph.getVertices()));
+        when(port.getNetworkConnections()).thenAnswer(invocation -> new ArrayList<>(graph.getEdges()));
+
+        when(port.removeNode(any(INode.class))).thenAnswer(invocation -> removeNode(invocation.getArguments()[0]));
+        when(port.removeConnection(any(IConnection.class)))
+                .thenAnswer(invocation -> graph.removeEdge((IConnection) invocation.getArguments()[0]));
+
+        archive = mock(IExpiryArchive.class);
+
+        source = idleNode(1);
+        dest = idleNode(2);
+        graph.addVertex(source);
+        graph.addVertex(dest);
+    }
+
+    /**
+     * <p>
+     *     An idle connection and its idle nodes are removed from the network and handed to the archive, the
+     *     connection before its nodes.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void idle_elements_are_removed_and_archived() throws Exception {
+        final IConnection connection = new NetworkConnection(source, dest, idleStatistics());
+        graph.addEdge(connection, source, dest);
+
+        final NetworkAging aging = new NetworkAging(port, 5, 5);
+        aging.setArchive(archive);
+        final Runnable tick = start(aging);
+
+        runUntilEmpty(tick);
+
+        assertEquals(0, graph.getVertexCount());
+        assertEquals(0, graph.getEdgeCount());
+        assertEquals(3, aging.getExpiredCount());
+
+        final InOrder inOrder = inOrder(archive);
+        inOrder.verify(archive).archive(connection);
+        inOrder.verify(archive).archive(source);
+        verify(archive).archive(dest);
+    }
+
+    /**
+     * <p>
+     *     Connections that never expire do not keep their idle nodes in the network. They are removed together with
+     *     their nodes and still reach the archive.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void connections_without_timeout_are_removed_with_their_nodes() throws Exception {
+        final IConnection connection = new NetworkConnection(source, dest, idleStatistics());
+        graph.addEdge(connection, source, dest);
+
+        final NetworkAging aging = new NetworkAging(port, 5, 0);
+        aging.setArchive(archive);
+        final Runnable tick = start(aging);
+
+        runUntilEmpty(tick);
+
+        assertEquals(0, graph.getVertexCount());
+        assertEquals(0, graph.getEdgeCount());
+        assertEquals(3, aging.getExpiredCount());
+        verify(port, never()).removeConnection(any(IConnection.class));
+        verify(archive, times(1)).archive(connection);
+        verify(archive).archive(source);
+        verify(archive).archive(dest);
+    }
+
+    /**
+     * <p>
+     *     An idle node stays in the network as long as one of its connections is alive.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void node_waits_for_its_connections() throws Exception {
+        final IConnection connection = new NetworkConnection(source, dest, new EdgeStatisticsComponent(1));
+        graph.addEdge(connection, source, dest);
+
+        final NetworkAging aging = new NetworkAging(port, 1, 60_000);
+        aging.setArchive(archive);
+        final Runnable tick = start(aging);
+
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(2);
+            tick.run();
+        }
+
+        assertTrue(graph.containsVertex(source));
+        assertTrue(graph.containsVertex(dest));
+        assertTrue(graph.containsEdge(connection));
+        assertEquals(0, aging.getExpiredCount());
+        verify(port, never()).removeNode(any(INode.class));
+        verify(archive, never()).archive(any(INode.class));
+    }
+
+    /**
+     * <p>
+     *     A connection that was added after the last check is removed together with its node and still reaches the
+     *     archive.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void connection_removed_with_its_node_is_archived() throws Exception {
+        final IConnection late = new NetworkConnection(source, dest, idleStatistics());
+
+        final NetworkAging aging = new NetworkAging(port, 5, 5);
+        aging.setArchive(archive);
+        final Runnable tick = start(aging);
+
+        // the connection comes in after the check that expires the nodes
+        removeNodeAfter(() -> graph.addEdge(late, source, dest));
+
+        runUntilEmpty(tick);
+
+        assertEquals(0, graph.getVertexCount());
+        assertEquals(3, aging.getExpiredCount());
+        verify(archive, times(1)).archive(late);
+        verify(archive).archive(source);
+        verify(archive).archive(dest);
+    }
+
+    /**
+     * <p>
+     *     Removed elements are counted when no archive is set.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void removal_without_archive() throws Exception {
+        final NetworkAging aging = new NetworkAging(port, 5, 5);
+        final Runnable tick = start(aging);
+
+        runUntilEmpty(tick);
+
+        assertEquals(2, aging.getExpiredCount());
+    }
+
+    private Runnable start(final NetworkAging aging) {
+        final ScheduledExecutorService timers = mock(ScheduledExecutorService.class);
+        final ScheduledFuture schedule = mock(ScheduledFuture.class);
+        final ArgumentCaptor<Runnable> tick = ArgumentCaptor.forClass(Runnable.class);
+        when(timers.scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class)))
+                .thenReturn(schedule);
+
+        aging.start(timers, 1);
+
+        verify(timers).scheduleAtFixedRate(tick.capture(), eq(1L), eq(1L), eq(TimeUnit.MILLISECONDS));
+        return tick.getValue();
+    }
+
+    // runs the action in the first removal of a node, before the node is removed
+    private void removeNodeAfter(final Runnable action) {
+        final boolean[] done = {false};
+
+        doAnswer(invocation -> {
+            if (!done[0]) {
+                done[0] = true;
+                action.run();
+            }
+
+            return removeNode(invocation.getArguments()[0]);
+        }).when(port).removeNode(any(INode.class));
+    }
+
+    // removes the node like the network does, together with its connections
+    private boolean removeNode(final Object node) {
+
+        if (!graph.containsVertex((INode) node)) {
+            return false;
+        }
+
+        new ArrayList<>(graph.getIncidentEdges((INode) node)).forEach(graph::removeEdge);
+        return graph.removeVertex((INode) node);
+    }
+
+    private void runUntilEmpty(final Runnable tick) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 5000;
+
+        while (graph.getVertexCount() > 0 && System.currentTimeMillis() < end) {
+            Thread.sleep(2);
+            tick.run();
+        }
+    }
+
+    private static INode idleNode(final long address) {
+        final NodeStatisticsComponent statistics = new NodeStatisticsComponent(1, 0);
+        statistics.setLastUpdateTime(Instant.now().toEpochMilli() - 60_000);
+        return new NetworkNode(MacAddress.of(address), statistics);
+    }
+
+    private static EdgeStatisticsComponent idleStatistics() {
+        final EdgeStatisticsComponent statistics = new EdgeStatisticsComponent(1);
+        statistics.setLastUpdateTimeProperty(Instant.now().toEpochMilli() - 60_000);
+        return statistics;
+    }
+}
@@ -0,0 +1,178 @@
+package edu.kit.trufflehog.service.executor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.AggregatedPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     Test for the {@link CoalescingTruffleListener} class.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class CoalescingTruffleListenerTest {
+
+    private ScheduledExecutorService scheduler;
+    private List<ITruffleCommand> received;
+    private INetworkWritingPort writingPort;
+    private IFilter filter;
+    private IPacketData packet;
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        received = new CopyOnWriteArrayList<>();
+        writingPort = mock(INetworkWritingPort.class);
+        filter = mock(IFilter.class);
+
+        final MacAddress source = MacAddress.of(1);
+        final MacAddress dest = MacAddress.of(2);
+
+        packet = new IPacketData() {
+            @Override
+            public <T> T getAttribute(final Class<T> attributeType, final String attributeIdentifier) {
+                switch (attributeIdentifier) {
+                    case "sourceMacAddress":
+                        return attributeType.cast(source);
+                    case "destMacAddress":
+                        return attributeType.cast(dest);
+                    default:
+                        return null;
+                }
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * <p>
+     *     A full window is passed on at once as a single command.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testFullWindowIsFlushed() throws Exception {
+        final CoalescingTruffleListener listener = new CoalescingTruffleListener(received::add, scheduler,
+                TimeUnit.HOURS.toMillis(1), 100);
+
+        for (int i = 0; i < 100; i++) {
+            listener.receive(new AddPacketDataCommand(writingPort, packet, filter));
+        }
+
+        assertEquals(1, received.size());
+        assertEquals(100, ((AggregatedPacketDataCommand) received.get(0)).getPacketCount());
+
+        listener.close();
+    }
+
+    /**
+     * <p>
+     *     A window that does not fill up is passed on by the scheduler once it expired.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testExpiredWindowIsFlushed() throws Exception {
+        final CoalescingTruffleListener listener = new CoalescingTruffleListener(received::add, scheduler, 5, 1000);
+
+        for (int i = 0; i < 10; i++) {
+            listener.receive(new AddPacketDataCommand(writingPort, packet, filter));
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (countPackets() < 10 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(10, countPackets());
+
+        listener.close();
+    }
+
+    private int countPackets() {
+        int packets = 0;
+
+        for (final ITruffleCommand command : received) {
+            packets += ((AggregatedPacketDataCommand) command).getPacketCount();
+        }
+
+        return packets;
+    }
+
+    @Test
+    public void testCloseFlushes() throws Exception {
+        final CoalescingTruffleListener listener = new CoalescingTruffleListener(received::add, scheduler,
+                TimeUnit.HOURS.toMillis(1), 100);
+
+        listener.receive(new AddPacketDataCommand(writingPort, packet, filter));
+        assertTrue(received.isEmpty());
+
+        listener.close();
+        assertEquals(1, received.size());
+    }
+
+    /**
+     * <p>
+     *     A listener that blocks while a window is passed on does not block the producers. Their windows are passed on
+     *     after the blocked one, in the order they were closed.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testBlockedListenerDoesNotBlockProducers() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final CoalescingTruffleListener listener = new CoalescingTruffleListener(command -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(command);
+        }, scheduler, TimeUnit.HOURS.toMillis(1), 1);
+
+        final ITruffleCommand first = new AddPacketDataCommand(writingPort, packet, filter);
+        final ITruffleCommand second = new AddPacketDataCommand(writingPort, packet, filter);
+
+        final CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> listener.receive(first));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture.runAsync(() -> listener.receive(second)).get(5, TimeUnit.SECONDS);
+        assertTrue(received.isEmpty());
+
+        release.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        listener.close();
+
+        assertEquals(2, received.size());
+        assertEquals(2, countPackets());
+    }
+}
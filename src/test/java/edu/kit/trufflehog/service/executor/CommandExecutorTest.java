@@ -1,16 +1,34 @@
 package edu.kit.trufflehog.service.executor;
 
 import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.IPreemptibleCommand;
+import edu.kit.trufflehog.command.queue.IBoundedCommandQueue;
+import edu.kit.trufflehog.command.queue.OverflowPolicy;
+import edu.kit.trufflehog.command.queue.WaitStrategy;
+import edu.kit.trufflehog.command.trufflecommand.AggregatedPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.DuplicatePacketCommand;
 import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
 import edu.kit.trufflehog.command.usercommand.IUserCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.MacAddress;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -178,4 +196,420 @@ public class CommandExecutorTest {
             verify(command).execute();
         }
     }
+
+    /**
+     * <p>
+     *     This test checks if the sharded {@link CommandExecutor} executes the commands of every source address in the
+     *     order they were received.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testShardsKeepOrderPerSource() throws Exception {
+        final CommandExecutor shardedExecutor = new CommandExecutor(1024, OverflowPolicy.BLOCK,
+                IBoundedCommandQueue.DEFAULT_SAMPLE_RATE, WaitStrategy.PARK, 4);
+
+        final int sources = 8;
+        final int perSource = 500;
+        final List<List<Integer>> executed = new ArrayList<>();
+
+        for (int source = 0; source < sources; source++) {
+            executed.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        final Thread testRunner = new Thread(shardedExecutor);
+        testRunner.start();
+
+        for (int i = 0; i < perSource; i++) {
+            for (int source = 0; source < sources; source++) {
+                final List<Integer> sourceExecuted = executed.get(source);
+                final int sequence = i;
+
+                shardedExecutor.asTruffleCommandListener().receive(
+                        new SourceCommand(source, () -> sourceExecuted.add(sequence)));
+            }
+        }
+
+        awaitCount(executed, sources * perSource);
+        testRunner.interrupt();
+
+        for (final List<Integer> sourceExecuted : executed) {
+            assertEquals(perSource, sourceExecuted.size());
+
+            for (int i = 0; i < perSource; i++) {
+                assertEquals(i, (int) sourceExecuted.get(i));
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     This test checks if a user command waits until the truffle commands that were handed to the shards before
+     *     it are executed.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testUserCommandIsBarrier() throws Exception {
+        final CommandExecutor shardedExecutor = new CommandExecutor(1024, OverflowPolicy.BLOCK,
+                IBoundedCommandQueue.DEFAULT_SAMPLE_RATE, WaitStrategy.PARK, 4);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch userCommandExecuted = new CountDownLatch(1);
+        final AtomicInteger executed = new AtomicInteger();
+        final int[] seenByUserCommand = {-1};
+
+        final Thread testRunner = new Thread(shardedExecutor);
+        testRunner.start();
+
+        for (int i = 0; i < 100; i++) {
+            shardedExecutor.asTruffleCommandListener().receive(new SourceCommand(i, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                executed.incrementAndGet();
+            }));
+        }
+
+        // let the executor hand the truffle commands to the shards
+        Thread.sleep(200);
+
+        shardedExecutor.asUserCommandListener().receive(new UserCommand(() -> {
+            seenByUserCommand[0] = executed.get();
+            userCommandExecuted.countDown();
+        }));
+
+        assertFalse(userCommandExecuted.await(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+
+        assertTrue(userCommandExecuted.await(5, TimeUnit.SECONDS));
+        assertEquals(100, seenByUserCommand[0]);
+
+        testRunner.interrupt();
+    }
+
+    /**
+     * <p>
+     *     This test checks if a {@link DuplicatePacketCommand} is handed to the shard of its source address instead of
+     *     waiting for the other shards like a barrier.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testDuplicateCommandIsSharded() throws Exception {
+        final int shardCount = 4;
+        final CommandExecutor shardedExecutor = new CommandExecutor(1024, OverflowPolicy.BLOCK,
+                IBoundedCommandQueue.DEFAULT_SAMPLE_RATE, WaitStrategy.PARK, shardCount);
+
+        final long blocked = 0;
+        long other = 1;
+
+        while (CommandExecutor.shardIndex(MacAddress.of(other), shardCount)
+                == CommandExecutor.shardIndex(MacAddress.of(blocked), shardCount)) {
+            other++;
+        }
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch duplicateExecuted = new CountDownLatch(1);
+
+        final Thread testRunner = new Thread(shardedExecutor);
+        testRunner.start();
+
+        shardedExecutor.asTruffleCommandListener().receive(new SourceCommand(blocked, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        shardedExecutor.asTruffleCommandListener().receive(new DuplicateCommand(other, duplicateExecuted::countDown));
+
+        try {
+            assertTrue(duplicateExecuted.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            testRunner.interrupt();
+        }
+    }
+
+    /**
+     * <p>
+     *     This test checks if the scheduled {@link CommandExecutor} executes a user command before the truffle
+     *     commands that were received before it.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testSchedulerPrioritizesUserCommands() throws Exception {
+        final CommandExecutor scheduledExecutor = new CommandExecutor(1024, OverflowPolicy.BLOCK,
+                IBoundedCommandQueue.DEFAULT_SAMPLE_RATE, WaitStrategy.PARK, 1, new CommandScheduler.Builder().build());
+
+        final AtomicInteger executed = new AtomicInteger();
+        final int[] seenByUserCommand = {-1};
+
+        for (int i = 0; i < 1000; i++) {
+            scheduledExecutor.asTruffleCommandListener().receive(new SourceCommand(i, executed::incrementAndGet));
+        }
+
+        scheduledExecutor.asUserCommandListener().receive(new UserCommand(() -> seenByUserCommand[0] = executed.get()));
+
+        final Thread testRunner = new Thread(scheduledExecutor);
+        testRunner.start();
+
+        final long deadline = System.currentTimeMillis() + 5000;
+
+        while (executed.get() < 1000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        testRunner.interrupt();
+
+        assertEquals(1000, executed.get());
+        assertEquals(0, seenByUserCommand[0]);
+    }
+
+    /**
+     * <p>
+     *     This test checks if the scheduled {@link CommandExecutor} with shards keeps the backlog of the shards small
+     *     enough that a user command does not wait for all truffle commands that were received before it.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testSchedulerBoundsShardBacklog() throws Exception {
+        final CommandExecutor scheduledExecutor = new CommandExecutor(8192, OverflowPolicy.BLOCK,
+                IBoundedCommandQueue.DEFAULT_SAMPLE_RATE, WaitStrategy.PARK, 4, new CommandScheduler.Builder().build());
+
+        final AtomicInteger executed = new AtomicInteger();
+        final CountDownLatch userCommandExecuted = new CountDownLatch(1);
+        final int[] seenByUserCommand = {-1};
+
+        for (int i = 0; i < 4000; i++) {
+            scheduledExecutor.asTruffleCommandListener().receive(new SourceCommand(i, () -> {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                executed.incrementAndGet();
+            }));
+        }
+
+        final Thread testRunner = new Thread(scheduledExecutor);
+        testRunner.start();
+
+        // let the scheduler measure the truffle commands
+        Thread.sleep(100);
+
+        scheduledExecutor.asUserCommandListener().receive(new UserCommand(() -> {
+            seenByUserCommand[0] = executed.get();
+            userCommandExecuted.countDown();
+        }));
+
+        assertTrue(userCommandExecuted.await(5, TimeUnit.SECONDS));
+        testRunner.interrupt();
+
+        // the shards hold a few turns at most, not the thousands of commands that were received
+        assertTrue("user command waited for " + seenByUserCommand[0], seenByUserCommand[0] < 2000);
+        assertTrue(scheduledExecutor.getTruffleQueueSize() > 1000);
+    }
+
+    /**
+     * <p>
+     *     This test checks if truffle commands are executed between the steps of a preemptible user command and if
+     *     the next user command waits for the last step.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPreemptibleUserCommand() throws Exception {
+        final CommandExecutor scheduledExecutor = new CommandExecutor(1024, OverflowPolicy.BLOCK,
+                IBoundedCommandQueue.DEFAULT_SAMPLE_RATE, WaitStrategy.PARK, 1, new CommandScheduler.Builder().build());
+
+        final AtomicInteger executed = new AtomicInteger();
+        final List<String> userOrder = Collections.synchronizedList(new ArrayList<>());
+        final int[] seenBySteps = new int[3];
+
+        for (int i = 0; i < 1000; i++) {
+            scheduledExecutor.asTruffleCommandListener().receive(new SourceCommand(i, executed::incrementAndGet));
+        }
+
+        scheduledExecutor.asUserCommandListener().receive(new SteppedUserCommand(step -> {
+            seenBySteps[step] = executed.get();
+            userOrder.add("step" + step);
+        }, 3));
+
+        scheduledExecutor.asUserCommandListener().receive(new UserCommand(() -> userOrder.add("next")));
+
+        final Thread testRunner = new Thread(scheduledExecutor);
+        testRunner.start();
+
+        final long deadline = System.currentTimeMillis() + 5000;
+
+        while (executed.get() < 1000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        testRunner.interrupt();
+
+        assertEquals(Arrays.asList("step0", "step1", "step2", "next"), userOrder);
+        assertTrue(seenBySteps[0] < seenBySteps[1]);
+        assertTrue(seenBySteps[1] < seenBySteps[2]);
+    }
+
+    /**
+     * <p>
+     *     This test checks if the executor records the wait and execution times of every command class, both on the
+     *     executor thread and on the shards.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testMetricsRecordEveryCommand() throws Exception {
+        final CommandExecutor shardedExecutor = new CommandExecutor(1024, OverflowPolicy.BLOCK,
+                IBoundedCommandQueue.DEFAULT_SAMPLE_RATE, WaitStrategy.PARK, 4);
+
+        final AtomicInteger executed = new AtomicInteger();
+
+        for (int i = 0; i < 100; i++) {
+            shardedExecutor.asTruffleCommandListener().receive(new SourceCommand(i, executed::incrementAndGet));
+        }
+
+        shardedExecutor.asUserCommandListener().receive(new UserCommand(executed::incrementAndGet));
+
+        final Thread testRunner = new Thread(shardedExecutor);
+        testRunner.start();
+
+        final long deadline = System.currentTimeMillis() + 5000;
+
+        while (shardedExecutor.getMetrics().getExecutedCount() < 101 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        testRunner.interrupt();
+
+        assertEquals(101, shardedExecutor.getMetrics().getExecutedCount());
+
+        final List<CommandTimingSnapshot> timings = shardedExecutor.getMetrics().getCommandTimings();
+
+        assertEquals(2, timings.size());
+        assertEquals(SourceCommand.class.getName(), timings.get(0).getCommandClass());
+        assertEquals(100, timings.get(0).getWaitTime().getCount());
+        assertEquals(100, timings.get(0).getExecuteTime().getCount());
+        assertEquals(UserCommand.class.getName(), timings.get(1).getCommandClass());
+        assertEquals(1, timings.get(1).getWaitTime().getCount());
+    }
+
+    @Test
+    public void testShardIndexIsStable() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final int index = CommandExecutor.shardIndex(MacAddress.of(i), 16);
+
+            assertTrue(index >= 0 && index < 16);
+            assertEquals(index, CommandExecutor.shardIndex(MacAddress.of(i), 16));
+        }
+    }
+
+    private static void awaitCount(final List<List<Integer>> executed, final int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+
+        while (System.currentTimeMillis() < deadline) {
+            int sum = 0;
+
+            for (final List<Integer> list : executed) {
+                sum += list.size();
+            }
+
+            if (sum >= count) {
+                return;
+            }
+
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * A truffle command of a source address that runs the given action.
+     */
+    private static final class SourceCommand extends AggregatedPacketDataCommand {
+
+        private final Runnable action;
+
+        private SourceCommand(final long source, final Runnable action) throws Exception {
+            super(mock(INetworkWritingPort.class), mock(IFilter.class), MacAddress.of(source), MacAddress.of(0xFFFF));
+            this.action = action;
+        }
+
+        @Override
+        public void execute() {
+            action.run();
+        }
+    }
+
+    /**
+     * A duplicate count of a source address that runs the given action.
+     */
+    private static final class DuplicateCommand extends DuplicatePacketCommand {
+
+        private final Runnable action;
+
+        private DuplicateCommand(final long source, final Runnable action) {
+            super(mock(INetworkWritingPort.class), MacAddress.of(source), MacAddress.of(0xFFFF), 1);
+            this.action = action;
+        }
+
+        @Override
+        public void execute() {
+            action.run();
+        }
+    }
+
+    private static final class UserCommand implements IUserCommand<Object> {
+
+        private final Runnable action;
+
+        private UserCommand(final Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        public <S> void setSelection(final S selection) {
+        }
+
+        @Override
+        public void execute() {
+            action.run();
+        }
+    }
+
+    private static final class SteppedUserCommand implements IUserCommand<Object>, IPreemptibleCommand {
+
+        private final IntConsumer step;
+        private final int steps;
+        private int next = 0;
+
+        private SteppedUserCommand(final IntConsumer step, final int steps) {
+            this.step = step;
+            this.steps = steps;
+        }
+
+        @Override
+        public <S> void setSelection(final S selection) {
+        }
+
+        @Override
+        public boolean executeStep() {
+            step.accept(next++);
+            return next == steps;
+        }
+
+        @Override
+        public void execute() {
+            while (!executeStep()) {
+            }
+        }
+    }
 }
\ No newline at end of file
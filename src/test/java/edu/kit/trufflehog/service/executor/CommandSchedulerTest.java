@@ -0,0 +1,76 @@
+package edu.kit.trufflehog.service.executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>
+ *     Test for the {@link CommandScheduler} class.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class CommandSchedulerTest {
+
+    private CommandScheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = new CommandScheduler.Builder()
+                .userWeight(2)
+                .truffleWeight(100)
+                .userLatencyTarget(1, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWeight() throws Exception {
+        new CommandScheduler.Builder().truffleWeight(0);
+    }
+
+    @Test
+    public void testDefaults() throws Exception {
+        final CommandScheduler defaults = new CommandScheduler.Builder().build();
+
+        assertEquals(CommandScheduler.DEFAULT_USER_WEIGHT, defaults.getUserWeight());
+        assertEquals(CommandScheduler.DEFAULT_TRUFFLE_WEIGHT, defaults.getTruffleWeight());
+        assertEquals(CommandScheduler.DEFAULT_USER_LATENCY_TARGET_MILLIS,
+                defaults.getUserLatencyTarget(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * <p>
+     *     The truffle turns shrink when truffle commands get slower and grow up to the truffle weight again.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testTruffleQuantumFollowsLatencyTarget() throws Exception {
+        assertEquals(2, scheduler.getUserQuantum());
+        assertEquals(16, scheduler.getTruffleQuantum());
+
+        // 100 microseconds per command, 10 of them fit into the latency target
+        scheduler.recordTruffleTurn(16, TimeUnit.MICROSECONDS.toNanos(1600));
+        assertEquals(10, scheduler.getTruffleQuantum());
+
+        // a command that takes longer than the latency target still gets executed
+        for (int i = 0; i < 50; i++) {
+            scheduler.recordTruffleTurn(1, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertEquals(1, scheduler.getTruffleQuantum());
+
+        for (int i = 0; i < 100; i++) {
+            scheduler.recordTruffleTurn(100, TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        assertEquals(100, scheduler.getTruffleQuantum());
+
+        // empty turns are not measured
+        scheduler.recordTruffleTurn(0, TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(100, scheduler.getTruffleQuantum());
+    }
+}
@@ -0,0 +1,79 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains all tests for the {@link DuplicateFrameFilter} class.
+ *
+ * @author Mark Giraud
+ */
+public class DuplicateFrameFilterTest {
+
+    private static final int IDENTIFY = 5;
+    private static final int REQUEST = 0;
+
+    private DuplicateFrameFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        filter = new DuplicateFrameFilter(100, 16);
+    }
+
+    /**
+     * <p>
+     *     A repeated identify request is a duplicate within the window and passes again after it.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void repeated_frame_is_duplicate_within_window() throws Exception {
+        assertFalse(filter.isDuplicate(dcp(1, 42, 0, 1000)));
+        assertTrue(filter.isDuplicate(dcp(1, 42, 0, 1001)));
+        assertTrue(filter.isDuplicate(dcp(1, 42, 0, 1099)));
+        assertFalse(filter.isDuplicate(dcp(1, 42, 0, 1100)));
+    }
+
+    /**
+     * <p>
+     *     Frames that differ in any part of the key are no duplicates.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void different_transactions_are_no_duplicates() throws Exception {
+        assertFalse(filter.isDuplicate(dcp(1, 42, 0, 1000)));
+        assertFalse(filter.isDuplicate(dcp(2, 42, 0, 1000)));
+        assertFalse(filter.isDuplicate(dcp(1, 43, 0, 1000)));
+        assertFalse(filter.isDuplicate(dcp(1, 42, 1, 1000)));
+    }
+
+    /**
+     * <p>
+     *     Frames without a dcp service are never suppressed.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void non_dcp_frames_are_no_duplicates() throws Exception {
+        final Truffle first = Truffle.buildTruffle(1, 2, 0, 0, null, 0x8892, 0, null, 0, null, 0, 0, 0);
+        final Truffle second = Truffle.buildTruffle(1, 2, 0, 0, null, 0x8892, 0, null, 0, null, 0, 0, 0);
+        first.setTimeOfArrival(1000);
+        second.setTimeOfArrival(1000);
+
+        assertFalse(filter.isDuplicate(first));
+        assertFalse(filter.isDuplicate(second));
+    }
+
+    private static Truffle dcp(final long sourceMac, final long xid, final int isResponse, final long time)
+            throws InvalidProfinetPacket {
+        final Truffle truffle = Truffle.buildTruffle(sourceMac, 0x010ECF000000L, 0, 0, null, 0x8892, IDENTIFY,
+                "Identify", REQUEST, "Request", xid, 0, isResponse);
+        truffle.setTimeOfArrival(time);
+
+        return truffle;
+    }
+}
@@ -0,0 +1,69 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * This class contains all tests for the {@link NameDictionary} class.
+ *
+ * @author Mark Giraud
+ */
+public class NameDictionaryTest {
+
+    private NameDictionary dictionary;
+    private ByteBuffer buffer;
+
+    @Before
+    public void setUp() throws Exception {
+        dictionary = new NameDictionary(1, 8);
+        buffer = ByteBuffer.allocate(16);
+    }
+
+    @Test
+    public void get_returns_the_same_string_for_the_same_name() throws Exception {
+        put(0, "plc-1");
+        put(8, "plc-1");
+
+        final String first = dictionary.get(buffer, 0);
+
+        assertEquals("plc-1", first);
+        assertSame(first, dictionary.get(buffer, 8));
+    }
+
+    /**
+     * <p>
+     *     The dictionary has only one slot, so the second name replaces the first one.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void get_replaces_names_that_share_a_slot() throws Exception {
+        put(0, "plc-1");
+        put(8, "plc-2");
+
+        assertEquals("plc-1", dictionary.get(buffer, 0));
+        assertEquals("plc-2", dictionary.get(buffer, 8));
+        assertEquals("plc-1", dictionary.get(buffer, 0));
+    }
+
+    @Test
+    public void get_stops_at_max_length() throws Exception {
+        put(0, "abcdefghij");
+
+        assertEquals("abcdefgh", dictionary.get(buffer, 0));
+    }
+
+    private void put(final int offset, final String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + i, bytes[i]);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains all tests for the {@link PacketFilter} class.
+ *
+ * @author Mark Giraud
+ */
+public class PacketFilterTest {
+
+    /**
+     * <p>
+     *     A packet that matches no rule is passed on.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void unmatched_packets_are_passed_on() throws Exception {
+        final PacketFilter filter = new PacketFilter(Collections.singletonList(PacketRule.parse("drop ethertype=0x0800")));
+
+        assertTrue(filter.accept(truffle(0x8892)));
+        assertFalse(filter.accept(truffle(0x0800)));
+        assertEquals(0, filter.getMatchCount(0));
+    }
+
+    /**
+     * <p>
+     *     The first matching rule decides.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void first_matching_rule_decides() throws Exception {
+        final PacketFilter filter = new PacketFilter(Arrays.asList(
+                PacketRule.parse("pass srcmac=00:00:00:00:00:01"),
+                PacketRule.parse("count ethertype=0x8892")));
+
+        assertTrue(filter.accept(truffle(0x8892)));
+        assertEquals(1, filter.getMatchCount(0));
+        assertEquals(0, filter.getMatchCount(1));
+    }
+
+    /**
+     * <p>
+     *     A sample rule passes every n-th packet and counts all of them.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void sample_rule_passes_every_nth_packet() throws Exception {
+        final PacketFilter filter = new PacketFilter(Collections.singletonList(PacketRule.parse("sample:4")));
+
+        int passed = 0;
+
+        for (int i = 0; i < 100; i++) {
+            if (filter.accept(truffle(0x8892))) {
+                passed++;
+            }
+        }
+
+        assertEquals(25, passed);
+        assertEquals(100, filter.getMatchCount(0));
+    }
+
+    private static Truffle truffle(final int etherType) throws InvalidProfinetPacket {
+        return Truffle.buildTruffle(1, 2, 0, 0, null, etherType, 0, null, 0, null, 0, 0, 0);
+    }
+}
@@ -0,0 +1,110 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains all tests for the {@link PacketRule} class.
+ *
+ * @author Mark Giraud
+ */
+public class PacketRuleTest {
+
+    /**
+     * <p>
+     *     A rule without conditions matches every packet.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void rule_without_conditions_matches_everything() throws Exception {
+        final PacketRule rule = PacketRule.parse("drop");
+
+        assertEquals(PacketAction.DROP, rule.getAction());
+        assertTrue(rule.matches(truffle(1, 2, 0xC0A80001L, 0x0800, 0)));
+    }
+
+    /**
+     * <p>
+     *     Cyclic real time frames are matched by their ether type and missing dcp service.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void ether_type_and_service_are_matched() throws Exception {
+        final PacketRule rule = PacketRule.parse("drop ethertype=0x8892 serviceid=0");
+
+        assertTrue(rule.matches(truffle(1, 2, 0, 0x8892, 0)));
+        assertFalse(rule.matches(truffle(1, 2, 0, 0x8892, 5)));
+        assertFalse(rule.matches(truffle(1, 2, 0, 0x0800, 0)));
+    }
+
+    /**
+     * <p>
+     *     Address ranges, subnets and the multicast flag are matched.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void addresses_are_matched() throws Exception {
+        final PacketRule macs = PacketRule.parse("count srcmac=00:0e:cf:00:00:00-00:0e:cf:ff:ff:ff");
+
+        assertTrue(macs.matches(truffle(0x000ECF123456L, 2, 0, 0x8892, 0)));
+        assertFalse(macs.matches(truffle(0x000ED0000000L, 2, 0, 0x8892, 0)));
+
+        final PacketRule subnet = PacketRule.parse("pass srcip=192.168.0.0/16");
+
+        assertTrue(subnet.matches(truffle(1, 2, 0xC0A8FF01L, 0x0800, 0)));
+        assertFalse(subnet.matches(truffle(1, 2, 0xC0A90001L, 0x0800, 0)));
+
+        final PacketRule multicast = PacketRule.parse("sample:10 multicast=true");
+
+        assertTrue(multicast.matches(truffle(1, 0x010ECF000000L, 0, 0x8892, 5)));
+        assertFalse(multicast.matches(truffle(1, 0x000ECF000000L, 0, 0x8892, 5)));
+        assertEquals(10, multicast.getSampleRate());
+    }
+
+    /**
+     * <p>
+     *     The text of a rule can be parsed again.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void to_string_can_be_parsed() throws Exception {
+        final String text = "sample:100 ethertype=0x8892 serviceid=5 servicetype=1 srcmac=00:0e:cf:00:00:01 "
+                + "dstip=10.0.0.0-10.255.255.255 multicast=false";
+
+        assertEquals(text, PacketRule.parse(text).toString());
+        assertEquals(text, PacketRule.parse(PacketRule.parse(text).toString()).toString());
+    }
+
+    /**
+     * <p>
+     *     Invalid rules are rejected.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void invalid_rules_are_rejected() throws Exception {
+        final String[] rules = {"", "allow", "drop ethertype", "drop colour=red", "sample:0", "drop srcip=300.0.0.1",
+                "drop srcmac=00:0e:cf", "drop multicast=yes", "drop srcip=10.0.0.0/33"};
+
+        for (final String rule : rules) {
+            try {
+                PacketRule.parse(rule);
+                throw new AssertionError("Parsed invalid rule " + rule);
+            } catch (InvalidPacketRule expected) {
+                // expected
+            }
+        }
+    }
+
+    private static Truffle truffle(final long sourceMac, final long destMac, final long sourceIP, final int etherType,
+                                   final int serviceID) throws InvalidProfinetPacket {
+        return Truffle.buildTruffle(sourceMac, destMac, sourceIP, 0, null, etherType, serviceID, null, 0, null, 0, 0, 0);
+    }
+}
@@ -0,0 +1,291 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class contains all tests for {@link PcapReader}. The capture files are written by the helpers of this
+ *     class, which are also used by {@link PcapReceiverTest}.
+ * </p>
+ *
+ * @author Mark Giraud
+ */
+public class PcapReaderTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("trufflehog", ".pcap");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void next_reads_little_endian_microsecond_pcap() throws Exception {
+        final byte[] first = ethernetFrame(0x000ECF000001L, 0x000ECF000002L, 0x0800, new byte[20]);
+        final byte[] second = ethernetFrame(0x000ECF000002L, 0x000ECF000001L, 0x0800, new byte[30]);
+
+        Files.write(file, pcap(ByteOrder.LITTLE_ENDIAN, false, new long[]{1_500_000_000L, 1_500_000_001L}, first, second));
+
+        try (PcapReader reader = PcapReader.open(file)) {
+            assertTrue(reader.next());
+            assertEquals(first.length, reader.getFrameLength());
+            assertEquals(0x000ECF000002L, getLong48(reader.getFrames(), reader.getFrameOffset()));
+            assertEquals(1_500_000_000L, reader.getTimestampNanos());
+
+            assertTrue(reader.next());
+            assertEquals(second.length, reader.getFrameLength());
+            assertEquals(0x000ECF000001L, getLong48(reader.getFrames(), reader.getFrameOffset()));
+            assertEquals(1_500_000_001L / 1000 * 1000, reader.getTimestampNanos());
+
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void next_reads_big_endian_nanosecond_pcap() throws Exception {
+        final byte[] frame = ethernetFrame(0x000ECF000001L, 0x000ECF000002L, 0x8892, new byte[40]);
+
+        Files.write(file, pcap(ByteOrder.BIG_ENDIAN, true, new long[]{1_500_000_123L}, frame));
+
+        try (PcapReader reader = PcapReader.open(file)) {
+            assertTrue(reader.next());
+            assertEquals(frame.length, reader.getFrameLength());
+            assertEquals(1_500_000_123L, reader.getTimestampNanos());
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * <p>
+     *     The second interface is no ethernet interface, so its packets have to be skipped. Blocks of unknown types
+     *     have to be skipped as well.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void next_reads_pcapng_and_skips_other_link_types() throws Exception {
+        final byte[] frame = ethernetFrame(0x000ECF000001L, 0x000ECF000002L, 0x0800, new byte[21]);
+
+        final ByteBuffer buffer = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        sectionHeader(buffer);
+        interfaceDescription(buffer, PcapReader.LINKTYPE_ETHERNET, 3);
+        interfaceDescription(buffer, 101, 6);
+        block(buffer, 0x00000BAD, new byte[8]);
+        enhancedPacket(buffer, 1, 42, frame);
+        enhancedPacket(buffer, 0, 1234, frame);
+
+        Files.write(file, toArray(buffer));
+
+        try (PcapReader reader = PcapReader.open(file)) {
+            assertTrue(reader.next());
+            assertEquals(frame.length, reader.getFrameLength());
+            assertEquals(0x000ECF000002L, getLong48(reader.getFrames(), reader.getFrameOffset()));
+            // milliseconds
+            assertEquals(1_234_000_000L, reader.getTimestampNanos());
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * <p>
+     *     With a tiny region size the reader has to remap the file for almost every record.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void next_remaps_regions() throws Exception {
+        final int count = 500;
+        final byte[][] frames = new byte[count][];
+        final long[] timestamps = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            frames[i] = ethernetFrame(i, 0x000ECF000001L, 0x0800, new byte[i % 50]);
+            timestamps[i] = i * 1000L;
+        }
+
+        Files.write(file, pcap(ByteOrder.LITTLE_ENDIAN, false, timestamps, frames));
+
+        try (PcapReader reader = PcapReader.open(file, 100)) {
+            for (int i = 0; i < count; i++) {
+                assertTrue(reader.next());
+                assertEquals(frames[i].length, reader.getFrameLength());
+                assertEquals(i, getLong48(reader.getFrames(), reader.getFrameOffset() + 6));
+                assertEquals(i * 1000L, reader.getTimestampNanos());
+            }
+
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void next_stops_at_a_cut_off_record() throws Exception {
+        final byte[] frame = ethernetFrame(0x000ECF000001L, 0x000ECF000002L, 0x0800, new byte[20]);
+        final byte[] capture = pcap(ByteOrder.LITTLE_ENDIAN, false, new long[]{0, 0}, frame, frame);
+
+        Files.write(file, Arrays.copyOf(capture, capture.length - 5));
+
+        try (PcapReader reader = PcapReader.open(file)) {
+            assertTrue(reader.next());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void open_rejects_other_files() throws Exception {
+        Files.write(file, "this is not a capture file".getBytes(StandardCharsets.US_ASCII));
+
+        PcapReader.open(file);
+    }
+
+    @Test
+    public void toNanos_converts_binary_resolutions() throws Exception {
+        // 2^-10 seconds
+        assertEquals(1_000_000_000L + 500_000_000L, PcapReader.toNanos(1024 + 512, 0x80 | 10));
+        // 10^-12 seconds
+        assertEquals(5, PcapReader.toNanos(5000, 12));
+    }
+
+    /**
+     * <p>
+     *     Writes a libpcap file with an ethernet link type.
+     * </p>
+     */
+    static byte[] pcap(final ByteOrder order, final boolean nanos, final long[] timestamps, final byte[]... frames) {
+        int size = 24;
+
+        for (final byte[] frame : frames) {
+            size += 16 + frame.length;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(order);
+
+        buffer.putInt(nanos ? 0xA1B23C4D : 0xA1B2C3D4);
+        buffer.putShort((short) 2).putShort((short) 4);
+        buffer.putInt(0).putInt(0);
+        buffer.putInt(65535);
+        buffer.putInt(PcapReader.LINKTYPE_ETHERNET);
+
+        for (int i = 0; i < frames.length; i++) {
+            final long unit = nanos ? 1_000_000_000L : 1_000_000L;
+            final long fraction = nanos ? timestamps[i] % unit : timestamps[i] / 1000 % unit;
+
+            buffer.putInt((int) (timestamps[i] / 1_000_000_000L));
+            buffer.putInt((int) fraction);
+            buffer.putInt(frames[i].length).putInt(frames[i].length);
+            buffer.put(frames[i]);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * <p>
+     *     Writes a pcapng file with one ethernet interface and a nanosecond timestamp resolution.
+     * </p>
+     */
+    static byte[] pcapng(final List<byte[]> frames, final List<Long> timestamps) {
+        int size = 28 + 32;
+
+        for (final byte[] frame : frames) {
+            size += 32 + ((frame.length + 3) & ~3);
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.BIG_ENDIAN);
+
+        sectionHeader(buffer);
+        interfaceDescription(buffer, PcapReader.LINKTYPE_ETHERNET, 9);
+
+        for (int i = 0; i < frames.size(); i++) {
+            enhancedPacket(buffer, 0, timestamps.get(i), frames.get(i));
+        }
+
+        return toArray(buffer);
+    }
+
+    static byte[] ethernetFrame(final long source, final long destination, final int etherType, final byte[] payload) {
+        final ByteBuffer buffer = ByteBuffer.allocate(14 + payload.length);
+
+        putLong48(buffer, destination);
+        putLong48(buffer, source);
+        buffer.putShort((short) etherType);
+        buffer.put(payload);
+
+        return buffer.array();
+    }
+
+    private static void sectionHeader(final ByteBuffer buffer) {
+        final ByteBuffer body = ByteBuffer.allocate(16).order(buffer.order());
+
+        body.putInt(0x1A2B3C4D);
+        body.putShort((short) 1).putShort((short) 0);
+        body.putLong(-1);
+
+        block(buffer, 0x0A0D0D0A, body.array());
+    }
+
+    private static void interfaceDescription(final ByteBuffer buffer, final int linkType, final int resolution) {
+        final ByteBuffer body = ByteBuffer.allocate(20).order(buffer.order());
+
+        body.putShort((short) linkType).putShort((short) 0);
+        body.putInt(65535);
+        // if_tsresol
+        body.putShort((short) 9).putShort((short) 1);
+        body.put((byte) resolution).put(new byte[3]);
+        // opt_endofopt
+        body.putInt(0);
+
+        block(buffer, 0x00000001, body.array());
+    }
+
+    private static void enhancedPacket(final ByteBuffer buffer, final int interfaceID, final long timestamp,
+                                       final byte[] frame) {
+        final ByteBuffer body = ByteBuffer.allocate(20 + ((frame.length + 3) & ~3)).order(buffer.order());
+
+        body.putInt(interfaceID);
+        body.putInt((int) (timestamp >>> 32)).putInt((int) timestamp);
+        body.putInt(frame.length).putInt(frame.length);
+        body.put(frame);
+
+        block(buffer, 0x00000006, body.array());
+    }
+
+    private static void block(final ByteBuffer buffer, final int type, final byte[] body) {
+        buffer.putInt(type);
+        buffer.putInt(12 + body.length);
+        buffer.put(body);
+        buffer.putInt(12 + body.length);
+    }
+
+    private static byte[] toArray(final ByteBuffer buffer) {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static void putLong48(final ByteBuffer buffer, final long value) {
+        buffer.putShort((short) (value >>> 32));
+        buffer.putInt((int) value);
+    }
+
+    private static long getLong48(final ByteBuffer buffer, final int offset) {
+        return ((buffer.getShort(offset) & 0xFFFFL) << 32) | (buffer.getInt(offset + 2) & 0xFFFFFFFFL);
+    }
+}
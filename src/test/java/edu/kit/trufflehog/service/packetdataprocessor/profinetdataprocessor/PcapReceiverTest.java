@@ -0,0 +1,176 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.util.IListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.PcapReaderTest.pcap;
+import static edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.PcapReaderTest.pcapng;
+import static edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.ProfinetFrameDecoderTest.dcpFrame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     This class contains all tests for {@link PcapReceiver}. The receiver runs in its own thread and replays capture
+ *     files that are written by the helpers of {@link PcapReaderTest}.
+ * </p>
+ *
+ * @author Mark Giraud
+ */
+public class PcapReceiverTest {
+
+    private Path file;
+    private Thread receiverThread;
+    private BlockingQueue<ITruffleCommand> received;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("trufflehog", ".pcapng");
+        received = new LinkedBlockingQueue<>();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (receiverThread != null) {
+            receiverThread.interrupt();
+            receiverThread.join(5000);
+        }
+
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * <p>
+     *     The frames are decoded by several threads, but they have to reach the listeners in file order.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void parallel_replay_keeps_file_order() throws Exception {
+        final int count = PcapReceiver.BATCH_SIZE * 5 + 17;
+        final List<byte[]> frames = new ArrayList<>(count);
+        final List<Long> timestamps = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            frames.add(dcpFrame(0x000ECF000001L, 0x010ECF000000L, 0xFEFE, 5, 0, i, null, 0));
+            timestamps.add(i * 1_000_000L);
+        }
+
+        Files.write(file, pcapng(frames, timestamps));
+
+        start(PcapReceiver.Pacing.MAX_SPEED, 4);
+
+        for (int i = 0; i < count; i++) {
+            final ITruffleCommand command = poll();
+
+            assertTrue(command instanceof AddPacketDataCommand);
+            assertTrue(command.toString().contains("xid: " + i + "\n"));
+            assertTrue(command.toString().contains("timeOfArrival: " + i + "\n"));
+        }
+
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void real_time_replay_keeps_the_gaps() throws Exception {
+        final byte[] request = dcpFrame(0x000ECF000002L, 0x010ECF000000L, 0xFEFE, 5, 0, 1, null, 0);
+        final byte[] response = dcpFrame(0x000ECF000001L, 0x000ECF000002L, 0xFEFF, 5, 1, 1, "plc-1", 0x0A000001L);
+
+        Files.write(file, pcap(ByteOrder.LITTLE_ENDIAN, false, new long[]{1_000_000_000L, 1_200_000_000L},
+                request, response));
+
+        final long start = System.nanoTime();
+
+        start(PcapReceiver.Pacing.REAL_TIME, 1);
+
+        assertTrue(poll().toString().contains("isResponse: false"));
+
+        final ITruffleCommand second = poll();
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(second.toString().contains("deviceName: plc-1"));
+        assertTrue(second.toString().contains("timeOfArrival: 1200"));
+    }
+
+    @Test
+    public void connect_reports_unreadable_files() throws Exception {
+        Files.delete(file);
+
+        start(PcapReceiver.Pacing.MAX_SPEED, 1);
+
+        assertTrue(poll() instanceof ReceiverErrorCommand);
+    }
+
+    /**
+     * <p>
+     *     A failure during the parallel replay stops the replay and is reported instead of killing the receiver thread.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void parallel_replay_reports_failures() throws Exception {
+        final List<byte[]> frames = new ArrayList<>();
+        final List<Long> timestamps = new ArrayList<>();
+
+        for (int i = 0; i < PcapReceiver.BATCH_SIZE * 3; i++) {
+            frames.add(dcpFrame(0x000ECF000001L, 0x010ECF000000L, 0xFEFE, 5, 0, i, null, 0));
+            timestamps.add(i * 1_000_000L);
+        }
+
+        Files.write(file, pcapng(frames, timestamps));
+
+        final PcapReceiver receiver = start(PcapReceiver.Pacing.MAX_SPEED, 4, command -> {
+            if (command instanceof AddPacketDataCommand) {
+                throw new IllegalStateException("listener failed");
+            }
+            received.add(command);
+        });
+
+        assertTrue(poll() instanceof ReceiverErrorCommand);
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+        assertTrue(receiverThread.isAlive());
+
+        receiver.disconnect();
+    }
+
+    private void start(final PcapReceiver.Pacing pacing, final int parallelism) {
+        start(pacing, parallelism, received::add);
+    }
+
+    private PcapReceiver start(final PcapReceiver.Pacing pacing, final int parallelism,
+                               final IListener<ITruffleCommand> listener) {
+        final PcapReceiver receiver = new PcapReceiver(mock(INetworkWritingPort.class), mock(IFilter.class), file,
+                pacing, parallelism);
+
+        receiver.addListener(listener);
+
+        receiverThread = new Thread(receiver);
+        receiverThread.start();
+
+        receiver.connect();
+
+        return receiver;
+    }
+
+    private ITruffleCommand poll() throws InterruptedException {
+        return received.poll(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,149 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor.PcapReaderTest.ethernetFrame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     This class contains all tests for {@link ProfinetFrameDecoder}.
+ * </p>
+ *
+ * @author Mark Giraud
+ */
+public class ProfinetFrameDecoderTest {
+
+    private static final long DEVICE = 0x000ECF000001L;
+    private static final long CONTROLLER = 0x000ECF000002L;
+
+    @Test
+    public void decode_reads_dcp_identify_request() throws Exception {
+        final byte[] frame = dcpFrame(CONTROLLER, 0x010ECF000000L, 0xFEFE, 5, 0, 42, null, 0);
+
+        final Truffle truffle = decode(frame);
+
+        assertEquals(CONTROLLER, truffle.getSourceMac());
+        assertEquals(0x010ECF000000L, truffle.getDestMac());
+        assertEquals(ProfinetFrameDecoder.ETHER_TYPE_PROFINET, truffle.getEtherType());
+        assertEquals(5, truffle.getServiceID());
+        assertEquals("Identify", truffle.getServiceIDName());
+        assertEquals("Request", truffle.getServiceTypeName());
+        assertEquals(42, truffle.getXid());
+        assertFalse(truffle.isResponse());
+        assertNull(truffle.getDeviceName());
+    }
+
+    @Test
+    public void decode_reads_name_and_ip_of_dcp_identify_response() throws Exception {
+        final byte[] frame = dcpFrame(DEVICE, CONTROLLER, 0xFEFF, 5, 1, 42, "plc-1", 0xC0A80001L);
+
+        final Truffle truffle = decode(frame);
+
+        assertTrue(truffle.isResponse());
+        assertEquals("Response Success", truffle.getServiceTypeName());
+        assertEquals("plc-1", truffle.getDeviceName());
+        assertEquals(0xC0A80001L, truffle.getSourceIP());
+        assertEquals(42, truffle.getXid());
+    }
+
+    @Test
+    public void decode_skips_vlan_tags() throws Exception {
+        final byte[] untagged = dcpFrame(DEVICE, CONTROLLER, 0xFEFF, 5, 1, 7, "plc-2", 0);
+        final ByteBuffer tagged = ByteBuffer.allocate(untagged.length + 4);
+
+        tagged.put(untagged, 0, 12);
+        tagged.putShort((short) ProfinetFrameDecoder.ETHER_TYPE_VLAN).putShort((short) 0x6001);
+        tagged.put(untagged, 12, untagged.length - 12);
+
+        final Truffle truffle = decode(tagged.array());
+
+        assertEquals(ProfinetFrameDecoder.ETHER_TYPE_PROFINET, truffle.getEtherType());
+        assertEquals("plc-2", truffle.getDeviceName());
+        assertEquals(7, truffle.getXid());
+    }
+
+    @Test
+    public void decode_reads_ipv4_addresses() throws Exception {
+        final ByteBuffer ip = ByteBuffer.allocate(20);
+        ip.put((byte) 0x45);
+        ip.putInt(12, 0x0A000001);
+        ip.putInt(16, 0x0A000002);
+
+        final Truffle truffle = decode(ethernetFrame(DEVICE, CONTROLLER, ProfinetFrameDecoder.ETHER_TYPE_IPV4, ip.array()));
+
+        assertEquals(0x0A000001L, truffle.getSourceIP());
+        assertEquals(0x0A000002L, truffle.getDestIP());
+        assertEquals(ProfinetFrameDecoder.ETHER_TYPE_IPV4, truffle.getEtherType());
+    }
+
+    @Test
+    public void decode_ignores_truncated_frames() throws Exception {
+        assertNull(ProfinetFrameDecoder.decode(ByteBuffer.allocate(10), 0, 10));
+
+        // the blocks are cut off, but the header can still be decoded
+        final byte[] frame = dcpFrame(DEVICE, CONTROLLER, 0xFEFF, 5, 1, 9, "plc-3", 0);
+        final Truffle truffle = ProfinetFrameDecoder.decode(ByteBuffer.wrap(frame), 0, frame.length - 4);
+
+        assertEquals(9, truffle.getXid());
+        assertNull(truffle.getDeviceName());
+    }
+
+    private static Truffle decode(final byte[] frame) throws InvalidProfinetPacket {
+        // decode at an offset to make sure the decoder does not read absolute positions
+        final ByteBuffer buffer = ByteBuffer.allocate(frame.length + 3);
+        buffer.position(3);
+        buffer.put(frame);
+
+        return ProfinetFrameDecoder.decode(buffer, 3, frame.length);
+    }
+
+    /**
+     * <p>
+     *     Builds a DCP frame with an optional NameOfStation block and an optional IP block.
+     * </p>
+     */
+    static byte[] dcpFrame(final long source, final long destination, final int frameID, final int serviceID,
+                           final int serviceType, final long xid, final String name, final long ip) {
+
+        final boolean response = (serviceType & 1) != 0;
+        final int blockInfo = response ? 2 : 0;
+        final byte[] nameBytes = name != null ? name.getBytes(StandardCharsets.US_ASCII) : new byte[0];
+
+        final ByteBuffer blocks = ByteBuffer.allocate(256);
+
+        if (name != null) {
+            blocks.put((byte) ProfinetFrameDecoder.DCP_OPTION_DEVICE);
+            blocks.put((byte) ProfinetFrameDecoder.DCP_SUBOPTION_NAME_OF_STATION);
+            blocks.putShort((short) (blockInfo + nameBytes.length));
+            if (response) blocks.putShort((short) 0);
+            blocks.put(nameBytes);
+            if (((blockInfo + nameBytes.length) & 1) != 0) blocks.put((byte) 0);
+        }
+
+        if (ip != 0) {
+            blocks.put((byte) ProfinetFrameDecoder.DCP_OPTION_IP);
+            blocks.put((byte) ProfinetFrameDecoder.DCP_SUBOPTION_IP);
+            blocks.putShort((short) (blockInfo + 12));
+            if (response) blocks.putShort((short) 1);
+            blocks.putInt((int) ip).putInt(0xFFFFFF00).putInt(0);
+        }
+
+        final ByteBuffer payload = ByteBuffer.allocate(12 + blocks.position());
+
+        payload.putShort((short) frameID);
+        payload.put((byte) serviceID).put((byte) serviceType);
+        payload.putInt((int) xid);
+        payload.putShort((short) 1);
+        payload.putShort((short) blocks.position());
+        payload.put(blocks.array(), 0, blocks.position());
+
+        return ethernetFrame(source, destination, ProfinetFrameDecoder.ETHER_TYPE_PROFINET, payload.array());
+    }
+}
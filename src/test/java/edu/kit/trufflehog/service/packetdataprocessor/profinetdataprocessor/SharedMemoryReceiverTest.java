@@ -0,0 +1,132 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.command.queue.BoundedCommandQueue;
+import edu.kit.trufflehog.command.queue.CommandQueueManager;
+import edu.kit.trufflehog.command.queue.OverflowPolicy;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.util.IListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * <p>
+ *     This class contains all tests for {@link SharedMemoryReceiver}. The ring is filled by the java producer
+ *     stand-in of {@link TruffleRing}, so snort is not needed.
+ * </p>
+ *
+ * @author Mark Giraud
+ */
+public class SharedMemoryReceiverTest {
+
+    private Path ringFile;
+    private TruffleRing producer;
+    private SharedMemoryReceiver receiver;
+    private IListener<ITruffleCommand> mockedListener;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() throws Exception {
+        ringFile = Files.createTempFile("trufflehog", ".ring");
+        producer = TruffleRing.create(ringFile, 8);
+
+        receiver = new SharedMemoryReceiver(mock(INetworkWritingPort.class), mock(IFilter.class), ringFile);
+
+        mockedListener = (IListener<ITruffleCommand>) mock(IListener.class);
+        receiver.addListener(mockedListener);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        receiver.disconnect();
+        producer.close();
+        Files.deleteIfExists(ringFile);
+    }
+
+    @Test
+    public void poll_sends_a_command_per_record() throws Exception {
+        receiver.connect();
+
+        for (int i = 1; i <= 5; i++) {
+            TruffleRingTest.write(producer, i);
+        }
+
+        assertEquals(5, receiver.poll());
+        assertEquals(0, receiver.poll());
+
+        verify(mockedListener, times(5)).receive(any(AddPacketDataCommand.class));
+    }
+
+    @Test
+    public void poll_returns_nothing_if_not_connected() throws Exception {
+        TruffleRingTest.write(producer, 1);
+
+        assertEquals(0, receiver.poll());
+    }
+
+    @Test
+    public void connect_sends_error_if_ring_does_not_exist() throws Exception {
+        final SharedMemoryReceiver other = new SharedMemoryReceiver(mock(INetworkWritingPort.class), mock(IFilter.class),
+                ringFile.resolveSibling("does-not-exist.ring"));
+        other.addListener(mockedListener);
+
+        other.connect();
+
+        verify(mockedListener).receive(any(ReceiverErrorCommand.class));
+    }
+
+    /**
+     * <p>
+     *     A receiver that is blocked by a full queue can still be disconnected, and it stops passing on records once
+     *     the queue has room again.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void disconnect_while_a_full_queue_blocks_the_receiver() throws Exception {
+        final BoundedCommandQueue queue = new BoundedCommandQueue(new CommandQueueManager(), 1, OverflowPolicy.BLOCK);
+        receiver.addListener(command -> {
+            try {
+                queue.push(command);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        receiver.connect();
+
+        for (int i = 1; i <= 3; i++) {
+            TruffleRingTest.write(producer, i);
+        }
+
+        final CompletableFuture<Integer> polled = CompletableFuture.supplyAsync(receiver::poll);
+
+        // the second record waits for a free slot
+        while (queue.size() == 0) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        assertFalse(polled.isDone());
+
+        CompletableFuture.runAsync(receiver::disconnect).get(5, TimeUnit.SECONDS);
+
+        queue.pop();
+        assertEquals(2, (int) polled.get(5, TimeUnit.SECONDS));
+        assertEquals(1, queue.size());
+    }
+}
@@ -0,0 +1,264 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.ITruffleCommand;
+import edu.kit.trufflehog.command.trufflecommand.ReceiverErrorCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     This class contains all tests for {@link StreamSocketReceiver}. A server socket on the loopback interface acts
+ *     as the snort plugin, so snort is not needed.
+ * </p>
+ *
+ * @author Mark Giraud
+ */
+public class StreamSocketReceiverTest {
+
+    private static final int FRAME_SIZE = 4 + TruffleRecord.SIZE;
+
+    private ServerSocketChannel plugin;
+    private SocketChannel pluginSide;
+    private StreamSocketReceiver receiver;
+    private Thread receiverThread;
+    private BlockingQueue<ITruffleCommand> received;
+
+    @Before
+    public void setUp() throws Exception {
+        plugin = ServerSocketChannel.open();
+        plugin.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+        receiver = new StreamSocketReceiver(mock(INetworkWritingPort.class), mock(IFilter.class), plugin.getLocalAddress());
+
+        received = new LinkedBlockingQueue<>();
+        receiver.addListener(received::add);
+
+        receiverThread = new Thread(receiver);
+        receiverThread.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        receiver.disconnect();
+        receiverThread.interrupt();
+        receiverThread.join(1000);
+
+        if (pluginSide != null) {
+            pluginSide.close();
+        }
+
+        plugin.close();
+    }
+
+    /**
+     * <p>
+     *     Checks that complete frames are decoded and that a frame which arrives in two parts is decoded once the
+     *     second part arrived.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void run_decodes_complete_and_split_frames() throws Exception {
+        connect();
+
+        final ByteBuffer frames = ByteBuffer.allocate(3 * FRAME_SIZE).order(ByteOrder.nativeOrder());
+        frame(frames, 1);
+        frame(frames, 2);
+        frame(frames, 3);
+        frames.flip();
+
+        // the first two frames and half of the third one
+        frames.limit(2 * FRAME_SIZE + 70);
+        writeFully(frames);
+
+        assertTrue(poll() instanceof AddPacketDataCommand);
+        assertTrue(poll() instanceof AddPacketDataCommand);
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+
+        frames.limit(frames.capacity());
+        writeFully(frames);
+
+        assertTrue(poll() instanceof AddPacketDataCommand);
+    }
+
+    /**
+     * <p>
+     *     Checks that the bytes after the record of a longer frame are skipped.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void run_skips_additional_bytes_of_longer_frames() throws Exception {
+        connect();
+
+        final ByteBuffer frames = ByteBuffer.allocate(FRAME_SIZE + 16 + FRAME_SIZE).order(ByteOrder.nativeOrder());
+        frames.putInt(TruffleRecord.SIZE + 16);
+        record(frames, 1);
+        frames.put(new byte[16]);
+        frame(frames, 2);
+        frames.flip();
+
+        writeFully(frames);
+
+        assertTrue(poll() instanceof AddPacketDataCommand);
+        assertTrue(poll() instanceof AddPacketDataCommand);
+    }
+
+    /**
+     * <p>
+     *     Checks that the receiver disconnects if the plugin sends a frame that is shorter than a record.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void run_disconnects_on_invalid_frame_length() throws Exception {
+        connect();
+
+        final ByteBuffer frame = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+        frame.putInt(TruffleRecord.SIZE - 1).flip();
+        writeFully(frame);
+
+        assertEquals(StreamSocketReceiver.TRUFFLEHOG_DISCONNECT_REQUEST, readInt());
+    }
+
+    /**
+     * <p>
+     *     Checks that the rest of a frame of the previous connection is dropped after a reconnect, so the frames of
+     *     the new connection are decoded from their start.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void reconnect_drops_data_of_previous_connection() throws Exception {
+        connect();
+
+        final ByteBuffer half = ByteBuffer.allocate(FRAME_SIZE).order(ByteOrder.nativeOrder());
+        frame(half, 1);
+        half.flip().limit(70);
+        writeFully(half);
+        Thread.sleep(100);
+
+        receiver.disconnect();
+        assertEquals(StreamSocketReceiver.TRUFFLEHOG_DISCONNECT_REQUEST, readInt());
+        pluginSide.close();
+
+        connect();
+
+        final ByteBuffer frames = ByteBuffer.allocate(2 * FRAME_SIZE).order(ByteOrder.nativeOrder());
+        frame(frames, 2);
+        frame(frames, 3);
+        frames.flip();
+        writeFully(frames);
+
+        assertTrue(poll() instanceof AddPacketDataCommand);
+        assertTrue(poll() instanceof AddPacketDataCommand);
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void connect_sends_error_if_plugin_is_not_running() throws Exception {
+        final SocketAddress address = plugin.getLocalAddress();
+        plugin.close();
+
+        final StreamSocketReceiver other = new StreamSocketReceiver(mock(INetworkWritingPort.class), mock(IFilter.class), address);
+        other.addListener(received::add);
+
+        other.connect();
+
+        assertTrue(received.poll() instanceof ReceiverErrorCommand);
+    }
+
+    /**
+     * <p>
+     *     Checks that the unauthenticated loopback port is only used as the default address if it was allowed.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void default_address_needs_opt_in_for_loopback_port() throws Exception {
+        assertNull(StreamSocketReceiver.defaultAddress("no.such.AddressClass", false));
+        assertEquals(new InetSocketAddress(InetAddress.getLoopbackAddress(), StreamSocketReceiver.DEFAULT_PORT),
+                StreamSocketReceiver.defaultAddress("no.such.AddressClass", true));
+    }
+
+    /**
+     * Connects the receiver and answers its connect request on the plugin side.
+     */
+    private void connect() throws Exception {
+        final Thread handshake = new Thread(() -> {
+            try {
+                pluginSide = plugin.accept();
+
+                if (readInt() != StreamSocketReceiver.TRUFFLEHOG_CONNECT_REQUEST) {
+                    return;
+                }
+
+                final ByteBuffer response = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+                response.putInt(StreamSocketReceiver.SNORT_CONNECT_RESPONSE).flip();
+                writeFully(response);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        handshake.start();
+        receiver.connect();
+        handshake.join();
+
+        assertNull(received.peek());
+    }
+
+    private ITruffleCommand poll() throws InterruptedException {
+        return received.poll(5, TimeUnit.SECONDS);
+    }
+
+    private int readInt() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
+
+        while (buffer.hasRemaining()) {
+            if (pluginSide.read(buffer) < 0) {
+                return -1;
+            }
+        }
+
+        return buffer.getInt(0);
+    }
+
+    private void writeFully(final ByteBuffer buffer) throws Exception {
+        while (buffer.hasRemaining()) {
+            pluginSide.write(buffer);
+        }
+    }
+
+    private static void frame(final ByteBuffer buffer, final long sourceMac) {
+        buffer.putInt(TruffleRecord.SIZE);
+        record(buffer, sourceMac);
+    }
+
+    private static void record(final ByteBuffer buffer, final long sourceMac) {
+        final int start = buffer.position();
+        buffer.put(new byte[TruffleRecord.SIZE]);
+        buffer.putLong(start + TruffleRecord.SRC_MAC, sourceMac);
+        buffer.putLong(start + TruffleRecord.DST_MAC, 1);
+    }
+}
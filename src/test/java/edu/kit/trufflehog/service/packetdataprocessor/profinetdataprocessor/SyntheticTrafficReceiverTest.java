@@ -0,0 +1,112 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     This class contains all tests for {@link SyntheticTrafficReceiver}. The tests call the generator directly,
+ *     so no thread is needed.
+ * </p>
+ *
+ * @author Mark Giraud
+ */
+public class SyntheticTrafficReceiverTest {
+
+    private SyntheticTrafficReceiver create(final TrafficModel model) {
+        return new SyntheticTrafficReceiver(mock(INetworkWritingPort.class), mock(IFilter.class), model);
+    }
+
+    @Test
+    public void next_is_reproducible_with_the_same_seed() throws Exception {
+        final TrafficModel model = new TrafficModel.Builder().devices(50).dcpRatio(0.1).churnProbability(0.01)
+                .arrivalProbability(0.01).seed(42).build();
+
+        final SyntheticTrafficReceiver first = create(model);
+        final SyntheticTrafficReceiver second = create(model);
+
+        for (int i = 0; i < 10000; i++) {
+            final Truffle a = first.next();
+            final Truffle b = second.next();
+
+            assertEquals(a.getSourceMac(), b.getSourceMac());
+            assertEquals(a.getDestMac(), b.getDestMac());
+            assertEquals(a.getXid(), b.getXid());
+        }
+
+        assertEquals(first.getDeviceCount(), second.getDeviceCount());
+    }
+
+    /**
+     * <p>
+     *     Every DCP identify request must be followed by a response to the requester with the same xid.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void next_answers_dcp_requests_with_the_same_xid() throws Exception {
+        final SyntheticTrafficReceiver receiver = create(new TrafficModel.Builder().dcpRatio(0.5).seed(1).build());
+
+        int requests = 0;
+
+        for (int i = 0; i < 1000; i++) {
+            final Truffle truffle = receiver.next();
+
+            if (truffle.getDestMac() == SyntheticTrafficReceiver.DCP_IDENTIFY_MULTICAST) {
+                requests++;
+
+                final Truffle response = receiver.next();
+
+                assertTrue(response.isResponse());
+                assertEquals(truffle.getXid(), response.getXid());
+                assertEquals(truffle.getSourceMac(), response.getDestMac());
+                assertFalse(response.getDeviceName() == null);
+            }
+        }
+
+        assertTrue(requests > 0);
+    }
+
+    @Test
+    public void next_prefers_top_talkers() throws Exception {
+        final SyntheticTrafficReceiver receiver = create(new TrafficModel.Builder().devices(100).talkerExponent(1.5)
+                .dcpRatio(0).multicastRatio(0).seed(7).build());
+
+        final long topTalker = 0x000ECF000001L;
+        final long lastTalker = 0x000ECF000064L;
+        int top = 0;
+        int last = 0;
+
+        for (int i = 0; i < 10000; i++) {
+            final long source = receiver.next().getSourceMac();
+
+            if (source == topTalker) top++;
+            if (source == lastTalker) last++;
+        }
+
+        assertTrue(top > 10 * last);
+    }
+
+    @Test
+    public void next_adds_devices_on_arrival() throws Exception {
+        final SyntheticTrafficReceiver receiver = create(new TrafficModel.Builder().devices(10).maxDevices(20)
+                .arrivalProbability(1).seed(3).build());
+
+        for (int i = 0; i < 100; i++) {
+            receiver.next();
+        }
+
+        assertEquals(20, receiver.getDeviceCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejects_invalid_ratio() throws Exception {
+        new TrafficModel.Builder().multicastRatio(1.5);
+    }
+}
@@ -0,0 +1,108 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * This class contains all tests for the {@link TruffleRecord} class.
+ *
+ * @author Mark Giraud
+ */
+public class TruffleRecordTest {
+
+    private ByteBuffer buffer;
+
+    @Before
+    public void setUp() throws Exception {
+        buffer = TruffleRecord.allocate(2);
+    }
+
+    /**
+     * <p>
+     *     Writes a DCP record into the second slot of the buffer and checks if all values are decoded correctly.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void decode_reads_dcp_record_correctly() throws Exception {
+        final int offset = TruffleRecord.SIZE;
+
+        buffer.putLong(offset + TruffleRecord.SRC_MAC, 0xAABBCCDDEEFFL);
+        buffer.putLong(offset + TruffleRecord.DST_MAC, 2);
+        buffer.putInt(offset + TruffleRecord.SRC_IP, 0xC0A80001);
+        buffer.putInt(offset + TruffleRecord.XID, 0xFFFFFFFF);
+        buffer.putShort(offset + TruffleRecord.ETHER_TYPE, (short) 0x8892);
+        buffer.putShort(offset + TruffleRecord.RESPONSE_DELAY, (short) 9);
+        buffer.put(offset + TruffleRecord.SERVICE_ID, (byte) 5);
+        buffer.put(offset + TruffleRecord.SERVICE_TYPE, (byte) 1);
+        buffer.put(offset + TruffleRecord.IS_RESPONSE, (byte) 1);
+        buffer.put(offset + TruffleRecord.FLAGS, (byte) (TruffleRecord.FLAG_DCP | TruffleRecord.FLAG_NAME));
+        putString(offset + TruffleRecord.NAME_OF_STATION, "plc-1");
+        putString(offset + TruffleRecord.SERVICE_ID_NAME, "Identify");
+        putString(offset + TruffleRecord.SERVICE_TYPE_NAME, "Response Success");
+
+        final Truffle truffle = TruffleRecord.decode(buffer, offset);
+
+        assertEquals(new MacAddress(0xAABBCCDDEEFFL), truffle.getAttribute(MacAddress.class, "sourceMacAddress"));
+        assertEquals(new MacAddress(2), truffle.getAttribute(MacAddress.class, "destMacAddress"));
+        assertEquals(new IPAddress(0xC0A80001L), truffle.getAttribute(IPAddress.class, "sourceIPAddress"));
+        assertEquals("plc-1", truffle.getAttribute(String.class, "deviceName"));
+        assertEquals(new Integer(0x8892), truffle.getAttribute(Integer.class, "etherType"));
+        assertEquals(new Integer(5), truffle.getAttribute(Integer.class, "serviceID"));
+        assertEquals("Identify", truffle.getAttribute(String.class, "serviceIDName"));
+        assertEquals(new Integer(1), truffle.getAttribute(Integer.class, "serviceType"));
+        assertEquals("Response Success", truffle.getAttribute(String.class, "serviceTypeName"));
+        assertEquals(new Long(0xFFFFFFFFL), truffle.getAttribute(Long.class, "xid"));
+        assertEquals(new Integer(9), truffle.getAttribute(Integer.class, "responseDelay"));
+        assertEquals(true, truffle.getAttribute(Boolean.class, "isResponse"));
+    }
+
+    /**
+     * <p>
+     *     Checks that a string filling the whole field without a terminating NUL is still decoded.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void decode_reads_strings_of_maximum_length() throws Exception {
+        final String name = "abcdefghijklmnopqrstuvwxyz012345";
+
+        buffer.put(TruffleRecord.FLAGS, (byte) (TruffleRecord.FLAG_DCP | TruffleRecord.FLAG_NAME));
+        putString(TruffleRecord.NAME_OF_STATION, name);
+
+        assertEquals(name, TruffleRecord.decode(buffer, 0).getAttribute(String.class, "deviceName"));
+    }
+
+    /**
+     * <p>
+     *     Checks that the DCP strings are omitted if the record does not originate from a DCP frame.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void decode_omits_strings_of_non_dcp_records() throws Exception {
+        putString(TruffleRecord.NAME_OF_STATION, "ignored");
+        putString(TruffleRecord.SERVICE_ID_NAME, "ignored");
+
+        final Truffle truffle = TruffleRecord.decode(buffer, 0);
+
+        assertNull(truffle.getAttribute(String.class, "deviceName"));
+        assertNull(truffle.getAttribute(String.class, "serviceIDName"));
+    }
+
+    private void putString(final int offset, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(offset + i, bytes[i]);
+        }
+    }
+}
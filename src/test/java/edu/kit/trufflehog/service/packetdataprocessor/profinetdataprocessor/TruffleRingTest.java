@@ -0,0 +1,146 @@
+package edu.kit.trufflehog.service.packetdataprocessor.profinetdataprocessor;
+
+import edu.kit.trufflehog.model.network.MacAddress;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class contains all tests for the {@link TruffleRing} class.
+ *
+ * @author Mark Giraud
+ */
+public class TruffleRingTest {
+
+    private Path ringFile;
+    private TruffleRing producer;
+
+    @Before
+    public void setUp() throws Exception {
+        ringFile = Files.createTempFile("trufflehog", ".ring");
+        producer = TruffleRing.create(ringFile, 4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        producer.close();
+        Files.deleteIfExists(ringFile);
+    }
+
+    /**
+     * <p>
+     *     Checks that the producer cannot overwrite records the consumer has not released yet.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void claim_fails_if_ring_is_full() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(TruffleRing.DATA_OFFSET + i * TruffleRecord.SIZE, producer.claim());
+            producer.publish();
+        }
+
+        assertEquals(-1, producer.claim());
+
+        try (TruffleRing consumer = TruffleRing.open(ringFile)) {
+            consumer.release(1);
+        }
+
+        assertEquals(TruffleRing.DATA_OFFSET, producer.claim());
+    }
+
+    /**
+     * <p>
+     *     Writes more records than the ring has slots and checks that the consumer reads all of them in order.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void consumer_reads_published_records_in_order_across_wrap_around() throws Exception {
+        try (TruffleRing consumer = TruffleRing.open(ringFile)) {
+
+            long next = 1;
+
+            for (int round = 0; round < 5; round++) {
+                assertEquals(0, consumer.available());
+
+                for (int i = 0; i < 3; i++) {
+                    write(producer, next + i);
+                }
+
+                assertEquals(3, consumer.available());
+
+                for (int i = 0; i < 3; i++) {
+                    final int offset = consumer.recordOffset(consumer.getReadIndex() + i);
+                    assertEquals(new MacAddress(next + i),
+                            TruffleRecord.decode(consumer.getBuffer(), offset).getAttribute(MacAddress.class, "sourceMacAddress"));
+                }
+
+                consumer.release(3);
+                next += 3;
+            }
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks that a write index behind the read index or beyond the capacity does not make any record readable.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void available_ignores_invalid_write_index() throws Exception {
+        try (TruffleRing consumer = TruffleRing.open(ringFile)) {
+
+            write(producer, 1);
+            write(producer, 2);
+            consumer.release(consumer.available());
+
+            producer.getBuffer().putLong(TruffleRing.WRITE_INDEX_OFFSET, 0);
+            assertEquals(0, consumer.available());
+
+            producer.getBuffer().putLong(TruffleRing.WRITE_INDEX_OFFSET, 2 + 5);
+            assertEquals(0, consumer.available());
+            assertEquals(2, consumer.getReadIndex());
+        }
+    }
+
+    /**
+     * <p>
+     *     Checks that files which are no truffle rings are rejected.
+     * </p>
+     * @throws Exception
+     */
+    @Test(expected = IOException.class)
+    public void open_rejects_invalid_files() throws Exception {
+        final Path other = Files.createTempFile("trufflehog", ".other");
+
+        try {
+            Files.write(other, new byte[TruffleRing.DATA_OFFSET]);
+            TruffleRing.open(other);
+        } finally {
+            Files.deleteIfExists(other);
+        }
+    }
+
+    static void write(final TruffleRing ring, final long sourceMac) {
+        final int offset = ring.claim();
+        final ByteBuffer buffer = ring.getBuffer();
+
+        for (int i = 0; i < TruffleRecord.SIZE; i++) {
+            buffer.put(offset + i, (byte) 0);
+        }
+
+        buffer.putLong(offset + TruffleRecord.SRC_MAC, sourceMac);
+        buffer.putLong(offset + TruffleRecord.DST_MAC, 1);
+
+        ring.publish();
+    }
+}
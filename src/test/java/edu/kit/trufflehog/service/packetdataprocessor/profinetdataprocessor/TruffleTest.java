@@ -93,4 +93,55 @@ public class TruffleTest {
 
         assertEquals(new Integer(21), truffle.getAttribute(Integer.class, "myInt"));
     }
-}
\ No newline at end of file
+
+    /**
+     * <p>
+     *     Checks that the typed getters return the values passed to buildTruffle without going through the
+     *     attribute lookup.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void typed_getters_return_built_values() throws Exception {
+        final Truffle truffle = Truffle.buildTruffle(1, 2, 0xFFFFFFFFL, 4, "test", 5, 6, null, 7, "type", 8, 9, 0);
+
+        assertEquals(1, truffle.getSourceMac());
+        assertEquals(2, truffle.getDestMac());
+        assertEquals(0xFFFFFFFFL, truffle.getSourceIP());
+        assertEquals(4, truffle.getDestIP());
+        assertEquals("test", truffle.getDeviceName());
+        assertEquals(5, truffle.getEtherType());
+        assertEquals(6, truffle.getServiceID());
+        assertNull(truffle.getServiceIDName());
+        assertEquals(7, truffle.getServiceType());
+        assertEquals("type", truffle.getServiceTypeName());
+        assertEquals(8, truffle.getXid());
+        assertEquals(9, truffle.getResponseDelay());
+        assertEquals(false, truffle.isResponse());
+
+        assertEquals(new IPAddress(0xFFFFFFFFL), truffle.getSourceIPAddress());
+        assertEquals("type", truffle.getAttribute(String.class, "serviceTypeName"));
+        assertNull(truffle.getAttribute(String.class, "serviceIDName"));
+    }
+
+    @Test
+    public void buildTruffle_omits_invalid_destination_ip_address() throws Exception {
+        final Truffle truffle = Truffle.buildTruffle(1, 2, 3, -1, null, 0, 0, null, 0, null, 0, 0, 0);
+
+        assertEquals(false, truffle.hasDestIP());
+        assertNull(truffle.getAttribute(IPAddress.class, "destIPAddress"));
+    }
+
+    @Test(expected = InvalidProfinetPacket.class)
+    public void buildTruffle_rejects_invalid_mac_address() throws Exception {
+        Truffle.buildTruffle(0x1000000000000L, 2, 3, 4, null, 0, 0, null, 0, null, 0, 0, 0);
+    }
+
+    @Test
+    public void getAttribute_returns_null_for_wrong_type() throws Exception {
+        final Truffle truffle = Truffle.buildTruffle(1, 2, 3, 4, null, 5, 0, null, 0, null, 0, 0, 0);
+
+        assertNull(truffle.getAttribute(Short.class, "etherType"));
+        assertEquals(new Integer(5), truffle.getAttribute(Integer.class, "etherType"));
+    }
+}
@@ -0,0 +1,247 @@
+package edu.kit.trufflehog.service.replaylogging;
+
+import edu.kit.trufflehog.command.ICommand;
+import edu.kit.trufflehog.command.trufflecommand.AddPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.AggregatedPacketDataCommand;
+import edu.kit.trufflehog.command.trufflecommand.DuplicatePacketCommand;
+import edu.kit.trufflehog.model.filter.IFilter;
+import edu.kit.trufflehog.model.network.INetworkWritingPort;
+import edu.kit.trufflehog.model.network.IPAddress;
+import edu.kit.trufflehog.model.network.MacAddress;
+import edu.kit.trufflehog.service.packetdataprocessor.IPacketData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * <p>
+ *     Test for the {@link CommandCompressor} class.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class CommandCompressorTest {
+
+    private CommandCompressor compressor;
+    private INetworkWritingPort writingPort;
+    private IFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        compressor = new CommandCompressor();
+        writingPort = mock(INetworkWritingPort.class);
+        filter = mock(IFilter.class);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testCompressNull() throws Exception {
+        compressor.compressCommands(null);
+    }
+
+    @Test
+    public void testCompressEmptyList() throws Exception {
+        assertTrue(compressor.compressCommands(new ArrayList<>()).isEmpty());
+    }
+
+    /**
+     * <p>
+     *     The packets of a pair are merged into the command at the position of its first packet and keep their order.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testMergePerPair() throws Exception {
+        final IPacketData[] packets = {
+                packet(1, 2), packet(3, 4), packet(1, 2), packet(2, 1), packet(3, 4), packet(1, 2)
+        };
+
+        final List<ICommand> compressed = compressor.compressCommands(commands(packets));
+
+        assertEquals(3, compressed.size());
+
+        assertPair(compressed.get(0), 1, 2, packets[0], packets[2], packets[5]);
+        assertPair(compressed.get(1), 3, 4, packets[1], packets[4]);
+        assertPair(compressed.get(2), 2, 1, packets[3]);
+    }
+
+    /**
+     * <p>
+     *     A packet of the same source to another destination closes the open pair of the source, so the packets of a
+     *     source are not reordered.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testOtherPairOfSourceClosesPair() throws Exception {
+        final IPacketData[] packets = {
+                packet(1, 2), packet(1, 5), packet(1, 2), packet(3, 2), packet(1, 2)
+        };
+
+        final List<ICommand> compressed = compressor.compressCommands(commands(packets));
+
+        assertEquals(4, compressed.size());
+
+        assertPair(compressed.get(0), 1, 2, packets[0]);
+        assertPair(compressed.get(1), 1, 5, packets[1]);
+        assertPair(compressed.get(2), 1, 2, packets[2], packets[4]);
+        assertPair(compressed.get(3), 3, 2, packets[3]);
+    }
+
+    /**
+     * <p>
+     *     The duplicates of a pair are merged into one command and do not close the open pairs.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testDuplicatesAreMergedPerPair() throws Exception {
+        final IPacketData first = packet(1, 2);
+        final IPacketData second = packet(1, 2);
+        final DuplicatePacketCommand duplicate = duplicate(1, 2);
+
+        final List<ICommand> commands = new ArrayList<>();
+        commands.add(new AddPacketDataCommand(writingPort, first, filter));
+        commands.add(duplicate);
+        commands.add(duplicate(1, 5));
+        commands.add(duplicate(1, 2));
+        commands.add(new AddPacketDataCommand(writingPort, second, filter));
+
+        final List<ICommand> compressed = compressor.compressCommands(commands);
+
+        assertEquals(3, compressed.size());
+        assertPair(compressed.get(0), 1, 2, first, second);
+
+        final DuplicatePacketCommand merged = (DuplicatePacketCommand) compressed.get(1);
+        assertEquals(MacAddress.of(2), merged.getDestAddress());
+        assertEquals(2, merged.getCount());
+        assertEquals(1, ((DuplicatePacketCommand) compressed.get(2)).getCount());
+
+        // the commands that were passed in are not changed
+        assertEquals(1, duplicate.getCount());
+    }
+
+    /**
+     * <p>
+     *     Other commands are neither merged nor moved and packets are never merged across them.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testOtherCommandsAreBarriers() throws Exception {
+        final IPacketData first = packet(1, 2);
+        final IPacketData second = packet(1, 2);
+        final ICommand barrier = mock(ICommand.class);
+
+        final List<ICommand> commands = new ArrayList<>();
+        commands.add(new AddPacketDataCommand(writingPort, first, filter));
+        commands.add(barrier);
+        commands.add(new AddPacketDataCommand(writingPort, second, filter));
+
+        final List<ICommand> compressed = compressor.compressCommands(commands);
+
+        assertEquals(3, compressed.size());
+        assertPair(compressed.get(0), 1, 2, first);
+        assertSame(barrier, compressed.get(1));
+        assertPair(compressed.get(2), 1, 2, second);
+    }
+
+    @Test
+    public void testDifferentWritingPortsAreNotMerged() throws Exception {
+        final List<ICommand> commands = new ArrayList<>();
+        commands.add(new AddPacketDataCommand(writingPort, packet(1, 2), filter));
+        commands.add(new AddPacketDataCommand(mock(INetworkWritingPort.class), packet(1, 2), filter));
+
+        assertEquals(2, compressor.compressCommands(commands).size());
+    }
+
+    /**
+     * <p>
+     *     A packet without addresses cannot be merged and is passed on as it is.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPacketWithoutAddressIsKept() throws Exception {
+        final ICommand command = new AddPacketDataCommand(writingPort, new PacketData(), filter);
+
+        final List<ICommand> compressed = compressor.compressCommands(Arrays.asList(command));
+
+        assertEquals(1, compressed.size());
+        assertSame(command, compressed.get(0));
+    }
+
+    @Test
+    public void testLatestResponseWins() throws Exception {
+        final PacketData hello = packet(1, 2);
+        hello.attributes.put("isResponse", true);
+        hello.attributes.put("deviceName", "first");
+
+        final PacketData request = packet(1, 2);
+        request.attributes.put("isResponse", false);
+        request.attributes.put("deviceName", "ignored");
+
+        final PacketData response = packet(1, 2);
+        response.attributes.put("isResponse", true);
+        response.attributes.put("deviceName", "second");
+        response.attributes.put("sourceIPAddress", IPAddress.INVALID_ADDRESS);
+
+        final List<ICommand> compressed = compressor.compressCommands(commands(hello, request, response));
+
+        assertEquals(1, compressed.size());
+        assertEquals("second", ((AggregatedPacketDataCommand) compressed.get(0)).getDeviceName());
+        assertEquals(null, ((AggregatedPacketDataCommand) compressed.get(0)).getSourceIPAddress());
+    }
+
+    private List<ICommand> commands(final IPacketData... packets) {
+        final List<ICommand> commands = new ArrayList<>();
+
+        for (final IPacketData packet : packets) {
+            commands.add(new AddPacketDataCommand(writingPort, packet, filter));
+        }
+
+        return commands;
+    }
+
+    private DuplicatePacketCommand duplicate(final long source, final long dest) throws Exception {
+        return new DuplicatePacketCommand(writingPort, MacAddress.of(source), MacAddress.of(dest), 1);
+    }
+
+    private static void assertPair(final ICommand command, final long source, final long dest,
+                                   final IPacketData... packets) throws Exception {
+        final AggregatedPacketDataCommand aggregated = (AggregatedPacketDataCommand) command;
+
+        assertEquals(MacAddress.of(source), aggregated.getSourceAddress());
+        assertEquals(MacAddress.of(dest), aggregated.getDestAddress());
+        assertEquals(packets.length, aggregated.getPacketCount());
+        assertEquals(Arrays.asList(packets), aggregated.getPackets());
+    }
+
+    static PacketData packet(final long source, final long dest) throws Exception {
+        final PacketData packet = new PacketData();
+        packet.attributes.put("sourceMacAddress", MacAddress.of(source));
+        packet.attributes.put("destMacAddress", MacAddress.of(dest));
+        return packet;
+    }
+
+    static final class PacketData implements IPacketData {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override
+        public <T> T getAttribute(final Class<T> attributeType, final String attributeIdentifier) {
+            final Object attribute = attributes.get(attributeIdentifier);
+            return attributeType.isInstance(attribute) ? attributeType.cast(attribute) : null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package edu.kit.trufflehog.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains all tests for the {@link LongPairIndex} class.
+ *
+ * @author Mark Giraud
+ */
+public class LongPairIndexTest {
+
+    private LongPairIndex<String> index;
+
+    @Before
+    public void setUp() throws Exception {
+        index = new LongPairIndex<>();
+    }
+
+    /**
+     * <p>
+     *     Both parts of the key are compared and put replaces the value of a key.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void put_and_get() throws Exception {
+        assertNull(index.put(1, 2, "a"));
+        assertNull(index.put(2, 1, "b"));
+
+        assertEquals("a", index.get(1, 2));
+        assertEquals("b", index.get(2, 1));
+        assertNull(index.get(1, 1));
+
+        assertEquals("a", index.put(1, 2, "c"));
+        assertEquals("c", index.putIfAbsent(1, 2, "d"));
+        assertEquals("c", index.get(1, 2));
+        assertEquals(2, index.size());
+    }
+
+    /**
+     * <p>
+     *     Removed keys are not found anymore, but the keys behind them in the probe sequence still are.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void remove_keeps_other_keys() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            index.put(i, -i, "v" + i);
+        }
+
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals("v" + i, index.remove(i, -i));
+        }
+
+        assertNull(index.remove(0, 0));
+        assertEquals(500, index.size());
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 0 ? null : "v" + i, index.get(i, -i));
+        }
+
+        // the slots of the removed keys are reused
+        for (int i = 0; i < 1000; i += 2) {
+            assertNull(index.putIfAbsent(i, -i, "w" + i));
+        }
+
+        assertEquals(1000, index.size());
+        assertEquals(1000, index.values().size());
+        assertEquals("w998", index.get(998, -998));
+
+        index.clear();
+
+        assertEquals(0, index.size());
+        assertNull(index.get(1, -1));
+    }
+
+    /**
+     * <p>
+     *     A reader never misses a key that was added before it started, while a writer grows the index.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void reads_during_growth() throws Exception {
+        final int stable = 100;
+
+        for (int i = 0; i < stable; i++) {
+            index.put(i, i, "s" + i);
+        }
+
+        final AtomicBoolean done = new AtomicBoolean(false);
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final CountDownLatch started = new CountDownLatch(1);
+
+        final Thread reader = new Thread(() -> {
+            started.countDown();
+
+            while (!done.get()) {
+                for (int i = 0; i < stable; i++) {
+                    if (!("s" + i).equals(index.get(i, i))) {
+                        failure.set("missed key " + i);
+                        return;
+                    }
+                }
+            }
+        });
+
+        reader.start();
+        started.await();
+
+        for (int i = stable; i < 100000; i++) {
+            index.put(i, i, "g");
+        }
+
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+        assertEquals(100000, index.size());
+        assertTrue(index.values().contains("s0"));
+    }
+}
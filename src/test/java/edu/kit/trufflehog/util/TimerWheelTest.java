@@ -0,0 +1,110 @@
+package edu.kit.trufflehog.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains all tests for the {@link TimerWheel} class.
+ *
+ * @author Mark Giraud
+ */
+public class TimerWheelTest {
+
+    /**
+     * <p>
+     *     Every item expires within the first tick after its deadline, on every level of the wheel and beyond it.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void items_expire_in_the_tick_of_their_deadline() throws Exception {
+        final TimerWheel<Long> wheel = new TimerWheel<>(10, 0);
+        final Random random = new Random(42);
+        final Map<Long, Long> expiredAt = new HashMap<>();
+
+        final List<Long> deadlines = new ArrayList<>();
+        deadlines.add(640L);
+        deadlines.add(40960L);
+        deadlines.add(10L * (1L << 24) + 5);
+
+        for (int i = 0; i < 2000; i++) {
+            deadlines.add((long) random.nextInt(30_000_000));
+        }
+
+        for (final long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        long now = 0;
+
+        while (wheel.size() > 0) {
+            now += 10;
+
+            final long time = now;
+            wheel.advance(now, deadline -> expiredAt.put(deadline, time));
+        }
+
+        for (final long deadline : deadlines) {
+            final long expired = expiredAt.get(deadline);
+
+            assertTrue("early " + deadline, expired >= deadline);
+            assertTrue("late " + deadline, expired < deadline + 20);
+        }
+    }
+
+    /**
+     * <p>
+     *     A cancelled item does not expire and items can be scheduled again while the wheel expires others.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void cancel_and_reschedule() throws Exception {
+        final TimerWheel<String> wheel = new TimerWheel<>(1000, 5000);
+        final List<String> expired = new ArrayList<>();
+
+        final TimerWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 8000);
+        wheel.schedule("renewed", 7000);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertFalse(cancelled.isScheduled());
+
+        wheel.advance(7000, item -> {
+            expired.add(item);
+            wheel.schedule(item + " again", 9000);
+        });
+
+        assertEquals(1, expired.size());
+        assertEquals(1, wheel.advance(60000, expired::add));
+        assertEquals("renewed again", expired.get(1));
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * <p>
+     *     An item whose deadline passed already expires with the next tick.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void past_deadline_expires_next_tick() throws Exception {
+        final TimerWheel<String> wheel = new TimerWheel<>(100, 0);
+        final List<String> expired = new ArrayList<>();
+
+        wheel.advance(1000, expired::add);
+        wheel.schedule("late", 200);
+
+        assertEquals(0, wheel.advance(1099, expired::add));
+        assertEquals(1, wheel.advance(1100, expired::add));
+    }
+}
@@ -0,0 +1,171 @@
+package edu.kit.trufflehog.util.bindings;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class contains all tests for the {@link FrameUpdateBridge} class.
+ *
+ * @author Mark Giraud
+ */
+public class FrameUpdateBridgeTest {
+
+    private final List<String> shown = new ArrayList<>();
+
+    /**
+     * <p>
+     *     An element that is changed several times before a frame is shown once, with the latest action.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void changes_are_coalesced() throws Exception {
+        final FrameUpdateBridge bridge = new FrameUpdateBridge(Long.MAX_VALUE / 2);
+        final Object edge = new Object();
+
+        bridge.changed(edge, () -> shown.add("first"));
+        bridge.changed(edge, () -> shown.add("second"));
+        bridge.changed(edge, () -> shown.add("third"));
+
+        assertEquals(1, bridge.getPendingCount());
+        assertEquals(1, bridge.runFrame());
+        assertEquals(Arrays.asList("third"), shown);
+        assertEquals(0, bridge.runFrame());
+    }
+
+    /**
+     * <p>
+     *     While elements wait to be added, every frame still runs a change of an element that is shown.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void changes_run_while_additions_wait() throws Exception {
+        final FrameUpdateBridge bridge = new FrameUpdateBridge(0);
+
+        for (int i = 0; i < 3; i++) {
+            final String name = "node " + i;
+            bridge.added(name, () -> shown.add(name));
+        }
+
+        bridge.changed("edge", () -> shown.add("change edge"));
+
+        assertEquals(2, bridge.runFrame());
+        assertEquals(Arrays.asList("node 0", "change edge"), shown);
+        assertEquals(2, bridge.getPendingCount());
+    }
+
+    /**
+     * <p>
+     *     A change of an element that waits to be added runs right after its addition.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void change_waits_for_its_addition() throws Exception {
+        final FrameUpdateBridge bridge = new FrameUpdateBridge(0);
+
+        bridge.added("node 0", () -> shown.add("add node 0"));
+        bridge.added("node 1", () -> shown.add("add node 1"));
+        bridge.changed("node 1", () -> shown.add("change node 1"));
+
+        assertEquals(1, bridge.runFrame());
+        assertEquals(Arrays.asList("add node 0"), shown);
+
+        assertEquals(1, bridge.runFrame());
+        assertEquals(Arrays.asList("add node 0", "add node 1", "change node 1"), shown);
+        assertEquals(0, bridge.getPendingCount());
+    }
+
+    /**
+     * <p>
+     *     A removal is kept for its instance and is not replaced by a change or the removal of an equal element.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void removals_are_not_overwritten() throws Exception {
+        final FrameUpdateBridge bridge = new FrameUpdateBridge(Long.MAX_VALUE / 2);
+        final String oldEdge = new String("edge");
+        final String newEdge = new String("edge");
+
+        bridge.removed(oldEdge, () -> shown.add("remove old edge"));
+        bridge.changed(newEdge, () -> shown.add("change new edge"));
+        bridge.removed(newEdge, () -> shown.add("remove new edge"));
+        bridge.removed(oldEdge, () -> shown.add("remove old edge again"));
+
+        assertEquals(3, bridge.getPendingCount());
+        assertEquals(3, bridge.runFrame());
+        assertEquals(Arrays.asList("change new edge", "remove old edge", "remove new edge"), shown);
+        assertEquals(0, bridge.getPendingCount());
+    }
+
+    /**
+     * <p>
+     *     A removal of an element that waits to be added runs after the addition.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void removal_waits_for_its_addition() throws Exception {
+        final FrameUpdateBridge bridge = new FrameUpdateBridge(0);
+
+        bridge.added("node 0", () -> shown.add("add node 0"));
+        bridge.added("node 1", () -> shown.add("add node 1"));
+        bridge.removed("node 1", () -> shown.add("remove node 1"));
+
+        assertEquals(1, bridge.runFrame());
+        assertEquals(Arrays.asList("add node 0"), shown);
+
+        assertEquals(1, bridge.runFrame());
+        assertEquals(Arrays.asList("add node 0", "add node 1", "remove node 1"), shown);
+        assertEquals(0, bridge.getPendingCount());
+    }
+
+    /**
+     * <p>
+     *     With enough budget the added elements are shown in their order and before the changes.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void additions_come_before_changes() throws Exception {
+        final FrameUpdateBridge bridge = new FrameUpdateBridge(Long.MAX_VALUE / 2);
+        final Object node = new Object();
+        final Object edge = new Object();
+
+        bridge.changed(node, () -> shown.add("change node"));
+        bridge.added(node, () -> shown.add("add node"));
+        bridge.added(edge, () -> shown.add("add edge"));
+
+        assertEquals(3, bridge.runFrame());
+        assertEquals(Arrays.asList("add node", "add edge", "change node"), shown);
+    }
+
+    /**
+     * <p>
+     *     A frame without budget runs one action and leaves the rest for the next frames.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void budget_limits_a_frame() throws Exception {
+        final FrameUpdateBridge bridge = new FrameUpdateBridge(0);
+
+        for (int i = 0; i < 3; i++) {
+            final String name = "node " + i;
+            bridge.added(name, () -> shown.add(name));
+        }
+
+        assertEquals(1, bridge.runFrame());
+        assertEquals(2, bridge.getPendingCount());
+        assertEquals(1, bridge.runFrame());
+        assertEquals(1, bridge.runFrame());
+        assertEquals(Arrays.asList("node 0", "node 1", "node 2"), shown);
+    }
+}
@@ -59,6 +59,37 @@ public class MaximumOfValuesBindingTest {
         assertEquals(20, platBinded.get());
     }
 
+    /**
+     * <p>
+     *     An unbound property does not count for the maximum anymore, the maximum falls back to the remaining
+     *     properties.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testUnbindProperty() throws Exception {
+
+        final IntegerProperty int1 = new SimpleIntegerProperty(5);
+        final IntegerProperty int2 = new SimpleIntegerProperty(10);
+        final IntegerProperty unknown = new SimpleIntegerProperty(20);
+
+        binding.bindProperty(int1);
+        binding.bindProperty(int2);
+        assertEquals(10, binding.get());
+
+        binding.unbindProperty(unknown);
+        assertEquals(10, binding.get());
+
+        binding.unbindProperty(int2);
+        assertEquals(5, binding.get());
+
+        int2.set(30);
+        assertEquals(5, binding.get());
+
+        binding.unbindProperty(int1);
+        assertEquals(0, binding.get());
+    }
+
     @Test
     public void testComputeValue() throws Exception {
 
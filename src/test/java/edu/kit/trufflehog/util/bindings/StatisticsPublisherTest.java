@@ -0,0 +1,90 @@
+package edu.kit.trufflehog.util.bindings;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class contains all tests for the {@link StatisticsPublisher} class.
+ *
+ * @author Mark Giraud
+ */
+public class StatisticsPublisherTest {
+
+    private List<Runnable> fxQueue;
+    private StatisticsPublisher publisher;
+
+    @Before
+    public void setUp() throws Exception {
+        fxQueue = new ArrayList<>();
+        publisher = new StatisticsPublisher(fxQueue::add);
+    }
+
+    /**
+     * <p>
+     *     All changed objects are published with a single call to the fx thread.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void changed_objects_are_published_together() throws Exception {
+        final CountingPublishable first = new CountingPublishable();
+        final CountingPublishable second = new CountingPublishable();
+
+        publisher.changed(first);
+        publisher.changed(second);
+        publisher.publishChanged();
+
+        assertEquals(1, fxQueue.size());
+        assertEquals(0, first.published);
+
+        fxQueue.remove(0).run();
+
+        assertEquals(1, first.published);
+        assertEquals(1, second.published);
+    }
+
+    /**
+     * <p>
+     *     No new call is queued while the previous one did not run, and nothing is queued without changes.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void waits_for_the_fx_thread() throws Exception {
+        final CountingPublishable publishable = new CountingPublishable();
+
+        publisher.publishChanged();
+        assertEquals(0, fxQueue.size());
+
+        publisher.changed(publishable);
+        publisher.publishChanged();
+        publisher.changed(publishable);
+        publisher.publishChanged();
+
+        assertEquals(1, fxQueue.size());
+
+        fxQueue.remove(0).run();
+        publisher.publishChanged();
+
+        assertEquals(1, fxQueue.size());
+
+        fxQueue.remove(0).run();
+
+        assertEquals(2, publishable.published);
+    }
+
+    private static final class CountingPublishable implements IPublishable {
+
+        private int published = 0;
+
+        @Override
+        public void publish() {
+            published++;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package edu.kit.trufflehog.util.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>
+ *     Test for the {@link LatencyHistogram} class.
+ * </p>
+ *
+ * @author Mark Giraud
+ * @version 1.0
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmptySnapshot() throws Exception {
+        final LatencySnapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMeanNanos());
+        assertEquals(0, snapshot.getP99Nanos());
+        assertEquals(0, snapshot.getMaxNanos());
+    }
+
+    /**
+     * <p>
+     *     This test checks if the percentiles fall into the bucket of the recorded durations and never exceed the
+     *     longest duration.
+     * </p>
+     * @throws Exception
+     */
+    @Test
+    public void testPercentiles() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+
+        histogram.record(10000);
+
+        final LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(199, snapshot.getMeanNanos());
+        assertEquals(10000, snapshot.getMaxNanos());
+
+        // 100 falls into the bucket [64, 128)
+        assertEquals(127, snapshot.getP50Nanos());
+        assertEquals(127, snapshot.getP90Nanos());
+        assertEquals(127, snapshot.getP99Nanos());
+
+        histogram.record(10000);
+
+        assertEquals(10000, histogram.snapshot().getP99Nanos());
+    }
+
+    @Test
+    public void testNegativeDurationIsZero() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-5);
+
+        final LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(1, snapshot.getCount());
+        assertEquals(0, snapshot.getMaxNanos());
+        assertTrue(snapshot.getP50Nanos() <= snapshot.getMaxNanos());
+    }
+}